@@ -0,0 +1,127 @@
+#!/usr/bin/env bash
+#
+# Starts several instances of the JVM jar against one database, the way a
+# multi-node deployment runs them, and checks the parts that must hold across
+# instances: every node sees the whole ring, node-to-node endpoints and forwarded
+# requests are only trusted with the cluster secret, exactly one node relays the
+# outbox, and the relay moves to another node when its holder stops.
+#
+# Needs curl and the same database and environment variables as a normal run. When
+# SMOKE_EMAIL and SMOKE_PASSWORD name an existing admin account, the checks also
+# read /admin/cluster on every node.
+#
+# Usage: scripts/cluster-smoke-test.sh [instances]
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+INSTANCES=${1:-3}
+FIRST_PORT=${SMOKE_PORT:-18080}
+WORK=target/cluster-smoke
+TIMEOUT_SECONDS=120
+# Outbox lease ttl plus a renewal period
+FAILOVER_SECONDS=25
+
+mvn -B -q -DskipTests package
+JAR=$(ls target/edurace-backend-*.jar | head -1)
+
+rm -rf "$WORK"
+mkdir -p "$WORK/archive"
+
+root() {
+    echo "http://localhost:$((FIRST_PORT + $1 - 1))"
+}
+
+base() {
+    echo "$(root "$1")/api"
+}
+
+MEMBERS=""
+for i in $(seq 1 "$INSTANCES"); do
+    MEMBERS="$MEMBERS${MEMBERS:+,}node-$i=$(root "$i")"
+done
+export CLUSTER_MEMBERS="$MEMBERS"
+export CLUSTER_SECRET=${CLUSTER_SECRET:-$(head -c 32 /dev/urandom | od -An -tx1 | tr -d ' \n')}
+export ARCHIVE_DIR="$PWD/$WORK/archive"
+
+PIDS=()
+cleanup() {
+    for pid in "${PIDS[@]}"; do
+        kill "$pid" 2>/dev/null || true
+    done
+    wait 2>/dev/null || true
+}
+trap cleanup EXIT
+
+expect_status() {
+    local expected=$1
+    shift
+    local actual
+    actual=$(curl -s -o /dev/null -w '%{http_code}' "$@")
+    if [ "$actual" != "$expected" ]; then
+        echo "expected HTTP $expected but got $actual for: $*" >&2
+        return 1
+    fi
+}
+
+lease_holders() {
+    grep -l "Outbox relay lease acquired" "$WORK"/node-*.log 2>/dev/null | wc -l
+}
+
+for i in $(seq 1 "$INSTANCES"); do
+    NODE_ID=node-$i ADVERTISED_URL=$(root "$i") \
+        java -jar "$JAR" --server.port=$((FIRST_PORT + i - 1)) > "$WORK/node-$i.log" 2>&1 &
+    PIDS+=($!)
+done
+
+for i in $(seq 1 "$INSTANCES"); do
+    ready=""
+    for _ in $(seq 1 $((TIMEOUT_SECONDS * 10))); do
+        ready=$(grep -o "Ready in [0-9]* ms" "$WORK/node-$i.log" || true)
+        if [ -n "$ready" ] || ! kill -0 "${PIDS[$((i - 1))]}" 2>/dev/null; then
+            break
+        fi
+        sleep 0.1
+    done
+    [ -n "$ready" ] || { echo "node-$i did not become ready, see $WORK/node-$i.log" >&2; exit 1; }
+    echo "node-$i: $ready"
+done
+
+for i in $(seq 1 "$INSTANCES"); do
+    # A handoff needs the cluster token; the forwarded-by marker alone is not enough
+    expect_status 403 -X PUT -H 'Content-Type: application/json' -d '{}' \
+        "$(base "$i")/internal/cluster/courses/1/state/smoke"
+    expect_status 403 -X PUT -H 'Content-Type: application/json' -d '{}' \
+        -H "X-Cluster-Forwarded-By: node-1" "$(base "$i")/internal/cluster/courses/1/state/smoke"
+    expect_status 403 -X PUT -H 'Content-Type: application/json' -d '{}' \
+        -H "X-Cluster-Forwarded-By: node-1" -H "X-Cluster-Token: not-the-secret" \
+        "$(base "$i")/internal/cluster/courses/1/state/smoke"
+done
+
+if [ -n "${SMOKE_EMAIL:-}" ] && [ -n "${SMOKE_PASSWORD:-}" ]; then
+    for i in $(seq 1 "$INSTANCES"); do
+        token=$(curl -sf -H 'Content-Type: application/json' \
+            -d "{\"email\":\"$SMOKE_EMAIL\",\"password\":\"$SMOKE_PASSWORD\"}" "$(base "$i")/auth/login" \
+            | sed -n 's/.*"access_token":"\([^"]*\)".*/\1/p')
+        [ -n "$token" ] || { echo "login as $SMOKE_EMAIL on node-$i failed" >&2; exit 1; }
+        seen=$(curl -sf -H "Authorization: Bearer $token" "$(base "$i")/admin/cluster" | grep -o '"node_id":"node-[0-9]*"' | sort -u | wc -l)
+        [ "$seen" -ge "$INSTANCES" ] || { echo "node-$i sees $seen of $INSTANCES members" >&2; exit 1; }
+    done
+fi
+
+# Every node schedules the relay; only the lease holder may run it
+sleep 5
+holders=$(lease_holders)
+[ "$holders" -eq 1 ] || { echo "$holders instances relay the outbox, expected 1" >&2; exit 1; }
+holder=$(grep -l "Outbox relay lease acquired" "$WORK"/node-*.log | sed 's/.*node-\([0-9]*\)\.log/\1/')
+echo "node-$holder relays the outbox"
+
+kill "${PIDS[$((holder - 1))]}"
+for _ in $(seq 1 "$FAILOVER_SECONDS"); do
+    [ "$(lease_holders)" -ge 2 ] && break
+    sleep 1
+done
+[ "$(lease_holders)" -eq 2 ] || { echo "no instance took over the outbox relay from node-$holder" >&2; exit 1; }
+echo "outbox relay moved to $(grep -l "Outbox relay lease acquired" "$WORK"/node-*.log | grep -v "node-$holder.log" | xargs -n1 basename | sed 's/\.log//')"
+echo "cluster smoke test passed with $INSTANCES instances"
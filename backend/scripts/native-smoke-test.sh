@@ -0,0 +1,97 @@
+#!/usr/bin/env bash
+#
+# Builds the JVM jar and the GraalVM native executable, runs the same smoke checks
+# against both, and reports time-to-ready and resident memory side by side.
+#
+# Needs GraalVM 22.3+ (native-image on the PATH or GRAALVM_HOME), curl, and the same
+# database and environment variables as a normal run. When SMOKE_EMAIL and
+# SMOKE_PASSWORD name an existing account, the checks also log in and read the
+# catalog, exercising jjwt, the JWT filter, Hibernate and the response cache.
+#
+# Usage: scripts/native-smoke-test.sh
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+WORK=target/native-smoke
+PORT=${SMOKE_PORT:-18080}
+BASE="http://localhost:$PORT/api"
+TIMEOUT_SECONDS=120
+
+mvn -B -q -Pnative -DskipTests package native:compile
+JAR=$(ls target/edurace-backend-*.jar | head -1)
+NATIVE=target/edurace-backend
+
+rm -rf "$WORK"
+mkdir -p "$WORK"
+
+expect_status() {
+    local expected=$1
+    shift
+    local actual
+    actual=$(curl -s -o /dev/null -w '%{http_code}' "$@")
+    if [ "$actual" != "$expected" ]; then
+        echo "expected HTTP $expected but got $actual for: $*" >&2
+        return 1
+    fi
+}
+
+smoke_checks() {
+    expect_status 401 "$BASE/courses"
+    expect_status 401 -H 'Authorization: Bearer not-a-token' "$BASE/courses"
+    expect_status 401 -H 'Content-Type: application/json' \
+        -d '{"email":"nobody@example.com","password":"wrong"}' "$BASE/auth/login"
+
+    if [ -n "${SMOKE_EMAIL:-}" ] && [ -n "${SMOKE_PASSWORD:-}" ]; then
+        local token
+        token=$(curl -sf -H 'Content-Type: application/json' \
+            -d "{\"email\":\"$SMOKE_EMAIL\",\"password\":\"$SMOKE_PASSWORD\"}" "$BASE/auth/login" \
+            | sed -n 's/.*"access_token":"\([^"]*\)".*/\1/p')
+        [ -n "$token" ] || { echo "login as $SMOKE_EMAIL failed" >&2; return 1; }
+        expect_status 200 -H "Authorization: Bearer $token" "$BASE/courses"
+        expect_status 200 -H "Authorization: Bearer $token" "$BASE/student/rank"
+    fi
+}
+
+# Starts the given command, waits for StartupTimeReporter, runs the smoke checks and
+# prints "<ready-ms> <rss-kib>"
+run_mode() {
+    local label=$1
+    shift
+    local log="$WORK/$label.log"
+    "$@" --server.port="$PORT" > "$log" 2>&1 &
+    local pid=$!
+    trap 'kill "$pid" 2>/dev/null || true' RETURN
+
+    local ms=""
+    for _ in $(seq 1 $((TIMEOUT_SECONDS * 10))); do
+        ms=$(sed -n 's/.*Ready in \([0-9]*\) ms.*/\1/p' "$log")
+        if [ -n "$ms" ] || ! kill -0 "$pid" 2>/dev/null; then
+            break
+        fi
+        sleep 0.1
+    done
+    if [ -z "$ms" ]; then
+        echo "$label did not become ready, see $log" >&2
+        return 1
+    fi
+
+    smoke_checks || { echo "$label failed smoke checks, see $log" >&2; return 1; }
+    local rss
+    rss=$(ps -o rss= -p "$pid" | tr -d ' ')
+    echo "$ms $rss"
+}
+
+# The native image was AOT-processed with the prod profile, so the JVM run uses it too
+JVM_RESULT=$(run_mode jvm java -jar "$JAR" --spring.profiles.active=prod)
+NATIVE_RESULT=$(run_mode native "$NATIVE" --spring.profiles.active=prod)
+read -r JVM_MS JVM_RSS <<< "$JVM_RESULT"
+read -r NATIVE_MS NATIVE_RSS <<< "$NATIVE_RESULT"
+
+{
+    echo "| build  | ready (ms) | RSS after smoke checks (MiB) |"
+    echo "|--------|-----------:|-----------------------------:|"
+    printf '| jvm    | %10d | %28d |\n' "$JVM_MS" $((JVM_RSS / 1024))
+    printf '| native | %10d | %28d |\n' "$NATIVE_MS" $((NATIVE_RSS / 1024))
+} | tee "$WORK/report.md"
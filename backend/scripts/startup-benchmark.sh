@@ -0,0 +1,74 @@
+#!/usr/bin/env bash
+#
+# Measures JVM-start-to-ready time of the backend in four modes:
+#   jvm           default profile, plain classpath
+#   prod          prod profile (lazy integrations, no Hibernate schema validation)
+#   prod+aot      prod profile with Spring AOT initializers
+#   prod+aot+cds  as above plus a class-data sharing archive from a training run
+#
+# Needs the same database and environment variables as a normal run. Every mode
+# starts on a random port and is stopped once StartupTimeReporter logs "Ready in".
+#
+# Usage: scripts/startup-benchmark.sh [runs-per-mode]
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+MAIN_CLASS=com.edurace.platform.EduRacePlatformApplication
+WORK=target/startup-benchmark
+TIMEOUT_SECONDS=120
+
+mvn -B -q -Paot package -DskipTests
+
+rm -rf "$WORK"
+mkdir -p "$WORK/app"
+unzip -q target/edurace-backend-*.jar -d "$WORK/app"
+
+# CDS only maps the archive when the runtime classpath matches the training run, so
+# use the exploded jar with the library order from classpath.idx
+CLASSPATH="$WORK/app/BOOT-INF/classes"
+while IFS= read -r entry; do
+    entry=${entry#- \"}
+    CLASSPATH="$CLASSPATH:$WORK/app/${entry%\"}"
+done < "$WORK/app/BOOT-INF/classpath.idx"
+
+measure() {
+    local label=$1
+    shift
+    local total=0 best=0
+    for run in $(seq 1 "$RUNS"); do
+        local log="$WORK/$label-$run.log"
+        java "$@" -cp "$CLASSPATH" "$MAIN_CLASS" --server.port=0 > "$log" 2>&1 &
+        local pid=$!
+        local ms=""
+        for _ in $(seq 1 $((TIMEOUT_SECONDS * 10))); do
+            ms=$(sed -n 's/.*Ready in \([0-9]*\) ms.*/\1/p' "$log")
+            if [ -n "$ms" ] || ! kill -0 "$pid" 2>/dev/null; then
+                break
+            fi
+            sleep 0.1
+        done
+        kill "$pid" 2>/dev/null || true
+        wait "$pid" 2>/dev/null || true
+        if [ -z "$ms" ]; then
+            echo "$label: run $run did not become ready, see $log" >&2
+            exit 1
+        fi
+        total=$((total + ms))
+        if [ "$best" -eq 0 ] || [ "$ms" -lt "$best" ]; then
+            best=$ms
+        fi
+    done
+    printf '%-14s avg %6d ms   best %6d ms\n' "$label" $((total / RUNS)) "$best"
+}
+
+# Training run: refresh the context, dump the loaded classes and exit
+java -XX:ArchiveClassesAtExit="$WORK/app.jsa" -Dspring.profiles.active=prod -Dspring.aot.enabled=true \
+    -Dspring.context.exit=onRefresh -cp "$CLASSPATH" "$MAIN_CLASS" --server.port=0 > "$WORK/cds-training.log" 2>&1
+
+measure jvm
+measure prod -Dspring.profiles.active=prod
+measure prod+aot -Dspring.profiles.active=prod -Dspring.aot.enabled=true
+measure prod+aot+cds -Dspring.profiles.active=prod -Dspring.aot.enabled=true -XX:SharedArchiveFile="$WORK/app.jsa"
@@ -1,13 +1,16 @@
 package com.edurace.platform;
 
+import com.edurace.platform.config.NativeRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableAsync
 @EnableScheduling
+@ImportRuntimeHints(NativeRuntimeHints.class)
 public class EduRacePlatformApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,9 @@
+package com.edurace.platform.achievement;
+
+public enum AchievementMetric {
+    TOTAL_POINTS,
+    CURRENT_STREAK,
+    LONGEST_STREAK,
+    QUIZZES_PASSED,
+    COURSES_COMPLETED
+}
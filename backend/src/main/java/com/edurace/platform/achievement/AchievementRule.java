@@ -0,0 +1,46 @@
+package com.edurace.platform.achievement;
+
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * A badge rule compiled into flat metric/threshold arrays. The rule holds when every
+ * referenced metric has reached its threshold.
+ */
+public class AchievementRule implements Predicate<UserAchievementState> {
+
+    private final String badgeName;
+    private final String description;
+    private final String iconUrl;
+    private final AchievementMetric[] metrics;
+    private final int[] thresholds;
+
+    public AchievementRule(String badgeName, String description, String iconUrl, Map<AchievementMetric, Integer> requires) {
+        if (requires == null || requires.isEmpty()) {
+            throw new IllegalArgumentException("Achievement rule '" + badgeName + "' has no requirements");
+        }
+        this.badgeName = badgeName;
+        this.description = description;
+        this.iconUrl = iconUrl;
+        this.metrics = requires.keySet().toArray(new AchievementMetric[0]);
+        this.thresholds = new int[metrics.length];
+        for (int i = 0; i < metrics.length; i++) {
+            thresholds[i] = requires.get(metrics[i]);
+        }
+    }
+
+    @Override
+    public boolean test(UserAchievementState state) {
+        for (int i = 0; i < metrics.length; i++) {
+            if (state.get(metrics[i]) < thresholds[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String getBadgeName() { return badgeName; }
+    public String getDescription() { return description; }
+    public String getIconUrl() { return iconUrl; }
+    public AchievementMetric[] getMetrics() { return metrics; }
+}
@@ -0,0 +1,37 @@
+package com.edurace.platform.achievement;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rules indexed by the metrics they reference, so an event only evaluates the rules
+ * that depend on a metric it actually changed.
+ */
+public class AchievementRuleIndex {
+
+    private final Map<AchievementMetric, List<AchievementRule>> byMetric = new EnumMap<>(AchievementMetric.class);
+
+    public AchievementRuleIndex(Collection<AchievementRule> rules) {
+        for (AchievementMetric metric : AchievementMetric.values()) {
+            byMetric.put(metric, new ArrayList<>());
+        }
+        for (AchievementRule rule : rules) {
+            for (AchievementMetric metric : rule.getMetrics()) {
+                byMetric.get(metric).add(rule);
+            }
+        }
+    }
+
+    public Set<AchievementRule> affectedBy(Collection<AchievementMetric> changed) {
+        Set<AchievementRule> rules = new LinkedHashSet<>();
+        for (AchievementMetric metric : changed) {
+            rules.addAll(byMetric.get(metric));
+        }
+        return rules;
+    }
+}
@@ -0,0 +1,59 @@
+package com.edurace.platform.achievement;
+
+import java.util.Set;
+
+/**
+ * Running per-user values the achievement rules are evaluated against. Callers
+ * synchronize on the instance while updating and evaluating it.
+ */
+public class UserAchievementState {
+
+    private final int[] values = new int[AchievementMetric.values().length];
+    private final Set<Long> passedQuizIds;
+    private final Set<String> earnedBadges;
+    private volatile long lastTouchedMillis = System.currentTimeMillis();
+
+    public UserAchievementState(Set<Long> passedQuizIds, Set<String> earnedBadges) {
+        this.passedQuizIds = passedQuizIds;
+        this.earnedBadges = earnedBadges;
+        this.values[AchievementMetric.QUIZZES_PASSED.ordinal()] = passedQuizIds.size();
+    }
+
+    public int get(AchievementMetric metric) {
+        return values[metric.ordinal()];
+    }
+
+    public void set(AchievementMetric metric, int value) {
+        values[metric.ordinal()] = value;
+    }
+
+    /**
+     * Records a passed quiz; returns true if it was the first pass of that quiz.
+     */
+    public boolean recordPassedQuiz(Long quizId) {
+        if (!passedQuizIds.add(quizId)) {
+            return false;
+        }
+        values[AchievementMetric.QUIZZES_PASSED.ordinal()] = passedQuizIds.size();
+        return true;
+    }
+
+    /**
+     * Marks a badge as earned; returns false if it had already been earned.
+     */
+    public boolean markEarned(String badgeName) {
+        return earnedBadges.add(badgeName);
+    }
+
+    public boolean hasEarned(String badgeName) {
+        return earnedBadges.contains(badgeName);
+    }
+
+    public void touch() {
+        lastTouchedMillis = System.currentTimeMillis();
+    }
+
+    public long getLastTouchedMillis() {
+        return lastTouchedMillis;
+    }
+}
@@ -0,0 +1,130 @@
+package com.edurace.platform.admission;
+
+import com.edurace.platform.entity.CourseStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory seat counter for one course. {@code taken} counts confirmed enrollments
+ * plus outstanding reservations and is only ever changed with compare-and-set, so
+ * concurrent admissions never oversell and never block each other.
+ *
+ * A seat change that also writes to the database (an enrollment, a drop, a released
+ * reservation) runs between {@link #beginChange()} and {@link #endChange()}, during
+ * which the counter and the database disagree. Reconciliation only replaces the
+ * counter if no such change was under way or started while it read both.
+ */
+public class CourseSeats {
+
+    private final Long courseId;
+    private final AtomicInteger taken;
+    private final Map<Long, SeatReservation> reservations = new ConcurrentHashMap<>();
+    private final AtomicLong changesStarted = new AtomicLong();
+    private final AtomicInteger changesInFlight = new AtomicInteger();
+
+    private volatile int capacity;
+    private volatile CourseStatus status;
+    private volatile BigDecimal entryFee;
+    private volatile LocalDateTime enrollmentStartDate;
+    private volatile LocalDateTime enrollmentEndDate;
+
+    public CourseSeats(Long courseId, int confirmed) {
+        this.courseId = courseId;
+        this.taken = new AtomicInteger(confirmed);
+    }
+
+    public void refresh(Integer maxEnrollments, CourseStatus status, BigDecimal entryFee,
+                        LocalDateTime enrollmentStartDate, LocalDateTime enrollmentEndDate) {
+        this.capacity = maxEnrollments == null ? Integer.MAX_VALUE : maxEnrollments;
+        this.status = status;
+        this.entryFee = entryFee == null ? BigDecimal.ZERO : entryFee;
+        this.enrollmentStartDate = enrollmentStartDate;
+        this.enrollmentEndDate = enrollmentEndDate;
+    }
+
+    /**
+     * Mirrors Course.isEnrollmentOpen() without loading the entity.
+     */
+    public boolean isOpen(LocalDateTime now) {
+        return (enrollmentStartDate == null || now.isAfter(enrollmentStartDate)) &&
+               (enrollmentEndDate == null || now.isBefore(enrollmentEndDate)) &&
+               status == CourseStatus.PUBLISHED;
+    }
+
+    public boolean tryTakeSeat() {
+        while (true) {
+            int current = taken.get();
+            if (current >= capacity) {
+                return false;
+            }
+            if (taken.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void releaseSeat() {
+        taken.updateAndGet(current -> Math.max(0, current - 1));
+    }
+
+    public void beginChange() {
+        changesStarted.incrementAndGet();
+        changesInFlight.incrementAndGet();
+    }
+
+    public void endChange() {
+        changesInFlight.decrementAndGet();
+    }
+
+    /**
+     * The version to pass to {@link #reconcile}, or -1 while a seat change is under way.
+     */
+    public long stableVersion() {
+        long version = changesStarted.get();
+        return changesInFlight.get() == 0 ? version : -1;
+    }
+
+    /**
+     * Replaces the counter with the reconciled value if no seat change started since
+     * {@link #stableVersion()} and no admission raced with the read.
+     */
+    public boolean reconcile(long version, int observed, int expected) {
+        if (changesInFlight.get() != 0 || changesStarted.get() != version) {
+            return false;
+        }
+        return taken.compareAndSet(observed, expected);
+    }
+
+    public SeatReservation putReservationIfAbsent(SeatReservation reservation) {
+        return reservations.putIfAbsent(reservation.studentId(), reservation);
+    }
+
+    public void updateReservation(SeatReservation reservation) {
+        reservations.put(reservation.studentId(), reservation);
+    }
+
+    public SeatReservation getReservation(Long studentId) {
+        return reservations.get(studentId);
+    }
+
+    public SeatReservation removeReservation(Long studentId) {
+        return reservations.remove(studentId);
+    }
+
+    public boolean removeReservation(SeatReservation reservation) {
+        return reservations.remove(reservation.studentId(), reservation);
+    }
+
+    public Collection<SeatReservation> getReservations() { return reservations.values(); }
+    public int getReservationCount() { return reservations.size(); }
+    public Long getCourseId() { return courseId; }
+    public int getTaken() { return taken.get(); }
+    public int getCapacity() { return capacity; }
+    public BigDecimal getEntryFee() { return entryFee; }
+}
@@ -0,0 +1,17 @@
+package com.edurace.platform.admission;
+
+import java.time.LocalDateTime;
+
+/**
+ * A seat held for a student until their payment completes, fails or expires.
+ */
+public record SeatReservation(
+        Long courseId,
+        Long studentId,
+        Long paymentId,
+        LocalDateTime reservedAt) {
+
+    public SeatReservation withPaymentId(Long paymentId) {
+        return new SeatReservation(courseId, studentId, paymentId, reservedAt);
+    }
+}
@@ -0,0 +1,79 @@
+package com.edurace.platform.analytics;
+
+/**
+ * Running aggregates of completed quiz attempts for one quiz or one course.
+ * All access goes through the instance monitor.
+ */
+public class AttemptStats {
+
+    public static final int MAX_SCORE = 100;
+    public static final int MAX_TIME_MINUTES = 600;
+
+    private long attempts;
+    private long passed;
+    private long scoreSum;
+    private long timedAttempts;
+    private long timeSumMinutes;
+    private final ValueHistogram scores;
+    private final ValueHistogram times;
+
+    public AttemptStats() {
+        this(0, 0, 0, 0, 0, new ValueHistogram(MAX_SCORE), new ValueHistogram(MAX_TIME_MINUTES));
+    }
+
+    public AttemptStats(long attempts, long passed, long scoreSum, long timedAttempts, long timeSumMinutes,
+                        ValueHistogram scores, ValueHistogram times) {
+        this.attempts = attempts;
+        this.passed = passed;
+        this.scoreSum = scoreSum;
+        this.timedAttempts = timedAttempts;
+        this.timeSumMinutes = timeSumMinutes;
+        this.scores = scores;
+        this.times = times;
+    }
+
+    public synchronized void record(Integer score, boolean passed, Integer timeTakenMinutes) {
+        attempts++;
+        if (passed) {
+            this.passed++;
+        }
+        if (score != null) {
+            scoreSum += score;
+            scores.record(score);
+        }
+        if (timeTakenMinutes != null) {
+            timedAttempts++;
+            timeSumMinutes += timeTakenMinutes;
+            times.record(timeTakenMinutes);
+        }
+    }
+
+    public void merge(AttemptStats other) {
+        // Copy first so the two monitors are never held together
+        AttemptStats copy = other.copy();
+        synchronized (this) {
+            attempts += copy.attempts;
+            passed += copy.passed;
+            scoreSum += copy.scoreSum;
+            timedAttempts += copy.timedAttempts;
+            timeSumMinutes += copy.timeSumMinutes;
+            scores.merge(copy.scores);
+            times.merge(copy.times);
+        }
+    }
+
+    /**
+     * A consistent point-in-time copy, safe to read without locking.
+     */
+    public synchronized AttemptStats copy() {
+        return new AttemptStats(attempts, passed, scoreSum, timedAttempts, timeSumMinutes, scores.copy(), times.copy());
+    }
+
+    public long getAttempts() { return attempts; }
+    public long getPassed() { return passed; }
+    public long getScoreSum() { return scoreSum; }
+    public long getTimedAttempts() { return timedAttempts; }
+    public long getTimeSumMinutes() { return timeSumMinutes; }
+    public ValueHistogram getScores() { return scores; }
+    public ValueHistogram getTimes() { return times; }
+}
@@ -0,0 +1,49 @@
+package com.edurace.platform.analytics;
+
+/**
+ * Enrollments of one course bucketed by progress, read out as a funnel where each
+ * stage counts the enrollments that reached at least that much progress.
+ * All access goes through the instance monitor.
+ */
+public class EnrollmentFunnel {
+
+    public static final int[] STAGE_THRESHOLDS = {0, 1, 25, 50, 75, 100};
+    public static final String[] STAGE_NAMES = {"enrolled", "started", "quarter", "half", "three_quarters", "completed"};
+
+    private final long[] buckets = new long[STAGE_THRESHOLDS.length];
+
+    public static int stageOf(int progressPercentage) {
+        for (int stage = STAGE_THRESHOLDS.length - 1; stage > 0; stage--) {
+            if (progressPercentage >= STAGE_THRESHOLDS[stage]) {
+                return stage;
+            }
+        }
+        return 0;
+    }
+
+    public synchronized void add(int progressPercentage, long count) {
+        buckets[stageOf(progressPercentage)] += count;
+    }
+
+    public synchronized void move(int fromPercentage, int toPercentage) {
+        int from = stageOf(fromPercentage);
+        int to = stageOf(toPercentage);
+        if (from != to && buckets[from] > 0) {
+            buckets[from]--;
+            buckets[to]++;
+        }
+    }
+
+    /**
+     * Cumulative counts per stage, from "enrolled" (everyone) to "completed".
+     */
+    public synchronized long[] stages() {
+        long[] stages = new long[buckets.length];
+        long cumulative = 0;
+        for (int stage = buckets.length - 1; stage >= 0; stage--) {
+            cumulative += buckets[stage];
+            stages[stage] = cumulative;
+        }
+        return stages;
+    }
+}
@@ -0,0 +1,103 @@
+package com.edurace.platform.analytics;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Exact histogram of small non-negative integers (scores, minutes), one counter per
+ * value from 0 to maxValue; larger values are counted at maxValue. For these domains
+ * that is both smaller and more precise than a t-digest or HDR histogram, and
+ * histograms merge by adding counters. Not thread-safe.
+ */
+public class ValueHistogram {
+
+    private final long[] counts;
+    private long total;
+
+    public ValueHistogram(int maxValue) {
+        this.counts = new long[maxValue + 1];
+    }
+
+    public void record(int value) {
+        counts[Math.max(0, Math.min(value, counts.length - 1))]++;
+        total++;
+    }
+
+    public void merge(ValueHistogram other) {
+        for (int i = 0; i < Math.min(counts.length, other.counts.length); i++) {
+            counts[i] += other.counts[i];
+        }
+        for (int i = counts.length; i < other.counts.length; i++) {
+            counts[counts.length - 1] += other.counts[i];
+        }
+        total += other.total;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long countAtLeast(int value) {
+        long count = 0;
+        for (int i = Math.max(0, value); i < counts.length; i++) {
+            count += counts[i];
+        }
+        return count;
+    }
+
+    /**
+     * Smallest value v such that at least the given fraction of values are <= v, or
+     * null when nothing was recorded.
+     */
+    public Integer percentile(double fraction) {
+        if (total == 0) {
+            return null;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i;
+            }
+        }
+        return counts.length - 1;
+    }
+
+    public ValueHistogram copy() {
+        ValueHistogram copy = new ValueHistogram(counts.length - 1);
+        copy.merge(this);
+        return copy;
+    }
+
+    /**
+     * Sparse encoding: the number of non-empty values, then (value, count) pairs.
+     */
+    public byte[] toBytes() {
+        int nonEmpty = 0;
+        for (long count : counts) {
+            if (count != 0) {
+                nonEmpty++;
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + nonEmpty * (Integer.BYTES + Long.BYTES));
+        buffer.putInt(nonEmpty);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                buffer.putInt(i).putLong(counts[i]);
+            }
+        }
+        return buffer.array();
+    }
+
+    public static ValueHistogram fromBytes(int maxValue, byte[] bytes) {
+        ValueHistogram histogram = new ValueHistogram(maxValue);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        for (int n = buffer.getInt(); n > 0; n--) {
+            int value = Math.min(buffer.getInt(), maxValue);
+            long count = buffer.getLong();
+            histogram.counts[value] += count;
+            histogram.total += count;
+        }
+        return histogram;
+    }
+}
@@ -0,0 +1,17 @@
+package com.edurace.platform.archive;
+
+import java.time.LocalDateTime;
+
+/**
+ * A quiz attempt as stored in a cold-storage archive file.
+ */
+public record ArchivedQuizAttempt(
+        long id,
+        long quizId,
+        long studentId,
+        int score,
+        Integer timeTakenMinutes,
+        boolean passed,
+        LocalDateTime startedAt,
+        LocalDateTime completedAt) {
+}
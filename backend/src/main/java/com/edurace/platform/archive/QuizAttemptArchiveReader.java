@@ -0,0 +1,127 @@
+package com.edurace.platform.archive;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import static com.edurace.platform.archive.QuizAttemptArchiveWriter.*;
+
+/**
+ * Offline reader for archive files produced by {@link QuizAttemptArchiveWriter}.
+ * Blocks whose student/quiz id range cannot match the filter are skipped without
+ * being decompressed.
+ */
+public class QuizAttemptArchiveReader implements Closeable {
+
+    private final Path file;
+    private final DataInputStream in;
+    private final Inflater inflater = new Inflater();
+
+    public QuizAttemptArchiveReader(Path file) throws IOException {
+        this.file = file;
+        this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024));
+        if (in.readInt() != MAGIC) {
+            close();
+            throw new IOException("Not a quiz attempt archive: " + file);
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            close();
+            throw new IOException("Unsupported archive version " + version + ": " + file);
+        }
+    }
+
+    public static List<ArchivedQuizAttempt> read(Path file, Long studentId, Long quizId) throws IOException {
+        List<ArchivedQuizAttempt> attempts = new ArrayList<>();
+        try (QuizAttemptArchiveReader reader = new QuizAttemptArchiveReader(file)) {
+            reader.scan(studentId, quizId, attempts::add);
+        }
+        return attempts;
+    }
+
+    /**
+     * Streams every attempt matching the given filters; a null filter matches everything.
+     */
+    public void scan(Long studentId, Long quizId, Consumer<ArchivedQuizAttempt> consumer) throws IOException {
+        int rows;
+        while ((rows = in.readInt()) > 0) {
+            long minStudent = in.readLong(), maxStudent = in.readLong();
+            long minQuiz = in.readLong(), maxQuiz = in.readLong();
+
+            if ((studentId != null && (studentId < minStudent || studentId > maxStudent)) ||
+                (quizId != null && (quizId < minQuiz || quizId > maxQuiz))) {
+                for (int c = 0; c < COLUMNS; c++) {
+                    in.skipNBytes(in.readInt());
+                }
+                continue;
+            }
+
+            long[] ids = new long[rows];
+            long[] quizIds = new long[rows];
+            long[] studentIds = new long[rows];
+            int[] scores = new int[rows];
+            int[] minutes = new int[rows];
+            boolean[] passed = new boolean[rows];
+            long[] startedAt = new long[rows];
+            long[] completedAt = new long[rows];
+
+            DataInputStream col = readColumn();
+            for (int i = 0; i < rows; i++) ids[i] = (i == 0 ? 0 : ids[i - 1]) + col.readLong();
+            col = readColumn();
+            for (int i = 0; i < rows; i++) quizIds[i] = col.readLong();
+            col = readColumn();
+            for (int i = 0; i < rows; i++) studentIds[i] = col.readLong();
+            col = readColumn();
+            for (int i = 0; i < rows; i++) scores[i] = col.readInt();
+            col = readColumn();
+            for (int i = 0; i < rows; i++) minutes[i] = col.readInt();
+            col = readColumn();
+            for (int i = 0; i < rows; i++) passed[i] = col.readBoolean();
+            col = readColumn();
+            for (int i = 0; i < rows; i++) startedAt[i] = (i == 0 ? 0 : startedAt[i - 1]) + col.readLong();
+            col = readColumn();
+            for (int i = 0; i < rows; i++) {
+                long delta = col.readLong();
+                completedAt[i] = delta == NULL_TIME ? NULL_TIME : startedAt[i] + delta;
+            }
+
+            for (int i = 0; i < rows; i++) {
+                if ((studentId != null && studentIds[i] != studentId) || (quizId != null && quizIds[i] != quizId)) {
+                    continue;
+                }
+                consumer.accept(new ArchivedQuizAttempt(
+                    ids[i], quizIds[i], studentIds[i], scores[i],
+                    minutes[i] == NULL_MINUTES ? null : minutes[i],
+                    passed[i],
+                    fromEpochMicros(startedAt[i]),
+                    completedAt[i] == NULL_TIME ? null : fromEpochMicros(completedAt[i])));
+            }
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        in.close();
+    }
+
+    private DataInputStream readColumn() throws IOException {
+        byte[] compressed = new byte[in.readInt()];
+        in.readFully(compressed);
+        inflater.reset();
+        return new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(compressed), inflater));
+    }
+}
@@ -0,0 +1,160 @@
+package com.edurace.platform.archive;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes quiz attempts into a compact columnar archive file.
+ *
+ * Layout: magic, version, then blocks of up to {@link #BLOCK_ROWS} rows. Each block
+ * starts with its row count and the min/max student and quiz ids (so readers can skip
+ * it), followed by one length-prefixed, deflate-compressed chunk per column. A row
+ * count of zero terminates the file. The file is written to a temporary sibling and
+ * only moved into place by {@link #finish()}.
+ */
+public class QuizAttemptArchiveWriter implements Closeable {
+
+    static final int MAGIC = 0x45445141; // "EDQA"
+    static final int VERSION = 1;
+    static final int BLOCK_ROWS = 8192;
+    static final int COLUMNS = 8;
+    static final int NULL_MINUTES = -1;
+    static final long NULL_TIME = Long.MIN_VALUE;
+
+    private final Path target;
+    private final Path tempFile;
+    private final DataOutputStream out;
+    private final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+
+    private final long[] ids = new long[BLOCK_ROWS];
+    private final long[] quizIds = new long[BLOCK_ROWS];
+    private final long[] studentIds = new long[BLOCK_ROWS];
+    private final int[] scores = new int[BLOCK_ROWS];
+    private final int[] minutes = new int[BLOCK_ROWS];
+    private final boolean[] passed = new boolean[BLOCK_ROWS];
+    private final long[] startedAt = new long[BLOCK_ROWS];
+    private final long[] completedAt = new long[BLOCK_ROWS];
+
+    private int size;
+    private long rowCount;
+    private boolean finished;
+
+    public QuizAttemptArchiveWriter(Path target) throws IOException {
+        this.target = target;
+        this.tempFile = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile), 64 * 1024));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+    }
+
+    public void append(ArchivedQuizAttempt attempt) throws IOException {
+        ids[size] = attempt.id();
+        quizIds[size] = attempt.quizId();
+        studentIds[size] = attempt.studentId();
+        scores[size] = attempt.score();
+        minutes[size] = attempt.timeTakenMinutes() == null ? NULL_MINUTES : attempt.timeTakenMinutes();
+        passed[size] = attempt.passed();
+        startedAt[size] = toEpochMicros(attempt.startedAt());
+        completedAt[size] = attempt.completedAt() == null ? NULL_TIME : toEpochMicros(attempt.completedAt());
+        size++;
+        rowCount++;
+        if (size == BLOCK_ROWS) {
+            flushBlock();
+        }
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Flushes the last block, writes the end marker and atomically publishes the file.
+     */
+    public void finish() throws IOException {
+        flushBlock();
+        out.writeInt(0);
+        out.close();
+        Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        finished = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        deflater.end();
+        if (!finished) {
+            out.close();
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if (size == 0) {
+            return;
+        }
+        long minStudent = Long.MAX_VALUE, maxStudent = Long.MIN_VALUE;
+        long minQuiz = Long.MAX_VALUE, maxQuiz = Long.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            minStudent = Math.min(minStudent, studentIds[i]);
+            maxStudent = Math.max(maxStudent, studentIds[i]);
+            minQuiz = Math.min(minQuiz, quizIds[i]);
+            maxQuiz = Math.max(maxQuiz, quizIds[i]);
+        }
+        out.writeInt(size);
+        out.writeLong(minStudent);
+        out.writeLong(maxStudent);
+        out.writeLong(minQuiz);
+        out.writeLong(maxQuiz);
+
+        // Ids and start times are delta-encoded; completion is stored relative to start
+        writeColumn(col -> { long prev = 0; for (int i = 0; i < size; i++) { col.writeLong(ids[i] - prev); prev = ids[i]; } });
+        writeColumn(col -> { for (int i = 0; i < size; i++) col.writeLong(quizIds[i]); });
+        writeColumn(col -> { for (int i = 0; i < size; i++) col.writeLong(studentIds[i]); });
+        writeColumn(col -> { for (int i = 0; i < size; i++) col.writeInt(scores[i]); });
+        writeColumn(col -> { for (int i = 0; i < size; i++) col.writeInt(minutes[i]); });
+        writeColumn(col -> { for (int i = 0; i < size; i++) col.writeBoolean(passed[i]); });
+        writeColumn(col -> { long prev = 0; for (int i = 0; i < size; i++) { col.writeLong(startedAt[i] - prev); prev = startedAt[i]; } });
+        writeColumn(col -> { for (int i = 0; i < size; i++) col.writeLong(completedAt[i] == NULL_TIME ? NULL_TIME : completedAt[i] - startedAt[i]); });
+
+        size = 0;
+    }
+
+    private void writeColumn(ColumnEncoder encoder) throws IOException {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream(size * 8);
+        DataOutputStream column = new DataOutputStream(raw);
+        encoder.encode(column);
+        column.flush();
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.size() / 4 + 64);
+        deflater.reset();
+        try (DeflaterOutputStream deflating = new DeflaterOutputStream(compressed, deflater)) {
+            raw.writeTo(deflating);
+        }
+        out.writeInt(compressed.size());
+        compressed.writeTo(out);
+    }
+
+    static long toEpochMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromEpochMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+            (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    @FunctionalInterface
+    private interface ColumnEncoder {
+        void encode(DataOutputStream column) throws IOException;
+    }
+}
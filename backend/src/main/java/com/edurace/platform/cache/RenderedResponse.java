@@ -0,0 +1,7 @@
+package com.edurace.platform.cache;
+
+/**
+ * A prerendered JSON body with its strong ETag and, when worthwhile, a gzipped copy.
+ */
+public record RenderedResponse(byte[] body, byte[] gzipBody, String etag) {
+}
@@ -0,0 +1,189 @@
+package com.edurace.platform.cache;
+
+import com.edurace.platform.singleflight.SingleFlightGroup;
+import com.edurace.platform.singleflight.SingleFlightMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of prerendered JSON responses for hot GET endpoints.
+ *
+ * Entries are grouped by resource (e.g. "course:42") with one entry per variant
+ * (e.g. "limit=50"). A body is rendered once per resource version through a
+ * single-flight group and then written straight from the cached byte array, gzipped
+ * when the client accepts it, with a strong ETag so unchanged resources cost a 304.
+ * Invalidating a resource bumps its generation, so a render that raced with the
+ * invalidation is served once but never stored.
+ *
+ * Variants come from request parameters and resources from path ids, so the cache
+ * holds at most app.cache.responses.max-entries bodies and evicts the least recently
+ * used. Generations are kept in a fixed set of stripes rather than per resource; two
+ * resources sharing a stripe only cost each other an occasional unstored render.
+ */
+@Component
+public class ResponseCache {
+
+    private static final String NO_VARIANT = "";
+    private static final int GENERATION_STRIPES = 1024;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.cache.responses.gzip-min-bytes:1024}")
+    private int gzipMinBytes;
+
+    @Value("${app.cache.responses.max-entries:10000}")
+    private int maxEntries;
+
+    // Bodies by resource|variant in access order; this map also guards variantKeys
+    private final LinkedHashMap<String, RenderedResponse> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, RenderedResponse> eldest) {
+            if (size() <= maxEntries) {
+                return false;
+            }
+            String resource = eldest.getKey().substring(0, eldest.getKey().indexOf('|'));
+            Set<String> keys = variantKeys.get(resource);
+            if (keys != null && keys.remove(eldest.getKey()) && keys.isEmpty()) {
+                variantKeys.remove(resource);
+            }
+            return true;
+        }
+    };
+    private final Map<String, Set<String>> variantKeys = new HashMap<>();
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final SingleFlightGroup renders;
+
+    public ResponseCache(SingleFlightMetrics singleFlightMetrics) {
+        this.renders = new SingleFlightGroup(singleFlightMetrics.statsFor("ResponseCache.render"));
+    }
+
+    public void write(HttpServletRequest request, HttpServletResponse response,
+                      String resource, Supplier<Object> renderer) throws IOException {
+        write(request, response, resource, NO_VARIANT, renderer);
+    }
+
+    public void write(HttpServletRequest request, HttpServletResponse response,
+                      String resource, String variant, Supplier<Object> renderer) throws IOException {
+        RenderedResponse rendered = get(resource, variant, renderer);
+
+        response.setHeader(HttpHeaders.ETAG, rendered.etag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), rendered.etag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        byte[] body = rendered.body();
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (rendered.gzipBody() != null && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            body = rendered.gzipBody();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    public void invalidate(String resource) {
+        generations.incrementAndGet(stripe(resource));
+        synchronized (entries) {
+            Set<String> keys = variantKeys.remove(resource);
+            if (keys != null) {
+                entries.keySet().removeAll(keys);
+            }
+        }
+    }
+
+    private RenderedResponse get(String resource, String variant, Supplier<Object> renderer) throws IOException {
+        String key = resource + "|" + variant;
+        synchronized (entries) {
+            RenderedResponse cached = entries.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        try {
+            return (RenderedResponse) renders.execute(key, () -> {
+                int stripe = stripe(resource);
+                long generation = generations.get(stripe);
+                RenderedResponse rendered = render(renderer.get());
+                synchronized (entries) {
+                    // An invalidation after this check finds the entry and removes it
+                    if (generations.get(stripe) == generation) {
+                        entries.put(key, rendered);
+                        variantKeys.computeIfAbsent(resource, r -> new HashSet<>()).add(key);
+                    }
+                }
+                return rendered;
+            });
+        } catch (IOException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    private static int stripe(String resource) {
+        return resource.hashCode() & (GENERATION_STRIPES - 1);
+    }
+
+    private RenderedResponse render(Object body) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(body);
+
+        byte[] gzip = null;
+        if (json.length >= gzipMinBytes) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+                out.write(json);
+            }
+            gzip = compressed.toByteArray();
+        }
+        return new RenderedResponse(json, gzip, etag(json));
+    }
+
+    private static String etag(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 22) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || trimmed.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
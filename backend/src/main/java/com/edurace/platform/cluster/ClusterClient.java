@@ -0,0 +1,156 @@
+package com.edurace.platform.cluster;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Node-to-node HTTP calls: forwarding a client request to the course owner and
+ * pushing state snapshots during a handoff. Internal calls, forwarded client requests
+ * included, carry the shared app.cluster.secret; forwarded requests also keep their
+ * own credentials.
+ */
+@Component
+public class ClusterClient {
+
+    public static final String FORWARDED_BY_HEADER = "X-Cluster-Forwarded-By";
+    public static final String TOKEN_HEADER = "X-Cluster-Token";
+
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+        "connection", "content-length", "expect", "host", "keep-alive", "proxy-authenticate",
+        "proxy-authorization", "te", "trailer", "transfer-encoding", "upgrade");
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${server.servlet.context-path:}")
+    private String contextPath;
+
+    @Value("${app.cluster.secret:}")
+    private String secret;
+
+    @Value("${app.cluster.forward-timeout:PT5S}")
+    private Duration timeout;
+
+    private HttpClient httpClient;
+
+    @PostConstruct
+    public void init() {
+        httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(timeout)
+            .build();
+    }
+
+    public boolean isTrusted(String token) {
+        return !secret.isEmpty() && token != null
+            && MessageDigest.isEqual(secret.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Whether another node already forwarded this request here.
+     */
+    public boolean isForwarded(HttpServletRequest request) {
+        return request.getHeader(FORWARDED_BY_HEADER) != null && isTrusted(request.getHeader(TOKEN_HEADER));
+    }
+
+    /**
+     * Replays the request on the owner and copies its response back.
+     */
+    public void forward(ClusterMember owner, ClusterMember self, HttpServletRequest request,
+                        HttpServletResponse response) throws IOException {
+        forward(owner, self, request, request.getInputStream().readAllBytes(), response);
+    }
+
+    /**
+     * Same, for a request whose body the handler has already read.
+     */
+    public void forward(ClusterMember owner, ClusterMember self, HttpServletRequest request, byte[] body,
+                        HttpServletResponse response) throws IOException {
+        if (secret.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                "app.cluster.secret must be set to forward requests to node " + owner.nodeId());
+        }
+        String query = request.getQueryString();
+        HttpRequest.Builder builder = HttpRequest.newBuilder(
+                URI.create(owner.baseUrl() + request.getRequestURI() + (query == null ? "" : "?" + query)))
+            .timeout(timeout)
+            .method(request.getMethod(), body.length == 0
+                ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofByteArray(body));
+        for (String name : Collections.list(request.getHeaderNames())) {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT))
+                    && !FORWARDED_BY_HEADER.equalsIgnoreCase(name) && !TOKEN_HEADER.equalsIgnoreCase(name)) {
+                for (String value : Collections.list(request.getHeaders(name))) {
+                    builder.header(name, value);
+                }
+            }
+        }
+        builder.header(FORWARDED_BY_HEADER, self.nodeId());
+        builder.header(TOKEN_HEADER, secret);
+
+        HttpResponse<byte[]> forwarded = send(builder.build(), owner);
+        response.setStatus(forwarded.statusCode());
+        for (Map.Entry<String, List<String>> header : forwarded.headers().map().entrySet()) {
+            if (!HOP_BY_HOP_HEADERS.contains(header.getKey().toLowerCase(Locale.ROOT))) {
+                for (String value : header.getValue()) {
+                    response.addHeader(header.getKey(), value);
+                }
+            }
+        }
+        response.getOutputStream().write(forwarded.body());
+    }
+
+    /**
+     * Hands a course's state snapshot to its new owner.
+     */
+    public void pushState(ClusterMember owner, String stateName, long courseId, JsonNode snapshot) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create(owner.baseUrl() + contextPath + "/internal/cluster/courses/" + courseId + "/state/" + stateName))
+            .timeout(timeout)
+            .header("Content-Type", "application/json")
+            .header(TOKEN_HEADER, secret)
+            .PUT(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(snapshot)))
+            .build();
+        HttpResponse<byte[]> response = send(request, owner);
+        if (response.statusCode() == HttpStatus.CONFLICT.value()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Node " + owner.nodeId() + " rejected " + stateName +
+                " state for course " + courseId + " as conflicting");
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Node " + owner.nodeId() + " rejected " + stateName +
+                " state for course " + courseId + " with status " + response.statusCode());
+        }
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest request, ClusterMember owner) {
+        try {
+            return httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Node " + owner.nodeId() + " is unreachable", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while calling node " + owner.nodeId(), e);
+        }
+    }
+}
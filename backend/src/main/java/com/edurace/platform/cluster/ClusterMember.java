@@ -0,0 +1,7 @@
+package com.edurace.platform.cluster;
+
+/**
+ * One backend instance: a stable node id and the base URL other nodes use to reach it.
+ */
+public record ClusterMember(String nodeId, String baseUrl) {
+}
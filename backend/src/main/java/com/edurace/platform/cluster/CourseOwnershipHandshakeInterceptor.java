@@ -0,0 +1,53 @@
+package com.edurace.platform.cluster;
+
+import com.edurace.platform.service.ClusterService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.Map;
+
+/**
+ * WebSocket upgrades can't be relayed like plain requests, so a race socket opened
+ * on a node that doesn't own the quiz's course is refused with 421 Misdirected
+ * Request and an X-Course-Owner header naming the node to reconnect to.
+ */
+@Component
+public class CourseOwnershipHandshakeInterceptor implements HandshakeInterceptor {
+
+    public static final String OWNER_HEADER = "X-Course-Owner";
+
+    @Autowired
+    private ClusterService clusterService;
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        if (clusterService.getMembers().size() == 1) {
+            return true;
+        }
+        String path = request.getURI().getPath();
+        long quizId;
+        try {
+            quizId = Long.parseLong(path.substring(path.lastIndexOf('/') + 1));
+        } catch (NumberFormatException e) {
+            return true; // the handler rejects it
+        }
+        ClusterMember owner = clusterService.ownerOf(clusterService.courseOfQuiz(quizId));
+        if (owner.equals(clusterService.getSelf())) {
+            return true;
+        }
+        response.setStatusCode(HttpStatusCode.valueOf(421));
+        response.getHeaders().set(OWNER_HEADER, owner.baseUrl());
+        return false;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+}
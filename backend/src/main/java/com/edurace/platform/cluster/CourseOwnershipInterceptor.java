@@ -0,0 +1,63 @@
+package com.edurace.platform.cluster;
+
+import com.edurace.platform.service.ClusterService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Forwards {@link CoursePartitioned} requests to the node that owns the course. A
+ * request that was already forwarded (marked by a node and carrying the cluster
+ * secret) is always handled where it lands, so nodes that momentarily disagree about
+ * an owner can't bounce it back and forth; a client can't claim that itself to reach
+ * a node that doesn't own the course.
+ */
+@Component
+public class CourseOwnershipInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    private ClusterService clusterService;
+
+    @Autowired
+    private ClusterClient clusterClient;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!(handler instanceof HandlerMethod method) || clusterClient.isForwarded(request)) {
+            return true;
+        }
+        CoursePartitioned partitioned = method.getMethodAnnotation(CoursePartitioned.class);
+        if (partitioned == null || clusterService.getMembers().size() == 1) {
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        long courseId = partitioned.quizIdVariable().isEmpty()
+            ? idVariable(variables, partitioned.courseIdVariable())
+            : clusterService.courseOfQuiz(idVariable(variables, partitioned.quizIdVariable()));
+        ClusterMember owner = clusterService.ownerOf(courseId);
+        if (owner.equals(clusterService.getSelf())) {
+            return true;
+        }
+        clusterClient.forward(owner, clusterService.getSelf(), request, response);
+        return false;
+    }
+
+    private static long idVariable(Map<String, String> variables, String name) {
+        String value = variables == null ? null : variables.get(name);
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid " + name + ": " + value);
+        }
+    }
+}
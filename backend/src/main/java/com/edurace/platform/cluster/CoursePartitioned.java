@@ -0,0 +1,28 @@
+package com.edurace.platform.cluster;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a controller method that reads or changes a course's live in-memory state.
+ * When another node owns the course, the request is forwarded there unchanged and
+ * its response relayed back.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CoursePartitioned {
+
+    /**
+     * Path variable holding the course id.
+     */
+    String courseIdVariable() default "courseId";
+
+    /**
+     * Path variable holding a quiz id; when set, the quiz's course decides the owner.
+     */
+    String quizIdVariable() default "";
+}
@@ -0,0 +1,35 @@
+package com.edurace.platform.cluster;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Collection;
+
+/**
+ * In-memory per-course state that must live on the course's owner node only. When
+ * ownership moves, the old owner releases each course it lost and ships the
+ * snapshot to the new owner, which restores it.
+ */
+public interface CoursePartitionedState {
+
+    /**
+     * Stable name used to route snapshots between nodes.
+     */
+    String stateName();
+
+    /**
+     * Courses that currently have state on this node.
+     */
+    Collection<Long> localCourseIds();
+
+    /**
+     * Drops the course's local state and returns a snapshot of it, or null if there
+     * was none.
+     */
+    JsonNode handOff(long courseId);
+
+    /**
+     * Installs a snapshot taken by the previous owner. State this node has already
+     * built for the course (e.g. reloaded from the database) takes precedence.
+     */
+    void takeOver(long courseId, JsonNode snapshot);
+}
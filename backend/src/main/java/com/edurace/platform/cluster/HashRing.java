@@ -0,0 +1,67 @@
+package com.edurace.platform.cluster;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consistent-hash ring assigning courses to cluster members.
+ *
+ * Every member is placed at a number of virtual points derived from its node id, and
+ * a course belongs to the first point at or after its own hash. Positions depend
+ * only on node ids, so every node builds the same ring from the same membership, and
+ * a join or leave moves only the courses next to that member's points.
+ */
+public class HashRing {
+
+    private final List<ClusterMember> members;
+    private final TreeMap<Long, ClusterMember> points = new TreeMap<>();
+
+    public HashRing(List<ClusterMember> members, int virtualNodes) {
+        if (members.isEmpty()) {
+            throw new IllegalArgumentException("A ring needs at least one member");
+        }
+        this.members = List.copyOf(members);
+        MessageDigest md5 = md5();
+        for (ClusterMember member : members) {
+            for (int i = 0; i < virtualNodes; i++) {
+                byte[] digest = md5.digest((member.nodeId() + "#" + i).getBytes(StandardCharsets.UTF_8));
+                ByteBuffer buffer = ByteBuffer.wrap(digest);
+                // 16 bytes of digest give two well-spread points per hash
+                points.putIfAbsent(buffer.getLong(), member);
+                points.putIfAbsent(buffer.getLong(), member);
+            }
+        }
+    }
+
+    public ClusterMember ownerOf(long courseId) {
+        Map.Entry<Long, ClusterMember> entry = points.ceilingEntry(mix(courseId));
+        return (entry != null ? entry : points.firstEntry()).getValue();
+    }
+
+    public List<ClusterMember> getMembers() { return members; }
+
+    /**
+     * MurmurHash3 finalizer: spreads sequential ids over the whole ring.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    private static MessageDigest md5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
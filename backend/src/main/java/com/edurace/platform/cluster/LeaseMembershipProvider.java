@@ -0,0 +1,43 @@
+package com.edurace.platform.cluster;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Membership from the cluster_members lease table. Every refresh renews this node's
+ * lease; members whose lease has lapsed are no longer part of the ring. Expiry is
+ * judged by the database clock, so node clocks don't need to agree.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cluster.membership", havingValue = "lease")
+public class LeaseMembershipProvider implements MembershipProvider {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.cluster.lease-ttl:PT10S}")
+    private Duration leaseTtl;
+
+    @Override
+    public List<ClusterMember> refresh(ClusterMember self) {
+        jdbcTemplate.update(
+            "INSERT INTO cluster_members (node_id, base_url, joined_at, lease_expires_at) " +
+            "VALUES (?, ?, NOW(6), TIMESTAMPADD(MICROSECOND, ?, NOW(6))) " +
+            "ON DUPLICATE KEY UPDATE base_url = VALUES(base_url), lease_expires_at = VALUES(lease_expires_at)",
+            self.nodeId(), self.baseUrl(), leaseTtl.toNanos() / 1000);
+        return jdbcTemplate.query(
+            "SELECT node_id, base_url FROM cluster_members WHERE lease_expires_at > NOW(6) ORDER BY node_id",
+            (rs, rowNum) -> new ClusterMember(rs.getString("node_id"), rs.getString("base_url")));
+    }
+
+    @Override
+    public void leave(ClusterMember self) {
+        jdbcTemplate.update("DELETE FROM cluster_members WHERE node_id = ?", self.nodeId());
+    }
+}
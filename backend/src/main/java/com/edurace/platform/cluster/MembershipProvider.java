@@ -0,0 +1,21 @@
+package com.edurace.platform.cluster;
+
+import java.util.List;
+
+/**
+ * Source of the current cluster membership. Called periodically by every node.
+ */
+public interface MembershipProvider {
+
+    /**
+     * Announces this node if the provider needs it and returns the live members,
+     * which should include {@code self}.
+     */
+    List<ClusterMember> refresh(ClusterMember self);
+
+    /**
+     * Withdraws this node on shutdown so the others take over its courses right away.
+     */
+    default void leave(ClusterMember self) {
+    }
+}
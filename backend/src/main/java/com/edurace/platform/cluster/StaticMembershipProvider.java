@@ -0,0 +1,41 @@
+package com.edurace.platform.cluster;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed membership from app.cluster.members, given as "node-id=base-url" entries.
+ * An empty list means a single node.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cluster.membership", havingValue = "static", matchIfMissing = true)
+public class StaticMembershipProvider implements MembershipProvider {
+
+    @Value("${app.cluster.members:}")
+    private List<String> members;
+
+    @Override
+    public List<ClusterMember> refresh(ClusterMember self) {
+        List<ClusterMember> result = new ArrayList<>();
+        for (String member : members) {
+            if (member.isBlank()) {
+                continue;
+            }
+            int separator = member.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Cluster member must be node-id=base-url: " + member);
+            }
+            String nodeId = member.substring(0, separator).trim();
+            // Our own entry may differ from the advertised URL only in formatting
+            result.add(nodeId.equals(self.nodeId()) ? self : new ClusterMember(nodeId, member.substring(separator + 1).trim()));
+        }
+        if (!result.contains(self)) {
+            result.add(self);
+        }
+        return result;
+    }
+}
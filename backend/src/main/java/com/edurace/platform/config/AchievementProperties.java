@@ -0,0 +1,51 @@
+package com.edurace.platform.config;
+
+import com.edurace.platform.achievement.AchievementMetric;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "app.gamification.achievements")
+public class AchievementProperties {
+
+    private long flushIntervalMs = 1000;
+    private int flushBatchSize = 500;
+    private long stateIdleEvictionMs = 3600000;
+    private List<Rule> rules = new ArrayList<>();
+
+    public long getFlushIntervalMs() { return flushIntervalMs; }
+    public void setFlushIntervalMs(long flushIntervalMs) { this.flushIntervalMs = flushIntervalMs; }
+
+    public int getFlushBatchSize() { return flushBatchSize; }
+    public void setFlushBatchSize(int flushBatchSize) { this.flushBatchSize = flushBatchSize; }
+
+    public long getStateIdleEvictionMs() { return stateIdleEvictionMs; }
+    public void setStateIdleEvictionMs(long stateIdleEvictionMs) { this.stateIdleEvictionMs = stateIdleEvictionMs; }
+
+    public List<Rule> getRules() { return rules; }
+    public void setRules(List<Rule> rules) { this.rules = rules; }
+
+    public static class Rule {
+        private String name;
+        private String description;
+        private String iconUrl;
+        private Map<AchievementMetric, Integer> requires = new EnumMap<>(AchievementMetric.class);
+
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public String getDescription() { return description; }
+        public void setDescription(String description) { this.description = description; }
+
+        public String getIconUrl() { return iconUrl; }
+        public void setIconUrl(String iconUrl) { this.iconUrl = iconUrl; }
+
+        public Map<AchievementMetric, Integer> getRequires() { return requires; }
+        public void setRequires(Map<AchievementMetric, Integer> requires) { this.requires = requires; }
+    }
+}
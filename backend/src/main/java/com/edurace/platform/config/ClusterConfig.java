@@ -0,0 +1,19 @@
+package com.edurace.platform.config;
+
+import com.edurace.platform.cluster.CourseOwnershipInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class ClusterConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private CourseOwnershipInterceptor courseOwnershipInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(courseOwnershipInterceptor);
+    }
+}
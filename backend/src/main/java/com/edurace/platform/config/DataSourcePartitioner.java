@@ -0,0 +1,50 @@
+package com.edurace.platform.config;
+
+import com.edurace.platform.scheduling.PartitionedDataSource;
+import com.edurace.platform.scheduling.RequestClass;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Wraps the connection pool in a {@link PartitionedDataSource} with the per-class
+ * connection caps of app.scheduling.classes, before JPA, Flyway or any JdbcTemplate
+ * sees it.
+ */
+@Component
+public class DataSourcePartitioner implements BeanPostProcessor, EnvironmentAware {
+
+    private SchedulingProperties properties;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        // Bound here rather than injected, which would create it too early
+        properties = Binder.get(environment).bind("app.scheduling", SchedulingProperties.class)
+            .orElseGet(SchedulingProperties::new);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (!properties.isEnabled() || !(bean instanceof DataSource dataSource) || bean instanceof PartitionedDataSource) {
+            return bean;
+        }
+        Map<RequestClass, Integer> caps = new EnumMap<>(RequestClass.class);
+        for (RequestClass requestClass : RequestClass.values()) {
+            int cap = properties.settingsFor(requestClass).getMaxConnections();
+            if (cap < Integer.MAX_VALUE) {
+                caps.put(requestClass, cap);
+            }
+        }
+        if (caps.isEmpty()) {
+            return bean;
+        }
+        return new PartitionedDataSource(dataSource, caps, properties.getConnectionWait().toMillis());
+    }
+}
@@ -0,0 +1,57 @@
+package com.edurace.platform.config;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Marks beans whose type lives under one of app.startup.lazy-bean-prefixes as lazy,
+ * so integrations that are not needed to serve traffic (mail, SMS, API docs) are
+ * only created on first use instead of during startup.
+ */
+@Component
+public class LazyBeanInitializer implements BeanFactoryPostProcessor, EnvironmentAware {
+
+    private List<String> prefixes = List.of();
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        prefixes = Binder.get(environment)
+            .bind("app.startup.lazy-bean-prefixes", Bindable.listOf(String.class))
+            .orElse(List.of());
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        if (prefixes.isEmpty()) {
+            return;
+        }
+        for (String name : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(name);
+            if (definition.isLazyInit() || definition.getRole() == BeanDefinition.ROLE_INFRASTRUCTURE) {
+                continue;
+            }
+            Class<?> type = beanFactory.getType(name, false);
+            if (type != null && matches(type.getName())) {
+                definition.setLazyInit(true);
+            }
+        }
+    }
+
+    private boolean matches(String className) {
+        for (String prefix : prefixes) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
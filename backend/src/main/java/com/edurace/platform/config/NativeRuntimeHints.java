@@ -0,0 +1,74 @@
+package com.edurace.platform.config;
+
+import com.edurace.platform.event.CourseChangedEvent;
+import com.edurace.platform.event.EnrollmentCompletedEvent;
+import com.edurace.platform.event.EnrollmentCreatedEvent;
+import com.edurace.platform.event.EnrollmentProgressChangedEvent;
+import com.edurace.platform.event.LeaderboardChangedEvent;
+import com.edurace.platform.event.PaymentStatusChangedEvent;
+import com.edurace.platform.event.QuizAttemptCompletedEvent;
+import com.edurace.platform.event.StreakRolloverCompletedEvent;
+import com.edurace.platform.event.StreakUpdatedEvent;
+import com.edurace.platform.event.UserChangedEvent;
+import com.edurace.platform.event.UserRemovedEvent;
+import com.edurace.platform.repository.CourseDetails;
+import com.edurace.platform.repository.LeaderboardEntry;
+import com.edurace.platform.repository.LessonSummary;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+import java.sql.Connection;
+import java.util.List;
+
+/**
+ * Reachability metadata for the native image that Spring AOT cannot infer.
+ *
+ * Entities, repositories, configuration properties and the security filter chain
+ * (including JwtAuthenticationFilter) are covered by Spring's own AOT processing;
+ * {@link com.edurace.platform.singleflight.SingleFlightAotProcessor} covers the
+ * single-flight repository proxies. What is left is jjwt, whose API jar creates its
+ * implementation classes reflectively by name and finds its JSON and compression
+ * codecs through ServiceLoader, the outboxed and cluster events, which the outbox
+ * relay and the cluster event poller bind from JSON by class name, the repository
+ * projections Hibernate constructs for JPQL constructor expressions, the mail
+ * templates, which are found by a classpath scan, and the JDK proxy that
+ * PartitionedDataSource hands out in place of a Connection.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final List<String> JJWT_REFLECTIVE_TYPES = List.of(
+        "io.jsonwebtoken.impl.DefaultJwtBuilder",
+        "io.jsonwebtoken.impl.DefaultJwtParser",
+        "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+        "io.jsonwebtoken.impl.DefaultClaims",
+        "io.jsonwebtoken.impl.DefaultHeader",
+        "io.jsonwebtoken.impl.DefaultJwsHeader",
+        "io.jsonwebtoken.impl.compression.DeflateCompressionCodec",
+        "io.jsonwebtoken.impl.compression.GzipCompressionCodec",
+        "io.jsonwebtoken.jackson.io.JacksonSerializer",
+        "io.jsonwebtoken.jackson.io.JacksonDeserializer");
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (String type : JJWT_REFLECTIVE_TYPES) {
+            hints.reflection().registerType(TypeReference.of(type),
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+        hints.resources().registerPattern("mail/*.txt");
+        hints.proxies().registerJdkProxy(Connection.class);
+        for (Class<?> projection : List.of(CourseDetails.class, LessonSummary.class, LeaderboardEntry.class)) {
+            hints.reflection().registerType(projection, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        }
+
+        BindingReflectionHintsRegistrar bindings = new BindingReflectionHintsRegistrar();
+        bindings.registerReflectionHints(hints.reflection(),
+            QuizAttemptCompletedEvent.class, EnrollmentCreatedEvent.class, PaymentStatusChangedEvent.class,
+            CourseChangedEvent.class, LeaderboardChangedEvent.class, UserChangedEvent.class, UserRemovedEvent.class,
+            StreakUpdatedEvent.class, StreakRolloverCompletedEvent.class, EnrollmentProgressChangedEvent.class,
+            EnrollmentCompletedEvent.class);
+    }
+}
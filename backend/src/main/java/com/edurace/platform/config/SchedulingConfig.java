@@ -0,0 +1,19 @@
+package com.edurace.platform.config;
+
+import com.edurace.platform.scheduling.RequestClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+@Configuration
+public class SchedulingConfig {
+
+    /**
+     * Applied by Spring Boot to the application task executor, which runs @Async
+     * methods and streamed response bodies.
+     */
+    @Bean
+    public TaskDecorator requestClassTaskDecorator() {
+        return RequestClass::propagate;
+    }
+}
@@ -0,0 +1,80 @@
+package com.edurace.platform.config;
+
+import com.edurace.platform.scheduling.RequestClass;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "app.scheduling")
+public class SchedulingProperties {
+
+    private boolean enabled = true;
+    private Duration slo = Duration.ofMillis(250);
+    private double sloPercentile = 0.99;
+    private Duration window = Duration.ofSeconds(10);
+    private long adjustIntervalMs = 1000;
+    private int minSamples = 20;
+    private Duration connectionWait = Duration.ofSeconds(2);
+    private Map<RequestClass, ClassSettings> classes = new EnumMap<>(RequestClass.class);
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public Duration getSlo() { return slo; }
+    public void setSlo(Duration slo) { this.slo = slo; }
+
+    public double getSloPercentile() { return sloPercentile; }
+    public void setSloPercentile(double sloPercentile) { this.sloPercentile = sloPercentile; }
+
+    public Duration getWindow() { return window; }
+    public void setWindow(Duration window) { this.window = window; }
+
+    public long getAdjustIntervalMs() { return adjustIntervalMs; }
+    public void setAdjustIntervalMs(long adjustIntervalMs) { this.adjustIntervalMs = adjustIntervalMs; }
+
+    public int getMinSamples() { return minSamples; }
+    public void setMinSamples(int minSamples) { this.minSamples = minSamples; }
+
+    public Duration getConnectionWait() { return connectionWait; }
+    public void setConnectionWait(Duration connectionWait) { this.connectionWait = connectionWait; }
+
+    public Map<RequestClass, ClassSettings> getClasses() { return classes; }
+    public void setClasses(Map<RequestClass, ClassSettings> classes) { this.classes = classes; }
+
+    public ClassSettings settingsFor(RequestClass requestClass) {
+        return classes.computeIfAbsent(requestClass, c -> new ClassSettings());
+    }
+
+    public static class ClassSettings {
+        private List<String> paths = new ArrayList<>();
+        private int maxConcurrent = Integer.MAX_VALUE;
+        private int minConcurrent = 0;
+        private int queueSize = 0;
+        private Duration maxWait = Duration.ZERO;
+        private int maxConnections = Integer.MAX_VALUE;
+
+        public List<String> getPaths() { return paths; }
+        public void setPaths(List<String> paths) { this.paths = paths; }
+
+        public int getMaxConcurrent() { return maxConcurrent; }
+        public void setMaxConcurrent(int maxConcurrent) { this.maxConcurrent = maxConcurrent; }
+
+        public int getMinConcurrent() { return minConcurrent; }
+        public void setMinConcurrent(int minConcurrent) { this.minConcurrent = minConcurrent; }
+
+        public int getQueueSize() { return queueSize; }
+        public void setQueueSize(int queueSize) { this.queueSize = queueSize; }
+
+        public Duration getMaxWait() { return maxWait; }
+        public void setMaxWait(Duration maxWait) { this.maxWait = maxWait; }
+
+        public int getMaxConnections() { return maxConnections; }
+        public void setMaxConnections(int maxConnections) { this.maxConnections = maxConnections; }
+    }
+}
@@ -2,6 +2,7 @@ package com.edurace.platform.config;
 
 import com.edurace.platform.security.JwtAuthenticationEntryPoint;
 import com.edurace.platform.security.JwtAuthenticationFilter;
+import com.edurace.platform.security.OAuth2LoginHandler;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -38,6 +39,9 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Autowired
+    private OAuth2LoginHandler oAuth2LoginHandler;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -63,9 +67,11 @@ public class SecurityConfig {
             .authorizeHttpRequests(authz -> authz
                 // Public endpoints
                 .requestMatchers("/auth/**", "/public/**").permitAll()
+                .requestMatchers("/oauth2/**", "/login/oauth2/**").permitAll()
                 .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-ui.html").permitAll()
                 .requestMatchers("/actuator/health").permitAll()
                 .requestMatchers("/ws/**").permitAll() // WebSocket endpoints
+                .requestMatchers("/internal/cluster/**").permitAll() // Node-to-node calls, checked against the cluster secret
                 
                 // Admin endpoints
                 .requestMatchers("/admin/**").hasRole("ADMIN")
@@ -79,6 +85,10 @@ public class SecurityConfig {
                 // All other requests need authentication
                 .anyRequest().authenticated()
             )
+            .oauth2Login(oauth2 -> oauth2
+                .successHandler(oAuth2LoginHandler)
+                .failureHandler(oAuth2LoginHandler)
+            )
             .exceptionHandling(ex -> ex.authenticationEntryPoint(jwtAuthenticationEntryPoint))
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
 
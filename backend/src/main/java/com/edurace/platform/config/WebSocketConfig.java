@@ -0,0 +1,35 @@
+package com.edurace.platform.config;
+
+import com.edurace.platform.cluster.CourseOwnershipHandshakeInterceptor;
+import com.edurace.platform.race.RaceWebSocketHandler;
+import com.edurace.platform.security.JwtHandshakeInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    @Autowired
+    private RaceWebSocketHandler raceWebSocketHandler;
+
+    @Autowired
+    private JwtHandshakeInterceptor jwtHandshakeInterceptor;
+
+    @Autowired
+    private CourseOwnershipHandshakeInterceptor courseOwnershipHandshakeInterceptor;
+
+    @Value("${app.cors.allowed-origins}")
+    private String[] allowedOrigins;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(raceWebSocketHandler, "/ws/races/*")
+                .addInterceptors(jwtHandshakeInterceptor, courseOwnershipHandshakeInterceptor)
+                .setAllowedOriginPatterns(allowedOrigins);
+    }
+}
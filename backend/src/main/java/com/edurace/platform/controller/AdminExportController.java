@@ -0,0 +1,85 @@
+package com.edurace.platform.controller;
+
+import com.edurace.platform.entity.PaymentStatus;
+import com.edurace.platform.entity.Role;
+import com.edurace.platform.export.ExportFormat;
+import com.edurace.platform.service.AdminExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/admin/exports")
+public class AdminExportController {
+
+    @Autowired
+    private AdminExportService adminExportService;
+
+    @FunctionalInterface
+    private interface Export {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    @GetMapping("/users")
+    public ResponseEntity<StreamingResponseBody> users(@RequestParam(required = false) Role role,
+                                                       @RequestParam(defaultValue = "CSV") ExportFormat format,
+                                                       @RequestParam(defaultValue = "false") boolean gzip) {
+        return stream("users", format, gzip, out -> adminExportService.exportUsers(role, format, out));
+    }
+
+    @GetMapping("/payments")
+    public ResponseEntity<StreamingResponseBody> payments(
+            @RequestParam(required = false) PaymentStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return stream("payments", format, gzip, out -> adminExportService.exportPayments(status, from, to, format, out));
+    }
+
+    @GetMapping("/enrollments")
+    public ResponseEntity<StreamingResponseBody> enrollments(@RequestParam(name = "course_id", required = false) Long courseId,
+                                                             @RequestParam(defaultValue = "CSV") ExportFormat format,
+                                                             @RequestParam(defaultValue = "false") boolean gzip) {
+        return stream("enrollments", format, gzip, out -> adminExportService.exportEnrollments(courseId, format, out));
+    }
+
+    @GetMapping("/quiz-attempts")
+    public ResponseEntity<StreamingResponseBody> quizAttempts(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return stream("quiz-attempts", format, gzip, out -> adminExportService.exportQuizAttempts(from, to, format, out));
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String name, ExportFormat format, boolean gzip, Export export) {
+        // Reserved before streaming starts, while an error status can still be sent
+        adminExportService.reserve();
+        StreamingResponseBody body = out -> {
+            try {
+                // The export closes the stream, which finishes the gzip trailer
+                export.writeTo(gzip ? new GZIPOutputStream(out, 64 * 1024) : out);
+            } finally {
+                adminExportService.release();
+            }
+        };
+        String filename = name + "-" + LocalDate.now() + format.getExtension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+            .contentType(gzip ? MediaType.parseMediaType("application/gzip") : MediaType.parseMediaType(format.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+            .body(body);
+    }
+}
@@ -0,0 +1,54 @@
+package com.edurace.platform.controller;
+
+import com.edurace.platform.scheduling.PriorityScheduler;
+import com.edurace.platform.service.MailService;
+import com.edurace.platform.singleflight.SingleFlightMetrics;
+import com.edurace.platform.userindex.UserIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/metrics")
+public class AdminMetricsController {
+
+    @Autowired
+    private SingleFlightMetrics singleFlightMetrics;
+
+    @Autowired
+    private UserIndex userIndex;
+
+    @Autowired
+    private MailService mailService;
+
+    @Autowired
+    private PriorityScheduler priorityScheduler;
+
+    @GetMapping("/single-flight")
+    public ResponseEntity<Map<String, Map<String, Object>>> singleFlight() {
+        return ResponseEntity.ok(singleFlightMetrics.snapshot());
+    }
+
+    @GetMapping("/user-index")
+    public ResponseEntity<Map<String, Object>> userIndex() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("users", userIndex.size());
+        response.put("memory_bytes", userIndex.memoryBytes());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/mail-queue")
+    public ResponseEntity<Map<String, Long>> mailQueue() {
+        return ResponseEntity.ok(mailService.queueCounts());
+    }
+
+    @GetMapping("/scheduling")
+    public ResponseEntity<Map<String, Object>> scheduling() {
+        return ResponseEntity.ok(priorityScheduler.snapshot());
+    }
+}
@@ -1,15 +1,27 @@
 package com.edurace.platform.controller;
 
+import com.edurace.platform.cluster.ClusterClient;
+import com.edurace.platform.cluster.ClusterMember;
+import com.edurace.platform.entity.User;
 import com.edurace.platform.security.JwtUtil;
+import com.edurace.platform.service.ClusterService;
+import com.edurace.platform.service.EmailVerificationService;
+import com.edurace.platform.service.OtpService;
+import com.edurace.platform.service.StreakService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -26,6 +38,24 @@ public class AuthController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private StreakService streakService;
+
+    @Autowired
+    private OtpService otpService;
+
+    @Autowired
+    private EmailVerificationService emailVerificationService;
+
+    @Autowired
+    private ClusterService clusterService;
+
+    @Autowired
+    private ClusterClient clusterClient;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest) {
         try {
@@ -37,15 +67,51 @@ public class AuthController {
         }
 
         final UserDetails userDetails = userDetailsService.loadUserByUsername(loginRequest.getEmail());
-        final String jwt = jwtUtil.generateToken(userDetails);
-        final String refreshToken = jwtUtil.generateRefreshToken(userDetails);
+        return ResponseEntity.ok(issueTokens(userDetails));
+    }
+
+    @PostMapping("/otp/request")
+    public ResponseEntity<?> requestOtp(@RequestBody OtpRequest otpRequest, HttpServletRequest request,
+                                        HttpServletResponse response) throws IOException {
+        if (forwardedToCodeOwner(otpRequest, request, response)) {
+            return null;
+        }
+        otpService.requestCode(otpRequest.getPhoneNumber());
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("message", "If the number belongs to an account, a code is on its way");
+        return ResponseEntity.accepted().body(body);
+    }
+
+    @PostMapping("/otp/verify")
+    public ResponseEntity<?> verifyOtp(@RequestBody OtpRequest otpRequest, HttpServletRequest request,
+                                       HttpServletResponse response) throws IOException {
+        if (forwardedToCodeOwner(otpRequest, request, response)) {
+            return null;
+        }
+        User user = otpService.verifyCode(otpRequest.getPhoneNumber(), otpRequest.getCode());
+        if (!user.isEnabled() || !user.isAccountNonLocked()) {
+            throw new DisabledException("Account is disabled or locked");
+        }
+        return ResponseEntity.ok(issueTokens(user));
+    }
+
+    @PostMapping("/email/verification")
+    public ResponseEntity<?> requestEmailVerification(@RequestBody EmailVerificationRequest verificationRequest) {
+        emailVerificationService.requestVerification(verificationRequest.getEmail());
 
         Map<String, Object> response = new HashMap<>();
-        response.put("access_token", jwt);
-        response.put("refresh_token", refreshToken);
-        response.put("token_type", "Bearer");
-        response.put("expires_in", 86400); // 24 hours in seconds
+        response.put("message", "If the address belongs to an unverified account, a verification email is on its way");
+        return ResponseEntity.accepted().body(response);
+    }
 
+    @PostMapping("/email/verify")
+    public ResponseEntity<?> verifyEmail(@RequestBody EmailVerificationRequest verificationRequest) {
+        User user = emailVerificationService.verify(verificationRequest.getToken());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("email", user.getEmail());
+        response.put("email_verified", true);
         return ResponseEntity.ok(response);
     }
 
@@ -54,6 +120,39 @@ public class AuthController {
         return ResponseEntity.ok("Authentication service is running!");
     }
 
+    /**
+     * One-time codes are held by the node owning the phone number, so requests for
+     * it are relayed there like course-partitioned ones.
+     */
+    private boolean forwardedToCodeOwner(OtpRequest otpRequest, HttpServletRequest request,
+                                         HttpServletResponse response) throws IOException {
+        if (clusterService.getMembers().size() == 1 || clusterClient.isForwarded(request)) {
+            return false;
+        }
+        ClusterMember owner = clusterService.ownerOfPhoneNumber(OtpService.normalize(otpRequest.getPhoneNumber()));
+        if (owner.equals(clusterService.getSelf())) {
+            return false;
+        }
+        clusterClient.forward(owner, clusterService.getSelf(), request, objectMapper.writeValueAsBytes(otpRequest), response);
+        return true;
+    }
+
+    private Map<String, Object> issueTokens(UserDetails userDetails) {
+        final String jwt = jwtUtil.generateToken(userDetails);
+        final String refreshToken = jwtUtil.generateRefreshToken(userDetails);
+
+        if (userDetails instanceof User user) {
+            streakService.recordActivity(user.getId());
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("access_token", jwt);
+        response.put("refresh_token", refreshToken);
+        response.put("token_type", "Bearer");
+        response.put("expires_in", 86400); // 24 hours in seconds
+        return response;
+    }
+
     // Inner class for login request
     public static class LoginRequest {
         private String email;
@@ -66,4 +165,26 @@ public class AuthController {
         public String getPassword() { return password; }
         public void setPassword(String password) { this.password = password; }
     }
-}
\ No newline at end of file
+
+    public static class OtpRequest {
+        private String phoneNumber;
+        private String code;
+
+        public String getPhoneNumber() { return phoneNumber; }
+        public void setPhoneNumber(String phoneNumber) { this.phoneNumber = phoneNumber; }
+
+        public String getCode() { return code; }
+        public void setCode(String code) { this.code = code; }
+    }
+
+    public static class EmailVerificationRequest {
+        private String email;
+        private String token;
+
+        public String getEmail() { return email; }
+        public void setEmail(String email) { this.email = email; }
+
+        public String getToken() { return token; }
+        public void setToken(String token) { this.token = token; }
+    }
+}
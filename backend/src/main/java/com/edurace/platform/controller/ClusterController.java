@@ -0,0 +1,56 @@
+package com.edurace.platform.controller;
+
+import com.edurace.platform.cluster.ClusterClient;
+import com.edurace.platform.cluster.ClusterMember;
+import com.edurace.platform.service.ClusterService;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+public class ClusterController {
+
+    @Autowired
+    private ClusterService clusterService;
+
+    @Autowired
+    private ClusterClient clusterClient;
+
+    @PutMapping("/internal/cluster/courses/{courseId}/state/{stateName}")
+    public ResponseEntity<Void> takeOverState(@PathVariable Long courseId, @PathVariable String stateName,
+                                             @RequestHeader(name = ClusterClient.TOKEN_HEADER, required = false) String token,
+                                             @RequestBody JsonNode snapshot) {
+        if (!clusterClient.isTrusted(token)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not a cluster member");
+        }
+        clusterService.takeOver(stateName, courseId, snapshot);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/admin/cluster")
+    public ResponseEntity<?> cluster(@RequestParam(name = "course_id", required = false) Long courseId) {
+        List<Map<String, Object>> members = new ArrayList<>();
+        for (ClusterMember member : clusterService.getMembers()) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("node_id", member.nodeId());
+            entry.put("base_url", member.baseUrl());
+            members.add(entry);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("node_id", clusterService.getSelf().nodeId());
+        response.put("members", members);
+        if (courseId != null) {
+            response.put("course_owner", clusterService.ownerOf(courseId).nodeId());
+        }
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,40 @@
+package com.edurace.platform.controller;
+
+import com.edurace.platform.entity.User;
+import com.edurace.platform.service.CourseAccessService;
+import com.edurace.platform.service.MailService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/instructor/courses")
+public class CourseAnnouncementController {
+
+    @Autowired
+    private CourseAccessService courseAccessService;
+
+    @Autowired
+    private MailService mailService;
+
+    /**
+     * Emails every active student of the course a start reminder; students already
+     * reminded are skipped, so repeating the call is harmless.
+     */
+    @PostMapping("/{courseId}/announcements/course-start")
+    public ResponseEntity<?> announceCourseStart(@PathVariable Long courseId, @AuthenticationPrincipal User user) {
+        courseAccessService.checkInstructorAccess(courseId, user);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("course_id", courseId);
+        response.put("queued", mailService.enqueueCourseStart(courseId));
+        return ResponseEntity.accepted().body(response);
+    }
+}
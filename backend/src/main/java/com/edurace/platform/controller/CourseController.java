@@ -0,0 +1,112 @@
+package com.edurace.platform.controller;
+
+import com.edurace.platform.cache.ResponseCache;
+import com.edurace.platform.entity.CourseStatus;
+import com.edurace.platform.entity.DifficultyLevel;
+import com.edurace.platform.entity.Role;
+import com.edurace.platform.entity.User;
+import com.edurace.platform.leaderboard.LeaderboardWindow;
+import com.edurace.platform.search.CourseSearchQuery;
+import com.edurace.platform.search.SearchHit;
+import com.edurace.platform.search.SearchHitType;
+import com.edurace.platform.service.CatalogService;
+import com.edurace.platform.service.SearchIndexService;
+import com.edurace.platform.service.WindowedLeaderboardService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/courses")
+public class CourseController {
+
+    private static final int MAX_LEADERBOARD_SIZE = 100;
+    private static final int MAX_SEARCH_RESULTS = 100;
+
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private WindowedLeaderboardService windowedLeaderboardService;
+
+    @GetMapping
+    public void catalog(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        responseCache.write(request, response, CatalogService.CATALOG, catalogService::renderCatalog);
+    }
+
+    @GetMapping("/{courseId}")
+    public void course(@PathVariable Long courseId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        responseCache.write(request, response, CatalogService.courseResource(courseId),
+            () -> catalogService.renderCourse(courseId));
+    }
+
+    @GetMapping("/{courseId}/leaderboard")
+    public void leaderboard(@PathVariable Long courseId,
+                            @RequestParam(defaultValue = "10") int limit,
+                            @RequestParam(defaultValue = "ALL_TIME") LeaderboardWindow window,
+                            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        int size = Math.max(1, Math.min(limit, MAX_LEADERBOARD_SIZE));
+        if (!window.isRolling()) {
+            responseCache.write(request, response, CatalogService.leaderboardResource(courseId), "limit=" + size,
+                () -> catalogService.renderLeaderboard(courseId, size));
+            return;
+        }
+        responseCache.write(request, response, CatalogService.leaderboardResource(courseId),
+            "window=" + window + "&limit=" + size, () -> {
+                catalogService.requireCourse(courseId);
+                return windowedLeaderboardService.renderTop(courseId, window, size);
+            });
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<Map<String, Object>>> search(
+            @RequestParam(name = "q", required = false) String text,
+            @RequestParam(required = false) SearchHitType type,
+            @RequestParam(name = "difficulty", required = false) Set<DifficultyLevel> difficultyLevels,
+            @RequestParam(required = false) CourseStatus status,
+            @RequestParam(name = "min_fee", required = false) BigDecimal minFee,
+            @RequestParam(name = "max_fee", required = false) BigDecimal maxFee,
+            @RequestParam(name = "starts_after", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startsAfter,
+            @RequestParam(name = "starts_before", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startsBefore,
+            @RequestParam(defaultValue = "20") int limit,
+            @AuthenticationPrincipal User user) {
+        // Only staff can search courses that are not published
+        if (status == null || user.getRole() == Role.STUDENT) {
+            status = CourseStatus.PUBLISHED;
+        }
+        int size = Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS));
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (SearchHit hit : searchIndexService.search(new CourseSearchQuery(
+                text, type, difficultyLevels, status, minFee, maxFee, startsAfter, startsBefore, size))) {
+            Map<String, Object> result = new HashMap<>();
+            result.put("type", hit.type());
+            result.put("course_id", hit.courseId());
+            result.put("lesson_id", hit.lessonId());
+            result.put("title", hit.title());
+            result.put("course_title", hit.courseTitle());
+            result.put("score", hit.score());
+            results.add(result);
+        }
+        return ResponseEntity.ok(results);
+    }
+}
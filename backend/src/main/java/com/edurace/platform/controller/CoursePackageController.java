@@ -0,0 +1,62 @@
+package com.edurace.platform.controller;
+
+import com.edurace.platform.entity.User;
+import com.edurace.platform.service.CourseAccessService;
+import com.edurace.platform.service.CoursePackageService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/instructor/courses")
+public class CoursePackageController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    @Autowired
+    private CoursePackageService coursePackageService;
+
+    @Autowired
+    private CourseAccessService courseAccessService;
+
+    /**
+     * Body is a course package, plain or gzip-compressed; it is read as it arrives.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<?> importCourse(HttpServletRequest request, @AuthenticationPrincipal User user) throws IOException {
+        return ResponseEntity.status(HttpStatus.CREATED)
+            .body(coursePackageService.importCourse(request.getInputStream(), user));
+    }
+
+    @GetMapping("/{courseId}/export")
+    public ResponseEntity<StreamingResponseBody> exportCourse(@PathVariable Long courseId,
+                                                              @RequestParam(defaultValue = "false") boolean gzip,
+                                                              @AuthenticationPrincipal User user) {
+        // Checked before streaming starts, while an error status can still be sent
+        courseAccessService.checkInstructorAccess(courseId, user);
+        String filename = "course-" + courseId + (gzip ? ".jsonl.gz" : ".jsonl");
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+            coursePackageService.exportCourse(courseId, target);
+        };
+        return ResponseEntity.ok()
+            .contentType(gzip ? MediaType.parseMediaType("application/gzip") : NDJSON)
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+            .body(body);
+    }
+}
@@ -0,0 +1,34 @@
+package com.edurace.platform.controller;
+
+import com.edurace.platform.cluster.CoursePartitioned;
+import com.edurace.platform.entity.User;
+import com.edurace.platform.service.EnrollmentAdmissionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/courses/{courseId}/enrollments")
+public class EnrollmentController {
+
+    @Autowired
+    private EnrollmentAdmissionService admissionService;
+
+    @CoursePartitioned
+    @PostMapping
+    public ResponseEntity<?> enroll(@PathVariable Long courseId, @AuthenticationPrincipal User user) {
+        EnrollmentAdmissionService.AdmissionResult result = admissionService.admit(courseId, user.getId());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", result.outcome());
+        response.put("payment_id", result.paymentId());
+
+        return ResponseEntity.status(result.outcome() == EnrollmentAdmissionService.Outcome.ENROLLED
+            ? HttpStatus.CREATED : HttpStatus.ACCEPTED).body(response);
+    }
+}
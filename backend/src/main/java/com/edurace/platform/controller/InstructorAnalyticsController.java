@@ -0,0 +1,24 @@
+package com.edurace.platform.controller;
+
+import com.edurace.platform.entity.User;
+import com.edurace.platform.service.AnalyticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/instructor")
+public class InstructorAnalyticsController {
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @GetMapping("/courses/{courseId}/analytics")
+    public ResponseEntity<?> courseAnalytics(@PathVariable Long courseId, @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(analyticsService.courseReport(courseId, user));
+    }
+}
@@ -0,0 +1,79 @@
+package com.edurace.platform.controller;
+
+import com.edurace.platform.export.ExportFormat;
+import com.edurace.platform.service.PaymentReconciliationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/payments/reconciliation")
+public class PaymentReconciliationController {
+
+    @Autowired
+    private PaymentReconciliationService reconciliationService;
+
+    @GetMapping("/files")
+    public ResponseEntity<Map<String, Object>> settlementFiles() throws IOException {
+        Map<String, Object> response = new HashMap<>();
+        response.put("files", reconciliationService.listSettlementFiles());
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/runs")
+    public ResponseEntity<Map<String, Object>> reconcile(@RequestBody ReconciliationRequest request) throws IOException {
+        return ResponseEntity.ok(reconciliationService.reconcile(request.getFiles(), request.getFrom(), request.getTo(),
+            request.isMinorUnits(), request.isApply()));
+    }
+
+    @GetMapping("/reports/{name}")
+    public ResponseEntity<Resource> report(@PathVariable String name) {
+        Path file = reconciliationService.reportFile(name);
+        if (!Files.isRegularFile(file)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No report named " + name);
+        }
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(ExportFormat.CSV.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
+            .body(new FileSystemResource(file));
+    }
+
+    // Inner class for reconciliation request
+    public static class ReconciliationRequest {
+        private List<String> files;
+        private LocalDate from;
+        private LocalDate to;
+        private boolean minorUnits;
+        private boolean apply;
+
+        // Getters and setters
+        public List<String> getFiles() { return files; }
+        public void setFiles(List<String> files) { this.files = files; }
+
+        public LocalDate getFrom() { return from; }
+        public void setFrom(LocalDate from) { this.from = from; }
+
+        public LocalDate getTo() { return to; }
+        public void setTo(LocalDate to) { this.to = to; }
+
+        public boolean isMinorUnits() { return minorUnits; }
+        public void setMinorUnits(boolean minorUnits) { this.minorUnits = minorUnits; }
+
+        public boolean isApply() { return apply; }
+        public void setApply(boolean apply) { this.apply = apply; }
+    }
+}
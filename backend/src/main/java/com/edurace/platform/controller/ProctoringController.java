@@ -0,0 +1,54 @@
+package com.edurace.platform.controller;
+
+import com.edurace.platform.cluster.CoursePartitioned;
+import com.edurace.platform.entity.User;
+import com.edurace.platform.service.CourseAccessService;
+import com.edurace.platform.service.ProctoringService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+public class ProctoringController {
+
+    private static final int MAX_FLAGS = 500;
+
+    @Autowired
+    private ProctoringService proctoringService;
+
+    @Autowired
+    private CourseAccessService courseAccessService;
+
+    @CoursePartitioned(quizIdVariable = "quizId")
+    @PostMapping("/quizzes/{quizId}/attempts/{attemptId}/proctoring-events")
+    public ResponseEntity<?> ingest(@PathVariable Long quizId, @PathVariable Long attemptId,
+                                    @RequestBody ProctoringBatchRequest request,
+                                    @AuthenticationPrincipal User user) {
+        int accepted = proctoringService.ingest(quizId, attemptId, user, request.getEvents());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("accepted", accepted);
+        return ResponseEntity.accepted().body(response);
+    }
+
+    @GetMapping("/instructor/courses/{courseId}/proctoring/flags")
+    public ResponseEntity<?> flags(@PathVariable Long courseId,
+                                   @RequestParam(defaultValue = "100") int limit,
+                                   @AuthenticationPrincipal User user) {
+        courseAccessService.checkInstructorAccess(courseId, user);
+        return ResponseEntity.ok(proctoringService.flaggedAttempts(courseId, Math.max(1, Math.min(limit, MAX_FLAGS))));
+    }
+
+    // Inner class for a batch of client events
+    public static class ProctoringBatchRequest {
+        private List<ProctoringService.EventRequest> events;
+
+        public List<ProctoringService.EventRequest> getEvents() { return events; }
+        public void setEvents(List<ProctoringService.EventRequest> events) { this.events = events; }
+    }
+}
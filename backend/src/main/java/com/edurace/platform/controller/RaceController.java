@@ -0,0 +1,73 @@
+package com.edurace.platform.controller;
+
+import com.edurace.platform.cluster.CoursePartitioned;
+import com.edurace.platform.entity.User;
+import com.edurace.platform.race.RaceSession;
+import com.edurace.platform.service.ClusterService;
+import com.edurace.platform.service.CourseAccessService;
+import com.edurace.platform.service.RaceOrchestratorService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+public class RaceController {
+
+    @Autowired
+    private RaceOrchestratorService raceOrchestratorService;
+
+    @Autowired
+    private ClusterService clusterService;
+
+    @Autowired
+    private CourseAccessService courseAccessService;
+
+    @PostMapping("/instructor/races")
+    public ResponseEntity<?> scheduleRace(@RequestBody ScheduleRaceRequest request, @AuthenticationPrincipal User user) {
+        if (request.getQuizId() == null || request.getStartsAt() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "quizId and startsAt are required");
+        }
+        courseAccessService.checkInstructorAccess(clusterService.courseOfQuiz(request.getQuizId()), user);
+        RaceSession race = raceOrchestratorService.scheduleRace(request.getQuizId(), request.getStartsAt());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("quiz_id", race.getQuizId());
+        response.put("starts_at", race.getStartsAt());
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @CoursePartitioned(quizIdVariable = "quizId")
+    @GetMapping("/quizzes/{quizId}/race")
+    public ResponseEntity<byte[]> racePayload(@PathVariable Long quizId, @AuthenticationPrincipal User user) {
+        RaceSession race = raceOrchestratorService.getRace(quizId);
+        if (!race.hasStarted(Instant.now())) {
+            return ResponseEntity.status(HttpStatus.TOO_EARLY)
+                    .header("X-Race-Starts-At", race.getStartsAt().toString())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(raceOrchestratorService.payloadFor(race, user.getId()));
+    }
+
+    // Inner class for schedule request
+    public static class ScheduleRaceRequest {
+        private Long quizId;
+        private Instant startsAt;
+
+        // Getters and setters
+        public Long getQuizId() { return quizId; }
+        public void setQuizId(Long quizId) { this.quizId = quizId; }
+
+        public Instant getStartsAt() { return startsAt; }
+        public void setStartsAt(Instant startsAt) { this.startsAt = startsAt; }
+    }
+}
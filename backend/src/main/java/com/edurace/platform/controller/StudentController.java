@@ -0,0 +1,69 @@
+package com.edurace.platform.controller;
+
+import com.edurace.platform.cache.ResponseCache;
+import com.edurace.platform.entity.User;
+import com.edurace.platform.leaderboard.LeaderboardWindow;
+import com.edurace.platform.service.UserIndexService;
+import com.edurace.platform.service.WindowedLeaderboardService;
+import com.edurace.platform.userindex.IndexedUser;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/student")
+public class StudentController {
+
+    private static final int MAX_LEADERBOARD_SIZE = 100;
+
+    @Autowired
+    private UserIndexService userIndexService;
+
+    @Autowired
+    private WindowedLeaderboardService windowedLeaderboardService;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @GetMapping("/rank")
+    public ResponseEntity<?> rank(@AuthenticationPrincipal User user) {
+        if (!userIndexService.isLoaded()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Rankings are still loading");
+        }
+        IndexedUser indexed = userIndexService.find(user.getId());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("rank", userIndexService.rankOf(user.getId()));
+        response.put("total_points", indexed == null ? user.getTotalPoints() : indexed.totalPoints());
+        response.put("current_streak", indexed == null ? user.getCurrentStreak() : indexed.currentStreak());
+        response.put("longest_streak", indexed == null ? user.getLongestStreak() : indexed.longestStreak());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Top students across all courses, over the last day, week or all time.
+     */
+    @GetMapping("/leaderboard")
+    public void leaderboard(@RequestParam(defaultValue = "10") int limit,
+                            @RequestParam(defaultValue = "WEEK") LeaderboardWindow window,
+                            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!window.isRolling() && !userIndexService.isLoaded()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Rankings are still loading");
+        }
+        int size = Math.max(1, Math.min(limit, MAX_LEADERBOARD_SIZE));
+        responseCache.write(request, response, WindowedLeaderboardService.GLOBAL_LEADERBOARD,
+            "window=" + window + "&limit=" + size, () -> windowedLeaderboardService.renderTop(null, window, size));
+    }
+}
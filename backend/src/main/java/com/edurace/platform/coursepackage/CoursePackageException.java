@@ -0,0 +1,12 @@
+package com.edurace.platform.coursepackage;
+
+/**
+ * A course package that is malformed or breaks a content rule, reported with the
+ * line it was found on.
+ */
+public class CoursePackageException extends RuntimeException {
+
+    public CoursePackageException(int line, String message) {
+        super("Line " + line + ": " + message);
+    }
+}
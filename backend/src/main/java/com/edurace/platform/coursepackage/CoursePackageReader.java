@@ -0,0 +1,307 @@
+package com.edurace.platform.coursepackage;
+
+import com.edurace.platform.entity.DifficultyLevel;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads a course package: JSON Lines with a course object first and then one lesson
+ * object per line, in sequence order, each carrying its quiz and questions. The input
+ * may be gzip-compressed.
+ *
+ * Lines are parsed token by token as they are requested, so only the lesson being
+ * read is ever held in memory. Lessons must be numbered 1, 2, 3... without gaps.
+ */
+public class CoursePackageReader implements Closeable {
+
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final int MAX_VARCHAR = 255;
+
+    private final JsonParser parser;
+    private boolean courseRead;
+    private int lastSequenceOrder;
+
+    public CoursePackageReader(InputStream in) throws IOException {
+        this.parser = JSON.createParser(decompressIfNeeded(new BufferedInputStream(in)));
+    }
+
+    public PackagedCourse readCourse() throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw error("Expected the course object");
+        }
+        String type = null;
+        String title = null;
+        String description = null;
+        String thumbnailUrl = null;
+        BigDecimal entryFee = null;
+        Integer estimatedDurationHours = null;
+        DifficultyLevel difficultyLevel = null;
+        Integer maxEnrollments = null;
+        LocalDateTime enrollmentStartDate = null;
+        LocalDateTime enrollmentEndDate = null;
+        LocalDateTime courseStartDate = null;
+        LocalDateTime courseEndDate = null;
+        BigDecimal totalPrizePool = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "type" -> type = text();
+                case "title" -> title = text();
+                case "description" -> description = text();
+                case "thumbnail_url" -> thumbnailUrl = text();
+                case "entry_fee" -> entryFee = decimal();
+                case "estimated_duration_hours" -> estimatedDurationHours = integer();
+                case "difficulty_level" -> difficultyLevel = difficulty();
+                case "max_enrollments" -> maxEnrollments = integer();
+                case "enrollment_start_date" -> enrollmentStartDate = dateTime();
+                case "enrollment_end_date" -> enrollmentEndDate = dateTime();
+                case "course_start_date" -> courseStartDate = dateTime();
+                case "course_end_date" -> courseEndDate = dateTime();
+                case "total_prize_pool" -> totalPrizePool = decimal();
+                default -> parser.skipChildren();
+            }
+        }
+        if (!"course".equals(type)) {
+            throw error("The first line must have type \"course\"");
+        }
+        if (entryFee != null && entryFee.signum() < 0) {
+            throw error("entry_fee must not be negative");
+        }
+        courseRead = true;
+        return new PackagedCourse(required("title", title), description, limited("thumbnail_url", thumbnailUrl),
+            entryFee, estimatedDurationHours, difficultyLevel, maxEnrollments,
+            enrollmentStartDate, enrollmentEndDate, courseStartDate, courseEndDate, totalPrizePool);
+    }
+
+    /**
+     * The next lesson, or null at the end of the package.
+     */
+    public PackagedLesson nextLesson() throws IOException {
+        if (!courseRead) {
+            throw new IllegalStateException("readCourse() must be called first");
+        }
+        JsonToken token = parser.nextToken();
+        if (token == null) {
+            return null;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw error("Expected a lesson object");
+        }
+        String type = null;
+        Integer sequenceOrder = null;
+        String title = null;
+        String description = null;
+        String content = null;
+        String videoUrl = null;
+        Integer estimatedDurationMinutes = null;
+        Boolean published = null;
+        PackagedQuiz quiz = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "type" -> type = text();
+                case "sequence_order" -> sequenceOrder = integer();
+                case "title" -> title = text();
+                case "description" -> description = text();
+                case "content" -> content = text();
+                case "video_url" -> videoUrl = text();
+                case "estimated_duration_minutes" -> estimatedDurationMinutes = integer();
+                case "is_published" -> published = bool();
+                case "quiz" -> quiz = parser.currentToken() == JsonToken.VALUE_NULL ? null : readQuiz();
+                default -> parser.skipChildren();
+            }
+        }
+        if (!"lesson".equals(type)) {
+            throw error("Expected type \"lesson\"");
+        }
+        if (sequenceOrder == null || sequenceOrder != lastSequenceOrder + 1) {
+            throw error("Expected sequence_order " + (lastSequenceOrder + 1) + " but found " + sequenceOrder);
+        }
+        lastSequenceOrder = sequenceOrder;
+        return new PackagedLesson(sequenceOrder, required("title", title), description, content,
+            limited("video_url", videoUrl), estimatedDurationMinutes, Boolean.TRUE.equals(published), quiz);
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    private PackagedQuiz readQuiz() throws IOException {
+        expect(JsonToken.START_OBJECT, "quiz must be an object");
+        String title = null;
+        String description = null;
+        Integer timeLimitMinutes = null;
+        Integer passingScore = null;
+        Integer maxAttempts = null;
+        Boolean published = null;
+        List<PackagedQuestion> questions = new ArrayList<>();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "title" -> title = text();
+                case "description" -> description = text();
+                case "time_limit_minutes" -> timeLimitMinutes = integer();
+                case "passing_score" -> passingScore = integer();
+                case "max_attempts" -> maxAttempts = integer();
+                case "is_published" -> published = bool();
+                case "questions" -> {
+                    expect(JsonToken.START_ARRAY, "questions must be an array");
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        questions.add(readQuestion());
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        int limit = timeLimitMinutes == null ? 30 : timeLimitMinutes;
+        int passing = passingScore == null ? 70 : passingScore;
+        int attempts = maxAttempts == null ? 3 : maxAttempts;
+        if (limit < 1 || attempts < 1 || passing < 0 || passing > 100) {
+            throw error("Quiz needs time_limit_minutes >= 1, max_attempts >= 1 and passing_score 0-100");
+        }
+        return new PackagedQuiz(required("quiz title", title), description, limit, passing, attempts,
+            Boolean.TRUE.equals(published), questions);
+    }
+
+    private PackagedQuestion readQuestion() throws IOException {
+        expect(JsonToken.START_OBJECT, "Each question must be an object");
+        String questionText = null;
+        String optionA = null;
+        String optionB = null;
+        String optionC = null;
+        String optionD = null;
+        String correctAnswer = null;
+        Integer points = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "question_text" -> questionText = text();
+                case "option_a" -> optionA = text();
+                case "option_b" -> optionB = text();
+                case "option_c" -> optionC = text();
+                case "option_d" -> optionD = text();
+                case "correct_answer" -> correctAnswer = text();
+                case "points" -> points = integer();
+                default -> parser.skipChildren();
+            }
+        }
+        if (questionText == null || questionText.isBlank()) {
+            throw error("question_text is required");
+        }
+        return new PackagedQuestion(questionText, required("option_a", optionA), required("option_b", optionB),
+            limited("option_c", optionC), limited("option_d", optionD), required("correct_answer", correctAnswer),
+            points == null ? 1 : points);
+    }
+
+    private void expect(JsonToken token, String message) {
+        if (parser.currentToken() != token) {
+            throw error(message);
+        }
+    }
+
+    private String text() throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (parser.currentToken() != JsonToken.VALUE_STRING) {
+            throw error(parser.currentName() + " must be a string");
+        }
+        return parser.getText();
+    }
+
+    private Integer integer() throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (parser.currentToken() != JsonToken.VALUE_NUMBER_INT) {
+            throw error(parser.currentName() + " must be an integer");
+        }
+        return parser.getIntValue();
+    }
+
+    private BigDecimal decimal() throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!parser.currentToken().isNumeric()) {
+            throw error(parser.currentName() + " must be a number");
+        }
+        return parser.getDecimalValue();
+    }
+
+    private Boolean bool() throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!parser.currentToken().isBoolean()) {
+            throw error(parser.currentName() + " must be true or false");
+        }
+        return parser.getBooleanValue();
+    }
+
+    private LocalDateTime dateTime() throws IOException {
+        String value = text();
+        try {
+            return value == null ? null : LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw error(parser.currentName() + " must be an ISO-8601 local date-time");
+        }
+    }
+
+    private DifficultyLevel difficulty() throws IOException {
+        String value = text();
+        try {
+            return value == null ? null : DifficultyLevel.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            throw error("Unknown difficulty_level " + value);
+        }
+    }
+
+    private String required(String field, String value) {
+        if (value == null || value.isBlank()) {
+            throw error(field + " is required");
+        }
+        return limited(field, value);
+    }
+
+    private String limited(String field, String value) {
+        if (value != null && value.length() > MAX_VARCHAR) {
+            throw error(field + " must be at most " + MAX_VARCHAR + " characters");
+        }
+        return value;
+    }
+
+    private CoursePackageException error(String message) {
+        return new CoursePackageException(parser.currentLocation().getLineNr(), message);
+    }
+
+    private static InputStream decompressIfNeeded(BufferedInputStream in) throws IOException {
+        in.mark(2);
+        int first = in.read();
+        int second = in.read();
+        in.reset();
+        boolean gzip = first == (GZIPInputStream.GZIP_MAGIC & 0xff) && second == (GZIPInputStream.GZIP_MAGIC >> 8);
+        return gzip ? new GZIPInputStream(in, 64 * 1024) : in;
+    }
+}
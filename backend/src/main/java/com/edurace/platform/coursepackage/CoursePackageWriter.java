@@ -0,0 +1,117 @@
+package com.edurace.platform.coursepackage;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Writes a course package in the format {@link CoursePackageReader} reads, one line
+ * per call.
+ */
+public class CoursePackageWriter implements Closeable {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final JsonGenerator generator;
+
+    public CoursePackageWriter(OutputStream out) throws IOException {
+        this.generator = JSON.createGenerator(out);
+        // Root values are separated by newlines instead of spaces
+        generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+    }
+
+    public void writeCourse(PackagedCourse course) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("type", "course");
+        generator.writeStringField("title", course.title());
+        writeText("description", course.description());
+        writeText("thumbnail_url", course.thumbnailUrl());
+        writeDecimal("entry_fee", course.entryFee());
+        writeInteger("estimated_duration_hours", course.estimatedDurationHours());
+        writeText("difficulty_level", course.difficultyLevel() == null ? null : course.difficultyLevel().name());
+        writeInteger("max_enrollments", course.maxEnrollments());
+        writeDateTime("enrollment_start_date", course.enrollmentStartDate());
+        writeDateTime("enrollment_end_date", course.enrollmentEndDate());
+        writeDateTime("course_start_date", course.courseStartDate());
+        writeDateTime("course_end_date", course.courseEndDate());
+        writeDecimal("total_prize_pool", course.totalPrizePool());
+        generator.writeEndObject();
+    }
+
+    public void writeLesson(PackagedLesson lesson) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("type", "lesson");
+        generator.writeNumberField("sequence_order", lesson.sequenceOrder());
+        generator.writeStringField("title", lesson.title());
+        writeText("description", lesson.description());
+        writeText("content", lesson.content());
+        writeText("video_url", lesson.videoUrl());
+        writeInteger("estimated_duration_minutes", lesson.estimatedDurationMinutes());
+        generator.writeBooleanField("is_published", lesson.published());
+        PackagedQuiz quiz = lesson.quiz();
+        if (quiz != null) {
+            generator.writeObjectFieldStart("quiz");
+            generator.writeStringField("title", quiz.title());
+            writeText("description", quiz.description());
+            generator.writeNumberField("time_limit_minutes", quiz.timeLimitMinutes());
+            generator.writeNumberField("passing_score", quiz.passingScore());
+            generator.writeNumberField("max_attempts", quiz.maxAttempts());
+            generator.writeBooleanField("is_published", quiz.published());
+            generator.writeArrayFieldStart("questions");
+            for (PackagedQuestion question : quiz.questions()) {
+                generator.writeStartObject();
+                generator.writeStringField("question_text", question.questionText());
+                generator.writeStringField("option_a", question.optionA());
+                generator.writeStringField("option_b", question.optionB());
+                writeText("option_c", question.optionC());
+                writeText("option_d", question.optionD());
+                generator.writeStringField("correct_answer", question.correctAnswer());
+                generator.writeNumberField("points", question.points());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        generator.writeEndObject();
+    }
+
+    public void flush() throws IOException {
+        generator.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.writeRaw('\n');
+        generator.close();
+    }
+
+    private void writeText(String field, String value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(field, value);
+        }
+    }
+
+    private void writeInteger(String field, Integer value) throws IOException {
+        if (value != null) {
+            generator.writeNumberField(field, value);
+        }
+    }
+
+    private void writeDecimal(String field, BigDecimal value) throws IOException {
+        if (value != null) {
+            generator.writeNumberField(field, value);
+        }
+    }
+
+    private void writeDateTime(String field, LocalDateTime value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(field, value.toString());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.edurace.platform.coursepackage;
+
+import com.edurace.platform.entity.DifficultyLevel;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Course-level fields of a course package, the first line of the file.
+ */
+public record PackagedCourse(
+        String title,
+        String description,
+        String thumbnailUrl,
+        BigDecimal entryFee,
+        Integer estimatedDurationHours,
+        DifficultyLevel difficultyLevel,
+        Integer maxEnrollments,
+        LocalDateTime enrollmentStartDate,
+        LocalDateTime enrollmentEndDate,
+        LocalDateTime courseStartDate,
+        LocalDateTime courseEndDate,
+        BigDecimal totalPrizePool) {
+}
@@ -0,0 +1,15 @@
+package com.edurace.platform.coursepackage;
+
+/**
+ * One lesson line of a course package, with its quiz if it has one.
+ */
+public record PackagedLesson(
+        int sequenceOrder,
+        String title,
+        String description,
+        String content,
+        String videoUrl,
+        Integer estimatedDurationMinutes,
+        boolean published,
+        PackagedQuiz quiz) {
+}
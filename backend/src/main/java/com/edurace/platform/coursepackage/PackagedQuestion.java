@@ -0,0 +1,11 @@
+package com.edurace.platform.coursepackage;
+
+public record PackagedQuestion(
+        String questionText,
+        String optionA,
+        String optionB,
+        String optionC,
+        String optionD,
+        String correctAnswer,
+        int points) {
+}
@@ -0,0 +1,13 @@
+package com.edurace.platform.coursepackage;
+
+import java.util.List;
+
+public record PackagedQuiz(
+        String title,
+        String description,
+        int timeLimitMinutes,
+        int passingScore,
+        int maxAttempts,
+        boolean published,
+        List<PackagedQuestion> questions) {
+}
@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "badges")
+@Table(name = "badges",
+       uniqueConstraints = {
+           @UniqueConstraint(name = "uk_badges_user_name", columnNames = {"user_id", "name"})
+       })
 public class Badge {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -36,6 +39,12 @@ public class Badge {
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
     
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+    
+    public String getIconUrl() { return iconUrl; }
+    public void setIconUrl(String iconUrl) { this.iconUrl = iconUrl; }
+    
     public LocalDateTime getEarnedAt() { return earnedAt; }
     public void setEarnedAt(LocalDateTime earnedAt) { this.earnedAt = earnedAt; }
 }
\ No newline at end of file
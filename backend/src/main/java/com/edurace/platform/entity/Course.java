@@ -1,5 +1,6 @@
 package com.edurace.platform.entity;
 
+import com.edurace.platform.event.EntityChangePublisher;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 
@@ -8,6 +9,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
+@EntityListeners(EntityChangePublisher.class)
 @Table(name = "courses")
 public class Course {
     
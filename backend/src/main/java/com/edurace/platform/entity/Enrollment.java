@@ -1,10 +1,12 @@
 package com.edurace.platform.entity;
 
+import com.edurace.platform.event.EntityChangePublisher;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import java.math.BigDecimal;
 
 @Entity
+@EntityListeners(EntityChangePublisher.class)
 @Table(name = "enrollments")
 public class Enrollment {
     @Id
@@ -29,6 +31,22 @@ public class Enrollment {
     @Column(name = "status", nullable = false)
     private EnrollmentStatus status = EnrollmentStatus.ACTIVE;
     
+    // Progress and status as last read from or written to the database, for change events
+    @Transient
+    private Integer persistedProgressPercentage;
+    
+    @Transient
+    private EnrollmentStatus persistedStatus;
+    
+    // Entity listeners run first, so EntityChangePublisher still sees the old values on update
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    protected void rememberPersistedState() {
+        persistedProgressPercentage = progressPercentage;
+        persistedStatus = status;
+    }
+    
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -47,4 +65,8 @@ public class Enrollment {
     
     public EnrollmentStatus getStatus() { return status; }
     public void setStatus(EnrollmentStatus status) { this.status = status; }
-}
\ No newline at end of file
+    
+    public Integer getPersistedProgressPercentage() { return persistedProgressPercentage; }
+    
+    public EnrollmentStatus getPersistedStatus() { return persistedStatus; }
+}
@@ -1,9 +1,11 @@
 package com.edurace.platform.entity;
 
+import com.edurace.platform.event.EntityChangePublisher;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners(EntityChangePublisher.class)
 @Table(name = "leaderboard")
 public class Leaderboard {
     @Id
@@ -1,10 +1,12 @@
 package com.edurace.platform.entity;
 
+import com.edurace.platform.event.EntityChangePublisher;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners(EntityChangePublisher.class)
 @Table(name = "lessons")
 public class Lesson {
     
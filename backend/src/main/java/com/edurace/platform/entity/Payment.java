@@ -28,6 +28,9 @@ public class Payment {
     
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
+
+    @Column(name = "provider_reference", length = 64, unique = true)
+    private String providerReference;
     
     // Basic getters and setters
     public Long getId() { return id; }
@@ -44,4 +47,10 @@ public class Payment {
     
     public PaymentStatus getStatus() { return status; }
     public void setStatus(PaymentStatus status) { this.status = status; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    
+    public String getProviderReference() { return providerReference; }
+    public void setProviderReference(String providerReference) { this.providerReference = providerReference; }
 }
\ No newline at end of file
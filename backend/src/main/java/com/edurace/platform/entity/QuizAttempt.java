@@ -46,6 +46,9 @@ public class QuizAttempt {
     public Integer getScore() { return score; }
     public void setScore(Integer score) { this.score = score; }
     
+    public Integer getTimeTakenMinutes() { return timeTakenMinutes; }
+    public void setTimeTakenMinutes(Integer timeTakenMinutes) { this.timeTakenMinutes = timeTakenMinutes; }
+    
     public Boolean getPassed() { return passed; }
     public void setPassed(Boolean passed) { this.passed = passed; }
     
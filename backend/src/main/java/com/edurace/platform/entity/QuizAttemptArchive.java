@@ -0,0 +1,34 @@
+package com.edurace.platform.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "quiz_attempt_archives")
+public class QuizAttemptArchive {
+    @Id
+    @Column(name = "partition_name", length = 16)
+    private String partitionName;
+    
+    @Column(name = "file_path", nullable = false, length = 512)
+    private String filePath;
+    
+    @Column(name = "row_count", nullable = false)
+    private Long rowCount;
+    
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+    
+    // Basic getters and setters
+    public String getPartitionName() { return partitionName; }
+    public void setPartitionName(String partitionName) { this.partitionName = partitionName; }
+    
+    public String getFilePath() { return filePath; }
+    public void setFilePath(String filePath) { this.filePath = filePath; }
+    
+    public Long getRowCount() { return rowCount; }
+    public void setRowCount(Long rowCount) { this.rowCount = rowCount; }
+    
+    public LocalDateTime getArchivedAt() { return archivedAt; }
+    public void setArchivedAt(LocalDateTime archivedAt) { this.archivedAt = archivedAt; }
+}
@@ -0,0 +1,80 @@
+package com.edurace.platform.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "quiz_attempt_summaries",
+       uniqueConstraints = {
+           @UniqueConstraint(name = "uk_quiz_attempt_summaries_student_quiz", columnNames = {"student_id", "quiz_id"})
+       })
+public class QuizAttemptSummary {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "student_id", nullable = false)
+    private User student;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "quiz_id", nullable = false)
+    private Quiz quiz;
+    
+    @Column(name = "attempts_count", nullable = false)
+    private Integer attemptsCount = 0;
+    
+    @Column(name = "passed_count", nullable = false)
+    private Integer passedCount = 0;
+    
+    @Column(name = "best_score", nullable = false)
+    private Integer bestScore = 0;
+    
+    @Column(name = "timed_attempts_count", nullable = false)
+    private Integer timedAttemptsCount = 0;
+    
+    @Column(name = "total_time_minutes", nullable = false)
+    private Long totalTimeMinutes = 0L;
+    
+    @Column(name = "last_completed_at")
+    private LocalDateTime lastCompletedAt;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    // Basic getters and setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public User getStudent() { return student; }
+    public void setStudent(User student) { this.student = student; }
+    
+    public Quiz getQuiz() { return quiz; }
+    public void setQuiz(Quiz quiz) { this.quiz = quiz; }
+    
+    public Integer getAttemptsCount() { return attemptsCount; }
+    public void setAttemptsCount(Integer attemptsCount) { this.attemptsCount = attemptsCount; }
+    
+    public Integer getPassedCount() { return passedCount; }
+    public void setPassedCount(Integer passedCount) { this.passedCount = passedCount; }
+    
+    public Integer getBestScore() { return bestScore; }
+    public void setBestScore(Integer bestScore) { this.bestScore = bestScore; }
+    
+    public Integer getTimedAttemptsCount() { return timedAttemptsCount; }
+    public void setTimedAttemptsCount(Integer timedAttemptsCount) { this.timedAttemptsCount = timedAttemptsCount; }
+    
+    public Long getTotalTimeMinutes() { return totalTimeMinutes; }
+    public void setTotalTimeMinutes(Long totalTimeMinutes) { this.totalTimeMinutes = totalTimeMinutes; }
+    
+    public LocalDateTime getLastCompletedAt() { return lastCompletedAt; }
+    public void setLastCompletedAt(LocalDateTime lastCompletedAt) { this.lastCompletedAt = lastCompletedAt; }
+    
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    
+    // Utility methods
+    public Double getAverageTimeMinutes() {
+        return timedAttemptsCount == 0 ? null : (double) totalTimeMinutes / timedAttemptsCount;
+    }
+}
@@ -1,7 +1,9 @@
 package com.edurace.platform.entity;
 
+import com.edurace.platform.event.EntityChangePublisher;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -12,10 +14,14 @@ import java.util.Collections;
 import java.util.List;
 
 @Entity
+@EntityListeners(EntityChangePublisher.class)
+// Counters such as total_points are updated in SQL; a saved entity only writes the columns it changed
+@DynamicUpdate
 @Table(name = "users", 
        uniqueConstraints = {
            @UniqueConstraint(columnNames = "email"),
-           @UniqueConstraint(columnNames = "phone_number")
+           @UniqueConstraint(columnNames = "phone_number"),
+           @UniqueConstraint(columnNames = {"provider", "provider_id"})
        })
 public class User implements UserDetails {
     
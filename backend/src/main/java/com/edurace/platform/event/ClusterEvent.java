@@ -0,0 +1,10 @@
+package com.edurace.platform.event;
+
+/**
+ * A domain event that node-local state (caches, in-memory indexes) depends on. With
+ * several instances it is written to cluster_events after commit and replayed on the
+ * other instances as a {@link RemoteEvent}, which only the holders of such state
+ * listen for.
+ */
+public interface ClusterEvent extends DomainEvent {
+}
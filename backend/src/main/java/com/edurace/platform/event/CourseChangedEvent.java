@@ -0,0 +1,4 @@
+package com.edurace.platform.event;
+
+public record CourseChangedEvent(Long courseId) implements ClusterEvent {
+}
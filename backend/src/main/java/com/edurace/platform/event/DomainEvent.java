@@ -0,0 +1,7 @@
+package com.edurace.platform.event;
+
+/**
+ * Marker for domain events published through Spring's ApplicationEventPublisher.
+ */
+public interface DomainEvent {
+}
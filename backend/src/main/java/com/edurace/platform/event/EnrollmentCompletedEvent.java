@@ -0,0 +1,7 @@
+package com.edurace.platform.event;
+
+public record EnrollmentCompletedEvent(
+        Long enrollmentId,
+        Long courseId,
+        Long studentId) implements ClusterEvent {
+}
@@ -0,0 +1,7 @@
+package com.edurace.platform.event;
+
+public record EnrollmentCreatedEvent(
+        Long enrollmentId,
+        Long courseId,
+        Long studentId) implements OutboxedEvent, ClusterEvent {
+}
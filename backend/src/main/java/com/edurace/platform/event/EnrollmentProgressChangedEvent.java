@@ -0,0 +1,8 @@
+package com.edurace.platform.event;
+
+public record EnrollmentProgressChangedEvent(
+        Long enrollmentId,
+        Long courseId,
+        int previousPercentage,
+        int percentage) implements ClusterEvent {
+}
@@ -0,0 +1,67 @@
+package com.edurace.platform.event;
+
+import com.edurace.platform.entity.Course;
+import com.edurace.platform.entity.Enrollment;
+import com.edurace.platform.entity.EnrollmentStatus;
+import com.edurace.platform.entity.Leaderboard;
+import com.edurace.platform.entity.Lesson;
+import com.edurace.platform.entity.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener (instantiated through Spring's Hibernate bean container)
+ * turning entity writes into domain events for caches and indexes.
+ */
+@Component
+public class EntityChangePublisher {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Object entity) {
+        if (entity instanceof User user) {
+            eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user.getRole(), user.isEnabled(),
+                !user.isAccountNonLocked(), user.getTotalPoints(), user.getCurrentStreak(), user.getLongestStreak()));
+            return;
+        }
+        if (entity instanceof Enrollment enrollment) {
+            Integer previous = enrollment.getPersistedProgressPercentage();
+            if (previous != null && !previous.equals(enrollment.getProgressPercentage())) {
+                eventPublisher.publishEvent(new EnrollmentProgressChangedEvent(enrollment.getId(),
+                    enrollment.getCourse().getId(), previous, enrollment.getProgressPercentage()));
+            }
+            if (enrollment.getStatus() == EnrollmentStatus.COMPLETED && enrollment.getPersistedStatus() != EnrollmentStatus.COMPLETED) {
+                eventPublisher.publishEvent(new EnrollmentCompletedEvent(enrollment.getId(),
+                    enrollment.getCourse().getId(), enrollment.getStudent().getId()));
+            }
+            return;
+        }
+        onChange(entity);
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        if (entity instanceof User user) {
+            eventPublisher.publishEvent(new UserRemovedEvent(user.getId()));
+            return;
+        }
+        onChange(entity);
+    }
+
+    private void onChange(Object entity) {
+        if (entity instanceof Course course) {
+            eventPublisher.publishEvent(new CourseChangedEvent(course.getId()));
+        } else if (entity instanceof Lesson lesson && lesson.getCourse() != null) {
+            eventPublisher.publishEvent(new CourseChangedEvent(lesson.getCourse().getId()));
+        } else if (entity instanceof Leaderboard leaderboard && leaderboard.getCourse() != null) {
+            eventPublisher.publishEvent(new LeaderboardChangedEvent(leaderboard.getCourse().getId()));
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package com.edurace.platform.event;
+
+public record LeaderboardChangedEvent(Long courseId) implements ClusterEvent {
+}
@@ -0,0 +1,10 @@
+package com.edurace.platform.event;
+
+import com.edurace.platform.eventbus.BatchHandler;
+
+/**
+ * Bean that consumes relayed outbox events in batches. Events can arrive more than
+ * once, after a restart or a failed batch, so handlers must be idempotent.
+ */
+public interface OutboxEventHandler extends BatchHandler<OutboxedEvent> {
+}
@@ -0,0 +1,10 @@
+package com.edurace.platform.event;
+
+/**
+ * A domain event that is also recorded in the transactional outbox, in the same
+ * transaction as the change it describes, and relayed to every
+ * {@link OutboxEventHandler} at least once. Spring listeners still receive it as
+ * usual.
+ */
+public interface OutboxedEvent extends DomainEvent {
+}
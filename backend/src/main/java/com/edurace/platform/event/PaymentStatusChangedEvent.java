@@ -0,0 +1,11 @@
+package com.edurace.platform.event;
+
+import com.edurace.platform.entity.PaymentStatus;
+
+public record PaymentStatusChangedEvent(
+        Long paymentId,
+        Long userId,
+        Long courseId,
+        PaymentStatus previousStatus,
+        PaymentStatus newStatus) implements OutboxedEvent {
+}
@@ -0,0 +1,15 @@
+package com.edurace.platform.event;
+
+import java.time.LocalDateTime;
+
+public record QuizAttemptCompletedEvent(
+        Long attemptId,
+        Long quizId,
+        Long courseId,
+        Long studentId,
+        Integer score,
+        boolean passed,
+        Integer timeTakenMinutes,
+        int pointsAwarded,
+        LocalDateTime completedAt) implements OutboxedEvent, ClusterEvent {
+}
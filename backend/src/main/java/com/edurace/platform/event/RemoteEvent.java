@@ -0,0 +1,8 @@
+package com.edurace.platform.event;
+
+/**
+ * A {@link ClusterEvent} that happened on another instance, published locally once
+ * it has been read from cluster_events.
+ */
+public record RemoteEvent(String origin, ClusterEvent event) {
+}
@@ -0,0 +1,10 @@
+package com.edurace.platform.event;
+
+import java.time.LocalDate;
+
+/**
+ * Published after the nightly rollover has reset the streak of every user not
+ * active since {@code activeSince}.
+ */
+public record StreakRolloverCompletedEvent(LocalDate activeSince) implements ClusterEvent {
+}
@@ -0,0 +1,7 @@
+package com.edurace.platform.event;
+
+public record StreakUpdatedEvent(
+        Long userId,
+        int currentStreak,
+        int longestStreak) implements ClusterEvent {
+}
@@ -0,0 +1,13 @@
+package com.edurace.platform.event;
+
+import com.edurace.platform.entity.Role;
+
+public record UserChangedEvent(
+        Long userId,
+        Role role,
+        boolean enabled,
+        boolean locked,
+        int totalPoints,
+        int currentStreak,
+        int longestStreak) implements ClusterEvent {
+}
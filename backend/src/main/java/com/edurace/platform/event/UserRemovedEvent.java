@@ -0,0 +1,4 @@
+package com.edurace.platform.event;
+
+public record UserRemovedEvent(Long userId) implements ClusterEvent {
+}
@@ -0,0 +1,13 @@
+package com.edurace.platform.eventbus;
+
+import java.util.List;
+
+/**
+ * Consumes events from a {@link RingBuffer} in batches of whatever has been
+ * published since the handler last ran.
+ */
+@FunctionalInterface
+public interface BatchHandler<T> {
+
+    void onBatch(List<T> events) throws Exception;
+}
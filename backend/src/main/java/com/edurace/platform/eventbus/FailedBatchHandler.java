@@ -0,0 +1,13 @@
+package com.edurace.platform.eventbus;
+
+import java.util.List;
+
+/**
+ * Told about a batch a handler still failed on after its last attempt, before that
+ * handler moves past it. If this throws too, the handler keeps retrying the batch.
+ */
+@FunctionalInterface
+public interface FailedBatchHandler<T> {
+
+    void onFailedBatch(String handlerName, long firstSequence, List<T> events) throws Exception;
+}
@@ -0,0 +1,208 @@
+package com.edurace.platform.eventbus;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded single-writer, multi-consumer event ring in the style of the LMAX
+ * Disruptor.
+ *
+ * The writer claims the next sequence number, stores the event in the slot it maps
+ * to and publishes by advancing the cursor. Every handler runs on its own thread with
+ * its own sequence and sees every event, taking all events published since its last
+ * batch (up to the batch limit) at once. The writer blocks while the slowest handler
+ * is a full ring behind, so a stalled handler applies backpressure instead of
+ * growing a queue. A failing batch is retried with backoff and, once the attempts
+ * run out, handed to the ring's {@link FailedBatchHandler}; the handler only moves
+ * past it after that has accepted it.
+ */
+public class RingBuffer<T> implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(RingBuffer.class);
+
+    private static final long IDLE_PARK_NANOS = 10_000_000;
+    private static final long FULL_PARK_NANOS = 50_000;
+    private static final int MAX_BACKOFF_DOUBLINGS = 6;
+
+    private final String name;
+    private final Object[] slots;
+    private final int mask;
+    private final int maxBatch;
+    private final FailedBatchHandler<T> failedBatchHandler;
+    private final AtomicLong cursor = new AtomicLong(-1);
+    private final List<Processor> processors = new ArrayList<>();
+    private volatile boolean running;
+
+    public RingBuffer(String name, int capacity, int maxBatch, FailedBatchHandler<T> failedBatchHandler) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.name = name;
+        this.slots = new Object[capacity];
+        this.mask = capacity - 1;
+        this.maxBatch = maxBatch;
+        this.failedBatchHandler = failedBatchHandler;
+    }
+
+    /**
+     * Registers a handler; all handlers must be added before {@link #start()}.
+     */
+    public void addHandler(String handlerName, BatchHandler<T> handler, int maxAttempts, Duration retryBackoff) {
+        if (running) {
+            throw new IllegalStateException("Ring " + name + " is already running");
+        }
+        processors.add(new Processor(handlerName, handler, maxAttempts, retryBackoff.toMillis()));
+    }
+
+    public void start() {
+        running = true;
+        for (Processor processor : processors) {
+            processor.thread = new Thread(processor, name + "-" + processor.handlerName);
+            processor.thread.setDaemon(true);
+            processor.thread.start();
+        }
+    }
+
+    /**
+     * Appends an event, waiting for room if the ring is full. Only one thread may
+     * publish. Returns the event's sequence number.
+     */
+    public long publish(T event) {
+        long sequence = cursor.get() + 1;
+        while (sequence - slots.length > minimumSequence()) {
+            if (!running) {
+                throw new IllegalStateException("Ring " + name + " is closed");
+            }
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+        slots[(int) (sequence & mask)] = event;
+        cursor.set(sequence);
+        for (Processor processor : processors) {
+            LockSupport.unpark(processor.thread);
+        }
+        return sequence;
+    }
+
+    /**
+     * Sequence of the last event every handler has finished with, or -1.
+     */
+    public long minimumSequence() {
+        long minimum = cursor.get();
+        for (Processor processor : processors) {
+            minimum = Math.min(minimum, processor.sequence.get());
+        }
+        return minimum;
+    }
+
+    public int getCapacity() { return slots.length; }
+
+    /**
+     * Stops the handlers after their current batch. Events they have not finished are
+     * left for the caller to redeliver.
+     */
+    @Override
+    public void close() {
+        running = false;
+        for (Processor processor : processors) {
+            if (processor.thread != null) {
+                processor.thread.interrupt();
+            }
+        }
+        for (Processor processor : processors) {
+            try {
+                if (processor.thread != null) {
+                    processor.thread.join(5000);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private final class Processor implements Runnable {
+
+        final String handlerName;
+        final BatchHandler<T> handler;
+        final int maxAttempts;
+        final long retryBackoffMillis;
+        final AtomicLong sequence = new AtomicLong(-1);
+        Thread thread;
+
+        Processor(String handlerName, BatchHandler<T> handler, int maxAttempts, long retryBackoffMillis) {
+            this.handlerName = handlerName;
+            this.handler = handler;
+            this.maxAttempts = maxAttempts;
+            this.retryBackoffMillis = retryBackoffMillis;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void run() {
+            List<T> batch = new ArrayList<>(maxBatch);
+            while (running) {
+                long next = sequence.get() + 1;
+                long available = cursor.get();
+                if (available < next) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    continue;
+                }
+                long end = Math.min(available, next + maxBatch - 1);
+                batch.clear();
+                for (long s = next; s <= end; s++) {
+                    batch.add((T) slots[(int) (s & mask)]);
+                }
+                if (!deliver(next, batch)) {
+                    return;
+                }
+                sequence.set(end);
+            }
+        }
+
+        /**
+         * False when the ring closed before the batch got through.
+         */
+        private boolean deliver(long firstSequence, List<T> batch) {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    handler.onBatch(batch);
+                    return true;
+                } catch (Exception e) {
+                    if (attempt < maxAttempts) {
+                        log.warn("Handler {} failed on a batch of {} events (attempt {}), retrying",
+                            handlerName, batch.size(), attempt, e);
+                    } else if (giveUp(firstSequence, batch, attempt, e)) {
+                        return true;
+                    }
+                }
+                try {
+                    Thread.sleep(retryBackoffMillis << Math.min(attempt - 1, MAX_BACKOFF_DOUBLINGS));
+                } catch (InterruptedException e) {
+                    return false;
+                }
+                if (!running) {
+                    return false;
+                }
+            }
+        }
+
+        private boolean giveUp(long firstSequence, List<T> batch, int attempt, Exception failure) {
+            log.error("Handler {} failed {} times on a batch of {} events; passing it on as failed",
+                handlerName, attempt, batch.size(), failure);
+            try {
+                failedBatchHandler.onFailedBatch(handlerName, firstSequence, batch);
+                return true;
+            } catch (Exception e) {
+                log.error("Could not set aside the failed batch of handler {}; retrying it", handlerName, e);
+                return false;
+            }
+        }
+    }
+}
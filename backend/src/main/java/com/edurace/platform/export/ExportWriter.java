@@ -0,0 +1,187 @@
+package com.edurace.platform.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Writes result set rows, or rows given as maps, as CSV (RFC 4180, with a header line)
+ * or as newline-delimited JSON objects keyed by column label. Rows are written as they are read, so memory
+ * use does not depend on the number of rows.
+ *
+ * CSV text that a spreadsheet would run as a formula (starting with =, +, - or @) is
+ * prefixed with an apostrophe. Plain numbers, such as E.164 phone numbers or signed
+ * amounts, can't run anything and are written as they are.
+ */
+public class ExportWriter implements Closeable {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private static final Pattern PLAIN_NUMBER = Pattern.compile("[+-]?[0-9]+(\\.[0-9]+)?");
+
+    private final ExportFormat format;
+    private final Writer csv;
+    private final JsonGenerator json;
+
+    private String[] labels;
+    private int[] types;
+    private long rows;
+
+    public ExportWriter(ExportFormat format, OutputStream out) throws IOException {
+        this.format = format;
+        if (format == ExportFormat.CSV) {
+            this.csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            this.json = null;
+        } else {
+            this.csv = null;
+            this.json = JSON.createGenerator(out);
+            // Root values are separated by newlines instead of spaces
+            json.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+        }
+    }
+
+    public void writeRow(ResultSet rs) throws SQLException, IOException {
+        if (labels == null) {
+            readColumns(rs.getMetaData());
+        }
+        Object[] values = new Object[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            values[i] = value(rs, i);
+        }
+        writeValues(values);
+    }
+
+    /**
+     * Writes a row that is not read from a result set. The first row's keys, in
+     * iteration order, become the columns; later rows are written in that order.
+     */
+    public void writeRow(Map<String, ?> row) throws IOException {
+        if (labels == null) {
+            labels = row.keySet().toArray(new String[0]);
+            writeHeader();
+        }
+        Object[] values = new Object[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            values[i] = row.get(labels[i]);
+        }
+        writeValues(values);
+    }
+
+    public long getRows() { return rows; }
+
+    @Override
+    public void close() throws IOException {
+        if (format == ExportFormat.CSV) {
+            csv.close();
+        } else {
+            if (rows > 0) {
+                json.writeRaw('\n');
+            }
+            json.close();
+        }
+    }
+
+    private void readColumns(ResultSetMetaData metaData) throws SQLException, IOException {
+        labels = new String[metaData.getColumnCount()];
+        types = new int[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = metaData.getColumnLabel(i + 1);
+            types[i] = metaData.getColumnType(i + 1);
+        }
+        writeHeader();
+    }
+
+    private void writeHeader() throws IOException {
+        if (format == ExportFormat.CSV) {
+            for (int i = 0; i < labels.length; i++) {
+                if (i > 0) {
+                    csv.write(',');
+                }
+                writeCsv(labels[i]);
+            }
+            csv.write("\r\n");
+        }
+    }
+
+    private void writeValues(Object[] values) throws IOException {
+        if (format == ExportFormat.CSV) {
+            for (int i = 0; i < labels.length; i++) {
+                if (i > 0) {
+                    csv.write(',');
+                }
+                Object value = values[i];
+                if (value instanceof String text && isFormula(text)) {
+                    writeCsv("'" + text);
+                } else if (value != null) {
+                    writeCsv(value.toString());
+                }
+            }
+            csv.write("\r\n");
+        } else {
+            json.writeStartObject();
+            for (int i = 0; i < labels.length; i++) {
+                Object value = values[i];
+                json.writeFieldName(labels[i]);
+                if (value == null) {
+                    json.writeNull();
+                } else if (value instanceof Long number) {
+                    json.writeNumber(number);
+                } else if (value instanceof BigDecimal number) {
+                    json.writeNumber(number);
+                } else if (value instanceof Boolean bool) {
+                    json.writeBoolean(bool);
+                } else {
+                    json.writeString(value.toString());
+                }
+            }
+            json.writeEndObject();
+        }
+        rows++;
+    }
+
+    private Object value(ResultSet rs, int column) throws SQLException {
+        Object value = switch (types[column]) {
+            case Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT -> rs.getLong(column + 1);
+            case Types.DECIMAL, Types.NUMERIC -> rs.getBigDecimal(column + 1);
+            case Types.BIT, Types.BOOLEAN -> rs.getBoolean(column + 1);
+            case Types.TIMESTAMP -> rs.getObject(column + 1, LocalDateTime.class);
+            default -> rs.getString(column + 1);
+        };
+        return rs.wasNull() ? null : value;
+    }
+
+    private static boolean isFormula(String text) {
+        return !text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0 && !PLAIN_NUMBER.matcher(text).matches();
+    }
+
+    private void writeCsv(String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            csv.write(value);
+            return;
+        }
+        csv.write('"');
+        csv.write(value.replace("\"", "\"\""));
+        csv.write('"');
+    }
+}
@@ -0,0 +1,4 @@
+package com.edurace.platform.leaderboard;
+
+public record LeaderboardEntry(long userId, int points) {
+}
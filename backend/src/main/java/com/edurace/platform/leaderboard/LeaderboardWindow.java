@@ -0,0 +1,30 @@
+package com.edurace.platform.leaderboard;
+
+/**
+ * Time span a leaderboard ranks points over. Rolling windows are made of
+ * fixed-size buckets: DAY is the current hour plus the 23 before it, WEEK the
+ * current UTC day plus the 6 before it.
+ */
+public enum LeaderboardWindow {
+    DAY(1, 24),
+    WEEK(24, 7),
+    ALL_TIME(0, 0);
+
+    private final int hoursPerBucket;
+    private final int buckets;
+
+    LeaderboardWindow(int hoursPerBucket, int buckets) {
+        this.hoursPerBucket = hoursPerBucket;
+        this.buckets = buckets;
+    }
+
+    public boolean isRolling() {
+        return buckets > 0;
+    }
+
+    public long bucketOf(long epochHour) {
+        return Math.floorDiv(epochHour, hoursPerBucket);
+    }
+
+    public int getBuckets() { return buckets; }
+}
@@ -0,0 +1,153 @@
+package com.edurace.platform.leaderboard;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Points per user over one rolling {@link LeaderboardWindow}, for one scope (a
+ * course, or everyone).
+ *
+ * Points land in the bucket of the time they were earned, and a running total per
+ * user is kept across the window's buckets. Moving past a bucket's end reuses its
+ * slot and subtracts its points from the totals, so a window never rescans history
+ * and holds only the users who scored within it.
+ */
+public class RollingPoints {
+
+    private static final Comparator<LeaderboardEntry> RANKING =
+        Comparator.comparingInt(LeaderboardEntry::points).thenComparing(LeaderboardEntry::userId, Comparator.reverseOrder());
+
+    @FunctionalInterface
+    public interface BucketConsumer {
+        void accept(long bucket, long userId, int points);
+    }
+
+    private final LeaderboardWindow window;
+    private final long[] bucketIds;
+    private final Map<Long, Integer>[] buckets;
+    private final Map<Long, Integer> totals = new HashMap<>();
+    private long latest = Long.MIN_VALUE;
+
+    @SuppressWarnings("unchecked")
+    public RollingPoints(LeaderboardWindow window) {
+        if (!window.isRolling()) {
+            throw new IllegalArgumentException(window + " is not a rolling window");
+        }
+        this.window = window;
+        this.bucketIds = new long[window.getBuckets()];
+        this.buckets = new Map[window.getBuckets()];
+        Arrays.fill(bucketIds, Long.MIN_VALUE);
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new HashMap<>();
+        }
+    }
+
+    /**
+     * Adds points earned in the given hour. Points older than the window are ignored.
+     */
+    public synchronized void add(long userId, int points, long epochHour) {
+        addToBucket(window.bucketOf(epochHour), userId, points);
+    }
+
+    /**
+     * Adds points straight to a bucket, as listed by {@link #forEachBucketEntry}.
+     */
+    public synchronized void addToBucket(long bucket, long userId, int points) {
+        if (bucket > latest) {
+            advanceTo(bucket);
+        } else if (bucket <= latest - bucketIds.length) {
+            return;
+        }
+        int slot = (int) Math.floorMod(bucket, (long) bucketIds.length);
+        if (bucketIds[slot] != bucket) {
+            expire(slot);
+            bucketIds[slot] = bucket;
+        }
+        buckets[slot].merge(userId, points, Integer::sum);
+        totals.merge(userId, points, RollingPoints::sumOrRemove);
+    }
+
+    /**
+     * Moves the window forward to the given hour. Returns whether any points expired.
+     */
+    public synchronized boolean advance(long epochHour) {
+        long bucket = window.bucketOf(epochHour);
+        return bucket > latest && advanceTo(bucket);
+    }
+
+    /**
+     * The users with the most points in the window, highest first.
+     */
+    public synchronized List<LeaderboardEntry> top(int limit) {
+        PriorityQueue<LeaderboardEntry> best = new PriorityQueue<>(limit + 1, RANKING);
+        for (Map.Entry<Long, Integer> total : totals.entrySet()) {
+            LeaderboardEntry entry = new LeaderboardEntry(total.getKey(), total.getValue());
+            if (best.size() < limit) {
+                best.add(entry);
+            } else if (RANKING.compare(entry, best.peek()) > 0) {
+                best.poll();
+                best.add(entry);
+            }
+        }
+        List<LeaderboardEntry> top = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            top.add(best.poll());
+        }
+        Collections.reverse(top);
+        return top;
+    }
+
+    public synchronized int pointsOf(long userId) {
+        return totals.getOrDefault(userId, 0);
+    }
+
+    public synchronized boolean isEmpty() {
+        return totals.isEmpty();
+    }
+
+    public synchronized int size() {
+        return totals.size();
+    }
+
+    public synchronized void forEachBucketEntry(BucketConsumer consumer) {
+        for (int slot = 0; slot < buckets.length; slot++) {
+            long bucket = bucketIds[slot];
+            if (bucket > latest - bucketIds.length) {
+                buckets[slot].forEach((userId, points) -> consumer.accept(bucket, userId, points));
+            }
+        }
+    }
+
+    private boolean advanceTo(long bucket) {
+        boolean expired = false;
+        long from = latest == Long.MIN_VALUE ? bucket : Math.max(latest + 1, bucket - bucketIds.length + 1);
+        for (long next = from; next <= bucket; next++) {
+            int slot = (int) Math.floorMod(next, (long) bucketIds.length);
+            expired |= expire(slot);
+            bucketIds[slot] = next;
+        }
+        latest = bucket;
+        return expired;
+    }
+
+    private boolean expire(int slot) {
+        Map<Long, Integer> bucket = buckets[slot];
+        if (bucket.isEmpty()) {
+            return false;
+        }
+        bucket.forEach((userId, points) -> totals.merge(userId, -points, RollingPoints::sumOrRemove));
+        bucket.clear();
+        return true;
+    }
+
+    private static Integer sumOrRemove(Integer current, Integer delta) {
+        int sum = current + delta;
+        return sum == 0 ? null : sum;
+    }
+}
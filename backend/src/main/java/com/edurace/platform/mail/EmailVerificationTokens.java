@@ -0,0 +1,80 @@
+package com.edurace.platform.mail;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * Stateless email verification tokens: "userId.expiresAt.signature", where the
+ * signature is an HMAC over both and the address being verified, so a token stops
+ * working if the user changes their email. The key is derived from the application
+ * secret for this purpose only, so these tokens are never valid as access tokens.
+ */
+public class EmailVerificationTokens {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+
+    public EmailVerificationTokens(String secret, Duration ttl) {
+        this.key = new SecretKeySpec(hmac(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM),
+            "email-verification"), ALGORITHM);
+        this.ttl = ttl;
+    }
+
+    public Duration getTtl() { return ttl; }
+
+    public String issue(long userId, String email) {
+        String payload = userId + "." + Instant.now().plus(ttl).getEpochSecond();
+        return payload + "." + ENCODER.encodeToString(hmac(key, payload + "." + normalize(email)));
+    }
+
+    /**
+     * The user id a token was issued for, or null if it is malformed or expired.
+     * The caller must still confirm the signature against the user's current email
+     * with {@link #matches}.
+     */
+    public Long userId(String token) {
+        String[] parts = token == null ? new String[0] : token.split("\\.");
+        if (parts.length != 3) {
+            return null;
+        }
+        try {
+            if (Long.parseLong(parts[1]) < Instant.now().getEpochSecond()) {
+                return null;
+            }
+            return Long.parseLong(parts[0]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public boolean matches(String token, String email) {
+        int signatureStart = token.lastIndexOf('.');
+        byte[] expected = ENCODER.encodeToString(hmac(key, token.substring(0, signatureStart) + "." + normalize(email)))
+            .getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, token.substring(signatureStart + 1).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static byte[] hmac(SecretKeySpec key, String data) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
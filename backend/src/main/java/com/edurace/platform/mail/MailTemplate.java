@@ -0,0 +1,89 @@
+package com.edurace.platform.mail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A plain-text email template compiled once into literal and placeholder parts.
+ *
+ * Source format: a first line "Subject: ...", a blank line, then the body.
+ * Placeholders are written {{name}} in either part and rendering fails if the model
+ * lacks one.
+ */
+public class MailTemplate {
+
+    private static final String SUBJECT_PREFIX = "Subject:";
+
+    private final String name;
+    private final List<Part> subject;
+    private final List<Part> body;
+
+    private MailTemplate(String name, List<Part> subject, List<Part> body) {
+        this.name = name;
+        this.subject = subject;
+        this.body = body;
+    }
+
+    public static MailTemplate compile(String name, String source) {
+        String normalized = source.replace("\r\n", "\n");
+        int lineEnd = normalized.indexOf('\n');
+        if (!normalized.startsWith(SUBJECT_PREFIX) || lineEnd < 0) {
+            throw new IllegalArgumentException("Mail template " + name + " must start with a Subject: line");
+        }
+        String subject = normalized.substring(SUBJECT_PREFIX.length(), lineEnd).trim();
+        String body = normalized.substring(lineEnd + 1).replaceFirst("^\n", "");
+        return new MailTemplate(name, parse(name, subject), parse(name, body));
+    }
+
+    public String getName() { return name; }
+
+    public String renderSubject(Map<String, String> model) {
+        return render(subject, model);
+    }
+
+    public String renderBody(Map<String, String> model) {
+        return render(body, model);
+    }
+
+    private String render(List<Part> parts, Map<String, String> model) {
+        StringBuilder out = new StringBuilder(256);
+        for (Part part : parts) {
+            if (part.placeholder) {
+                String value = model.get(part.text);
+                if (value == null) {
+                    throw new IllegalArgumentException("Mail template " + name + " needs a value for " + part.text);
+                }
+                out.append(value);
+            } else {
+                out.append(part.text);
+            }
+        }
+        return out.toString();
+    }
+
+    private static List<Part> parse(String name, String source) {
+        List<Part> parts = new ArrayList<>();
+        int position = 0;
+        while (position < source.length()) {
+            int open = source.indexOf("{{", position);
+            if (open < 0) {
+                parts.add(new Part(source.substring(position), false));
+                break;
+            }
+            int close = source.indexOf("}}", open + 2);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder in mail template " + name);
+            }
+            if (open > position) {
+                parts.add(new Part(source.substring(position, open), false));
+            }
+            parts.add(new Part(source.substring(open + 2, close).trim(), true));
+            position = close + 2;
+        }
+        return parts;
+    }
+
+    private record Part(String text, boolean placeholder) {
+    }
+}
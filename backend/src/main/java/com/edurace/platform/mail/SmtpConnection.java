@@ -0,0 +1,73 @@
+package com.edurace.platform.mail;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+
+import java.io.Closeable;
+
+/**
+ * One SMTP connection, opened on first use and reused for every message sent
+ * through it until closed or broken.
+ */
+public class SmtpConnection implements Closeable {
+
+    private final Session session;
+    private final String protocol;
+    private final String host;
+    private final int port;
+    private final String username;
+    private final String password;
+
+    private Transport transport;
+
+    public SmtpConnection(Session session, String protocol, String host, int port, String username, String password) {
+        this.session = session;
+        this.protocol = protocol;
+        this.host = host;
+        this.port = port;
+        this.username = username;
+        this.password = password;
+    }
+
+    public Session getSession() { return session; }
+
+    /**
+     * Sends on the open connection, connecting first if needed. A rejected message
+     * throws {@link SendFailedException} and leaves the connection usable; any other
+     * failure closes it so the next send reconnects.
+     */
+    public void send(MimeMessage message) throws MessagingException {
+        if (transport == null) {
+            Transport opened = session.getTransport(protocol);
+            opened.connect(host, port, username, password);
+            transport = opened;
+        }
+        try {
+            transport.sendMessage(message, message.getAllRecipients());
+        } catch (SendFailedException e) {
+            throw e;
+        } catch (MessagingException e) {
+            close();
+            throw e;
+        }
+    }
+
+    public boolean isOpen() {
+        return transport != null;
+    }
+
+    @Override
+    public void close() {
+        if (transport != null) {
+            try {
+                transport.close();
+            } catch (MessagingException ignored) {
+                // The server may already have dropped the connection
+            }
+            transport = null;
+        }
+    }
+}
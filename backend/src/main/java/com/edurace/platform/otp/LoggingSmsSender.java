@@ -0,0 +1,36 @@
+package com.edurace.platform.otp;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Component;
+
+/**
+ * Local stand-in that writes messages to the log instead of sending them. Refuses to
+ * start under the prod profile, where it would put login codes in the logs.
+ */
+@Component
+@ConditionalOnProperty(name = "app.otp.sender", havingValue = "log", matchIfMissing = true)
+public class LoggingSmsSender implements SmsSender {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingSmsSender.class);
+
+    @Autowired
+    private Environment environment;
+
+    @PostConstruct
+    public void init() {
+        if (environment.acceptsProfiles(Profiles.of("prod"))) {
+            throw new IllegalStateException("app.otp.sender=log is not allowed with the prod profile; set OTP_SENDER=twilio");
+        }
+    }
+
+    @Override
+    public void send(String phoneNumber, String message) {
+        log.info("SMS to {}: {}", phoneNumber, message);
+    }
+}
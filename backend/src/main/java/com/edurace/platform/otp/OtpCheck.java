@@ -0,0 +1,8 @@
+package com.edurace.platform.otp;
+
+public enum OtpCheck {
+    VERIFIED,
+    INVALID,
+    EXPIRED,
+    TOO_MANY_ATTEMPTS
+}
@@ -0,0 +1,113 @@
+package com.edurace.platform.otp;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Outstanding one-time codes by phone number, held in memory only.
+ *
+ * Each number has at most one live code, which expires after the TTL or once its
+ * attempts are used up. The store holds a bounded number of codes and drops the
+ * oldest when full; a dropped code simply has to be requested again.
+ */
+public class OtpCodeStore {
+
+    private final int capacity;
+    private final long ttlMillis;
+    private final long resendIntervalMillis;
+    private final int maxAttempts;
+    private final Clock clock;
+
+    // Insertion order is issue order, so the eldest entry is the oldest code
+    private final LinkedHashMap<String, Code> codes = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Code> eldest) {
+            return size() > capacity;
+        }
+    };
+
+    public OtpCodeStore(int capacity, Duration ttl, Duration resendInterval, int maxAttempts, Clock clock) {
+        this.capacity = capacity;
+        this.ttlMillis = ttl.toMillis();
+        this.resendIntervalMillis = resendInterval.toMillis();
+        this.maxAttempts = maxAttempts;
+        this.clock = clock;
+    }
+
+    /**
+     * Stores a new code for the number, replacing any earlier one, unless the last
+     * code was issued less than the resend interval ago.
+     */
+    public synchronized boolean issue(String phoneNumber, String code) {
+        long now = clock.millis();
+        Code current = codes.get(phoneNumber);
+        if (current != null && now - current.issuedAt < resendIntervalMillis) {
+            return false;
+        }
+        codes.remove(phoneNumber);
+        codes.put(phoneNumber, new Code(code.getBytes(StandardCharsets.US_ASCII), now, maxAttempts));
+        return true;
+    }
+
+    /**
+     * Checks a submitted code; a correct code is consumed, a wrong one uses up an attempt.
+     */
+    public synchronized OtpCheck verify(String phoneNumber, String submitted) {
+        Code current = codes.get(phoneNumber);
+        if (current == null) {
+            return OtpCheck.EXPIRED;
+        }
+        if (clock.millis() - current.issuedAt >= ttlMillis) {
+            codes.remove(phoneNumber);
+            return OtpCheck.EXPIRED;
+        }
+        if (MessageDigest.isEqual(current.code, submitted.getBytes(StandardCharsets.US_ASCII))) {
+            codes.remove(phoneNumber);
+            return OtpCheck.VERIFIED;
+        }
+        if (--current.attemptsLeft <= 0) {
+            codes.remove(phoneNumber);
+            return OtpCheck.TOO_MANY_ATTEMPTS;
+        }
+        return OtpCheck.INVALID;
+    }
+
+    /**
+     * Drops expired codes. Returns the number removed.
+     */
+    public synchronized int purgeExpired() {
+        long cutoff = clock.millis() - ttlMillis;
+        int removed = 0;
+        // Oldest first, so the scan stops at the first live code
+        for (Iterator<Code> it = codes.values().iterator(); it.hasNext(); ) {
+            if (it.next().issuedAt > cutoff) {
+                break;
+            }
+            it.remove();
+            removed++;
+        }
+        return removed;
+    }
+
+    public synchronized int size() {
+        return codes.size();
+    }
+
+    private static final class Code {
+
+        final byte[] code;
+        final long issuedAt;
+        int attemptsLeft;
+
+        Code(byte[] code, long issuedAt, int attemptsLeft) {
+            this.code = code;
+            this.issuedAt = issuedAt;
+            this.attemptsLeft = attemptsLeft;
+        }
+    }
+}
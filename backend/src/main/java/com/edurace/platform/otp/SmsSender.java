@@ -0,0 +1,10 @@
+package com.edurace.platform.otp;
+
+/**
+ * Delivers a text message. Implementations may block; callers dispatch off the
+ * request thread.
+ */
+public interface SmsSender {
+
+    void send(String phoneNumber, String message);
+}
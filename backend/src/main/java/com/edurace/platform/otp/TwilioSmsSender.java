@@ -0,0 +1,38 @@
+package com.edurace.platform.otp;
+
+import com.twilio.Twilio;
+import com.twilio.rest.api.v2010.account.Message;
+import com.twilio.type.PhoneNumber;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "app.otp.sender", havingValue = "twilio")
+public class TwilioSmsSender implements SmsSender {
+
+    @Value("${sms.twilio.account-sid}")
+    private String accountSid;
+
+    @Value("${sms.twilio.auth-token}")
+    private String authToken;
+
+    @Value("${sms.twilio.phone-number}")
+    private String fromNumber;
+
+    private volatile boolean initialized;
+
+    @Override
+    public void send(String phoneNumber, String message) {
+        if (!initialized) {
+            // Deferred so the Twilio client stays out of startup
+            synchronized (this) {
+                if (!initialized) {
+                    Twilio.init(accountSid, authToken);
+                    initialized = true;
+                }
+            }
+        }
+        Message.creator(new PhoneNumber(phoneNumber), new PhoneNumber(fromNumber), message).create();
+    }
+}
@@ -0,0 +1,114 @@
+package com.edurace.platform.proctoring;
+
+/**
+ * Running suspicion score for one quiz attempt, updated event by event.
+ *
+ * Every event adds its type's weight, and time spent away from the quiz (between a
+ * TAB_HIDDEN or WINDOW_BLUR and the matching return) adds
+ * {@value #AWAY_SECOND_WEIGHT} per second. A single absence counts for at most
+ * {@value #MAX_AWAY_MILLIS} ms, so a client clock jump can't dominate the score. The
+ * score is capped at 100.
+ */
+public class AttemptSuspicion {
+
+    static final double AWAY_SECOND_WEIGHT = 0.5;
+    static final long MAX_AWAY_MILLIS = 10 * 60 * 1000;
+    static final double MAX_SCORE = 100;
+
+    private final long attemptId;
+    private final long quizId;
+    private final long studentId;
+    private final int[] counts = new int[ProctoringEventType.values().length];
+
+    private long awaySince = -1;
+    private long awayMillis;
+    private int eventCount;
+    private double weighted;
+    private long lastReceivedAt;
+    private boolean flagged;
+    private boolean dirty;
+
+    public AttemptSuspicion(long attemptId, long quizId, long studentId) {
+        this.attemptId = attemptId;
+        this.quizId = quizId;
+        this.studentId = studentId;
+    }
+
+    /**
+     * Folds in an event. Returns true when the attempt is flagged and its score
+     * changed, i.e. the stored flag needs updating.
+     */
+    public synchronized boolean record(ProctoringEvent event, double flagThreshold) {
+        double before = score();
+        ProctoringEventType type = event.type();
+        counts[type.ordinal()]++;
+        eventCount++;
+        weighted += type.getWeight();
+        lastReceivedAt = Math.max(lastReceivedAt, event.receivedAt());
+
+        switch (type) {
+            case TAB_HIDDEN, WINDOW_BLUR -> {
+                if (awaySince < 0) {
+                    awaySince = event.occurredAt();
+                }
+            }
+            case TAB_VISIBLE, WINDOW_FOCUS -> {
+                if (awaySince >= 0) {
+                    awayMillis += Math.max(0, Math.min(MAX_AWAY_MILLIS, event.occurredAt() - awaySince));
+                    awaySince = -1;
+                }
+            }
+            default -> {
+            }
+        }
+
+        double after = score();
+        if (after >= flagThreshold) {
+            flagged = true;
+        }
+        if (flagged && after != before) {
+            dirty = true;
+        }
+        return flagged && dirty;
+    }
+
+    public synchronized double score() {
+        return Math.min(MAX_SCORE, weighted + AWAY_SECOND_WEIGHT * (awayMillis / 1000.0));
+    }
+
+    /**
+     * Short human-readable breakdown of what drove the score.
+     */
+    public synchronized String reasons() {
+        StringBuilder reasons = new StringBuilder();
+        for (ProctoringEventType type : ProctoringEventType.values()) {
+            if (type.getWeight() > 0 && counts[type.ordinal()] > 0) {
+                if (!reasons.isEmpty()) {
+                    reasons.append(", ");
+                }
+                reasons.append(type).append(" x").append(counts[type.ordinal()]);
+            }
+        }
+        if (awayMillis > 0) {
+            reasons.append(reasons.isEmpty() ? "" : ", ").append("away ").append(awayMillis / 1000).append('s');
+        }
+        return reasons.length() > 255 ? reasons.substring(0, 255) : reasons.toString();
+    }
+
+    /**
+     * Clears the dirty mark once the flag has been stored. Returns whether it was set.
+     */
+    public synchronized boolean markClean() {
+        boolean wasDirty = dirty;
+        dirty = false;
+        return wasDirty;
+    }
+
+    public long getAttemptId() { return attemptId; }
+    public long getQuizId() { return quizId; }
+    public long getStudentId() { return studentId; }
+    public synchronized int getEventCount() { return eventCount; }
+    public synchronized long getAwaySeconds() { return awayMillis / 1000; }
+    public synchronized long getLastReceivedAt() { return lastReceivedAt; }
+    public synchronized boolean isFlagged() { return flagged; }
+}
@@ -0,0 +1,14 @@
+package com.edurace.platform.proctoring;
+
+/**
+ * One proctoring signal. {@code occurredAt} is the client's clock and
+ * {@code receivedAt} the server's, both epoch millis; {@code detail} is
+ * type-specific (e.g. the number of faces seen) and 0 when unused.
+ */
+public record ProctoringEvent(
+        long attemptId,
+        ProctoringEventType type,
+        long occurredAt,
+        long receivedAt,
+        int detail) {
+}
@@ -0,0 +1,47 @@
+package com.edurace.platform.proctoring;
+
+/**
+ * Client-side signals reported during a quiz attempt. The code is what the log
+ * stores, so existing codes must never change; the weight is how much one
+ * occurrence adds to the attempt's suspicion score.
+ */
+public enum ProctoringEventType {
+
+    TAB_HIDDEN(1, 2.0),
+    TAB_VISIBLE(2, 0.0),
+    WINDOW_BLUR(3, 1.0),
+    WINDOW_FOCUS(4, 0.0),
+    FULLSCREEN_EXIT(5, 3.0),
+    COPY(6, 2.0),
+    PASTE(7, 4.0),
+    FACE_NOT_DETECTED(8, 5.0),
+    MULTIPLE_FACES(9, 10.0),
+    DEVTOOLS_OPENED(10, 15.0);
+
+    private static final ProctoringEventType[] BY_CODE = new ProctoringEventType[16];
+
+    static {
+        for (ProctoringEventType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final int code;
+    private final double weight;
+
+    ProctoringEventType(int code, double weight) {
+        this.code = code;
+        this.weight = weight;
+    }
+
+    public static ProctoringEventType fromCode(int code) {
+        ProctoringEventType type = code >= 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown proctoring event code " + code);
+        }
+        return type;
+    }
+
+    public int getCode() { return code; }
+    public double getWeight() { return weight; }
+}
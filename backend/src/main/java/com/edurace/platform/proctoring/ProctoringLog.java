@@ -0,0 +1,255 @@
+package com.edurace.platform.proctoring;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+
+/**
+ * Segmented append-only log of proctoring events.
+ *
+ * Events are fixed {@value #RECORD_BYTES}-byte records. The active segment is a
+ * memory-mapped file of fixed size, so appending is a handful of stores into the page
+ * cache with no system call; when it fills up it is sealed and a new segment is
+ * mapped. Sealed segments are only read, or rewritten by {@link #compact}.
+ *
+ * Record layout: receivedAt (8), occurredAt (8), detail (4), type code (4),
+ * attemptId (8). Attempt ids are never 0 and the attempt id is stored last, so the
+ * first zero attempt id marks the end of a segment and a record cut short by a crash
+ * is simply not there on restart.
+ */
+public class ProctoringLog implements Closeable {
+
+    public static final int RECORD_BYTES = 32;
+
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".log";
+    private static final int READ_CHUNK_RECORDS = 2048;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final Map<Long, Path> sealed = new ConcurrentSkipListMap<>();
+
+    private long activeSequence;
+    private FileChannel activeChannel;
+    private MappedByteBuffer active;
+    private int position;
+
+    public ProctoringLog(Path directory, int segmentBytes) throws IOException {
+        if (segmentBytes < RECORD_BYTES || segmentBytes % RECORD_BYTES != 0) {
+            throw new IllegalArgumentException("Segment size must be a multiple of " + RECORD_BYTES + ": " + segmentBytes);
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(directory);
+
+        long last = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                long sequence = sequenceOf(file);
+                sealed.put(sequence, file);
+                last = Math.max(last, sequence);
+            }
+        }
+        if (last == 0) {
+            openActive(1);
+        } else {
+            sealed.remove(last);
+            openActive(last);
+            while (position < segmentBytes && active.getLong(position + 24) != 0) {
+                position += RECORD_BYTES;
+            }
+        }
+    }
+
+    /**
+     * Appends the events in order. Safe to call from many threads.
+     */
+    public synchronized void append(List<ProctoringEvent> events) throws IOException {
+        for (ProctoringEvent event : events) {
+            if (event.attemptId() == 0) {
+                throw new IllegalArgumentException("Attempt id 0 can't be logged");
+            }
+            if (position == segmentBytes) {
+                roll();
+            }
+            active.putLong(position, event.receivedAt());
+            active.putLong(position + 8, event.occurredAt());
+            active.putInt(position + 16, event.detail());
+            active.putInt(position + 20, event.type().getCode());
+            active.putLong(position + 24, event.attemptId());
+            position += RECORD_BYTES;
+        }
+    }
+
+    /**
+     * Writes the active segment's dirty pages to disk.
+     */
+    public synchronized void flush() {
+        active.force();
+    }
+
+    /**
+     * Reads every logged event, oldest first. Meant for startup, before appends begin.
+     */
+    public void replay(Consumer<ProctoringEvent> consumer) throws IOException {
+        for (Path segment : List.copyOf(sealed.values())) {
+            read(segment, consumer);
+        }
+        ByteBuffer current;
+        int end;
+        synchronized (this) {
+            current = active.duplicate();
+            end = position;
+        }
+        for (int offset = 0; offset < end; offset += RECORD_BYTES) {
+            consumer.accept(decode(current, offset));
+        }
+    }
+
+    public List<Path> sealedSegments() {
+        return new ArrayList<>(sealed.values());
+    }
+
+    /**
+     * Rewrites a sealed segment keeping only the events of attempts {@code keep}
+     * accepts, or deletes it if none are left. Returns the number of events dropped.
+     */
+    public long compact(Path segment, LongPredicate keep) throws IOException {
+        long sequence = sequenceOf(segment);
+        if (!segment.equals(sealed.get(sequence))) {
+            throw new IllegalArgumentException("Not a sealed segment: " + segment);
+        }
+        List<ProctoringEvent> kept = new ArrayList<>();
+        long[] dropped = {0};
+        read(segment, event -> {
+            if (keep.test(event.attemptId())) {
+                kept.add(event);
+            } else {
+                dropped[0]++;
+            }
+        });
+        if (dropped[0] == 0) {
+            return 0;
+        }
+        if (kept.isEmpty()) {
+            sealed.remove(sequence);
+            Files.deleteIfExists(segment);
+            return dropped[0];
+        }
+
+        Path temp = segment.resolveSibling(segment.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(READ_CHUNK_RECORDS * RECORD_BYTES);
+            for (ProctoringEvent event : kept) {
+                if (!buffer.hasRemaining()) {
+                    writeFully(channel, buffer);
+                }
+                buffer.putLong(event.receivedAt()).putLong(event.occurredAt()).putInt(event.detail())
+                    .putInt(event.type().getCode()).putLong(event.attemptId());
+            }
+            writeFully(channel, buffer);
+            channel.force(true);
+        }
+        Files.move(temp, segment, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return dropped[0];
+    }
+
+    /**
+     * Drops a sealed segment outright.
+     */
+    public void delete(Path segment) throws IOException {
+        sealed.remove(sequenceOf(segment));
+        Files.deleteIfExists(segment);
+    }
+
+    public int getSegmentCount() {
+        return sealed.size() + 1;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        active.force();
+        activeChannel.close();
+    }
+
+    /**
+     * Streams a sealed segment's events in order. Compacted segments are shorter than
+     * the mapped size and end at end of file instead of at a zero record.
+     */
+    public static void read(Path segment, Consumer<ProctoringEvent> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(READ_CHUNK_RECORDS * RECORD_BYTES);
+            while (true) {
+                int read = channel.read(buffer);
+                buffer.flip();
+                while (buffer.remaining() >= RECORD_BYTES) {
+                    if (buffer.getLong(buffer.position() + 24) == 0) {
+                        return;
+                    }
+                    consumer.accept(decode(buffer, buffer.position()));
+                    buffer.position(buffer.position() + RECORD_BYTES);
+                }
+                if (read < 0) {
+                    return;
+                }
+                buffer.compact();
+            }
+        }
+    }
+
+    private static ProctoringEvent decode(ByteBuffer buffer, int offset) {
+        return new ProctoringEvent(
+            buffer.getLong(offset + 24),
+            ProctoringEventType.fromCode(buffer.getInt(offset + 20)),
+            buffer.getLong(offset + 8),
+            buffer.getLong(offset),
+            buffer.getInt(offset + 16));
+    }
+
+    private void roll() throws IOException {
+        active.force();
+        activeChannel.close();
+        sealed.put(activeSequence, segmentPath(activeSequence));
+        openActive(activeSequence + 1);
+    }
+
+    private void openActive(long sequence) throws IOException {
+        activeSequence = sequence;
+        activeChannel = FileChannel.open(segmentPath(sequence),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // Mapping past the end grows the file (sparsely) to the full segment size
+        active = activeChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        position = 0;
+    }
+
+    private Path segmentPath(long sequence) {
+        return directory.resolve(String.format("%s%012d%s", PREFIX, sequence, SUFFIX));
+    }
+
+    private static long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
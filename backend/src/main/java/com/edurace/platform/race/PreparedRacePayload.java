@@ -0,0 +1,113 @@
+package com.edurace.platform.race;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Quiz payload serialized once, ahead of the race, into JSON byte fragments.
+ *
+ * Every racer receives the same questions but with the options of each question in a
+ * per-student order, so a payload is assembled by copying the precomputed fragments in
+ * that order into a buffer of known size. Correct answers are never part of it; options
+ * keep their original keys (A-D) so submissions are graded against QuizQuestion.correctAnswer.
+ */
+public class PreparedRacePayload {
+
+    public record Question(long id, String text, int points, List<Option> options) {
+    }
+
+    public record Option(String key, String text) {
+    }
+
+    private final long seed;
+    private final byte[] head;
+    private final byte[] tail;
+    private final long[] questionIds;
+    private final byte[][] questionPrefixes;
+    private final byte[][][] options;
+    private final int payloadSize;
+
+    public PreparedRacePayload(ObjectMapper objectMapper, long quizId, String title, int timeLimitMinutes,
+                               String startsAt, List<Question> questions, long seed) throws JsonProcessingException {
+        this.seed = seed;
+        this.head = ("{\"quiz_id\":" + quizId +
+            ",\"title\":" + objectMapper.writeValueAsString(title) +
+            ",\"time_limit_minutes\":" + timeLimitMinutes +
+            ",\"starts_at\":" + objectMapper.writeValueAsString(startsAt) +
+            ",\"questions\":[").getBytes(StandardCharsets.UTF_8);
+        this.tail = "]}".getBytes(StandardCharsets.UTF_8);
+
+        int size = head.length + tail.length;
+        questionIds = new long[questions.size()];
+        questionPrefixes = new byte[questions.size()][];
+        options = new byte[questions.size()][][];
+        for (int q = 0; q < questions.size(); q++) {
+            Question question = questions.get(q);
+            questionIds[q] = question.id();
+            questionPrefixes[q] = ((q == 0 ? "" : ",") +
+                "{\"id\":" + question.id() +
+                ",\"text\":" + objectMapper.writeValueAsString(question.text()) +
+                ",\"points\":" + question.points() +
+                ",\"options\":[").getBytes(StandardCharsets.UTF_8);
+            size += questionPrefixes[q].length + 2; // "]}"
+
+            options[q] = new byte[question.options().size()][];
+            for (int o = 0; o < question.options().size(); o++) {
+                Option option = question.options().get(o);
+                options[q][o] = ("{\"key\":" + objectMapper.writeValueAsString(option.key()) +
+                    ",\"text\":" + objectMapper.writeValueAsString(option.text()) + "}").getBytes(StandardCharsets.UTF_8);
+                size += options[q][o].length + (o == 0 ? 0 : 1); // ","
+            }
+        }
+        this.payloadSize = size;
+    }
+
+    /**
+     * Assembles the payload for one student; the option order is stable per student.
+     */
+    public byte[] forStudent(long studentId) {
+        byte[] buffer = new byte[payloadSize];
+        int pos = copy(head, buffer, 0);
+        for (int q = 0; q < questionIds.length; q++) {
+            pos = copy(questionPrefixes[q], buffer, pos);
+            int count = options[q].length;
+            int[] order = new int[count];
+            shuffle(order, count, new SplittableRandom(seed ^ (studentId * 0x9E3779B97F4A7C15L) ^ questionIds[q]));
+            for (int o = 0; o < count; o++) {
+                if (o > 0) {
+                    buffer[pos++] = ',';
+                }
+                pos = copy(options[q][order[o]], buffer, pos);
+            }
+            buffer[pos++] = ']';
+            buffer[pos++] = '}';
+        }
+        copy(tail, buffer, pos);
+        return buffer;
+    }
+
+    public int getPayloadSize() {
+        return payloadSize;
+    }
+
+    private static void shuffle(int[] order, int count, SplittableRandom random) {
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+    }
+
+    private static int copy(byte[] source, byte[] target, int pos) {
+        System.arraycopy(source, 0, target, pos, source.length);
+        return pos + source.length;
+    }
+}
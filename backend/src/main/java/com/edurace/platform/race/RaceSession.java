@@ -0,0 +1,45 @@
+package com.edurace.platform.race;
+
+import org.springframework.web.socket.WebSocketSession;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A scheduled race on one quiz of a course: its start instant, the prepared payload once
+ * preloaded, the students allowed to race and the WebSocket sessions waiting for
+ * the start signal.
+ */
+public class RaceSession {
+
+    private final Long courseId;
+    private final Long quizId;
+    private final Instant startsAt;
+    private final Set<WebSocketSession> waiting = ConcurrentHashMap.newKeySet();
+
+    private volatile PreparedRacePayload payload;
+    private volatile Set<Long> racers = Set.of();
+
+    public RaceSession(Long courseId, Long quizId, Instant startsAt) {
+        this.courseId = courseId;
+        this.quizId = quizId;
+        this.startsAt = startsAt;
+    }
+
+    public boolean hasStarted(Instant now) {
+        return !now.isBefore(startsAt);
+    }
+
+    public void prepare(PreparedRacePayload payload, Set<Long> racers) {
+        this.racers = racers;
+        this.payload = payload;
+    }
+
+    public Long getCourseId() { return courseId; }
+    public Long getQuizId() { return quizId; }
+    public Instant getStartsAt() { return startsAt; }
+    public PreparedRacePayload getPayload() { return payload; }
+    public Set<Long> getRacers() { return racers; }
+    public Set<WebSocketSession> getWaiting() { return waiting; }
+}
@@ -0,0 +1,55 @@
+package com.edurace.platform.race;
+
+import com.edurace.platform.service.RaceOrchestratorService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+/**
+ * Holds racers connected to /ws/races/{quizId} until the race orchestrator pushes
+ * their payload at the start instant.
+ */
+@Component
+public class RaceWebSocketHandler extends TextWebSocketHandler {
+
+    private static final String DECORATED = "raceSocket";
+
+    @Autowired
+    private RaceOrchestratorService raceOrchestratorService;
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        Long quizId = quizId(session);
+        if (quizId == null) {
+            session.close(CloseStatus.BAD_DATA);
+            return;
+        }
+        WebSocketSession decorated = new ConcurrentWebSocketSessionDecorator(session, 10_000, 512 * 1024);
+        session.getAttributes().put(DECORATED, decorated);
+        raceOrchestratorService.join(quizId, (Long) session.getAttributes().get("userId"), decorated);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        Long quizId = quizId(session);
+        Object decorated = session.getAttributes().get(DECORATED);
+        if (quizId != null && decorated != null) {
+            raceOrchestratorService.leave(quizId, (WebSocketSession) decorated);
+        }
+    }
+
+    private static Long quizId(WebSocketSession session) {
+        if (session.getUri() == null) {
+            return null;
+        }
+        String path = session.getUri().getPath();
+        try {
+            return Long.valueOf(path.substring(path.lastIndexOf('/') + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.edurace.platform.reconciliation;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Rows are the JSON objects at the top level, in a top-level array, or in the "items"
+ * array of a top-level object. Nested objects and arrays within a row are skipped.
+ */
+class JsonSettlementReader extends SettlementReader {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final JsonParser parser;
+
+    JsonSettlementReader(InputStream in) throws IOException {
+        this.parser = JSON.createParser(in);
+    }
+
+    @Override
+    protected Map<String, String> readRow() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null) {
+            switch (token) {
+                case START_OBJECT -> {
+                    Map<String, String> row = readObject();
+                    if (row != null) {
+                        return row;
+                    }
+                    // A wrapper: its "items" follow
+                }
+                case FIELD_NAME -> {
+                    // The rest of a wrapper's fields, after its "items"
+                    parser.nextToken();
+                    parser.skipChildren();
+                }
+                case START_ARRAY, END_ARRAY, END_OBJECT -> {
+                }
+                default -> throw new IOException("Unexpected " + token + " at " + parser.currentLocation());
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    /**
+     * Reads an object's scalar fields, or returns null, positioned inside the array, on
+     * reaching an "items" array.
+     */
+    private Map<String, String> readObject() throws IOException {
+        Map<String, String> row = new HashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName().toLowerCase(Locale.ROOT);
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.START_ARRAY && name.equals("items")) {
+                return null;
+            }
+            if (value.isScalarValue()) {
+                row.put(name, value == JsonToken.VALUE_NULL ? null : parser.getText());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return row;
+    }
+}
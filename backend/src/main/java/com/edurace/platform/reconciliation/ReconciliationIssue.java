@@ -0,0 +1,23 @@
+package com.edurace.platform.reconciliation;
+
+/**
+ * What a line of a reconciliation report is about.
+ */
+public enum ReconciliationIssue {
+    /** Settled by the gateway, but no payment has its reference. */
+    NOT_IN_PAYMENTS,
+    /** A completed payment in the reconciled period that was never settled. */
+    NOT_SETTLED,
+    /** The settled amount differs from the payment's; its status is left alone. */
+    AMOUNT_MISMATCH,
+    /** The payment was settled more than once. */
+    DUPLICATE_SETTLEMENT,
+    /** Refunded in part, which payment statuses cannot express. */
+    PARTIAL_REFUND,
+    /** The status disagrees with the settlement and was, or in a dry run would be, corrected. */
+    STATUS_CORRECTED,
+    /** The status disagrees with the settlement in a way that is not corrected automatically. */
+    STATUS_CONFLICT,
+    /** A settlement row that could not be read. */
+    REJECTED_ROW
+}
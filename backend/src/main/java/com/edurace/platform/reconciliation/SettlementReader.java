@@ -0,0 +1,167 @@
+package com.edurace.platform.reconciliation;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streams the payment and refund rows of a settlement export, one row in memory at a
+ * time. CSV files need a header line; JSON files may be an array of row objects, a
+ * sequence of objects (NDJSON), or an API response that wraps the rows in "items".
+ * Either may be gzipped.
+ *
+ * Rows are matched by column name: {@code type} (payment or refund), {@code amount},
+ * and {@code entity_id} for payments or {@code payment_id} for refunds. Other row types
+ * are skipped, and rows that cannot be read are passed to the {@link RejectedRowHandler}.
+ */
+public abstract class SettlementReader implements Closeable {
+
+    private static final int MAX_REFERENCE_LENGTH = 64;
+
+    @FunctionalInterface
+    public interface RejectedRowHandler {
+        void rejected(long row, String reason);
+    }
+
+    private boolean minorUnits;
+    private RejectedRowHandler rejectedRowHandler = (row, reason) -> { };
+    private long rows;
+    private long skipped;
+    private long rejected;
+
+    /**
+     * Opens a report by its extension: .csv, .json, .ndjson or .jsonl, optionally
+     * followed by .gz. With {@code minorUnits} amounts are read as paise, as the
+     * gateway's API reports them; otherwise as rupees, as its downloadable reports do.
+     */
+    public static SettlementReader open(Path file, boolean minorUnits) throws IOException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        boolean gzip = name.endsWith(".gz");
+        if (gzip) {
+            name = name.substring(0, name.length() - 3);
+        }
+        boolean csv = name.endsWith(".csv");
+        if (!csv && !name.endsWith(".json") && !name.endsWith(".ndjson") && !name.endsWith(".jsonl")) {
+            throw new IOException("Unsupported settlement file type: " + file.getFileName());
+        }
+        InputStream in = new BufferedInputStream(Files.newInputStream(file), 64 * 1024);
+        SettlementReader reader;
+        try {
+            if (gzip) {
+                in = new GZIPInputStream(in, 64 * 1024);
+            }
+            reader = csv ? new CsvSettlementReader(in) : new JsonSettlementReader(in);
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+        reader.minorUnits = minorUnits;
+        return reader;
+    }
+
+    public void setRejectedRowHandler(RejectedRowHandler rejectedRowHandler) { this.rejectedRowHandler = rejectedRowHandler; }
+
+    /**
+     * The next payment or refund, or null at the end of the file.
+     */
+    public SettlementRecord next() throws IOException {
+        Map<String, String> row;
+        while ((row = readRow()) != null) {
+            rows++;
+            String type = blankToNull(row.get("type"));
+            if (type == null) {
+                reject("no type");
+                continue;
+            }
+            SettlementType settlementType;
+            String reference;
+            switch (type.toLowerCase(Locale.ROOT)) {
+                case "payment" -> {
+                    settlementType = SettlementType.PAYMENT;
+                    reference = blankToNull(row.get("entity_id"));
+                    if (reference == null) {
+                        reference = blankToNull(row.get("payment_id"));
+                    }
+                }
+                case "refund" -> {
+                    settlementType = SettlementType.REFUND;
+                    reference = blankToNull(row.get("payment_id"));
+                }
+                default -> {
+                    skipped++;
+                    continue;
+                }
+            }
+            if (reference == null || !isValidReference(reference)) {
+                reject(reference == null ? "no payment id" : "invalid payment id");
+                continue;
+            }
+            Long amount = parseAmount(row.get("amount"));
+            if (amount == null) {
+                reject("invalid amount");
+                continue;
+            }
+            return new SettlementRecord(reference, settlementType, amount);
+        }
+        return null;
+    }
+
+    public long getRows() { return rows; }
+
+    public long getSkipped() { return skipped; }
+
+    public long getRejected() { return rejected; }
+
+    /**
+     * The next row keyed by lower-case column name, or null at the end of the file.
+     */
+    protected abstract Map<String, String> readRow() throws IOException;
+
+    private void reject(String reason) {
+        rejected++;
+        rejectedRowHandler.rejected(rows, reason);
+    }
+
+    private Long parseAmount(String text) {
+        text = blankToNull(text);
+        if (text == null) {
+            return null;
+        }
+        try {
+            BigDecimal amount = new BigDecimal(text).abs();
+            return (minorUnits ? amount : amount.movePointRight(2)).longValueExact();
+        } catch (ArithmeticException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Payments are ordered by reference with a binary ASCII collation, which matches
+    // String.compareTo only for ASCII
+    private static boolean isValidReference(String reference) {
+        if (reference.length() > MAX_REFERENCE_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < reference.length(); i++) {
+            char c = reference.charAt(i);
+            if (c <= ' ' || c > '~') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String blankToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        value = value.trim();
+        return value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,8 @@
+package com.edurace.platform.reconciliation;
+
+/**
+ * One settled payment or refund. {@code reference} is the gateway's payment id, which
+ * for a refund is the payment it refunds; amounts are in paise.
+ */
+public record SettlementRecord(String reference, SettlementType type, long amount) {
+}
@@ -0,0 +1,194 @@
+package com.edurace.platform.reconciliation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts settlement records by reference within a fixed memory budget. Up to
+ * {@code maxRecordsInMemory} records are buffered; each time the buffer fills it is
+ * sorted and spilled to a run file, and {@link #sorted()} merges the runs and the last
+ * buffer in one k-way pass. Input that fits in the buffer never touches disk.
+ *
+ * A single merge pass reads every run at once, with a small read buffer each, so the
+ * budget should be large enough to keep runs to a few hundred.
+ */
+public class SettlementSorter implements Closeable {
+
+    private static final Comparator<SettlementRecord> ORDER = Comparator.comparing(SettlementRecord::reference);
+    private static final int RUN_BUFFER_BYTES = 64 * 1024;
+
+    /**
+     * Records in reference order.
+     */
+    public interface Cursor extends Closeable {
+        /** The next record, or null when there are no more. */
+        SettlementRecord next() throws IOException;
+    }
+
+    private final Path workDirectory;
+    private final int maxRecordsInMemory;
+    private final List<SettlementRecord> buffer = new ArrayList<>();
+    private final List<Path> runs = new ArrayList<>();
+    private long records;
+
+    public SettlementSorter(Path workDirectory, int maxRecordsInMemory) {
+        this.workDirectory = workDirectory;
+        this.maxRecordsInMemory = maxRecordsInMemory;
+    }
+
+    public void add(SettlementRecord record) throws IOException {
+        buffer.add(record);
+        records++;
+        if (buffer.size() >= maxRecordsInMemory) {
+            spill();
+        }
+    }
+
+    /**
+     * Merges what has been added. Nothing can be added afterwards; closing the sorter
+     * deletes the run files.
+     */
+    public Cursor sorted() throws IOException {
+        buffer.sort(ORDER);
+        List<SettlementRecord> last = List.copyOf(buffer);
+        buffer.clear();
+
+        PriorityQueue<Source> heads = new PriorityQueue<>(Comparator.comparing((Source source) -> source.head.reference()));
+        List<Source> opened = new ArrayList<>();
+        try {
+            for (Path run : runs) {
+                Source source = new RunSource(run);
+                opened.add(source);
+                if (source.advance()) {
+                    heads.add(source);
+                }
+            }
+        } catch (IOException e) {
+            for (Source source : opened) {
+                source.close();
+            }
+            throw e;
+        }
+        Source memory = new MemorySource(last);
+        if (memory.advance()) {
+            heads.add(memory);
+        }
+
+        return new Cursor() {
+            @Override
+            public SettlementRecord next() throws IOException {
+                Source source = heads.poll();
+                if (source == null) {
+                    return null;
+                }
+                SettlementRecord record = source.head;
+                if (source.advance()) {
+                    heads.add(source);
+                } else {
+                    source.close();
+                }
+                return record;
+            }
+
+            @Override
+            public void close() throws IOException {
+                for (Source source : heads) {
+                    source.close();
+                }
+                heads.clear();
+            }
+        };
+    }
+
+    public long getRecords() { return records; }
+
+    public int getRuns() { return runs.size(); }
+
+    @Override
+    public void close() throws IOException {
+        buffer.clear();
+        for (Path run : runs) {
+            Files.deleteIfExists(run);
+        }
+        runs.clear();
+    }
+
+    private void spill() throws IOException {
+        buffer.sort(ORDER);
+        Files.createDirectories(workDirectory);
+        Path run = Files.createTempFile(workDirectory, "settlement-run-", ".bin");
+        runs.add(run);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), RUN_BUFFER_BYTES))) {
+            for (SettlementRecord record : buffer) {
+                out.writeUTF(record.reference());
+                out.writeByte(record.type().ordinal());
+                out.writeLong(record.amount());
+            }
+        }
+        buffer.clear();
+    }
+
+    private abstract static class Source implements Closeable {
+        SettlementRecord head;
+
+        abstract boolean advance() throws IOException;
+
+        @Override
+        public void close() throws IOException {
+        }
+    }
+
+    private static class MemorySource extends Source {
+        private final List<SettlementRecord> records;
+        private int next;
+
+        MemorySource(List<SettlementRecord> records) {
+            this.records = records;
+        }
+
+        @Override
+        boolean advance() {
+            head = next < records.size() ? records.get(next++) : null;
+            return head != null;
+        }
+    }
+
+    private static class RunSource extends Source {
+        private static final SettlementType[] TYPES = SettlementType.values();
+
+        private final DataInputStream in;
+
+        RunSource(Path run) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), RUN_BUFFER_BYTES));
+        }
+
+        @Override
+        boolean advance() throws IOException {
+            String reference;
+            try {
+                reference = in.readUTF();
+            } catch (EOFException end) {
+                head = null;
+                return false;
+            }
+            head = new SettlementRecord(reference, TYPES[in.readByte()], in.readLong());
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
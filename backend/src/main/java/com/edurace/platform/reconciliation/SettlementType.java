@@ -0,0 +1,10 @@
+package com.edurace.platform.reconciliation;
+
+/**
+ * Kinds of settlement report rows that reconciliation looks at. Fees, adjustments and
+ * transfers are not matched against payments.
+ */
+public enum SettlementType {
+    PAYMENT,
+    REFUND
+}
@@ -0,0 +1,34 @@
+package com.edurace.platform.repository;
+
+import com.edurace.platform.entity.DifficultyLevel;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A course and its instructor's name, read as plain values so a result shared by
+ * {@link com.edurace.platform.singleflight.SingleFlight} callers holds no entities.
+ */
+public record CourseDetails(
+        Long id,
+        String title,
+        String description,
+        String instructorFirstName,
+        String instructorLastName,
+        String thumbnailUrl,
+        BigDecimal entryFee,
+        Integer totalLessons,
+        Integer estimatedDurationHours,
+        DifficultyLevel difficultyLevel,
+        Boolean isFeatured,
+        Integer maxEnrollments,
+        LocalDateTime enrollmentStartDate,
+        LocalDateTime enrollmentEndDate,
+        LocalDateTime courseStartDate,
+        LocalDateTime courseEndDate,
+        BigDecimal totalPrizePool) {
+
+    public String instructorName() {
+        return instructorFirstName + " " + instructorLastName;
+    }
+}
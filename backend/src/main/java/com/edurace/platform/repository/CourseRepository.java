@@ -0,0 +1,36 @@
+package com.edurace.platform.repository;
+
+import com.edurace.platform.entity.Course;
+import com.edurace.platform.entity.CourseStatus;
+import com.edurace.platform.singleflight.SingleFlight;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CourseRepository extends JpaRepository<Course, Long> {
+    
+    List<Course> findByStatus(CourseStatus status);
+    
+    String COURSE_DETAILS = "SELECT new com.edurace.platform.repository.CourseDetails(c.id, c.title, c.description, " +
+        "i.firstName, i.lastName, c.thumbnailUrl, c.entryFee, c.totalLessons, c.estimatedDurationHours, " +
+        "c.difficultyLevel, c.isFeatured, c.maxEnrollments, c.enrollmentStartDate, c.enrollmentEndDate, " +
+        "c.courseStartDate, c.courseEndDate, c.totalPrizePool) FROM Course c JOIN c.instructor i ";
+
+    @Query(COURSE_DETAILS + "WHERE c.status = :status ORDER BY c.isFeatured DESC, c.courseStartDate ASC")
+    List<CourseDetails> findCatalog(@Param("status") CourseStatus status);
+    
+    @SingleFlight
+    @Query(COURSE_DETAILS + "WHERE c.id = :id AND c.status = :status")
+    Optional<CourseDetails> findDetailsByIdAndStatus(@Param("id") Long id, @Param("status") CourseStatus status);
+    
+    @SingleFlight
+    @Query("SELECT new com.edurace.platform.repository.LessonSummary(l.id, l.title, l.description, l.sequenceOrder, " +
+           "l.estimatedDurationMinutes) FROM Lesson l WHERE l.course.id = :courseId AND l.isPublished = true " +
+           "ORDER BY l.sequenceOrder ASC")
+    List<LessonSummary> findPublishedLessons(@Param("courseId") Long courseId);
+}
@@ -0,0 +1,15 @@
+package com.edurace.platform.repository;
+
+import com.edurace.platform.entity.Enrollment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
+    
+    Optional<Enrollment> findByStudentIdAndCourseId(Long studentId, Long courseId);
+    
+    boolean existsByStudentIdAndCourseId(Long studentId, Long courseId);
+}
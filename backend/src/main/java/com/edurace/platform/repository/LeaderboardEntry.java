@@ -0,0 +1,13 @@
+package com.edurace.platform.repository;
+
+public record LeaderboardEntry(
+        Long studentId,
+        String firstName,
+        String lastName,
+        String profileImageUrl,
+        Integer totalPoints) {
+
+    public String studentName() {
+        return firstName + " " + lastName;
+    }
+}
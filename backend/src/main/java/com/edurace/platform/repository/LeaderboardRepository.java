@@ -0,0 +1,24 @@
+package com.edurace.platform.repository;
+
+import com.edurace.platform.entity.Leaderboard;
+import com.edurace.platform.singleflight.SingleFlight;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface LeaderboardRepository extends JpaRepository<Leaderboard, Long> {
+    
+    Optional<Leaderboard> findByCourseIdAndStudentId(Long courseId, Long studentId);
+    
+    @SingleFlight
+    @Query("SELECT new com.edurace.platform.repository.LeaderboardEntry(s.id, s.firstName, s.lastName, " +
+           "s.profileImageUrl, l.totalPoints) FROM Leaderboard l JOIN l.student s WHERE l.course.id = :courseId " +
+           "ORDER BY l.totalPoints DESC")
+    List<LeaderboardEntry> findTopByCourse(@Param("courseId") Long courseId, Pageable pageable);
+}
@@ -0,0 +1,9 @@
+package com.edurace.platform.repository;
+
+public record LessonSummary(
+        Long id,
+        String title,
+        String description,
+        Integer sequenceOrder,
+        Integer estimatedDurationMinutes) {
+}
@@ -0,0 +1,14 @@
+package com.edurace.platform.repository;
+
+import com.edurace.platform.entity.Payment;
+import com.edurace.platform.entity.PaymentStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PaymentRepository extends JpaRepository<Payment, Long> {
+    
+    List<Payment> findByUserIdAndStatus(Long userId, PaymentStatus status);
+}
@@ -0,0 +1,9 @@
+package com.edurace.platform.repository;
+
+import com.edurace.platform.entity.QuizAttemptArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface QuizAttemptArchiveRepository extends JpaRepository<QuizAttemptArchive, String> {
+}
@@ -0,0 +1,15 @@
+package com.edurace.platform.repository;
+
+import com.edurace.platform.entity.QuizAttempt;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface QuizAttemptRepository extends JpaRepository<QuizAttempt, Long> {
+    
+    List<QuizAttempt> findByQuizIdAndStudentIdOrderByCompletedAtDesc(Long quizId, Long studentId);
+    
+    long countByQuizIdAndStudentId(Long quizId, Long studentId);
+}
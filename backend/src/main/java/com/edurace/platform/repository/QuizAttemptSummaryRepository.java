@@ -0,0 +1,16 @@
+package com.edurace.platform.repository;
+
+import com.edurace.platform.entity.QuizAttemptSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface QuizAttemptSummaryRepository extends JpaRepository<QuizAttemptSummary, Long> {
+    
+    Optional<QuizAttemptSummary> findByStudentIdAndQuizId(Long studentId, Long quizId);
+    
+    List<QuizAttemptSummary> findByStudentId(Long studentId);
+}
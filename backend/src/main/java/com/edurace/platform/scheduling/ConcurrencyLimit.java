@@ -0,0 +1,76 @@
+package com.edurace.platform.scheduling;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded concurrency for one request class: up to {@code limit} requests run at once,
+ * up to {@code queueSize} more wait for a slot, and the rest are turned away. Lowering
+ * the limit never interrupts running requests; it only holds back new ones until
+ * enough have finished.
+ */
+public class ConcurrencyLimit {
+
+    private final int queueSize;
+
+    private int limit;
+    private int inFlight;
+    private int waiting;
+    private long rejected;
+
+    public ConcurrencyLimit(int limit, int queueSize) {
+        this.limit = limit;
+        this.queueSize = queueSize;
+    }
+
+    /**
+     * Takes a slot, waiting up to {@code maxWaitNanos} for one if the queue has room.
+     * Returns false if none became free.
+     */
+    public synchronized boolean acquire(long maxWaitNanos) throws InterruptedException {
+        if (inFlight < limit) {
+            inFlight++;
+            return true;
+        }
+        if (maxWaitNanos <= 0 || waiting >= queueSize) {
+            rejected++;
+            return false;
+        }
+        waiting++;
+        try {
+            long deadline = System.nanoTime() + maxWaitNanos;
+            while (inFlight >= limit) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    rejected++;
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+            inFlight++;
+            return true;
+        } finally {
+            waiting--;
+        }
+    }
+
+    public synchronized void release() {
+        inFlight--;
+        notify();
+    }
+
+    public synchronized void setLimit(int limit) {
+        boolean raised = limit > this.limit;
+        this.limit = limit;
+        if (raised) {
+            notifyAll();
+        }
+    }
+
+    public synchronized int getLimit() { return limit; }
+
+    public synchronized int getInFlight() { return inFlight; }
+
+    public synchronized int getWaiting() { return waiting; }
+
+    public synchronized long getRejected() { return rejected; }
+}
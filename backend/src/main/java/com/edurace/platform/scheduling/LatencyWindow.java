@@ -0,0 +1,96 @@
+package com.edurace.platform.scheduling;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sliding-window latency histogram. Samples land in buckets whose bounds grow by 10%
+ * from 100 microseconds to a minute, so a percentile is read to within 10% without
+ * keeping the samples; the window is a ring of slots and {@link #rotate()} drops the
+ * oldest.
+ */
+public class LatencyWindow {
+
+    private static final long[] BOUNDS_MICROS = bounds();
+
+    private final AtomicLongArray[] slots;
+    private volatile int current;
+
+    public LatencyWindow(int slots) {
+        this.slots = new AtomicLongArray[Math.max(1, slots)];
+        for (int i = 0; i < this.slots.length; i++) {
+            this.slots[i] = new AtomicLongArray(BOUNDS_MICROS.length + 1);
+        }
+    }
+
+    public void record(long nanos) {
+        int bucket = Arrays.binarySearch(BOUNDS_MICROS, nanos / 1000);
+        slots[current].incrementAndGet(bucket >= 0 ? bucket : -bucket - 1);
+    }
+
+    /**
+     * Starts a new slot, forgetting the samples of the oldest one.
+     */
+    public synchronized void rotate() {
+        int next = (current + 1) % slots.length;
+        clear(slots[next]);
+        current = next;
+    }
+
+    /**
+     * Forgets every sample.
+     */
+    public synchronized void reset() {
+        for (AtomicLongArray slot : slots) {
+            clear(slot);
+        }
+    }
+
+    /**
+     * Upper bound, in nanoseconds, of the bucket holding the given percentile of the
+     * window's samples, or -1 if it has fewer than {@code minSamples}.
+     */
+    public long percentile(double percentile, int minSamples) {
+        long[] counts = new long[BOUNDS_MICROS.length + 1];
+        long total = 0;
+        for (AtomicLongArray slot : slots) {
+            for (int i = 0; i < counts.length; i++) {
+                long count = slot.get(i);
+                counts[i] += count;
+                total += count;
+            }
+        }
+        if (total == 0 || total < minSamples) {
+            return -1;
+        }
+        long rank = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i < BOUNDS_MICROS.length ? BOUNDS_MICROS[i] * 1000 : Long.MAX_VALUE;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private static void clear(AtomicLongArray slot) {
+        for (int i = 0; i < slot.length(); i++) {
+            slot.set(i, 0);
+        }
+    }
+
+    private static long[] bounds() {
+        long[] bounds = new long[160];
+        int n = 0;
+        double bound = 100;
+        while (bound <= 60_000_000) {
+            long rounded = (long) Math.ceil(bound);
+            if (n == 0 || rounded > bounds[n - 1]) {
+                bounds[n++] = rounded;
+            }
+            bound *= 1.1;
+        }
+        return Arrays.copyOf(bounds, n);
+    }
+}
@@ -0,0 +1,123 @@
+package com.edurace.platform.scheduling;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Partitions the connection pool between request classes. A thread serving a class
+ * with a connection cap takes one of the class's permits with its first connection
+ * and returns it when its last connection is closed. Connections it opens meanwhile,
+ * for a REQUIRES_NEW transaction say, share that permit, so a request can never wait
+ * on its own class. CRITICAL requests and background work are not capped, and the caps
+ * keep the rest of the pool free for them.
+ */
+public class PartitionedDataSource extends DelegatingDataSource {
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection open() throws SQLException;
+    }
+
+    private final Map<RequestClass, Semaphore> permits = new EnumMap<>(RequestClass.class);
+    private final Map<RequestClass, Integer> caps = new EnumMap<>(RequestClass.class);
+    private final long maxWaitMillis;
+    private final ThreadLocal<AtomicInteger> held = ThreadLocal.withInitial(AtomicInteger::new);
+
+    public PartitionedDataSource(DataSource target, Map<RequestClass, Integer> caps, long maxWaitMillis) {
+        super(target);
+        this.maxWaitMillis = maxWaitMillis;
+        caps.forEach((requestClass, cap) -> {
+            this.caps.put(requestClass, cap);
+            this.permits.put(requestClass, new Semaphore(cap));
+        });
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return partitioned(super::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return partitioned(() -> super.getConnection(username, password));
+    }
+
+    public int availablePermits(RequestClass requestClass) {
+        Semaphore semaphore = permits.get(requestClass);
+        return semaphore == null ? -1 : semaphore.availablePermits();
+    }
+
+    private Connection partitioned(ConnectionSource source) throws SQLException {
+        RequestClass requestClass = RequestClass.current();
+        Semaphore semaphore = requestClass == null ? null : permits.get(requestClass);
+        if (semaphore == null) {
+            return source.open();
+        }
+        AtomicInteger connections = held.get();
+        boolean first = connections.get() == 0;
+        if (first) {
+            try {
+                if (!semaphore.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                    throw new SQLTransientConnectionException(requestClass + " requests are using all of their "
+                        + caps.get(requestClass) + " connections");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLTransientConnectionException("Interrupted while waiting for a connection", e);
+            }
+        }
+        Connection connection;
+        try {
+            connection = source.open();
+        } catch (SQLException | RuntimeException e) {
+            if (first) {
+                semaphore.release();
+            }
+            throw e;
+        }
+        connections.incrementAndGet();
+        return releasingOnClose(connection, semaphore, connections);
+    }
+
+    private static Connection releasingOnClose(Connection connection, Semaphore semaphore, AtomicInteger connections) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(PartitionedDataSource.class.getClassLoader(),
+            new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                if (method.getName().equals("close") && method.getParameterCount() == 0) {
+                    if (closed.compareAndSet(false, true)) {
+                        try {
+                            connection.close();
+                        } finally {
+                            if (connections.decrementAndGet() == 0) {
+                                semaphore.release();
+                            }
+                        }
+                    }
+                    return null;
+                }
+                if (method.getName().equals("equals") && method.getParameterCount() == 1) {
+                    return proxy == args[0];
+                }
+                if (method.getName().equals("hashCode") && method.getParameterCount() == 0) {
+                    return System.identityHashCode(proxy);
+                }
+                try {
+                    return method.invoke(connection, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            });
+    }
+}
@@ -0,0 +1,173 @@
+package com.edurace.platform.scheduling;
+
+import com.edurace.platform.config.SchedulingProperties;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Admits requests by {@link RequestClass} and sheds low-priority traffic when critical
+ * requests get slow.
+ *
+ * STANDARD and BULK requests take a slot of their class's {@link ConcurrencyLimit}, so
+ * together, queues included, they can only occupy their share of the Tomcat threads;
+ * the rest stay free for CRITICAL requests, which are never limited. Each adjust
+ * interval the critical latency percentile is compared with the SLO. Above it, BULK's
+ * limit is halved down to its minimum, then STANDARD's; under 80% of it, STANDARD
+ * recovers first and BULK after, a tenth of their maximum at a time. A class held
+ * below its maximum turns requests away at once instead of queueing them, and every
+ * change restarts the latency window so the next decision sees only its effect.
+ */
+@Component
+public class PriorityScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(PriorityScheduler.class);
+
+    private static final RequestClass[] SHED_ORDER = {RequestClass.BULK, RequestClass.STANDARD};
+    private static final RequestClass[] RECOVERY_ORDER = {RequestClass.STANDARD, RequestClass.BULK};
+
+    @Autowired
+    private SchedulingProperties properties;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<RequestClass, ConcurrencyLimit> limits = new EnumMap<>(RequestClass.class);
+
+    private LatencyWindow criticalLatency;
+    private volatile long lastPercentileNanos = -1;
+
+    @PostConstruct
+    public void init() {
+        // Filled in now, so requests only ever read the settings map
+        for (RequestClass requestClass : RequestClass.values()) {
+            properties.settingsFor(requestClass);
+        }
+        for (RequestClass requestClass : SHED_ORDER) {
+            SchedulingProperties.ClassSettings settings = properties.settingsFor(requestClass);
+            limits.put(requestClass, new ConcurrencyLimit(settings.getMaxConcurrent(), settings.getQueueSize()));
+        }
+        criticalLatency = new LatencyWindow((int) (properties.getWindow().toMillis() / properties.getAdjustIntervalMs()));
+    }
+
+    /**
+     * The first class, most important first, with a path pattern matching
+     * {@code path}; STANDARD if none does.
+     */
+    public RequestClass classify(String path) {
+        for (RequestClass requestClass : RequestClass.values()) {
+            for (String pattern : properties.settingsFor(requestClass).getPaths()) {
+                if (pathMatcher.match(pattern, path)) {
+                    return requestClass;
+                }
+            }
+        }
+        return RequestClass.STANDARD;
+    }
+
+    /**
+     * Takes a slot for a request of the class, or returns false if it should be
+     * turned away. Every admitted request must be {@link #completed}.
+     */
+    public boolean admit(RequestClass requestClass) throws InterruptedException {
+        ConcurrencyLimit limit = limits.get(requestClass);
+        if (limit == null) {
+            return true;
+        }
+        SchedulingProperties.ClassSettings settings = properties.settingsFor(requestClass);
+        long maxWait = limit.getLimit() < settings.getMaxConcurrent() ? 0 : settings.getMaxWait().toNanos();
+        return limit.acquire(maxWait);
+    }
+
+    public void completed(RequestClass requestClass, long nanos) {
+        ConcurrencyLimit limit = limits.get(requestClass);
+        if (limit != null) {
+            limit.release();
+        }
+        if (requestClass == RequestClass.CRITICAL) {
+            criticalLatency.record(nanos);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.scheduling.adjust-interval-ms:1000}")
+    public void adjust() {
+        long latency = criticalLatency.percentile(properties.getSloPercentile(), properties.getMinSamples());
+        lastPercentileNanos = latency;
+        long slo = properties.getSlo().toNanos();
+        boolean changed = false;
+        if (latency > slo) {
+            for (RequestClass requestClass : SHED_ORDER) {
+                if (shed(requestClass, latency)) {
+                    changed = true;
+                    break;
+                }
+            }
+        } else if (latency < slo * 0.8) {
+            // Also when there were too few critical requests to measure
+            for (RequestClass requestClass : RECOVERY_ORDER) {
+                if (recover(requestClass)) {
+                    changed = true;
+                    break;
+                }
+            }
+        }
+        if (changed) {
+            criticalLatency.reset();
+        } else {
+            criticalLatency.rotate();
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("critical_latency_ms", lastPercentileNanos < 0 ? null : lastPercentileNanos / 1_000_000.0);
+        snapshot.put("slo_ms", properties.getSlo().toMillis());
+        for (Map.Entry<RequestClass, ConcurrencyLimit> entry : limits.entrySet()) {
+            ConcurrencyLimit limit = entry.getValue();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("limit", limit.getLimit());
+            stats.put("max_concurrent", properties.settingsFor(entry.getKey()).getMaxConcurrent());
+            stats.put("in_flight", limit.getInFlight());
+            stats.put("waiting", limit.getWaiting());
+            stats.put("rejected", limit.getRejected());
+            snapshot.put(entry.getKey().name().toLowerCase(Locale.ROOT), stats);
+        }
+        return snapshot;
+    }
+
+    private boolean shed(RequestClass requestClass, long latency) {
+        ConcurrencyLimit limit = limits.get(requestClass);
+        int current = limit.getLimit();
+        int min = properties.settingsFor(requestClass).getMinConcurrent();
+        if (current <= min) {
+            return false;
+        }
+        int next = Math.max(min, current / 2);
+        limit.setLimit(next);
+        log.warn("Critical request latency {} ms is over the {} ms SLO; {} requests limited to {} (was {})",
+            latency / 1_000_000, properties.getSlo().toMillis(), requestClass, next, current);
+        return true;
+    }
+
+    private boolean recover(RequestClass requestClass) {
+        ConcurrencyLimit limit = limits.get(requestClass);
+        int current = limit.getLimit();
+        int max = properties.settingsFor(requestClass).getMaxConcurrent();
+        if (current >= max) {
+            return false;
+        }
+        int next = (int) Math.min(max, (long) current + Math.max(1, max / 10));
+        limit.setLimit(next);
+        if (next == max) {
+            log.info("{} requests are no longer limited below their maximum of {}", requestClass, max);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,52 @@
+package com.edurace.platform.scheduling;
+
+/**
+ * Scheduling classes of incoming requests, most important first. The class of the
+ * request a thread is serving is visible through {@link #current()}, which is how the
+ * database connection partitions see it.
+ */
+public enum RequestClass {
+    /** Live race traffic: never queued behind the others and never shed. */
+    CRITICAL,
+    /** Catalog, enrollment, profile and everything else not listed. */
+    STANDARD,
+    /** Admin tools, exports and imports: shed first under load. */
+    BULK;
+
+    private static final ThreadLocal<RequestClass> CURRENT = new ThreadLocal<>();
+
+    /**
+     * The class of the request being served on this thread, or null outside a request.
+     */
+    public static RequestClass current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Wraps a task handed to another thread so that it runs as the current request's
+     * class, as a streamed response body or an @Async call made for the request should.
+     */
+    public static Runnable propagate(Runnable task) {
+        RequestClass requestClass = current();
+        if (requestClass == null) {
+            return task;
+        }
+        return () -> {
+            RequestClass previous = current();
+            setCurrent(requestClass);
+            try {
+                task.run();
+            } finally {
+                setCurrent(previous);
+            }
+        };
+    }
+
+    static void setCurrent(RequestClass requestClass) {
+        if (requestClass == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(requestClass);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.edurace.platform.search;
+
+import com.edurace.platform.entity.CourseStatus;
+import com.edurace.platform.entity.DifficultyLevel;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The searchable and filterable fields of a course, also copied onto each of its
+ * lesson documents so lesson hits can be filtered the same way.
+ */
+public record CourseDocument(
+        long courseId,
+        String title,
+        String description,
+        DifficultyLevel difficultyLevel,
+        CourseStatus status,
+        BigDecimal entryFee,
+        LocalDateTime courseStartDate) {
+}
@@ -0,0 +1,286 @@
+package com.edurace.platform.search;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DoublePoint;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.FSDirectory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lucene index of courses and published lessons, one document each, kept in a local
+ * directory.
+ *
+ * Every term of a query must match title, description or lesson content exactly, as
+ * a prefix (the last term), or within one or two edits (terms that occur nowhere),
+ * with exact matches and titles scoring highest. Filters run as non-scoring clauses over indexed keyword and
+ * point fields. Writes become visible to searches on {@link #refresh()} and durable
+ * on {@link #commit(Map)}.
+ */
+public class CourseSearchIndex implements Closeable {
+
+    private static final String TYPE = "type";
+    private static final String COURSE_ID = "course_id";
+    private static final String LESSON_ID = "lesson_id";
+    private static final String TITLE = "title";
+    private static final String COURSE_TITLE = "course_title";
+    private static final String DESCRIPTION = "description";
+    private static final String CONTENT = "content";
+    private static final String STATUS = "status";
+    private static final String DIFFICULTY = "difficulty";
+    private static final String ENTRY_FEE = "entry_fee";
+    private static final String STARTS_AT = "starts_at";
+
+    private static final Map<String, Float> FIELD_BOOSTS = Map.of(TITLE, 4f, DESCRIPTION, 1.5f, CONTENT, 1f);
+    private static final int MAX_QUERY_TERMS = 8;
+
+    private final FSDirectory directory;
+    private final Analyzer analyzer = new SearchAnalyzer();
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+
+    public CourseSearchIndex(Path path) throws IOException {
+        this.directory = FSDirectory.open(path);
+        this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+            .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        this.searcherManager = new SearcherManager(writer, null);
+    }
+
+    /**
+     * User data of the last commit, or an empty map for a new index.
+     */
+    public Map<String, String> getCommitData() throws IOException {
+        if (!DirectoryReader.indexExists(directory)) {
+            return Map.of();
+        }
+        try (DirectoryReader reader = DirectoryReader.open(directory)) {
+            return reader.getIndexCommit().getUserData();
+        }
+    }
+
+    public int documentCount() throws IOException {
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            return searcher.getIndexReader().numDocs();
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    public void addCourse(CourseDocument course) throws IOException {
+        Document document = filterFields(course, SearchHitType.COURSE);
+        document.add(new TextField(TITLE, nullToEmpty(course.title()), Field.Store.YES));
+        document.add(new TextField(DESCRIPTION, nullToEmpty(course.description()), Field.Store.NO));
+        writer.addDocument(document);
+    }
+
+    public void addLesson(CourseDocument course, LessonDocument lesson) throws IOException {
+        Document document = filterFields(course, SearchHitType.LESSON);
+        document.add(new StoredField(LESSON_ID, lesson.lessonId()));
+        document.add(new StoredField(COURSE_TITLE, nullToEmpty(course.title())));
+        document.add(new TextField(TITLE, nullToEmpty(lesson.title()), Field.Store.YES));
+        document.add(new TextField(DESCRIPTION, nullToEmpty(lesson.description()), Field.Store.NO));
+        document.add(new TextField(CONTENT, nullToEmpty(lesson.content()), Field.Store.NO));
+        writer.addDocument(document);
+    }
+
+    /**
+     * Removes a course and all of its lessons.
+     */
+    public void deleteCourse(long courseId) throws IOException {
+        writer.deleteDocuments(new Term(COURSE_ID, Long.toString(courseId)));
+    }
+
+    public void deleteAll() throws IOException {
+        writer.deleteAll();
+    }
+
+    public void refresh() throws IOException {
+        searcherManager.maybeRefresh();
+    }
+
+    public void commit(Map<String, String> commitData) throws IOException {
+        writer.setLiveCommitData(commitData.entrySet());
+        writer.commit();
+    }
+
+    public List<SearchHit> search(CourseSearchQuery query) throws IOException {
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            Query lucene = toLuceneQuery(query, searcher.getIndexReader());
+            TopDocs top = searcher.search(lucene, query.limit());
+            StoredFields storedFields = searcher.storedFields();
+            List<SearchHit> hits = new ArrayList<>(top.scoreDocs.length);
+            for (ScoreDoc scoreDoc : top.scoreDocs) {
+                Document document = storedFields.document(scoreDoc.doc);
+                SearchHitType type = SearchHitType.valueOf(document.get(TYPE));
+                hits.add(new SearchHit(
+                    type,
+                    Long.parseLong(document.get(COURSE_ID)),
+                    type == SearchHitType.LESSON ? document.getField(LESSON_ID).numericValue().longValue() : null,
+                    document.get(TITLE),
+                    type == SearchHitType.LESSON ? document.get(COURSE_TITLE) : document.get(TITLE),
+                    scoreDoc.score));
+            }
+            return hits;
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            searcherManager.close();
+            writer.close();
+        } finally {
+            directory.close();
+        }
+    }
+
+    private Query toLuceneQuery(CourseSearchQuery query, IndexReader reader) throws IOException {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+
+        List<String> terms = analyze(query.text());
+        if (terms.isEmpty()) {
+            builder.add(new MatchAllDocsQuery(), Occur.MUST);
+        }
+        for (int i = 0; i < terms.size(); i++) {
+            String term = terms.get(i);
+            boolean last = i == terms.size() - 1;
+            builder.add(termQuery(term, last, !isIndexed(reader, term)), Occur.MUST);
+        }
+
+        if (query.type() != null) {
+            builder.add(new TermQuery(new Term(TYPE, query.type().name())), Occur.FILTER);
+        }
+        if (query.status() != null) {
+            builder.add(new TermQuery(new Term(STATUS, query.status().name())), Occur.FILTER);
+        }
+        if (query.difficultyLevels() != null && !query.difficultyLevels().isEmpty()) {
+            BooleanQuery.Builder difficulties = new BooleanQuery.Builder();
+            query.difficultyLevels().forEach(level ->
+                difficulties.add(new TermQuery(new Term(DIFFICULTY, level.name())), Occur.SHOULD));
+            builder.add(difficulties.build(), Occur.FILTER);
+        }
+        if (query.minEntryFee() != null || query.maxEntryFee() != null) {
+            builder.add(DoublePoint.newRangeQuery(ENTRY_FEE,
+                query.minEntryFee() == null ? Double.NEGATIVE_INFINITY : query.minEntryFee().doubleValue(),
+                query.maxEntryFee() == null ? Double.POSITIVE_INFINITY : query.maxEntryFee().doubleValue()), Occur.FILTER);
+        }
+        if (query.startsOnOrAfter() != null || query.startsOnOrBefore() != null) {
+            builder.add(LongPoint.newRangeQuery(STARTS_AT,
+                query.startsOnOrAfter() == null ? Long.MIN_VALUE : epochSecond(query.startsOnOrAfter().atStartOfDay()),
+                query.startsOnOrBefore() == null ? Long.MAX_VALUE : epochSecond(query.startsOnOrBefore().plusDays(1).atStartOfDay()) - 1),
+                Occur.FILTER);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Matches one query term in any text field: exactly, as a prefix when it is the
+     * word still being typed, or with typos when the term itself occurs nowhere.
+     * Restricting the expensive expansions this way keeps queries in single-digit
+     * milliseconds.
+     */
+    private static Query termQuery(String term, boolean prefix, boolean fuzzy) {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        for (Map.Entry<String, Float> field : FIELD_BOOSTS.entrySet()) {
+            Term fieldTerm = new Term(field.getKey(), term);
+            float boost = field.getValue();
+            builder.add(new BoostQuery(new TermQuery(fieldTerm), boost), Occur.SHOULD);
+            if (prefix && term.length() >= 2) {
+                builder.add(new BoostQuery(new PrefixQuery(fieldTerm), boost * 0.5f), Occur.SHOULD);
+            }
+            if (fuzzy && term.length() >= 4) {
+                int maxEdits = term.length() >= 8 ? 2 : 1;
+                builder.add(new BoostQuery(new FuzzyQuery(fieldTerm, maxEdits, 2), boost * 0.3f), Occur.SHOULD);
+            }
+        }
+        return builder.build();
+    }
+
+    private static boolean isIndexed(IndexReader reader, String term) throws IOException {
+        for (String field : FIELD_BOOSTS.keySet()) {
+            if (reader.docFreq(new Term(field, term)) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<String> analyze(String text) throws IOException {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+        try (TokenStream stream = analyzer.tokenStream(TITLE, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken() && terms.size() < MAX_QUERY_TERMS) {
+                terms.add(term.toString());
+            }
+            stream.end();
+        }
+        return terms;
+    }
+
+    private static Document filterFields(CourseDocument course, SearchHitType type) {
+        Document document = new Document();
+        document.add(new StringField(TYPE, type.name(), Field.Store.YES));
+        document.add(new StringField(COURSE_ID, Long.toString(course.courseId()), Field.Store.YES));
+        if (course.status() != null) {
+            document.add(new StringField(STATUS, course.status().name(), Field.Store.NO));
+        }
+        if (course.difficultyLevel() != null) {
+            document.add(new StringField(DIFFICULTY, course.difficultyLevel().name(), Field.Store.NO));
+        }
+        if (course.entryFee() != null) {
+            document.add(new DoublePoint(ENTRY_FEE, course.entryFee().doubleValue()));
+        }
+        if (course.courseStartDate() != null) {
+            document.add(new LongPoint(STARTS_AT, epochSecond(course.courseStartDate())));
+        }
+        return document;
+    }
+
+    private static long epochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
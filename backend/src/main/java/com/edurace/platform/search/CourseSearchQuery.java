@@ -0,0 +1,24 @@
+package com.edurace.platform.search;
+
+import com.edurace.platform.entity.CourseStatus;
+import com.edurace.platform.entity.DifficultyLevel;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * A search over course and lesson documents. Null filters match everything; a null
+ * or blank text matches every document that passes the filters.
+ */
+public record CourseSearchQuery(
+        String text,
+        SearchHitType type,
+        Set<DifficultyLevel> difficultyLevels,
+        CourseStatus status,
+        BigDecimal minEntryFee,
+        BigDecimal maxEntryFee,
+        LocalDate startsOnOrAfter,
+        LocalDate startsOnOrBefore,
+        int limit) {
+}
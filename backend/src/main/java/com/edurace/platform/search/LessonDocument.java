@@ -0,0 +1,9 @@
+package com.edurace.platform.search;
+
+public record LessonDocument(
+        long lessonId,
+        long courseId,
+        String title,
+        String description,
+        String content) {
+}
@@ -0,0 +1,10 @@
+package com.edurace.platform.search;
+
+public record SearchHit(
+        SearchHitType type,
+        long courseId,
+        Long lessonId,
+        String title,
+        String courseTitle,
+        float score) {
+}
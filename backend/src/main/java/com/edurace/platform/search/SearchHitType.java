@@ -0,0 +1,6 @@
+package com.edurace.platform.search;
+
+public enum SearchHitType {
+    COURSE,
+    LESSON
+}
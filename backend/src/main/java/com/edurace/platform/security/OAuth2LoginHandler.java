@@ -0,0 +1,99 @@
+package com.edurace.platform.security;
+
+import com.edurace.platform.entity.AuthProvider;
+import com.edurace.platform.service.OAuth2AccountService;
+import com.edurace.platform.service.OAuth2AccountService.LinkedAccount;
+import com.edurace.platform.service.OAuth2AccountService.ProviderIdentity;
+import com.edurace.platform.service.StreakService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.security.web.authentication.AuthenticationFailureHandler;
+import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Finishes an OAuth2 login by resolving the local account and redirecting to the
+ * frontend with our own tokens in the URL fragment, which browsers never send to a
+ * server. Errors are reported the same way.
+ */
+@Component
+public class OAuth2LoginHandler implements AuthenticationSuccessHandler, AuthenticationFailureHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(OAuth2LoginHandler.class);
+
+    @Autowired
+    private OAuth2AccountService oAuth2AccountService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private StreakService streakService;
+
+    @Value("${app.oauth2.redirect-uri:http://localhost:3000/oauth2/callback}")
+    private String redirectUri;
+
+    @Override
+    public void onAuthenticationSuccess(HttpServletRequest request, HttpServletResponse response,
+                                        Authentication authentication) throws IOException {
+        // The session only carried the authorization request across the redirect
+        HttpSession session = request.getSession(false);
+        if (session != null) {
+            session.invalidate();
+        }
+
+        LinkedAccount account;
+        try {
+            account = oAuth2AccountService.resolve(identityOf((OAuth2AuthenticationToken) authentication));
+        } catch (AuthenticationException e) {
+            onAuthenticationFailure(request, response, e);
+            return;
+        }
+        streakService.recordActivity(account.userId());
+
+        response.sendRedirect(redirectUri +
+            "#access_token=" + encode(jwtUtil.generateToken(account.email())) +
+            "&refresh_token=" + encode(jwtUtil.generateRefreshToken(account.email())) +
+            "&token_type=Bearer" +
+            "&expires_in=86400"); // 24 hours in seconds
+    }
+
+    @Override
+    public void onAuthenticationFailure(HttpServletRequest request, HttpServletResponse response,
+                                        AuthenticationException exception) throws IOException {
+        log.debug("OAuth2 login failed: {}", exception.getMessage());
+        response.sendRedirect(redirectUri + "#error=" + encode(exception.getMessage()));
+    }
+
+    private static ProviderIdentity identityOf(OAuth2AuthenticationToken token) {
+        OAuth2User user = token.getPrincipal();
+        Map<String, Object> attributes = user.getAttributes();
+        Object emailVerified = attributes.get("email_verified");
+        return new ProviderIdentity(
+            AuthProvider.valueOf(token.getAuthorizedClientRegistrationId().toUpperCase()),
+            user.getName(),
+            (String) attributes.get("email"),
+            Boolean.TRUE.equals(emailVerified) || "true".equals(emailVerified),
+            (String) attributes.get("given_name"),
+            (String) attributes.get("family_name"),
+            (String) attributes.get("picture"));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value == null ? "" : value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,222 @@
+package com.edurace.platform.service;
+
+import com.edurace.platform.achievement.AchievementMetric;
+import com.edurace.platform.achievement.AchievementRule;
+import com.edurace.platform.achievement.AchievementRuleIndex;
+import com.edurace.platform.achievement.UserAchievementState;
+import com.edurace.platform.config.AchievementProperties;
+import com.edurace.platform.event.EnrollmentCompletedEvent;
+import com.edurace.platform.event.QuizAttemptCompletedEvent;
+import com.edurace.platform.event.RemoteEvent;
+import com.edurace.platform.event.StreakUpdatedEvent;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Awards badges incrementally from domain events.
+ *
+ * Rules from app.gamification.achievements.rules are compiled once at startup. Each
+ * user's running state is loaded from the database on their first event (and then
+ * checked against every rule); later events only re-evaluate the rules that depend on
+ * the metrics they changed. Counters are re-read from their committed values rather
+ * than incremented, so an event already reflected in a freshly loaded state, or
+ * delivered again, is never counted twice. Awards are deduplicated in memory and by
+ * the (user_id, name) unique key, and written in batches.
+ */
+@Service
+public class AchievementService {
+
+    private static final Logger log = LoggerFactory.getLogger(AchievementService.class);
+
+    @Autowired
+    private AchievementProperties properties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<AchievementRule> rules;
+    private AchievementRuleIndex ruleIndex;
+
+    private final Map<Long, UserAchievementState> states = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<PendingBadge> pendingBadges = new ConcurrentLinkedQueue<>();
+
+    @PostConstruct
+    public void compileRules() {
+        rules = new ArrayList<>();
+        for (AchievementProperties.Rule rule : properties.getRules()) {
+            rules.add(new AchievementRule(rule.getName(), rule.getDescription(), rule.getIconUrl(), rule.getRequires()));
+        }
+        ruleIndex = new AchievementRuleIndex(rules);
+        log.info("Compiled {} achievement rules", rules.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onQuizAttemptCompleted(QuizAttemptCompletedEvent event) {
+        Integer totalPoints = event.pointsAwarded() == 0 ? null : jdbcTemplate.queryForObject(
+            "SELECT total_points FROM users WHERE id = ?", Integer.class, event.studentId());
+        apply(event.studentId(), state -> {
+            Set<AchievementMetric> changed = EnumSet.noneOf(AchievementMetric.class);
+            if (totalPoints != null && raise(state, AchievementMetric.TOTAL_POINTS, totalPoints)) {
+                changed.add(AchievementMetric.TOTAL_POINTS);
+            }
+            if (event.passed() && state.recordPassedQuiz(event.quizId())) {
+                changed.add(AchievementMetric.QUIZZES_PASSED);
+            }
+            return changed;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStreakUpdated(StreakUpdatedEvent event) {
+        apply(event.userId(), state -> {
+            state.set(AchievementMetric.CURRENT_STREAK, event.currentStreak());
+            state.set(AchievementMetric.LONGEST_STREAK, event.longestStreak());
+            return EnumSet.of(AchievementMetric.CURRENT_STREAK, AchievementMetric.LONGEST_STREAK);
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnrollmentCompleted(EnrollmentCompletedEvent event) {
+        int coursesCompleted = countCompletedCourses(event.studentId());
+        apply(event.studentId(), state -> raise(state, AchievementMetric.COURSES_COMPLETED, coursesCompleted)
+            ? EnumSet.of(AchievementMetric.COURSES_COMPLETED)
+            : EnumSet.noneOf(AchievementMetric.class));
+    }
+
+    // The instance that handled the event awards the badges; here the user's state is just reloaded next time
+    @EventListener
+    public void onRemoteEvent(RemoteEvent remote) {
+        if (remote.event() instanceof QuizAttemptCompletedEvent event) {
+            states.remove(event.studentId());
+        } else if (remote.event() instanceof StreakUpdatedEvent event) {
+            states.remove(event.userId());
+        } else if (remote.event() instanceof EnrollmentCompletedEvent event) {
+            states.remove(event.studentId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.gamification.achievements.flush-interval-ms:1000}")
+    public void flushPendingBadges() {
+        List<PendingBadge> batch = new ArrayList<>(properties.getFlushBatchSize());
+        PendingBadge badge;
+        // Bounded by the queue size at entry so re-queued failures wait for the next run
+        for (int remaining = pendingBadges.size(); remaining > 0 && (badge = pendingBadges.poll()) != null; remaining--) {
+            batch.add(badge);
+            if (batch.size() == properties.getFlushBatchSize()) {
+                insertBadges(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            insertBadges(batch);
+        }
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void evictIdleStates() {
+        long cutoff = System.currentTimeMillis() - properties.getStateIdleEvictionMs();
+        states.values().removeIf(state -> state.getLastTouchedMillis() < cutoff);
+    }
+
+    private void apply(Long userId, StateUpdate update) {
+        UserAchievementState state = states.get(userId);
+        boolean loaded = false;
+        if (state == null) {
+            UserAchievementState fresh = loadState(userId);
+            state = states.putIfAbsent(userId, fresh);
+            if (state == null) {
+                state = fresh;
+                loaded = true;
+            }
+        }
+
+        synchronized (state) {
+            state.touch();
+            // Updates are idempotent, so applying one a loaded state already reflects is harmless
+            Set<AchievementMetric> changed = update.apply(state);
+            Collection<AchievementRule> candidates = loaded ? rules : ruleIndex.affectedBy(changed);
+            for (AchievementRule rule : candidates) {
+                if (!state.hasEarned(rule.getBadgeName()) && rule.test(state) && state.markEarned(rule.getBadgeName())) {
+                    pendingBadges.add(new PendingBadge(userId, rule, LocalDateTime.now()));
+                }
+            }
+        }
+    }
+
+    private UserAchievementState loadState(Long userId) {
+        Set<Long> passedQuizIds = new HashSet<>(jdbcTemplate.queryForList(
+            "SELECT quiz_id FROM quiz_attempts WHERE student_id = ? AND passed = TRUE " +
+            "UNION SELECT quiz_id FROM quiz_attempt_summaries WHERE student_id = ? AND passed_count > 0",
+            Long.class, userId, userId));
+        Set<String> earned = new HashSet<>(jdbcTemplate.queryForList(
+            "SELECT name FROM badges WHERE user_id = ?", String.class, userId));
+
+        UserAchievementState state = new UserAchievementState(passedQuizIds, earned);
+        jdbcTemplate.query("SELECT total_points, current_streak, longest_streak FROM users WHERE id = ?", rs -> {
+            state.set(AchievementMetric.TOTAL_POINTS, rs.getInt("total_points"));
+            state.set(AchievementMetric.CURRENT_STREAK, rs.getInt("current_streak"));
+            state.set(AchievementMetric.LONGEST_STREAK, rs.getInt("longest_streak"));
+        }, userId);
+        state.set(AchievementMetric.COURSES_COMPLETED, countCompletedCourses(userId));
+        return state;
+    }
+
+    private int countCompletedCourses(Long userId) {
+        Integer count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM enrollments WHERE student_id = ? AND status = 'COMPLETED'", Integer.class, userId);
+        return count == null ? 0 : count;
+    }
+
+    // Committed values only grow; an older read arriving late must not lower the state
+    private static boolean raise(UserAchievementState state, AchievementMetric metric, int value) {
+        if (value <= state.get(metric)) {
+            return false;
+        }
+        state.set(metric, value);
+        return true;
+    }
+
+    private void insertBadges(List<PendingBadge> batch) {
+        try {
+            jdbcTemplate.batchUpdate(
+                "INSERT IGNORE INTO badges (user_id, name, description, icon_url, earned_at) VALUES (?, ?, ?, ?, ?)",
+                batch, batch.size(), (ps, badge) -> {
+                    ps.setLong(1, badge.userId());
+                    ps.setString(2, badge.rule().getBadgeName());
+                    ps.setString(3, badge.rule().getDescription());
+                    ps.setString(4, badge.rule().getIconUrl());
+                    ps.setTimestamp(5, Timestamp.valueOf(badge.earnedAt()));
+                });
+        } catch (RuntimeException e) {
+            log.error("Failed to insert {} badges, re-queueing", batch.size(), e);
+            pendingBadges.addAll(batch);
+        }
+    }
+
+    @FunctionalInterface
+    private interface StateUpdate {
+        Set<AchievementMetric> apply(UserAchievementState state);
+    }
+
+    private record PendingBadge(Long userId, AchievementRule rule, LocalDateTime earnedAt) {
+    }
+}
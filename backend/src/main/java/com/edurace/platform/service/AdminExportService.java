@@ -0,0 +1,212 @@
+package com.edurace.platform.service;
+
+import com.edurace.platform.entity.PaymentStatus;
+import com.edurace.platform.entity.Role;
+import com.edurace.platform.export.ExportFormat;
+import com.edurace.platform.export.ExportWriter;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Admin exports of whole tables, streamed row by row from forward-only MySQL result
+ * sets straight into the response, so neither the driver nor the heap ever holds more
+ * than a row.
+ *
+ * Each export is a single autocommit SELECT, which InnoDB serves as a consistent
+ * non-locking read: writers are never blocked, and no transaction stays open beyond
+ * the one statement. A streaming result set ties up its connection until the last row
+ * is sent, so only app.admin-exports.max-concurrent exports run at once.
+ *
+ * The SELECT also holds a metadata lock on its table until it ends, and partition DDL
+ * queued behind that lock would block every other query on the table. A quiz_attempts
+ * export therefore holds a lease under {@link #QUIZ_ATTEMPT_EXPORT_LEASE} for as long
+ * as it runs, and partition maintenance on any instance waits for the next run while
+ * one is live.
+ */
+@Service
+public class AdminExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(AdminExportService.class);
+
+    public static final String QUIZ_ATTEMPT_EXPORT_LEASE = "quiz-attempt-export:";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JobLeaseService jobLeaseService;
+
+    @Value("${app.admin-exports.max-concurrent:2}")
+    private int maxConcurrent;
+
+    @Value("${app.admin-exports.lease-ttl:PT5M}")
+    private Duration leaseTtl;
+
+    private Semaphore slots;
+    private final Set<String> leases = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        slots = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * Claims an export slot before the response starts, while a 429 can still be
+     * sent. Every successful call must be paired with {@link #release()}.
+     */
+    public void reserve() {
+        if (!slots.tryAcquire()) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                "Too many exports are running, try again when one has finished");
+        }
+    }
+
+    public void release() {
+        slots.release();
+    }
+
+    public void exportUsers(Role role, ExportFormat format, OutputStream out) throws IOException {
+        // Never the password hash
+        StringBuilder sql = new StringBuilder(
+            "SELECT id, email, first_name, last_name, phone_number, role, provider, email_verified, phone_verified, " +
+            "account_enabled, account_locked, total_points, current_streak, longest_streak, created_at, last_login " +
+            "FROM users WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (role != null) {
+            sql.append(" AND role = ?");
+            params.add(role.name());
+        }
+        sql.append(" ORDER BY id");
+        export("users", sql.toString(), params, format, out);
+    }
+
+    public void exportPayments(PaymentStatus status, LocalDate from, LocalDate to, ExportFormat format,
+                               OutputStream out) throws IOException {
+        StringBuilder sql = new StringBuilder(
+            "SELECT id, user_id, course_id, amount, status, created_at FROM payments WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (status != null) {
+            sql.append(" AND status = ?");
+            params.add(status.name());
+        }
+        appendRange(sql, params, "created_at", from, to);
+        sql.append(" ORDER BY id");
+        export("payments", sql.toString(), params, format, out);
+    }
+
+    public void exportEnrollments(Long courseId, ExportFormat format, OutputStream out) throws IOException {
+        StringBuilder sql = new StringBuilder(
+            "SELECT id, student_id, course_id, status, progress_percentage, enrolled_at FROM enrollments WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (courseId != null) {
+            sql.append(" AND course_id = ?");
+            params.add(courseId);
+        }
+        sql.append(" ORDER BY id");
+        export("enrollments", sql.toString(), params, format, out);
+    }
+
+    /**
+     * Attempts started in the range, read partition by partition. Attempts moved to
+     * the archive are not included.
+     */
+    public void exportQuizAttempts(LocalDate from, LocalDate to, ExportFormat format, OutputStream out) throws IOException {
+        // No ORDER BY: across partitions it would need a filesort of the whole range
+        StringBuilder sql = new StringBuilder(
+            "SELECT id, quiz_id, student_id, score, passed, time_taken_minutes, started_at, completed_at " +
+            "FROM quiz_attempts WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        appendRange(sql, params, "started_at", from, to);
+        String lease = QUIZ_ATTEMPT_EXPORT_LEASE + UUID.randomUUID();
+        jobLeaseService.acquire(lease, leaseTtl);
+        leases.add(lease);
+        try {
+            export("quiz attempts", sql.toString(), params, format, out);
+        } finally {
+            leases.remove(lease);
+            jobLeaseService.delete(lease);
+        }
+    }
+
+    /**
+     * Keeps the leases of running exports alive; a stalled client can block the row
+     * loop, so they are not renewed from there.
+     */
+    @Scheduled(fixedDelayString = "${app.admin-exports.lease-renew-interval-ms:60000}")
+    public void renewLeases() {
+        for (String lease : leases) {
+            jobLeaseService.acquire(lease, leaseTtl);
+        }
+    }
+
+    private void export(String name, String sql, List<Object> params, ExportFormat format,
+                        OutputStream out) throws IOException {
+        long started = System.currentTimeMillis();
+        ExportWriter writer = new ExportWriter(format, out);
+        PreparedStatement[] running = new PreparedStatement[1];
+        try (writer) {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(Integer.MIN_VALUE); // MySQL row-by-row streaming
+                for (int i = 0; i < params.size(); i++) {
+                    statement.setObject(i + 1, params.get(i));
+                }
+                running[0] = statement;
+                return statement;
+            }, rs -> {
+                try {
+                    writer.writeRow(rs);
+                } catch (IOException e) {
+                    // Closing a streaming result set reads it to the end, so kill the query first
+                    try {
+                        running[0].cancel();
+                    } catch (SQLException cancelFailed) {
+                        e.addSuppressed(cancelFailed);
+                    }
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // Usually the client went away
+            log.info("Export of {} stopped after {} rows: {}", name, writer.getRows(), e.getCause().getMessage());
+            throw e.getCause();
+        }
+        log.info("Exported {} {} rows in {} ms", writer.getRows(), name, System.currentTimeMillis() - started);
+    }
+
+    private static void appendRange(StringBuilder sql, List<Object> params, String column, LocalDate from, LocalDate to) {
+        if (from != null) {
+            sql.append(" AND ").append(column).append(" >= ?");
+            params.add(Timestamp.valueOf(from.atStartOfDay()));
+        }
+        if (to != null) {
+            sql.append(" AND ").append(column).append(" < ?");
+            params.add(Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.edurace.platform.service;
+
+import com.edurace.platform.analytics.AttemptStats;
+import com.edurace.platform.analytics.EnrollmentFunnel;
+import com.edurace.platform.analytics.ValueHistogram;
+import com.edurace.platform.entity.User;
+import com.edurace.platform.event.EnrollmentCreatedEvent;
+import com.edurace.platform.event.EnrollmentProgressChangedEvent;
+import com.edurace.platform.event.QuizAttemptCompletedEvent;
+import com.edurace.platform.event.RemoteEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Instructor analytics served from memory.
+ *
+ * Completed attempts update running per-quiz and per-course aggregates (counts,
+ * sums, score and time histograms); enrollment events move counts through each
+ * course's progress funnel. Changed aggregates are snapshotted to the analytics_*
+ * tables every minute together with a watermark (the latest completed_at applied),
+ * and a restart loads the snapshots and replays only attempts completed after the
+ * watermark, which partition pruning on started_at keeps to the latest partition.
+ * Attempts that commit out of order can be lost if the process dies before the next
+ * snapshot; the analytics are for dashboards, not bookkeeping.
+ */
+@Service
+public class AnalyticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsService.class);
+
+    private static final String WATERMARK = "quiz_attempts";
+
+    // Attempts finish well within a day of starting, which bounds the replay scan
+    private static final long MAX_ATTEMPT_DAYS = 1;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CourseAccessService courseAccessService;
+
+    private final Map<Long, AttemptStats> quizStats = new ConcurrentHashMap<>();
+    private final Map<Long, Long> quizCourses = new ConcurrentHashMap<>();
+    private final Map<Long, AttemptStats> courseStats = new ConcurrentHashMap<>();
+    private final Map<Long, EnrollmentFunnel> funnels = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyQuizzes = ConcurrentHashMap.newKeySet();
+    private final Set<Long> dirtyFunnels = ConcurrentHashMap.newKeySet();
+    private final AtomicReference<LocalDateTime> through = new AtomicReference<>();
+
+    private volatile boolean loaded;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.currentTimeMillis();
+        jdbcTemplate.query("SELECT * FROM analytics_quiz_stats", rs -> {
+            long quizId = rs.getLong("quiz_id");
+            long courseId = rs.getLong("course_id");
+            AttemptStats stats = new AttemptStats(
+                rs.getLong("attempts_count"),
+                rs.getLong("passed_count"),
+                rs.getLong("score_sum"),
+                rs.getLong("timed_attempts_count"),
+                rs.getLong("time_sum_minutes"),
+                ValueHistogram.fromBytes(AttemptStats.MAX_SCORE, rs.getBytes("score_histogram")),
+                ValueHistogram.fromBytes(AttemptStats.MAX_TIME_MINUTES, rs.getBytes("time_histogram")));
+            quizStats.put(quizId, stats);
+            quizCourses.put(quizId, courseId);
+            courseStats.computeIfAbsent(courseId, id -> new AttemptStats()).merge(stats);
+        });
+
+        List<LocalDateTime> watermark = jdbcTemplate.queryForList(
+            "SELECT through_at FROM analytics_watermarks WHERE name = ?", LocalDateTime.class, WATERMARK);
+        LocalDateTime since = watermark.isEmpty() ? null : watermark.get(0);
+        through.set(since);
+        long replayed = replayAttemptsAfter(since);
+
+        jdbcTemplate.query(
+            "SELECT course_id, progress_percentage, COUNT(*) AS enrollments FROM enrollments " +
+            "GROUP BY course_id, progress_percentage", rs -> {
+                long courseId = rs.getLong("course_id");
+                funnels.computeIfAbsent(courseId, id -> new EnrollmentFunnel())
+                    .add(rs.getInt("progress_percentage"), rs.getLong("enrollments"));
+                dirtyFunnels.add(courseId);
+            });
+
+        loaded = true;
+        log.info("Loaded analytics for {} quizzes, replayed {} attempts since {} in {} ms",
+            quizStats.size(), replayed, since, System.currentTimeMillis() - started);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onQuizAttemptCompleted(QuizAttemptCompletedEvent event) {
+        // Until the snapshot is loaded, the replay picks committed attempts up from the table
+        if (loaded && event.quizId() != null && event.courseId() != null) {
+            record(event.quizId(), event.courseId(), event.score(), event.passed(),
+                event.timeTakenMinutes(), event.completedAt());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnrollmentCreated(EnrollmentCreatedEvent event) {
+        if (loaded) {
+            funnels.computeIfAbsent(event.courseId(), id -> new EnrollmentFunnel()).add(0, 1);
+            dirtyFunnels.add(event.courseId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnrollmentProgressChanged(EnrollmentProgressChangedEvent event) {
+        if (loaded) {
+            funnels.computeIfAbsent(event.courseId(), id -> new EnrollmentFunnel())
+                .move(event.previousPercentage(), event.percentage());
+            dirtyFunnels.add(event.courseId());
+        }
+    }
+
+    // Every instance aggregates all attempts, so whichever snapshots last stores complete stats
+    @EventListener
+    public void onRemoteEvent(RemoteEvent remote) {
+        if (remote.event() instanceof QuizAttemptCompletedEvent event) {
+            onQuizAttemptCompleted(event);
+        } else if (remote.event() instanceof EnrollmentCreatedEvent event) {
+            onEnrollmentCreated(event);
+        } else if (remote.event() instanceof EnrollmentProgressChangedEvent event) {
+            onEnrollmentProgressChanged(event);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.analytics.snapshot-interval-ms:60000}")
+    public void snapshot() {
+        if (!loaded) {
+            return;
+        }
+        // Read before copying, so the stored watermark never runs ahead of the stored stats
+        LocalDateTime watermark = through.get();
+        List<Long> quizIds = new ArrayList<>(dirtyQuizzes);
+        dirtyQuizzes.removeAll(quizIds);
+        List<Long> courseIds = new ArrayList<>(dirtyFunnels);
+        dirtyFunnels.removeAll(courseIds);
+        if (quizIds.isEmpty() && courseIds.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                writeQuizStats(quizIds);
+                writeFunnels(courseIds);
+                if (watermark != null) {
+                    jdbcTemplate.update(
+                        "INSERT INTO analytics_watermarks (name, through_at) VALUES (?, ?) " +
+                        "ON DUPLICATE KEY UPDATE through_at = GREATEST(through_at, VALUES(through_at))",
+                        WATERMARK, Timestamp.valueOf(watermark));
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Failed to snapshot analytics for {} quizzes and {} courses, retrying next run",
+                quizIds.size(), courseIds.size(), e);
+            dirtyQuizzes.addAll(quizIds);
+            dirtyFunnels.addAll(courseIds);
+        }
+    }
+
+    /**
+     * Dashboard view of a course: overall attempt stats, per-quiz stats against each
+     * quiz's passing score, and the enrollment funnel.
+     */
+    public Map<String, Object> courseReport(Long courseId, User viewer) {
+        courseAccessService.checkInstructorAccess(courseId, viewer);
+        if (!loaded) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Analytics are still loading");
+        }
+
+        List<Map<String, Object>> quizzes = new ArrayList<>();
+        jdbcTemplate.query(
+            "SELECT q.id, q.title, q.passing_score FROM quizzes q JOIN lessons l ON l.id = q.lesson_id " +
+            "WHERE l.course_id = ? ORDER BY l.sequence_order, q.id", rs -> {
+                int passingScore = rs.getInt("passing_score");
+                Map<String, Object> quiz = new LinkedHashMap<>();
+                quiz.put("quiz_id", rs.getLong("id"));
+                quiz.put("title", rs.getString("title"));
+                quiz.put("passing_score", passingScore);
+                quiz.putAll(describe(quizStats.getOrDefault(rs.getLong("id"), new AttemptStats()).copy(), passingScore));
+                quizzes.add(quiz);
+            }, courseId);
+
+        long[] stages = funnels.getOrDefault(courseId, new EnrollmentFunnel()).stages();
+        Map<String, Object> funnel = new LinkedHashMap<>();
+        for (int stage = 0; stage < stages.length; stage++) {
+            funnel.put(EnrollmentFunnel.STAGE_NAMES[stage], stages[stage]);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("course_id", courseId);
+        report.put("attempts", describe(courseStats.getOrDefault(courseId, new AttemptStats()).copy(), null));
+        report.put("quizzes", quizzes);
+        report.put("enrollment_funnel", funnel);
+        return report;
+    }
+
+    private void record(long quizId, long courseId, Integer score, boolean passed,
+                        Integer timeTakenMinutes, LocalDateTime completedAt) {
+        quizStats.computeIfAbsent(quizId, id -> new AttemptStats()).record(score, passed, timeTakenMinutes);
+        courseStats.computeIfAbsent(courseId, id -> new AttemptStats()).record(score, passed, timeTakenMinutes);
+        quizCourses.put(quizId, courseId);
+        dirtyQuizzes.add(quizId);
+        if (completedAt != null) {
+            through.accumulateAndGet(completedAt, (current, next) -> current == null || next.isAfter(current) ? next : current);
+        }
+    }
+
+    private long replayAttemptsAfter(LocalDateTime since) {
+        long[] replayed = {0};
+        jdbcTemplate.query(connection -> {
+            String sql =
+                "SELECT qa.quiz_id, l.course_id, qa.score, qa.passed, qa.time_taken_minutes, qa.completed_at " +
+                "FROM quiz_attempts qa JOIN quizzes q ON q.id = qa.quiz_id JOIN lessons l ON l.id = q.lesson_id " +
+                "WHERE qa.completed_at IS NOT NULL" +
+                (since == null ? "" : " AND qa.completed_at > ? AND qa.started_at >= ?");
+            PreparedStatement statement = connection.prepareStatement(sql,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            if (since != null) {
+                statement.setTimestamp(1, Timestamp.valueOf(since));
+                statement.setTimestamp(2, Timestamp.valueOf(since.minusDays(MAX_ATTEMPT_DAYS)));
+            }
+            statement.setFetchSize(Integer.MIN_VALUE); // MySQL row-by-row streaming
+            return statement;
+        }, rs -> {
+            record(rs.getLong("quiz_id"), rs.getLong("course_id"),
+                rs.getObject("score", Integer.class), rs.getBoolean("passed"),
+                rs.getObject("time_taken_minutes", Integer.class),
+                rs.getObject("completed_at", LocalDateTime.class));
+            replayed[0]++;
+        });
+        return replayed[0];
+    }
+
+    private void writeQuizStats(List<Long> quizIds) {
+        List<Object[]> rows = new ArrayList<>(quizIds.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (Long quizId : quizIds) {
+            AttemptStats stats = quizStats.get(quizId).copy();
+            rows.add(new Object[] {
+                quizId, quizCourses.get(quizId), stats.getAttempts(), stats.getPassed(), stats.getScoreSum(),
+                stats.getTimedAttempts(), stats.getTimeSumMinutes(),
+                stats.getScores().toBytes(), stats.getTimes().toBytes(), now
+            });
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO analytics_quiz_stats (quiz_id, course_id, attempts_count, passed_count, score_sum, " +
+            "timed_attempts_count, time_sum_minutes, score_histogram, time_histogram, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
+            "course_id = VALUES(course_id), attempts_count = VALUES(attempts_count), " +
+            "passed_count = VALUES(passed_count), score_sum = VALUES(score_sum), " +
+            "timed_attempts_count = VALUES(timed_attempts_count), time_sum_minutes = VALUES(time_sum_minutes), " +
+            "score_histogram = VALUES(score_histogram), time_histogram = VALUES(time_histogram), " +
+            "updated_at = VALUES(updated_at)", rows);
+    }
+
+    private void writeFunnels(List<Long> courseIds) {
+        List<Object[]> rows = new ArrayList<>(courseIds.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (Long courseId : courseIds) {
+            long[] stages = funnels.get(courseId).stages();
+            rows.add(new Object[] {courseId, stages[0], stages[1], stages[2], stages[3], stages[4], stages[5], now});
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO analytics_course_funnels (course_id, enrolled_count, started_count, quarter_count, " +
+            "half_count, three_quarters_count, completed_count, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE enrolled_count = VALUES(enrolled_count), started_count = VALUES(started_count), " +
+            "quarter_count = VALUES(quarter_count), half_count = VALUES(half_count), " +
+            "three_quarters_count = VALUES(three_quarters_count), completed_count = VALUES(completed_count), " +
+            "updated_at = VALUES(updated_at)", rows);
+    }
+
+    private static Map<String, Object> describe(AttemptStats stats, Integer passingScore) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        long attempts = stats.getAttempts();
+        long scored = stats.getScores().getTotal();
+        description.put("attempts", attempts);
+        description.put("average_score", scored == 0 ? null : (double) stats.getScoreSum() / scored);
+        description.put("pass_rate", attempts == 0 ? null : (double) stats.getPassed() / attempts);
+        if (passingScore != null) {
+            description.put("at_or_above_passing_score", scored == 0 ? null
+                : (double) stats.getScores().countAtLeast(passingScore) / scored);
+        }
+        description.put("score_p50", stats.getScores().percentile(0.5));
+        description.put("score_p90", stats.getScores().percentile(0.9));
+        long timed = stats.getTimedAttempts();
+        description.put("average_minutes", timed == 0 ? null : (double) stats.getTimeSumMinutes() / timed);
+        description.put("minutes_p50", stats.getTimes().percentile(0.5));
+        description.put("minutes_p90", stats.getTimes().percentile(0.9));
+        description.put("minutes_p99", stats.getTimes().percentile(0.99));
+        return description;
+    }
+}
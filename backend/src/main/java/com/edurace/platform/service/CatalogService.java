@@ -0,0 +1,161 @@
+package com.edurace.platform.service;
+
+import com.edurace.platform.entity.CourseStatus;
+import com.edurace.platform.event.CourseChangedEvent;
+import com.edurace.platform.event.LeaderboardChangedEvent;
+import com.edurace.platform.event.QuizAttemptCompletedEvent;
+import com.edurace.platform.cache.ResponseCache;
+import com.edurace.platform.event.RemoteEvent;
+import com.edurace.platform.repository.CourseDetails;
+import com.edurace.platform.repository.CourseRepository;
+import com.edurace.platform.repository.LeaderboardEntry;
+import com.edurace.platform.repository.LeaderboardRepository;
+import com.edurace.platform.repository.LessonSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders the course catalog, course details and course leaderboards as plain maps
+ * from projections, so JSON serialization never walks (or lazily loads) entity graphs
+ * and single-flight callers never share managed entities, and keeps the
+ * prerendered responses in {@link ResponseCache} current from domain events.
+ */
+@Service
+public class CatalogService {
+
+    public static final String CATALOG = "catalog";
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private LeaderboardRepository leaderboardRepository;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    public static String courseResource(Long courseId) {
+        return "course:" + courseId;
+    }
+
+    public static String leaderboardResource(Long courseId) {
+        return "leaderboard:" + courseId;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> renderCatalog() {
+        List<Map<String, Object>> courses = new ArrayList<>();
+        for (CourseDetails course : courseRepository.findCatalog(CourseStatus.PUBLISHED)) {
+            courses.add(courseSummary(course));
+        }
+        return courses;
+    }
+
+    /**
+     * Checked before rendering per-course bodies that would otherwise come out empty,
+     * so ids of courses that don't exist are never cached.
+     */
+    public void requireCourse(Long courseId) {
+        if (!courseRepository.existsById(courseId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Course not found with id: " + courseId);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> renderCourse(Long courseId) {
+        CourseDetails course = courseRepository.findDetailsByIdAndStatus(courseId, CourseStatus.PUBLISHED)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Course not found with id: " + courseId));
+
+        Map<String, Object> body = courseSummary(course);
+        List<Map<String, Object>> lessons = new ArrayList<>();
+        for (LessonSummary lesson : courseRepository.findPublishedLessons(courseId)) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("id", lesson.id());
+            entry.put("title", lesson.title());
+            entry.put("description", lesson.description());
+            entry.put("sequence_order", lesson.sequenceOrder());
+            entry.put("estimated_duration_minutes", lesson.estimatedDurationMinutes());
+            lessons.add(entry);
+        }
+        body.put("lessons", lessons);
+        return body;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> renderLeaderboard(Long courseId, int limit) {
+        requireCourse(courseId);
+        List<Map<String, Object>> entries = new ArrayList<>();
+        int rank = 0;
+        for (LeaderboardEntry row : leaderboardRepository.findTopByCourse(courseId, PageRequest.of(0, limit))) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("rank", ++rank);
+            entry.put("student_id", row.studentId());
+            entry.put("student_name", row.studentName());
+            entry.put("profile_image_url", row.profileImageUrl());
+            entry.put("total_points", row.totalPoints());
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCourseChanged(CourseChangedEvent event) {
+        responseCache.invalidate(CATALOG);
+        responseCache.invalidate(courseResource(event.courseId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLeaderboardChanged(LeaderboardChangedEvent event) {
+        responseCache.invalidate(leaderboardResource(event.courseId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onQuizAttemptCompleted(QuizAttemptCompletedEvent event) {
+        if (event.courseId() != null) {
+            responseCache.invalidate(leaderboardResource(event.courseId()));
+        }
+    }
+
+    @EventListener
+    public void onRemoteEvent(RemoteEvent remote) {
+        if (remote.event() instanceof CourseChangedEvent event) {
+            onCourseChanged(event);
+        } else if (remote.event() instanceof LeaderboardChangedEvent event) {
+            onLeaderboardChanged(event);
+        } else if (remote.event() instanceof QuizAttemptCompletedEvent event) {
+            onQuizAttemptCompleted(event);
+        }
+    }
+
+    private Map<String, Object> courseSummary(CourseDetails course) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("id", course.id());
+        body.put("title", course.title());
+        body.put("description", course.description());
+        body.put("instructor_name", course.instructorName());
+        body.put("thumbnail_url", course.thumbnailUrl());
+        body.put("entry_fee", course.entryFee());
+        body.put("total_lessons", course.totalLessons());
+        body.put("estimated_duration_hours", course.estimatedDurationHours());
+        body.put("difficulty_level", course.difficultyLevel());
+        body.put("is_featured", course.isFeatured());
+        body.put("max_enrollments", course.maxEnrollments());
+        body.put("enrollment_start_date", course.enrollmentStartDate());
+        body.put("enrollment_end_date", course.enrollmentEndDate());
+        body.put("course_start_date", course.courseStartDate());
+        body.put("course_end_date", course.courseEndDate());
+        body.put("total_prize_pool", course.totalPrizePool());
+        return body;
+    }
+}
@@ -0,0 +1,179 @@
+package com.edurace.platform.service;
+
+import com.edurace.platform.event.ClusterEvent;
+import com.edurace.platform.event.RemoteEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Carries {@link ClusterEvent}s between instances through the cluster_events table,
+ * so caches and in-memory indexes stay current on every node and not only on the one
+ * where a change happened.
+ *
+ * While the ring has more than one member, each committed cluster event is inserted
+ * with this instance's id; every instance polls for rows after the last id it read
+ * and publishes the ones from other instances as {@link RemoteEvent}s. An id skipped
+ * by the poll may belong to an insert that hasn't committed yet, so skipped ids are
+ * looked up again until app.cluster.events.gap-timeout has passed. Rows are purged
+ * after app.cluster.events.retention; a node that was not polling then reloads its
+ * state on start like any other.
+ */
+@Service
+public class ClusterEventService {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterEventService.class);
+
+    private static final int MAX_TRACKED_GAPS = 10_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ClusterService clusterService;
+
+    @Value("${app.cluster.events.read-batch-size:1000}")
+    private int readBatchSize;
+
+    @Value("${app.cluster.events.gap-timeout:PT10S}")
+    private Duration gapTimeout;
+
+    @Value("${app.cluster.events.retention:PT5M}")
+    private Duration retention;
+
+    // Poller only: the highest id read and the ids below it not seen yet, with when to give up on each
+    private long lastId;
+    private final Map<Long, Long> gaps = new LinkedHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        // State is loaded from the database on start, so earlier events are already reflected
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM cluster_events", Long.class);
+        lastId = max == null ? 0 : max;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void record(ClusterEvent event) {
+        if (clusterService.getMembers().size() < 2) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(
+                "INSERT INTO cluster_events (origin, event_type, payload, created_at) VALUES (?, ?, ?, NOW(6))",
+                clusterService.getInstanceId(), event.getClass().getName(), objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException | RuntimeException e) {
+            // The change itself has committed; other nodes catch up when their state is next reloaded
+            log.error("Failed to share {} with the other instances", event, e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cluster.events.poll-interval-ms:500}")
+    public synchronized void poll() {
+        if (clusterService.getMembers().size() < 2 && gaps.isEmpty()) {
+            // Alone, nothing is written; just keep up with the table for when others join
+            Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM cluster_events", Long.class);
+            lastId = Math.max(lastId, max == null ? 0 : max);
+            return;
+        }
+        int read;
+        do {
+            read = deliver(jdbcTemplate.query(
+                "SELECT id, origin, event_type, payload FROM cluster_events WHERE id > ? ORDER BY id LIMIT ?",
+                this::toRow, lastId, readBatchSize), true);
+        } while (read == readBatchSize);
+
+        if (!gaps.isEmpty()) {
+            deliver(namedParameterJdbcTemplate.query(
+                "SELECT id, origin, event_type, payload FROM cluster_events WHERE id IN (:ids) ORDER BY id",
+                new MapSqlParameterSource("ids", new ArrayList<>(gaps.keySet())), this::toRow), false);
+            long now = System.currentTimeMillis();
+            gaps.values().removeIf(giveUpAt -> giveUpAt <= now);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cluster.events.purge-interval-ms:60000}")
+    public void purge() {
+        int purged;
+        do {
+            purged = jdbcTemplate.update(
+                "DELETE FROM cluster_events WHERE created_at < NOW(6) - INTERVAL ? MICROSECOND LIMIT 10000",
+                retention.toNanos() / 1000);
+        } while (purged == 10000);
+    }
+
+    private int deliver(List<Row> rows, boolean advance) {
+        long giveUpAt = System.currentTimeMillis() + gapTimeout.toMillis();
+        for (Row row : rows) {
+            if (advance) {
+                for (long missing = lastId + 1; missing < row.id() && gaps.size() < MAX_TRACKED_GAPS; missing++) {
+                    gaps.put(missing, giveUpAt);
+                }
+                lastId = Math.max(lastId, row.id());
+            } else {
+                gaps.remove(row.id());
+            }
+            if (row.origin().equals(clusterService.getInstanceId())) {
+                continue;
+            }
+            ClusterEvent event = deserialize(row);
+            if (event == null) {
+                continue;
+            }
+            try {
+                eventPublisher.publishEvent(new RemoteEvent(row.origin(), event));
+            } catch (RuntimeException e) {
+                log.error("Failed to apply {} from {}", event, row.origin(), e);
+            }
+        }
+        return rows.size();
+    }
+
+    private ClusterEvent deserialize(Row row) {
+        try {
+            Class<?> eventClass = Class.forName(row.type());
+            if (!ClusterEvent.class.isAssignableFrom(eventClass)) {
+                throw new IllegalArgumentException(row.type() + " is not a cluster event");
+            }
+            return (ClusterEvent) objectMapper.readValue(row.payload(), eventClass);
+        } catch (ClassNotFoundException | JsonProcessingException | IllegalArgumentException e) {
+            // E.g. written by a newer version during a rolling deploy
+            log.warn("Skipping unreadable cluster event {} of type {}", row.id(), row.type(), e);
+            return null;
+        }
+    }
+
+    private Row toRow(ResultSet rs, int rowNum) throws SQLException {
+        return new Row(rs.getLong("id"), rs.getString("origin"), rs.getString("event_type"), rs.getString("payload"));
+    }
+
+    private record Row(long id, String origin, String type, String payload) {
+    }
+}
@@ -0,0 +1,206 @@
+package com.edurace.platform.service;
+
+import com.edurace.platform.cluster.ClusterClient;
+import com.edurace.platform.cluster.ClusterMember;
+import com.edurace.platform.cluster.CoursePartitionedState;
+import com.edurace.platform.cluster.HashRing;
+import com.edurace.platform.cluster.MembershipProvider;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Partitions courses across backend instances so each course's live in-memory state
+ * (seat counters, races) is held by exactly one node.
+ *
+ * Membership comes from the configured {@link MembershipProvider} and is refreshed
+ * periodically; every node builds the same {@link HashRing} from it. When the ring
+ * changes, each node releases the courses it no longer owns from every
+ * {@link CoursePartitionedState} and pushes the snapshots to their new owners. Until
+ * all nodes have seen a change, two of them may briefly disagree about an owner; the
+ * seat reconciliation repairs any drift from that window.
+ *
+ * One-time login codes are spread over the same ring by phone number.
+ *
+ * A single instance with the default static membership owns every course.
+ */
+@Service
+public class ClusterService {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterService.class);
+
+    @Autowired
+    private MembershipProvider membershipProvider;
+
+    @Autowired
+    private ClusterClient clusterClient;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // The state holders themselves ask this service who owns a course
+    @Lazy
+    @Autowired(required = false)
+    private List<CoursePartitionedState> states = List.of();
+
+    @Value("${app.cluster.node-id:local}")
+    private String nodeId;
+
+    @Value("${app.cluster.advertised-url:http://localhost:${server.port:8080}}")
+    private String advertisedUrl;
+
+    @Value("${app.cluster.virtual-nodes:128}")
+    private int virtualNodes;
+
+    private final Map<Long, Long> quizCourses = new ConcurrentHashMap<>();
+
+    private ClusterMember self;
+    private String instanceId;
+    private volatile HashRing ring;
+
+    @PostConstruct
+    public void init() {
+        self = new ClusterMember(nodeId, advertisedUrl);
+        instanceId = nodeId + "/" + UUID.randomUUID().toString().substring(0, 8);
+        ring = new HashRing(List.of(self), virtualNodes);
+        // Nothing is held yet, so the first ring needs no handoff
+        List<ClusterMember> members = currentMembers();
+        if (members != null) {
+            ring = new HashRing(members, virtualNodes);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        try {
+            membershipProvider.leave(self);
+        } catch (RuntimeException e) {
+            log.warn("Failed to leave the cluster cleanly", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cluster.refresh-interval-ms:2000}")
+    public synchronized void refresh() {
+        List<ClusterMember> members = currentMembers();
+        if (members == null || members.equals(ring.getMembers())) {
+            return;
+        }
+        log.info("Cluster membership changed: {}", members);
+        ring = new HashRing(members, virtualNodes);
+        handOff();
+    }
+
+    public ClusterMember getSelf() { return self; }
+
+    /**
+     * Names this running instance. Unlike the node id it differs between restarts
+     * and between instances left on the default id, so it can own leases and claims.
+     */
+    public String getInstanceId() { return instanceId; }
+
+    public List<ClusterMember> getMembers() { return ring.getMembers(); }
+
+    public ClusterMember ownerOf(long courseId) {
+        return ring.ownerOf(courseId);
+    }
+
+    /**
+     * The node holding the one-time codes of a normalized phone number.
+     */
+    public ClusterMember ownerOfPhoneNumber(String phoneNumber) {
+        return ring.ownerOf(phoneNumber.hashCode());
+    }
+
+    public boolean isLocal(long courseId) {
+        return ring.ownerOf(courseId).equals(self);
+    }
+
+    /**
+     * The course a quiz belongs to, which decides the owner of its race.
+     */
+    public long courseOfQuiz(long quizId) {
+        Long courseId = quizCourses.get(quizId);
+        if (courseId == null) {
+            List<Long> found = jdbcTemplate.queryForList(
+                "SELECT l.course_id FROM quizzes q JOIN lessons l ON l.id = q.lesson_id WHERE q.id = ?", Long.class, quizId);
+            if (found.isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Quiz not found with id: " + quizId);
+            }
+            courseId = found.get(0);
+            quizCourses.put(quizId, courseId);
+        }
+        return courseId;
+    }
+
+    public void takeOver(String stateName, long courseId, JsonNode snapshot) {
+        for (CoursePartitionedState state : states) {
+            if (state.stateName().equals(stateName)) {
+                state.takeOver(courseId, snapshot);
+                return;
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown course state: " + stateName);
+    }
+
+    /**
+     * Sorted live members including this node, or null if the provider failed.
+     */
+    private List<ClusterMember> currentMembers() {
+        List<ClusterMember> members;
+        try {
+            members = new ArrayList<>(membershipProvider.refresh(self));
+        } catch (RuntimeException e) {
+            log.warn("Failed to refresh cluster membership, keeping {} members", ring.getMembers().size(), e);
+            return null;
+        }
+        if (!members.contains(self)) {
+            members.add(self);
+        }
+        members.sort(Comparator.comparing(ClusterMember::nodeId));
+        return members;
+    }
+
+    private void handOff() {
+        int moved = 0;
+        for (CoursePartitionedState state : states) {
+            for (Long courseId : List.copyOf(state.localCourseIds())) {
+                ClusterMember owner = ring.ownerOf(courseId);
+                if (owner.equals(self)) {
+                    continue;
+                }
+                JsonNode snapshot = state.handOff(courseId);
+                moved++;
+                if (snapshot == null) {
+                    continue;
+                }
+                try {
+                    clusterClient.pushState(owner, state.stateName(), courseId, snapshot);
+                } catch (IOException | RuntimeException e) {
+                    // The new owner rebuilds what it can from the database
+                    log.warn("Failed to hand {} state for course {} to node {}", state.stateName(), courseId, owner.nodeId(), e);
+                }
+            }
+        }
+        if (moved > 0) {
+            log.info("Handed off {} course states after the membership change", moved);
+        }
+    }
+}
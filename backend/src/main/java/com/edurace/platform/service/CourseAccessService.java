@@ -0,0 +1,33 @@
+package com.edurace.platform.service;
+
+import com.edurace.platform.entity.Role;
+import com.edurace.platform.entity.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+@Service
+public class CourseAccessService {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Throws 404 for an unknown course and 403 unless the user is its instructor or
+     * an admin.
+     */
+    public void checkInstructorAccess(Long courseId, User user) {
+        List<Long> instructors = jdbcTemplate.queryForList(
+            "SELECT instructor_id FROM courses WHERE id = ?", Long.class, courseId);
+        if (instructors.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Course not found with id: " + courseId);
+        }
+        if (user.getRole() != Role.ADMIN && !user.getId().equals(instructors.get(0))) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not the instructor of this course");
+        }
+    }
+}
@@ -0,0 +1,400 @@
+package com.edurace.platform.service;
+
+import com.edurace.platform.coursepackage.CoursePackageException;
+import com.edurace.platform.coursepackage.CoursePackageReader;
+import com.edurace.platform.coursepackage.CoursePackageWriter;
+import com.edurace.platform.coursepackage.PackagedCourse;
+import com.edurace.platform.coursepackage.PackagedLesson;
+import com.edurace.platform.coursepackage.PackagedQuestion;
+import com.edurace.platform.coursepackage.PackagedQuiz;
+import com.edurace.platform.entity.DifficultyLevel;
+import com.edurace.platform.entity.User;
+import com.edurace.platform.event.CourseChangedEvent;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk import and export of whole courses as course packages (see
+ * {@link CoursePackageReader}).
+ *
+ * Both directions work through the package a chunk of lessons at a time: an import
+ * batch-inserts each chunk's lessons, quizzes and questions over JDBC before reading
+ * further, and an export pages through lessons by sequence order, so memory use does
+ * not grow with the size of the course. An import runs in one transaction and leaves
+ * nothing behind if any line is rejected.
+ */
+@Service
+public class CoursePackageService {
+
+    private static final Logger log = LoggerFactory.getLogger(CoursePackageService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.course-packages.chunk-size:100}")
+    private int chunkSize;
+
+    private TransactionTemplate readOnly;
+
+    @PostConstruct
+    public void init() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    /**
+     * Creates a draft course owned by the instructor from a package.
+     */
+    public Map<String, Object> importCourse(InputStream in, User instructor) {
+        long started = System.currentTimeMillis();
+        try (CoursePackageReader reader = new CoursePackageReader(in)) {
+            Map<String, Object> imported = transactionTemplate.execute(status -> {
+                try {
+                    return importCourse(reader, instructor);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            log.info("Imported course {} with {} lessons in {} ms",
+                imported.get("course_id"), imported.get("lessons"), System.currentTimeMillis() - started);
+            return imported;
+        } catch (CoursePackageException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IOException | UncheckedIOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Could not read course package: " + e.getMessage());
+        }
+    }
+
+    public void exportCourse(Long courseId, OutputStream out) throws IOException {
+        try (CoursePackageWriter writer = new CoursePackageWriter(out)) {
+            // One read-only transaction gives every page the same snapshot
+            readOnly.executeWithoutResult(status -> {
+                try {
+                    exportCourse(courseId, writer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Map<String, Object> importCourse(CoursePackageReader reader, User instructor) throws IOException {
+        PackagedCourse course = reader.readCourse();
+        long courseId = insertCourse(course, instructor.getId());
+
+        List<PackagedLesson> chunk = new ArrayList<>(chunkSize);
+        int lessons = 0;
+        int questions = 0;
+        for (PackagedLesson lesson = reader.nextLesson(); lesson != null; lesson = reader.nextLesson()) {
+            chunk.add(lesson);
+            lessons++;
+            questions += lesson.quiz() == null ? 0 : lesson.quiz().questions().size();
+            if (chunk.size() == chunkSize) {
+                insertLessons(courseId, chunk);
+                chunk.clear();
+            }
+        }
+        if (lessons == 0) {
+            throw new CoursePackageException(1, "A course package needs at least one lesson");
+        }
+        insertLessons(courseId, chunk);
+        jdbcTemplate.update("UPDATE courses SET total_lessons = ? WHERE id = ?", lessons, courseId);
+        eventPublisher.publishEvent(new CourseChangedEvent(courseId));
+
+        Map<String, Object> imported = new HashMap<>();
+        imported.put("course_id", courseId);
+        imported.put("status", "DRAFT");
+        imported.put("lessons", lessons);
+        imported.put("questions", questions);
+        return imported;
+    }
+
+    private long insertCourse(PackagedCourse course, Long instructorId) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO courses (title, description, instructor_id, thumbnail_url, entry_fee, total_lessons, " +
+                "estimated_duration_hours, difficulty_level, status, is_featured, max_enrollments, " +
+                "enrollment_start_date, enrollment_end_date, course_start_date, course_end_date, " +
+                "total_prize_pool, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, 0, ?, ?, 'DRAFT', FALSE, ?, ?, ?, ?, ?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS);
+            statement.setString(1, course.title());
+            statement.setString(2, course.description());
+            statement.setLong(3, instructorId);
+            statement.setString(4, course.thumbnailUrl());
+            statement.setBigDecimal(5, course.entryFee() == null ? BigDecimal.ZERO : course.entryFee());
+            setInteger(statement, 6, course.estimatedDurationHours());
+            DifficultyLevel difficulty = course.difficultyLevel() == null ? DifficultyLevel.BEGINNER : course.difficultyLevel();
+            statement.setString(7, difficulty.name());
+            setInteger(statement, 8, course.maxEnrollments());
+            statement.setTimestamp(9, timestamp(course.enrollmentStartDate()));
+            statement.setTimestamp(10, timestamp(course.enrollmentEndDate()));
+            statement.setTimestamp(11, timestamp(course.courseStartDate()));
+            statement.setTimestamp(12, timestamp(course.courseEndDate()));
+            statement.setBigDecimal(13, course.totalPrizePool() == null ? BigDecimal.ZERO : course.totalPrizePool());
+            statement.setTimestamp(14, now);
+            statement.setTimestamp(15, now);
+            return statement;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+
+    private void insertLessons(long courseId, List<PackagedLesson> lessons) {
+        if (lessons.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        KeyHolder lessonKeys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(
+            "INSERT INTO lessons (course_id, title, description, content, video_url, sequence_order, " +
+            "estimated_duration_minutes, is_published, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+            Statement.RETURN_GENERATED_KEYS), new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    PackagedLesson lesson = lessons.get(i);
+                    ps.setLong(1, courseId);
+                    ps.setString(2, lesson.title());
+                    ps.setString(3, lesson.description());
+                    ps.setString(4, lesson.content());
+                    ps.setString(5, lesson.videoUrl());
+                    ps.setInt(6, lesson.sequenceOrder());
+                    setInteger(ps, 7, lesson.estimatedDurationMinutes());
+                    ps.setBoolean(8, lesson.published());
+                    ps.setTimestamp(9, now);
+                    ps.setTimestamp(10, now);
+                }
+
+                @Override
+                public int getBatchSize() { return lessons.size(); }
+            }, lessonKeys);
+
+        List<Long> lessonIds = generatedIds(lessonKeys);
+        List<Long> quizLessonIds = new ArrayList<>();
+        List<PackagedQuiz> quizzes = new ArrayList<>();
+        for (int i = 0; i < lessons.size(); i++) {
+            if (lessons.get(i).quiz() != null) {
+                quizLessonIds.add(lessonIds.get(i));
+                quizzes.add(lessons.get(i).quiz());
+            }
+        }
+        if (quizzes.isEmpty()) {
+            return;
+        }
+
+        KeyHolder quizKeys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(
+            "INSERT INTO quizzes (lesson_id, title, description, time_limit_minutes, passing_score, max_attempts, " +
+            "is_published, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+            Statement.RETURN_GENERATED_KEYS), new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    PackagedQuiz quiz = quizzes.get(i);
+                    ps.setLong(1, quizLessonIds.get(i));
+                    ps.setString(2, quiz.title());
+                    ps.setString(3, quiz.description());
+                    ps.setInt(4, quiz.timeLimitMinutes());
+                    ps.setInt(5, quiz.passingScore());
+                    ps.setInt(6, quiz.maxAttempts());
+                    ps.setBoolean(7, quiz.published());
+                    ps.setTimestamp(8, now);
+                    ps.setTimestamp(9, now);
+                }
+
+                @Override
+                public int getBatchSize() { return quizzes.size(); }
+            }, quizKeys);
+
+        List<Long> quizIds = generatedIds(quizKeys);
+        List<Object[]> questions = new ArrayList<>();
+        for (int i = 0; i < quizzes.size(); i++) {
+            for (PackagedQuestion question : quizzes.get(i).questions()) {
+                questions.add(new Object[] {
+                    quizIds.get(i), question.questionText(), question.optionA(), question.optionB(),
+                    question.optionC(), question.optionD(), question.correctAnswer(), question.points()
+                });
+            }
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO quiz_questions (quiz_id, question_text, option_a, option_b, option_c, option_d, " +
+            "correct_answer, points) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", questions);
+    }
+
+    private void exportCourse(Long courseId, CoursePackageWriter writer) throws IOException {
+        List<PackagedCourse> courses = jdbcTemplate.query(
+            "SELECT title, description, thumbnail_url, entry_fee, estimated_duration_hours, difficulty_level, " +
+            "max_enrollments, enrollment_start_date, enrollment_end_date, course_start_date, course_end_date, " +
+            "total_prize_pool FROM courses WHERE id = ?", (rs, rowNum) -> {
+                String difficulty = rs.getString("difficulty_level");
+                return new PackagedCourse(
+                    rs.getString("title"),
+                    rs.getString("description"),
+                    rs.getString("thumbnail_url"),
+                    rs.getBigDecimal("entry_fee"),
+                    rs.getObject("estimated_duration_hours", Integer.class),
+                    difficulty == null ? null : DifficultyLevel.valueOf(difficulty),
+                    rs.getObject("max_enrollments", Integer.class),
+                    rs.getObject("enrollment_start_date", LocalDateTime.class),
+                    rs.getObject("enrollment_end_date", LocalDateTime.class),
+                    rs.getObject("course_start_date", LocalDateTime.class),
+                    rs.getObject("course_end_date", LocalDateTime.class),
+                    rs.getBigDecimal("total_prize_pool"));
+            }, courseId);
+        if (courses.isEmpty()) {
+            return;
+        }
+        writer.writeCourse(courses.get(0));
+
+        // Stored orders may have gaps or repeats; the package renumbers them 1..n
+        int sequenceOrder = 0;
+        int lastOrder = Integer.MIN_VALUE;
+        long lastId = 0;
+        while (true) {
+            List<ExportedLesson> page = jdbcTemplate.query(
+                "SELECT l.id, l.sequence_order, l.title, l.description, l.content, l.video_url, " +
+                "l.estimated_duration_minutes, l.is_published, q.id AS quiz_id, q.title AS quiz_title, " +
+                "q.description AS quiz_description, q.time_limit_minutes, q.passing_score, q.max_attempts, " +
+                "q.is_published AS quiz_published FROM lessons l LEFT JOIN quizzes q ON q.lesson_id = l.id " +
+                "WHERE l.course_id = ? AND (l.sequence_order > ? OR (l.sequence_order = ? AND l.id > ?)) " +
+                "ORDER BY l.sequence_order, l.id LIMIT ?", (rs, rowNum) -> new ExportedLesson(
+                    rs.getLong("id"),
+                    rs.getInt("sequence_order"),
+                    rs.getString("title"),
+                    rs.getString("description"),
+                    rs.getString("content"),
+                    rs.getString("video_url"),
+                    rs.getObject("estimated_duration_minutes", Integer.class),
+                    rs.getBoolean("is_published"),
+                    rs.getObject("quiz_id", Long.class),
+                    rs.getString("quiz_title"),
+                    rs.getString("quiz_description"),
+                    rs.getInt("time_limit_minutes"),
+                    rs.getInt("passing_score"),
+                    rs.getInt("max_attempts"),
+                    rs.getBoolean("quiz_published")),
+                courseId, lastOrder, lastOrder, lastId, chunkSize);
+            if (page.isEmpty()) {
+                break;
+            }
+
+            Map<Long, List<PackagedQuestion>> questions = questionsFor(page);
+            for (ExportedLesson lesson : page) {
+                PackagedQuiz quiz = lesson.quizId() == null ? null : new PackagedQuiz(lesson.quizTitle(),
+                    lesson.quizDescription(), lesson.timeLimitMinutes(), lesson.passingScore(), lesson.maxAttempts(),
+                    lesson.quizPublished(), questions.getOrDefault(lesson.quizId(), List.of()));
+                writer.writeLesson(new PackagedLesson(++sequenceOrder, lesson.title(), lesson.description(),
+                    lesson.content(), lesson.videoUrl(), lesson.estimatedDurationMinutes(), lesson.published(), quiz));
+            }
+            writer.flush();
+            ExportedLesson last = page.get(page.size() - 1);
+            lastOrder = last.sequenceOrder();
+            lastId = last.id();
+        }
+    }
+
+    private Map<Long, List<PackagedQuestion>> questionsFor(List<ExportedLesson> lessons) {
+        List<Long> quizIds = lessons.stream().map(ExportedLesson::quizId).filter(id -> id != null).toList();
+        Map<Long, List<PackagedQuestion>> questions = new HashMap<>();
+        if (quizIds.isEmpty()) {
+            return questions;
+        }
+        namedParameterJdbcTemplate.query(
+            "SELECT quiz_id, question_text, option_a, option_b, option_c, option_d, correct_answer, points " +
+            "FROM quiz_questions WHERE quiz_id IN (:ids) ORDER BY id",
+            new MapSqlParameterSource("ids", quizIds), rs -> {
+                questions.computeIfAbsent(rs.getLong("quiz_id"), id -> new ArrayList<>()).add(new PackagedQuestion(
+                    rs.getString("question_text"),
+                    rs.getString("option_a"),
+                    rs.getString("option_b"),
+                    rs.getString("option_c"),
+                    rs.getString("option_d"),
+                    rs.getString("correct_answer"),
+                    rs.getInt("points")));
+            });
+        return questions;
+    }
+
+    private static List<Long> generatedIds(KeyHolder keyHolder) {
+        List<Long> ids = new ArrayList<>();
+        for (Map<String, Object> keys : keyHolder.getKeyList()) {
+            ids.add(((Number) keys.values().iterator().next()).longValue());
+        }
+        return ids;
+    }
+
+    private static void setInteger(PreparedStatement statement, int index, Integer value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.INTEGER);
+        } else {
+            statement.setInt(index, value);
+        }
+    }
+
+    private static Timestamp timestamp(LocalDateTime value) {
+        return value == null ? null : Timestamp.valueOf(value);
+    }
+
+    private record ExportedLesson(
+            long id,
+            int sequenceOrder,
+            String title,
+            String description,
+            String content,
+            String videoUrl,
+            Integer estimatedDurationMinutes,
+            boolean published,
+            Long quizId,
+            String quizTitle,
+            String quizDescription,
+            int timeLimitMinutes,
+            int passingScore,
+            int maxAttempts,
+            boolean quizPublished) {
+    }
+}
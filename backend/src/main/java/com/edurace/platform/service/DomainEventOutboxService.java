@@ -0,0 +1,300 @@
+package com.edurace.platform.service;
+
+import com.edurace.platform.event.OutboxEventHandler;
+import com.edurace.platform.event.OutboxedEvent;
+import com.edurace.platform.eventbus.RingBuffer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Transactional outbox for {@link OutboxedEvent}s and the relay that drains it into
+ * an in-process {@link RingBuffer} feeding every {@link OutboxEventHandler}.
+ *
+ * Publishing an outboxed event inserts its JSON into domain_event_outbox inside the
+ * publisher's transaction, so the row commits or rolls back with the change itself.
+ * A single relay thread, woken after each commit and otherwise polling, reads new
+ * rows in id order and publishes them to the ring; rows are deleted only after every
+ * handler has finished with them, so anything in flight at a crash is delivered
+ * again on the next start. A transaction that commits after a later id has already
+ * been relayed leaves a gap, which a sweep for old unrelayed rows picks up.
+ *
+ * A batch a handler still fails on after app.events.outbox.max-attempts is not
+ * deleted: its rows get dead_lettered_at and are no longer relayed, while the other
+ * rows go on. Clearing dead_lettered_at delivers them again, to every handler.
+ *
+ * With several instances on one database only the holder of the outbox-relay
+ * {@link JobLeaseService lease} relays, so each row reaches the handlers once per
+ * holder; a new holder rescans from the start, and events its predecessor had in
+ * flight may be delivered again.
+ */
+@Service
+public class DomainEventOutboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(DomainEventOutboxService.class);
+
+    private static final String RELAY_LEASE = "outbox-relay";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JobLeaseService jobLeaseService;
+
+    @Autowired(required = false)
+    private List<OutboxEventHandler> handlers = List.of();
+
+    @Value("${app.events.outbox.ring-size:4096}")
+    private int ringSize;
+
+    @Value("${app.events.outbox.read-batch-size:500}")
+    private int readBatchSize;
+
+    @Value("${app.events.outbox.handler-batch-size:256}")
+    private int handlerBatchSize;
+
+    @Value("${app.events.outbox.poll-interval:PT1S}")
+    private Duration pollInterval;
+
+    @Value("${app.events.outbox.straggler-age:PT10S}")
+    private Duration stragglerAge;
+
+    @Value("${app.events.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${app.events.outbox.retry-backoff:PT1S}")
+    private Duration retryBackoff;
+
+    @Value("${app.events.outbox.lease-ttl:PT15S}")
+    private Duration leaseTtl;
+
+    private RingBuffer<OutboxedEvent> ring;
+    private volatile Thread relayThread;
+    private volatile boolean running;
+
+    // Relay thread only: relayed rows not yet processed by every handler, in sequence order
+    private final ArrayDeque<long[]> inFlight = new ArrayDeque<>();
+    private final Set<Long> inFlightIds = new HashSet<>();
+    // Sequence ranges some handler gave up on, added by the handler threads
+    private final ConcurrentLinkedQueue<long[]> failedSequences = new ConcurrentLinkedQueue<>();
+    private long lastRelayedId;
+    private boolean leased;
+    private long nextLeaseRenewal;
+
+    /**
+     * Writes the event to the outbox in the caller's transaction, if there is one.
+     */
+    @EventListener
+    public void record(OutboxedEvent event) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize " + event, e);
+        }
+        jdbcTemplate.update(
+            "INSERT INTO domain_event_outbox (event_type, payload, created_at) VALUES (?, ?, ?)",
+            event.getClass().getName(), payload, Timestamp.valueOf(LocalDateTime.now()));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wake();
+                }
+            });
+        } else {
+            wake();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        ring = new RingBuffer<>("outbox", ringSize, handlerBatchSize, (handlerName, firstSequence, events) ->
+            failedSequences.add(new long[] {firstSequence, firstSequence + events.size() - 1}));
+        for (OutboxEventHandler handler : handlers) {
+            ring.addHandler(AopUtils.getTargetClass(handler).getSimpleName(), handler, maxAttempts, retryBackoff);
+        }
+        ring.start();
+        running = true;
+        relayThread = new Thread(this::relayLoop, "outbox-relay");
+        relayThread.setDaemon(true);
+        relayThread.start();
+        log.info("Outbox relay started with {} handlers", handlers.size());
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        if (relayThread == null) {
+            return;
+        }
+        running = false;
+        // Closing the ring first releases a relay blocked on a full ring
+        ring.close();
+        relayThread.interrupt();
+        relayThread.join(5000);
+        acknowledge();
+        relayThread = null;
+        if (leased) {
+            jobLeaseService.release(RELAY_LEASE, Duration.ZERO);
+        }
+    }
+
+    private void wake() {
+        Thread relay = relayThread;
+        if (relay != null) {
+            LockSupport.unpark(relay);
+        }
+    }
+
+    private void relayLoop() {
+        long nextSweep = 0;
+        while (running) {
+            try {
+                if (!holdLease()) {
+                    acknowledge();
+                    LockSupport.parkNanos(this, pollInterval.toNanos());
+                    continue;
+                }
+                int relayed = relay("SELECT id, event_type, payload FROM domain_event_outbox " +
+                    "WHERE id > ? AND dead_lettered_at IS NULL ORDER BY id LIMIT ?", lastRelayedId, readBatchSize);
+                if (System.currentTimeMillis() >= nextSweep) {
+                    relayed += relayStragglers();
+                    nextSweep = System.currentTimeMillis() + stragglerAge.toMillis();
+                }
+                acknowledge();
+                if (relayed < readBatchSize) {
+                    LockSupport.parkNanos(this, pollInterval.toNanos());
+                }
+            } catch (RuntimeException e) {
+                log.error("Outbox relay failed, retrying in {}", pollInterval, e);
+                LockSupport.parkNanos(this, pollInterval.toNanos());
+            }
+        }
+    }
+
+    private boolean holdLease() {
+        long now = System.currentTimeMillis();
+        if (now >= nextLeaseRenewal) {
+            boolean held = jobLeaseService.acquire(RELAY_LEASE, leaseTtl);
+            if (held && !leased) {
+                // Rows below the last id seen while someone else relayed may still be there
+                lastRelayedId = 0;
+                log.info("Outbox relay lease acquired");
+            } else if (!held && leased) {
+                log.info("Outbox relay lease lost to another instance");
+            }
+            leased = held;
+            nextLeaseRenewal = now + leaseTtl.toMillis() / 3;
+        }
+        return leased;
+    }
+
+    private int relay(String sql, Object... args) {
+        List<Long> unreadable = new ArrayList<>();
+        int[] relayed = {0};
+        jdbcTemplate.query(sql, rs -> {
+            long id = rs.getLong("id");
+            if (inFlightIds.contains(id)) {
+                return;
+            }
+            OutboxedEvent event = deserialize(id, rs.getString("event_type"), rs.getString("payload"));
+            if (event == null) {
+                unreadable.add(id);
+            } else {
+                long sequence = ring.publish(event);
+                inFlight.addLast(new long[] {sequence, id});
+                inFlightIds.add(id);
+                relayed[0]++;
+            }
+            lastRelayedId = Math.max(lastRelayedId, id);
+        }, args);
+        delete(unreadable);
+        return relayed[0];
+    }
+
+    private int relayStragglers() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(stragglerAge));
+        return relay("SELECT id, event_type, payload FROM domain_event_outbox " +
+            "WHERE id <= ? AND created_at < ? AND dead_lettered_at IS NULL ORDER BY id LIMIT ?",
+            lastRelayedId, cutoff, readBatchSize);
+    }
+
+    private void acknowledge() {
+        long done = ring.minimumSequence();
+        List<Long> ids = new ArrayList<>();
+        List<Long> failed = new ArrayList<>();
+        while (!inFlight.isEmpty() && inFlight.peekFirst()[0] <= done) {
+            long[] entry = inFlight.pollFirst();
+            inFlightIds.remove(entry[1]);
+            (isFailed(entry[0]) ? failed : ids).add(entry[1]);
+        }
+        // A range is added before its handler moves past it, so ranges up to done are complete
+        failedSequences.removeIf(range -> range[1] <= done);
+        if (!failed.isEmpty()) {
+            log.error("Dead-lettering outbox rows {}", failed);
+            namedParameterJdbcTemplate.update("UPDATE domain_event_outbox SET dead_lettered_at = :now WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", failed).addValue("now", Timestamp.valueOf(LocalDateTime.now())));
+        }
+        delete(ids);
+    }
+
+    private boolean isFailed(long sequence) {
+        for (long[] range : failedSequences) {
+            if (sequence >= range[0] && sequence <= range[1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void delete(List<Long> ids) {
+        if (!ids.isEmpty()) {
+            namedParameterJdbcTemplate.update("DELETE FROM domain_event_outbox WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", ids));
+        }
+    }
+
+    private OutboxedEvent deserialize(long id, String type, String payload) {
+        try {
+            Class<?> eventClass = Class.forName(type);
+            if (!OutboxedEvent.class.isAssignableFrom(eventClass)) {
+                throw new IllegalArgumentException(type + " is not an outboxed event");
+            }
+            return (OutboxedEvent) objectMapper.readValue(payload, eventClass);
+        } catch (ClassNotFoundException | JsonProcessingException | IllegalArgumentException e) {
+            log.error("Dropping unreadable outbox row {} of type {}", id, type, e);
+            return null;
+        }
+    }
+}
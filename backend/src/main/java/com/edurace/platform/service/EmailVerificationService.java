@@ -0,0 +1,83 @@
+package com.edurace.platform.service;
+
+import com.edurace.platform.entity.User;
+import com.edurace.platform.mail.EmailVerificationTokens;
+import com.edurace.platform.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+@Service
+public class EmailVerificationService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MailService mailService;
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @Value("${app.mail.verification-url:http://localhost:3000/verify-email}")
+    private String verificationUrl;
+
+    @Value("${app.mail.verification-ttl:PT24H}")
+    private Duration verificationTtl;
+
+    @Value("${app.mail.verification-resend-interval:PT1M}")
+    private Duration resendInterval;
+
+    private EmailVerificationTokens tokens;
+
+    @PostConstruct
+    public void init() {
+        tokens = new EmailVerificationTokens(secret, verificationTtl);
+    }
+
+    /**
+     * Queues a verification email if the address belongs to an unverified account.
+     * Other addresses get the same response so accounts can't be probed.
+     *
+     * At most one email per account is queued in each app.mail.verification-resend-interval
+     * window: the window is part of the message's dedup key, so the limit holds across
+     * instances. Requests over it get the same response too.
+     */
+    @Transactional
+    public void requestVerification(String email) {
+        if (email == null || email.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Email is required");
+        }
+        userRepository.findByEmail(email.trim())
+            .filter(user -> !Boolean.TRUE.equals(user.getEmailVerified()))
+            .ifPresent(user -> mailService.enqueueOnce("email-verification", user.getEmail(), Map.of(
+                "first_name", user.getFirstName(),
+                "verification_url", verificationUrl + "?token=" + URLEncoder.encode(
+                    tokens.issue(user.getId(), user.getEmail()), StandardCharsets.UTF_8),
+                "expires_in_hours", Long.toString(tokens.getTtl().toHours())),
+                "email-verification:" + user.getId() + ":" + System.currentTimeMillis() / resendInterval.toMillis()));
+    }
+
+    @Transactional
+    public User verify(String token) {
+        Long userId = tokens.userId(token);
+        User user = userId == null ? null : userRepository.findById(userId).orElse(null);
+        if (user == null || !tokens.matches(token, user.getEmail())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid or expired verification link");
+        }
+        if (!Boolean.TRUE.equals(user.getEmailVerified())) {
+            user.setEmailVerified(true);
+            userRepository.save(user);
+        }
+        return user;
+    }
+}
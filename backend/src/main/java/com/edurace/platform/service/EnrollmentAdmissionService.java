@@ -0,0 +1,362 @@
+package com.edurace.platform.service;
+
+import com.edurace.platform.admission.CourseSeats;
+import com.edurace.platform.admission.SeatReservation;
+import com.edurace.platform.cluster.CoursePartitionedState;
+import com.edurace.platform.entity.CourseStatus;
+import com.edurace.platform.entity.Payment;
+import com.edurace.platform.entity.PaymentStatus;
+import com.edurace.platform.event.EnrollmentCreatedEvent;
+import com.edurace.platform.event.PaymentStatusChangedEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Admits students into courses against Course.maxEnrollments without a
+ * count-then-insert race.
+ *
+ * Each course has an in-memory {@link CourseSeats} counter seeded from the database
+ * (non-dropped enrollments plus pending payments). A seat is taken with a CAS before
+ * any write; it turns into an enrollment when the payment completes and is released
+ * when the payment fails, is refunded or the reservation expires. A periodic
+ * reconciliation corrects drift against the database. Each of these changes is
+ * bracketed by CourseSeats.beginChange()/endChange(), and reconciliation leaves a
+ * course alone while one is under way, so it never sees an enrollment the counter
+ * already holds but the database hasn't committed yet (or the reverse) and never
+ * undercounts.
+ *
+ * In a cluster the counters are {@link CoursePartitionedState}: only the course's
+ * owner node admits into it, and the counter and open reservations move with the
+ * course when ownership changes.
+ */
+@Service
+public class EnrollmentAdmissionService implements CoursePartitionedState {
+
+    private static final Logger log = LoggerFactory.getLogger(EnrollmentAdmissionService.class);
+
+    public enum Outcome {
+        ENROLLED,
+        PAYMENT_PENDING
+    }
+
+    public record AdmissionResult(Outcome outcome, Long paymentId) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.enrollment.reservation-ttl:PT15M}")
+    private Duration reservationTtl;
+
+    private TransactionTemplate requiresNew;
+
+    private final Map<Long, CourseSeats> courses = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public AdmissionResult admit(Long courseId, Long studentId) {
+        CourseSeats seats = seatsFor(courseId);
+        if (!seats.isOpen(LocalDateTime.now())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Enrollment is not open for this course");
+        }
+        if (isEnrolled(courseId, studentId)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Already enrolled in this course");
+        }
+
+        SeatReservation reservation = new SeatReservation(courseId, studentId, null, LocalDateTime.now());
+        seats.beginChange();
+        try {
+            SeatReservation existing = seats.putReservationIfAbsent(reservation);
+            if (existing != null) {
+                return new AdmissionResult(Outcome.PAYMENT_PENDING, existing.paymentId());
+            }
+            if (!seats.tryTakeSeat()) {
+                seats.removeReservation(reservation);
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Course is full");
+            }
+
+            try {
+                if (seats.getEntryFee().signum() == 0) {
+                    if (!enroll(courseId, studentId)) {
+                        seats.releaseSeat();
+                    }
+                    seats.removeReservation(studentId);
+                    return new AdmissionResult(Outcome.ENROLLED, null);
+                }
+                Payment payment = paymentService.createPending(studentId, courseId, seats.getEntryFee());
+                seats.updateReservation(reservation.withPaymentId(payment.getId()));
+                return new AdmissionResult(Outcome.PAYMENT_PENDING, payment.getId());
+            } catch (RuntimeException e) {
+                if (seats.removeReservation(studentId) != null) {
+                    seats.releaseSeat();
+                }
+                throw e;
+            }
+        } finally {
+            seats.endChange();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPaymentStatusChanged(PaymentStatusChangedEvent event) {
+        CourseSeats seats = seatsFor(event.courseId());
+        seats.beginChange();
+        try {
+            switch (event.newStatus()) {
+                case COMPLETED -> confirm(seats, event);
+                case FAILED -> {
+                    if (seats.removeReservation(event.userId()) != null) {
+                        seats.releaseSeat();
+                    }
+                }
+                case REFUNDED -> {
+                    Integer dropped = requiresNew.execute(status -> jdbcTemplate.update(
+                        "UPDATE enrollments SET status = 'DROPPED' WHERE student_id = ? AND course_id = ? AND status <> 'DROPPED'",
+                        event.userId(), event.courseId()));
+                    if ((dropped != null && dropped > 0) || seats.removeReservation(event.userId()) != null) {
+                        seats.releaseSeat();
+                    }
+                }
+                default -> {
+                }
+            }
+        } finally {
+            seats.endChange();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.enrollment.expiry-interval-ms:60000}")
+    public void expireReservations() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(reservationTtl);
+        for (CourseSeats seats : courses.values()) {
+            for (SeatReservation reservation : seats.getReservations()) {
+                if (!reservation.reservedAt().isBefore(cutoff)) {
+                    continue;
+                }
+                seats.beginChange();
+                try {
+                    if (!seats.removeReservation(reservation)) {
+                        continue;
+                    }
+                    seats.releaseSeat();
+                } finally {
+                    seats.endChange();
+                }
+                if (reservation.paymentId() != null) {
+                    paymentService.failIfPending(reservation.paymentId());
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.enrollment.reconcile-interval-ms:30000}")
+    public void reconcile() {
+        for (CourseSeats seats : courses.values()) {
+            long version = seats.stableVersion();
+            int observed = seats.getTaken();
+            int reservations = seats.getReservationCount();
+            if (!refreshCourse(seats)) {
+                courses.remove(seats.getCourseId());
+                continue;
+            }
+            if (version < 0) {
+                // Admissions or payments are being applied; the counter is checked again next round
+                continue;
+            }
+            int expected = countConfirmed(seats.getCourseId()) + reservations;
+            if (expected != observed && seats.reconcile(version, observed, expected)) {
+                log.warn("Reconciled seat counter for course {}: {} -> {}", seats.getCourseId(), observed, expected);
+            }
+        }
+    }
+
+    public CourseSeats seatsFor(Long courseId) {
+        CourseSeats seats = courses.get(courseId);
+        if (seats != null) {
+            return seats;
+        }
+        CourseSeats loaded = loadSeats(courseId);
+        seats = courses.putIfAbsent(courseId, loaded);
+        return seats != null ? seats : loaded;
+    }
+
+    @Override
+    public String stateName() {
+        return "seats";
+    }
+
+    @Override
+    public Collection<Long> localCourseIds() {
+        return courses.keySet();
+    }
+
+    @Override
+    public JsonNode handOff(long courseId) {
+        CourseSeats seats = courses.remove(courseId);
+        if (seats == null) {
+            return null;
+        }
+        ObjectNode snapshot = objectMapper.createObjectNode();
+        snapshot.put("taken", seats.getTaken());
+        ArrayNode reservations = snapshot.putArray("reservations");
+        for (SeatReservation reservation : seats.getReservations()) {
+            reservations.addObject()
+                .put("student_id", reservation.studentId())
+                .put("payment_id", reservation.paymentId())
+                .put("reserved_at", reservation.reservedAt().toString());
+        }
+        return snapshot;
+    }
+
+    @Override
+    public void takeOver(long courseId, JsonNode snapshot) {
+        if (courses.containsKey(courseId)) {
+            return;
+        }
+        CourseSeats seats = new CourseSeats(courseId, snapshot.path("taken").asInt());
+        if (!refreshCourse(seats)) {
+            return;
+        }
+        for (JsonNode reservation : snapshot.path("reservations")) {
+            JsonNode paymentId = reservation.path("payment_id");
+            seats.putReservationIfAbsent(new SeatReservation(courseId, reservation.path("student_id").asLong(),
+                paymentId.isNumber() ? paymentId.asLong() : null, LocalDateTime.parse(reservation.path("reserved_at").asText())));
+        }
+        courses.putIfAbsent(courseId, seats);
+    }
+
+    private void confirm(CourseSeats seats, PaymentStatusChangedEvent event) {
+        SeatReservation reservation = seats.getReservation(event.userId());
+        // Claim the reservation so expiry can't release its seat as well; a lost claim means it expired
+        if (reservation != null && !seats.removeReservation(reservation)) {
+            reservation = null;
+        }
+
+        if (reservation == null && !seats.tryTakeSeat()) {
+            // The reservation expired and the seat went to someone else
+            log.warn("Payment {} completed after its reservation expired and course {} is full; refunding",
+                event.paymentId(), event.courseId());
+            requiresNew.executeWithoutResult(status -> paymentService.updateStatus(event.paymentId(), PaymentStatus.REFUNDED));
+            return;
+        }
+
+        if (!enroll(event.courseId(), event.userId())) {
+            seats.releaseSeat();
+        }
+    }
+
+    /**
+     * Creates the enrollment, or reactivates a dropped one (the pair is unique); false if
+     * the student already holds an enrollment that isn't dropped.
+     */
+    private boolean enroll(Long courseId, Long studentId) {
+        LocalDateTime enrolledAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        Long enrollmentId = requiresNew.execute(status -> {
+            // status is assigned last: MySQL applies the assignments in order, so the others still see the old one
+            jdbcTemplate.update(
+                "INSERT INTO enrollments (student_id, course_id, enrolled_at, progress_percentage, status) " +
+                "VALUES (?, ?, ?, 0, 'ACTIVE') ON DUPLICATE KEY UPDATE " +
+                "progress_percentage = IF(status = 'DROPPED', 0, progress_percentage), " +
+                "enrolled_at = IF(status = 'DROPPED', VALUES(enrolled_at), enrolled_at), " +
+                "status = IF(status = 'DROPPED', 'ACTIVE', status)",
+                studentId, courseId, Timestamp.valueOf(enrolledAt));
+            // Affected-row counts don't tell an insert from an untouched row, the enrollment time does
+            List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM enrollments WHERE student_id = ? AND course_id = ? AND enrolled_at = ?",
+                Long.class, studentId, courseId, Timestamp.valueOf(enrolledAt));
+            if (ids.isEmpty()) {
+                return null;
+            }
+            // Published inside the transaction so its outbox row commits with the enrollment
+            eventPublisher.publishEvent(new EnrollmentCreatedEvent(ids.get(0), courseId, studentId));
+            return ids.get(0);
+        });
+        return enrollmentId != null;
+    }
+
+    private boolean isEnrolled(Long courseId, Long studentId) {
+        Integer count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM enrollments WHERE student_id = ? AND course_id = ? AND status <> 'DROPPED'",
+            Integer.class, studentId, courseId);
+        return count != null && count > 0;
+    }
+
+    private int countConfirmed(Long courseId) {
+        Integer count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM enrollments WHERE course_id = ? AND status <> 'DROPPED'", Integer.class, courseId);
+        return count == null ? 0 : count;
+    }
+
+    private CourseSeats loadSeats(Long courseId) {
+        List<SeatReservation> pending = jdbcTemplate.query(
+            "SELECT id, user_id, created_at FROM payments WHERE course_id = ? AND status = 'PENDING'",
+            (rs, rowNum) -> new SeatReservation(courseId, rs.getLong("user_id"),
+                rs.getLong("id"), rs.getObject("created_at", LocalDateTime.class)),
+            courseId);
+
+        CourseSeats seats = new CourseSeats(courseId, countConfirmed(courseId) + pending.size());
+        if (!refreshCourse(seats)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Course not found with id: " + courseId);
+        }
+        pending.forEach(seats::putReservationIfAbsent);
+        return seats;
+    }
+
+    private boolean refreshCourse(CourseSeats seats) {
+        List<Boolean> found = jdbcTemplate.query(
+            "SELECT max_enrollments, status, entry_fee, enrollment_start_date, enrollment_end_date FROM courses WHERE id = ?",
+            (rs, rowNum) -> {
+                seats.refresh(
+                    rs.getObject("max_enrollments", Integer.class),
+                    CourseStatus.valueOf(rs.getString("status")),
+                    rs.getObject("entry_fee", BigDecimal.class),
+                    rs.getObject("enrollment_start_date", LocalDateTime.class),
+                    rs.getObject("enrollment_end_date", LocalDateTime.class));
+                return true;
+            }, seats.getCourseId());
+        return !found.isEmpty();
+    }
+}
@@ -0,0 +1,96 @@
+package com.edurace.platform.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Leases on jobs that must run on one instance at a time when several share the
+ * database, kept in job_leases.
+ *
+ * A lease is taken with a conditional UPDATE that only matches when the current one
+ * has expired or is already ours, so instances can race for it; a holder that dies
+ * loses it when it runs out. Scheduled jobs fire on every instance, so
+ * {@link #runExclusively} keeps the lease for a minimum time after the job: the
+ * other instances' runs of the same schedule are skipped instead of repeating it.
+ */
+@Service
+public class JobLeaseService {
+
+    private static final Logger log = LoggerFactory.getLogger(JobLeaseService.class);
+
+    private static final String ACQUIRE_SQL =
+        "UPDATE job_leases SET owner = ?, locked_at = NOW(6), locked_until = NOW(6) + INTERVAL ? MICROSECOND " +
+        "WHERE name = ? AND (locked_until <= NOW(6) OR owner = ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ClusterService clusterService;
+
+    /**
+     * Takes or renews the lease for {@code duration}; false if another instance holds it.
+     */
+    public boolean acquire(String name, Duration duration) {
+        String owner = clusterService.getInstanceId();
+        long micros = duration.toNanos() / 1000;
+        if (jdbcTemplate.update(ACQUIRE_SQL, owner, micros, name, owner) == 1) {
+            return true;
+        }
+        // The first use of a name creates its row, already expired
+        if (jdbcTemplate.update("INSERT IGNORE INTO job_leases (name, owner, locked_at, locked_until) " +
+                "VALUES (?, '', NOW(6), NOW(6) - INTERVAL 1 SECOND)", name) == 0) {
+            return false;
+        }
+        return jdbcTemplate.update(ACQUIRE_SQL, owner, micros, name, owner) == 1;
+    }
+
+    /**
+     * Gives the lease up once {@code keepFor} has passed since it was taken.
+     */
+    public void release(String name, Duration keepFor) {
+        jdbcTemplate.update(
+            "UPDATE job_leases SET locked_until = GREATEST(NOW(6), locked_at + INTERVAL ? MICROSECOND) " +
+            "WHERE name = ? AND owner = ?", keepFor.toNanos() / 1000, name, clusterService.getInstanceId());
+    }
+
+    /**
+     * Drops a lease this instance holds, for names that are used only once.
+     */
+    public void delete(String name) {
+        jdbcTemplate.update("DELETE FROM job_leases WHERE name = ? AND owner = ?", name, clusterService.getInstanceId());
+    }
+
+    /**
+     * Whether any instance holds a live lease whose name starts with {@code prefix}.
+     */
+    public boolean isAnyHeld(String prefix) {
+        Integer held = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM job_leases WHERE name LIKE CONCAT(?, '%') AND locked_until > NOW(6)",
+            Integer.class, prefix);
+        return held != null && held > 0;
+    }
+
+    /**
+     * Runs the job if no other instance holds its lease or ran it within
+     * {@code minInterval}. The lease lapses after {@code maxDuration} if this
+     * instance dies while running it.
+     */
+    public boolean runExclusively(String name, Duration maxDuration, Duration minInterval, Runnable job) {
+        if (!acquire(name, maxDuration)) {
+            log.debug("Skipping {}, another instance holds its lease", name);
+            return false;
+        }
+        try {
+            job.run();
+        } finally {
+            release(name, minInterval);
+        }
+        return true;
+    }
+}
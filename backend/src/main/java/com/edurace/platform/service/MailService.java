@@ -0,0 +1,468 @@
+package com.edurace.platform.service;
+
+import com.edurace.platform.mail.MailTemplate;
+import com.edurace.platform.mail.SmtpConnection;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Outgoing email through a persistent queue.
+ *
+ * Callers only insert a row into mail_queue (template name, recipient, JSON model),
+ * usually inside their own transaction. A dispatcher thread claims due rows in
+ * batches and hands them to a fixed set of sender threads, each of which keeps one
+ * SMTP connection open across batches and closes it after an idle period, so a
+ * large announcement goes out over a few long-lived connections instead of one
+ * handshake per message. Templates under classpath:mail/ are compiled once at
+ * startup. Failed messages are retried with exponential backoff and marked FAILED
+ * after the last attempt.
+ *
+ * Claims lock their rows with SKIP LOCKED, so several instances can dispatch from
+ * the same queue without sending a row twice. Rows left SENDING by a crash are
+ * re-queued once their claim is older than app.mail.claim-timeout, by whichever
+ * instance notices first.
+ *
+ * A sender writes the outcome of a batch only after the whole batch went through
+ * SMTP, and keeps retrying that write rather than sending again, so a database blip
+ * does not turn into duplicate mail. A failing batch is logged and the sender moves
+ * on; a batch no sender takes within app.mail.connection-idle-timeout goes back to
+ * PENDING instead of holding the dispatcher.
+ */
+@Service
+public class MailService {
+
+    private static final Logger log = LoggerFactory.getLogger(MailService.class);
+
+    private static final TypeReference<Map<String, String>> MODEL_TYPE = new TypeReference<>() { };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectProvider<JavaMailSenderImpl> mailSender;
+
+    @Value("${app.mail.from:no-reply@edurace.com}")
+    private String from;
+
+    @Value("${app.mail.connections:8}")
+    private int connections;
+
+    @Value("${app.mail.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.mail.poll-interval:PT2S}")
+    private Duration pollInterval;
+
+    @Value("${app.mail.connection-idle-timeout:PT30S}")
+    private Duration connectionIdleTimeout;
+
+    @Value("${app.mail.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${app.mail.retry-backoff:PT1M}")
+    private Duration retryBackoff;
+
+    @Value("${app.mail.sent-retention:P7D}")
+    private Duration sentRetention;
+
+    @Value("${app.mail.claim-timeout:PT15M}")
+    private Duration claimTimeout;
+
+    private final Map<String, MailTemplate> templates = new HashMap<>();
+    private BlockingQueue<List<QueuedMail>> batches;
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile Thread dispatcher;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void compileTemplates() throws IOException {
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources("classpath:mail/*.txt")) {
+            String name = resource.getFilename().substring(0, resource.getFilename().length() - ".txt".length());
+            templates.put(name, MailTemplate.compile(name, resource.getContentAsString(StandardCharsets.UTF_8)));
+        }
+        log.info("Compiled {} mail templates", templates.size());
+    }
+
+    /**
+     * Queues one message; it is sent after the surrounding transaction commits.
+     */
+    public void enqueue(String template, String recipient, Map<String, String> model) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(
+            "INSERT INTO mail_queue (template, recipient, model, status, attempts, next_attempt_at, created_at) " +
+            "VALUES (?, ?, ?, 'PENDING', 0, ?, ?)", template, recipient, toJson(template, model), now, now);
+        wakeAfterCommit();
+    }
+
+    /**
+     * Queues one message unless one with the same dedup key was already queued;
+     * returns whether it was.
+     */
+    public boolean enqueueOnce(String template, String recipient, Map<String, String> model, String dedupKey) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int queued = jdbcTemplate.update(
+            "INSERT IGNORE INTO mail_queue (template, recipient, model, dedup_key, status, attempts, next_attempt_at, created_at) " +
+            "VALUES (?, ?, ?, ?, 'PENDING', 0, ?, ?)", template, recipient, toJson(template, model), dedupKey, now, now);
+        if (queued == 0) {
+            return false;
+        }
+        wakeAfterCommit();
+        return true;
+    }
+
+    /**
+     * Queues a course-start reminder for every active enrollment of the course in a
+     * single statement. Students who were already sent one are skipped. Returns the
+     * number of messages queued.
+     */
+    public int enqueueCourseStart(Long courseId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int queued = jdbcTemplate.update(
+            "INSERT IGNORE INTO mail_queue (template, recipient, model, dedup_key, status, attempts, next_attempt_at, created_at) " +
+            "SELECT 'course-start', u.email, JSON_OBJECT('first_name', u.first_name, 'course_title', c.title, " +
+            "'course_start_date', COALESCE(DATE_FORMAT(c.course_start_date, '%Y-%m-%d %H:%i'), 'the scheduled date')), " +
+            "CONCAT('course-start:', c.id, ':', u.id), 'PENDING', 0, ?, ? " +
+            "FROM enrollments e JOIN users u ON u.id = e.student_id JOIN courses c ON c.id = e.course_id " +
+            "WHERE e.course_id = ? AND e.status = 'ACTIVE'", now, now, courseId);
+        wakeAfterCommit();
+        return queued;
+    }
+
+    public Map<String, Long> queueCounts() {
+        Map<String, Long> counts = new HashMap<>();
+        jdbcTemplate.query("SELECT status, COUNT(*) AS messages FROM mail_queue GROUP BY status",
+            rs -> { counts.put(rs.getString("status").toLowerCase(), rs.getLong("messages")); });
+        return counts;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        requeueAbandoned();
+        running = true;
+        batches = new ArrayBlockingQueue<>(connections);
+        for (int i = 1; i <= connections; i++) {
+            Thread sender = new Thread(this::sendLoop, "mail-sender-" + i);
+            sender.setDaemon(true);
+            threads.add(sender);
+        }
+        dispatcher = new Thread(this::dispatchLoop, "mail-dispatcher");
+        dispatcher.setDaemon(true);
+        threads.add(dispatcher);
+        threads.forEach(Thread::start);
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        running = false;
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+        threads.clear();
+        dispatcher = null;
+    }
+
+    /**
+     * Takes back rows whose sender died after claiming them. Rows claimed before
+     * claimed_at existed have none and are treated as abandoned.
+     */
+    @Scheduled(fixedDelayString = "${app.mail.requeue-interval-ms:60000}", initialDelayString = "${app.mail.requeue-interval-ms:60000}")
+    public void requeueAbandoned() {
+        int requeued = jdbcTemplate.update(
+            "UPDATE mail_queue SET status = 'PENDING', claimed_at = NULL " +
+            "WHERE status = 'SENDING' AND (claimed_at IS NULL OR claimed_at < NOW(6) - INTERVAL ? MICROSECOND)",
+            claimTimeout.toNanos() / 1000);
+        if (requeued > 0) {
+            log.info("Re-queued {} messages whose sender stopped before sending them", requeued);
+        }
+    }
+
+    @Scheduled(cron = "${app.mail.purge-cron:0 15 4 * * *}")
+    public void purgeSent() {
+        int purged = jdbcTemplate.update("DELETE FROM mail_queue WHERE status = 'SENT' AND sent_at < ?",
+            Timestamp.valueOf(LocalDateTime.now().minus(sentRetention)));
+        log.info("Purged {} sent messages older than {}", purged, sentRetention);
+    }
+
+    private String toJson(String template, Map<String, String> model) {
+        if (!templates.containsKey(template)) {
+            throw new IllegalArgumentException("Unknown mail template " + template);
+        }
+        try {
+            return objectMapper.writeValueAsString(model);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize mail model", e);
+        }
+    }
+
+    private void wakeAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wake();
+                }
+            });
+        } else {
+            wake();
+        }
+    }
+
+    private void wake() {
+        Thread current = dispatcher;
+        if (current != null) {
+            LockSupport.unpark(current);
+        }
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                List<QueuedMail> batch = claim();
+                if (batch.isEmpty()) {
+                    LockSupport.parkNanos(this, pollInterval.toNanos());
+                } else if (!batches.offer(batch, connectionIdleTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                    // Waiting while every sender is busy bounds the rows held in memory
+                    log.warn("No mail sender took a batch within {}, releasing {} messages", connectionIdleTimeout, batch.size());
+                    release(batch);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.error("Mail dispatch failed, retrying in {}", pollInterval, e);
+                LockSupport.parkNanos(this, pollInterval.toNanos());
+            }
+        }
+    }
+
+    // Package-private for tests of concurrent claims
+    List<QueuedMail> claim() {
+        // Rows another instance is claiming are skipped rather than waited for or claimed twice
+        return transactionTemplate.execute(status -> {
+            List<QueuedMail> batch = jdbcTemplate.query(
+                "SELECT id, template, recipient, model, attempts FROM mail_queue " +
+                "WHERE status = 'PENDING' AND next_attempt_at <= ? ORDER BY next_attempt_at, id LIMIT ? " +
+                "FOR UPDATE SKIP LOCKED",
+                (rs, rowNum) -> new QueuedMail(rs.getLong("id"), rs.getString("template"), rs.getString("recipient"),
+                    rs.getString("model"), rs.getInt("attempts")),
+                Timestamp.valueOf(LocalDateTime.now()), batchSize);
+            if (!batch.isEmpty()) {
+                namedParameterJdbcTemplate.update(
+                    "UPDATE mail_queue SET status = 'SENDING', claimed_at = NOW(6) WHERE id IN (:ids)",
+                    new MapSqlParameterSource("ids", batch.stream().map(QueuedMail::id).toList()));
+            }
+            return batch;
+        });
+    }
+
+    private void release(List<QueuedMail> batch) {
+        namedParameterJdbcTemplate.update(
+            "UPDATE mail_queue SET status = 'PENDING', claimed_at = NULL WHERE id IN (:ids) AND status = 'SENDING'",
+            new MapSqlParameterSource("ids", batch.stream().map(QueuedMail::id).toList()));
+    }
+
+    private void sendLoop() {
+        SmtpConnection connection = null;
+        try {
+            while (running) {
+                List<QueuedMail> batch = batches.poll(connectionIdleTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                if (batch == null) {
+                    if (connection != null) {
+                        connection.close();
+                    }
+                    continue;
+                }
+                SendOutcome outcome;
+                try {
+                    if (connection == null) {
+                        connection = openConnection();
+                    }
+                    outcome = send(connection, batch);
+                } catch (RuntimeException e) {
+                    // Nothing of the batch was recorded; its rows are re-queued after the claim timeout
+                    log.error("Mail sender failed on a batch of {} messages", batch.size(), e);
+                    if (connection != null) {
+                        connection.close();
+                        connection = null;
+                    }
+                    continue;
+                }
+                record(outcome);
+            }
+        } catch (InterruptedException e) {
+            // Shutting down; unsent or unrecorded rows stay SENDING and are re-queued after the claim timeout
+        } finally {
+            if (connection != null) {
+                connection.close();
+            }
+        }
+    }
+
+    // Package-private for tests of sender failures
+    SendOutcome send(SmtpConnection connection, List<QueuedMail> batch) {
+        List<Long> sent = new ArrayList<>(batch.size());
+        List<Object[]> failed = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        Exception connectionFailure = null;
+        for (QueuedMail mail : batch) {
+            if (connectionFailure != null) {
+                // The server is unreachable; retry the rest of the batch later without charging an attempt
+                failed.add(new Object[] {"PENDING", mail.attempts(), Timestamp.valueOf(now.plus(retryBackoff)),
+                    truncate(describe(connectionFailure)), mail.id()});
+                continue;
+            }
+            MimeMessage message;
+            try {
+                message = toMessage(connection, mail);
+            } catch (MessagingException | RuntimeException e) {
+                failed.add(failure(mail, "FAILED", mail.attempts() + 1, now, e));
+                log.warn("Dropping malformed mail {} to {}", mail.id(), mail.recipient(), e);
+                continue;
+            }
+            try {
+                connection.send(message);
+                sent.add(mail.id());
+            } catch (SendFailedException e) {
+                // Rejected by the server; retrying will not help
+                failed.add(failure(mail, "FAILED", mail.attempts() + 1, now, e));
+                log.warn("Mail {} to {} was rejected", mail.id(), mail.recipient(), e);
+            } catch (MessagingException | RuntimeException e) {
+                int attempts = mail.attempts() + 1;
+                boolean giveUp = attempts >= maxAttempts;
+                failed.add(failure(mail, giveUp ? "FAILED" : "PENDING", attempts, now, e));
+                if (giveUp) {
+                    log.warn("Giving up on mail {} to {} after {} attempts", mail.id(), mail.recipient(), attempts, e);
+                }
+                connectionFailure = e;
+            }
+        }
+        if (connectionFailure != null) {
+            log.warn("SMTP connection failed, {} messages re-queued", failed.size(), connectionFailure);
+        }
+        return new SendOutcome(sent, Timestamp.valueOf(LocalDateTime.now()), failed);
+    }
+
+    /**
+     * Writes what happened to a sent batch, retrying until the database takes it:
+     * the messages are already out, so giving up would send them again.
+     */
+    void record(SendOutcome outcome) throws InterruptedException {
+        for (int retries = 0; ; retries++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (!outcome.sent().isEmpty()) {
+                        namedParameterJdbcTemplate.update(
+                            "UPDATE mail_queue SET status = 'SENT', sent_at = :now, attempts = attempts + 1 WHERE id IN (:ids)",
+                            new MapSqlParameterSource("ids", outcome.sent()).addValue("now", outcome.sentAt()));
+                    }
+                    if (!outcome.failed().isEmpty()) {
+                        jdbcTemplate.batchUpdate(
+                            "UPDATE mail_queue SET status = ?, attempts = ?, next_attempt_at = ?, last_error = ? WHERE id = ?",
+                            outcome.failed());
+                    }
+                });
+                return;
+            } catch (RuntimeException e) {
+                Duration delay = pollInterval.multipliedBy(1L << Math.min(retries, 5));
+                log.error("Failed to record {} sent and {} failed messages, retrying in {}",
+                    outcome.sent().size(), outcome.failed().size(), delay, e);
+                TimeUnit.NANOSECONDS.sleep(delay.toNanos());
+            }
+        }
+    }
+
+    private MimeMessage toMessage(SmtpConnection connection, QueuedMail mail) throws MessagingException {
+        MailTemplate template = templates.get(mail.template());
+        if (template == null) {
+            throw new IllegalArgumentException("Unknown mail template " + mail.template());
+        }
+        Map<String, String> model;
+        try {
+            model = objectMapper.readValue(mail.model(), MODEL_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unreadable mail model", e);
+        }
+        MimeMessage message = new MimeMessage(connection.getSession());
+        message.setFrom(new InternetAddress(from));
+        message.setRecipient(MimeMessage.RecipientType.TO, new InternetAddress(mail.recipient()));
+        message.setSubject(template.renderSubject(model), StandardCharsets.UTF_8.name());
+        message.setText(template.renderBody(model), StandardCharsets.UTF_8.name());
+        message.saveChanges();
+        return message;
+    }
+
+    private SmtpConnection openConnection() {
+        JavaMailSenderImpl sender = mailSender.getObject();
+        return new SmtpConnection(sender.getSession(), sender.getProtocol(), sender.getHost(), sender.getPort(),
+            sender.getUsername(), sender.getPassword());
+    }
+
+    private Object[] failure(QueuedMail mail, String status, int attempts, LocalDateTime now, Exception e) {
+        Duration delay = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 10));
+        return new Object[] {status, attempts, Timestamp.valueOf(now.plus(delay)), truncate(describe(e)), mail.id()};
+    }
+
+    private static String describe(Exception e) {
+        return e.getClass().getSimpleName() + ": " + e.getMessage();
+    }
+
+    private static String truncate(String error) {
+        return error.length() <= 500 ? error : error.substring(0, 500);
+    }
+
+    record QueuedMail(long id, String template, String recipient, String model, int attempts) {
+    }
+
+    record SendOutcome(List<Long> sent, Timestamp sentAt, List<Object[]> failed) {
+    }
+}
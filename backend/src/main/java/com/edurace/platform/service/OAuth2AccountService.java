@@ -0,0 +1,188 @@
+package com.edurace.platform.service;
+
+import com.edurace.platform.entity.AuthProvider;
+import com.edurace.platform.entity.Role;
+import com.edurace.platform.event.RemoteEvent;
+import com.edurace.platform.event.UserChangedEvent;
+import com.edurace.platform.event.UserRemovedEvent;
+import com.edurace.platform.userindex.IndexedUser;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Resolves a provider login (Google) to a local account with a single upsert.
+ *
+ * An upsert keyed on both the email and the (provider, provider_id) unique keys
+ * creates the account on first login, links an existing email or phone account whose
+ * address has already been verified, and otherwise leaves the row alone (an
+ * unverified account with the address refuses the login, since whoever registered it
+ * may not own the address and would keep its password); LAST_INSERT_ID(id)
+ * hands back the id either way, so concurrent first logins for the same person end
+ * up on the same row instead of failing on the email key. Resolved accounts are
+ * cached by provider id, and a cached account whose indexed user is still enabled
+ * logs in without touching the database.
+ */
+@Service
+public class OAuth2AccountService {
+
+    private static final String UPSERT_SQL =
+        "INSERT INTO users (email, first_name, last_name, profile_image_url, provider, provider_id, role, " +
+        "email_verified, phone_verified, account_locked, account_enabled, total_points, current_streak, " +
+        "longest_streak, created_at, updated_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, 1, 0, 0, 1, 0, 0, 0, ?, ?) " +
+        "ON DUPLICATE KEY UPDATE " +
+        "id = LAST_INSERT_ID(id), " +
+        // provider is assigned before provider_id, so both still see the old provider_id
+        "provider = IF(provider_id IS NULL AND email_verified = 1, VALUES(provider), provider), " +
+        "provider_id = IF(provider_id IS NULL AND email_verified = 1, VALUES(provider_id), provider_id), " +
+        "profile_image_url = IF(email_verified = 1, COALESCE(profile_image_url, VALUES(profile_image_url)), profile_image_url)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserIndexService userIndexService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.oauth2.account-cache-size:100000}")
+    private int accountCacheSize;
+
+    private Map<String, LinkedAccount> accounts;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        accounts = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, LinkedAccount> eldest) {
+                return size() > accountCacheSize;
+            }
+        });
+    }
+
+    /**
+     * Returns the local account for the provider identity, creating or linking it
+     * on first login. Throws if the account can't be used to sign in.
+     */
+    public LinkedAccount resolve(ProviderIdentity identity) {
+        String key = identity.provider() + ":" + identity.providerId();
+        LinkedAccount cached = accounts.get(key);
+        if (cached != null) {
+            IndexedUser indexed = userIndexService.find(cached.userId());
+            if (indexed != null) {
+                checkUsable(indexed.enabled(), indexed.locked());
+                return cached;
+            }
+        }
+
+        if (!identity.emailVerified() || identity.email() == null || identity.email().isBlank()) {
+            throw new BadCredentialsException("The provider account has no verified email address");
+        }
+        LinkedAccount account = transactionTemplate.execute(status -> upsert(identity));
+        accounts.put(key, account);
+        return account;
+    }
+
+    private LinkedAccount upsert(ProviderIdentity identity) {
+        String email = identity.email().trim().toLowerCase();
+        // The entity requires non-blank names, so fall back rather than store blanks
+        int at = email.indexOf('@');
+        String firstName = isBlank(identity.firstName()) ? (at > 0 ? email.substring(0, at) : email) : identity.firstName();
+        String lastName = isBlank(identity.lastName()) ? firstName : identity.lastName();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(UPSERT_SQL,
+            email, truncate(firstName), truncate(lastName), truncate(identity.pictureUrl()),
+            identity.provider().name(), identity.providerId(), Role.STUDENT.name(), now, now);
+
+        // Same transaction, so same connection and the id set by the upsert
+        return jdbcTemplate.queryForObject(
+            "SELECT id, email, role, account_enabled, email_verified, account_locked, total_points, " +
+            "current_streak, longest_streak, provider, provider_id FROM users WHERE id = LAST_INSERT_ID()",
+            (rs, rowNum) -> {
+                if (!identity.provider().name().equals(rs.getString("provider"))
+                        || !identity.providerId().equals(rs.getString("provider_id"))) {
+                    if (!rs.getBoolean("email_verified")) {
+                        throw new BadCredentialsException(
+                            "An account with this email address exists; sign in to it and verify the address first");
+                    }
+                    throw new BadCredentialsException("This email address is already linked to another sign-in account");
+                }
+                long userId = rs.getLong("id");
+                boolean enabled = rs.getBoolean("account_enabled") && rs.getBoolean("email_verified");
+                boolean locked = rs.getBoolean("account_locked");
+                // The upsert bypasses JPA, so publish the change the entity listener would have
+                eventPublisher.publishEvent(new UserChangedEvent(userId, Role.valueOf(rs.getString("role")),
+                    enabled, locked, rs.getInt("total_points"), rs.getInt("current_streak"), rs.getInt("longest_streak")));
+                checkUsable(enabled, locked);
+                return new LinkedAccount(userId, rs.getString("email"));
+            });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserRemoved(UserRemovedEvent event) {
+        synchronized (accounts) {
+            for (Iterator<LinkedAccount> it = accounts.values().iterator(); it.hasNext(); ) {
+                if (it.next().userId() == event.userId()) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    @EventListener
+    public void onRemoteEvent(RemoteEvent remote) {
+        if (remote.event() instanceof UserRemovedEvent event) {
+            onUserRemoved(event);
+        }
+    }
+
+    private static void checkUsable(boolean enabled, boolean locked) {
+        if (!enabled || locked) {
+            throw new DisabledException("Account is disabled or locked");
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static String truncate(String value) {
+        return value == null || value.length() <= 255 ? value : value.substring(0, 255);
+    }
+
+    public record ProviderIdentity(
+            AuthProvider provider,
+            String providerId,
+            String email,
+            boolean emailVerified,
+            String firstName,
+            String lastName,
+            String pictureUrl) {
+    }
+
+    public record LinkedAccount(long userId, String email) {
+    }
+}
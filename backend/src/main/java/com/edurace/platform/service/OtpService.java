@@ -0,0 +1,195 @@
+package com.edurace.platform.service;
+
+import com.edurace.platform.entity.User;
+import com.edurace.platform.otp.OtpCheck;
+import com.edurace.platform.otp.OtpCodeStore;
+import com.edurace.platform.otp.SmsSender;
+import com.edurace.platform.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * One-time codes for phone login and phone number verification.
+ *
+ * Codes live in an {@link OtpCodeStore} and are sent by the configured
+ * {@link SmsSender} on a small dispatch pool, so requesting a code never waits on
+ * the SMS provider. Sends are coalesced per number: while a message to a number is
+ * still queued, a newer one replaces it rather than queueing a second text.
+ *
+ * The store is local to one node, so requests for a number must all reach the
+ * node {@link ClusterService#ownerOfPhoneNumber} names; AuthController forwards
+ * them there. That also keeps the resend interval per number rather than per node.
+ * Codes outstanding when the membership changes are lost and have to be requested
+ * again.
+ */
+@Service
+public class OtpService {
+
+    private static final Logger log = LoggerFactory.getLogger(OtpService.class);
+
+    private static final Pattern E164 = Pattern.compile("\\+[1-9][0-9]{6,14}");
+
+    @Autowired
+    private SmsSender smsSender;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${app.otp.code-length:6}")
+    private int codeLength;
+
+    @Value("${app.otp.ttl:PT5M}")
+    private Duration ttl;
+
+    @Value("${app.otp.resend-interval:PT30S}")
+    private Duration resendInterval;
+
+    @Value("${app.otp.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.otp.capacity:100000}")
+    private int capacity;
+
+    @Value("${app.otp.send-threads:4}")
+    private int sendThreads;
+
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, String> pendingMessages = new ConcurrentHashMap<>();
+
+    private OtpCodeStore codes;
+    private volatile ExecutorService sendExecutor;
+
+    @PostConstruct
+    public void init() {
+        codes = new OtpCodeStore(capacity, ttl, resendInterval, maxAttempts, Clock.systemUTC());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sendExecutor != null) {
+            sendExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Issues and sends a code if the number belongs to an account. Unknown numbers
+     * get the same response so the endpoint can't be used to probe for accounts, and
+     * so does a request within app.otp.resend-interval of the last code: rejecting it
+     * would only ever happen for numbers that have one.
+     */
+    public void requestCode(String phoneNumber) {
+        String number = normalize(phoneNumber);
+        if (!userRepository.existsByPhoneNumber(number)) {
+            return;
+        }
+        String code = newCode();
+        if (!codes.issue(number, code)) {
+            // The code already sent stays valid
+            log.debug("Not resending a one-time code to {} within the resend interval", number);
+            return;
+        }
+        dispatch(number, "Your EduRace code is " + code + ". It expires in " + ttl.toMinutes() + " minutes.");
+    }
+
+    /**
+     * Checks the code and returns the account it unlocks, marking the number verified.
+     */
+    @Transactional
+    public User verifyCode(String phoneNumber, String code) {
+        String number = normalize(phoneNumber);
+        if (code == null || code.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Code is required");
+        }
+        OtpCheck check = codes.verify(number, code.trim());
+        switch (check) {
+            case VERIFIED -> { }
+            case INVALID -> throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid code");
+            case EXPIRED -> throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Code expired, request a new one");
+            case TOO_MANY_ATTEMPTS -> throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Too many attempts, request a new code");
+        }
+
+        User user = userRepository.findByPhoneNumber(number)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid code"));
+        if (!Boolean.TRUE.equals(user.getPhoneVerified())) {
+            user.setPhoneVerified(true);
+            userRepository.save(user);
+        }
+        return user;
+    }
+
+    @Scheduled(fixedDelayString = "${app.otp.purge-interval-ms:60000}")
+    public void purgeExpiredCodes() {
+        int purged = codes.purgeExpired();
+        if (purged > 0) {
+            log.debug("Purged {} expired one-time codes, {} outstanding", purged, codes.size());
+        }
+    }
+
+    private void dispatch(String phoneNumber, String message) {
+        // Only the first message queued for a number schedules a send; later ones replace it
+        if (pendingMessages.put(phoneNumber, message) == null) {
+            executor().execute(() -> {
+                String latest = pendingMessages.remove(phoneNumber);
+                if (latest == null) {
+                    return;
+                }
+                try {
+                    smsSender.send(phoneNumber, latest);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to send one-time code to {}", phoneNumber, e);
+                }
+            });
+        }
+    }
+
+    private String newCode() {
+        StringBuilder code = new StringBuilder(codeLength);
+        for (int i = 0; i < codeLength; i++) {
+            code.append(random.nextInt(10));
+        }
+        return code.toString();
+    }
+
+    public static String normalize(String phoneNumber) {
+        String number = phoneNumber == null ? "" : phoneNumber.replaceAll("[\\s()-]", "");
+        if (!E164.matcher(number).matches()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Phone number must be in international format, e.g. +14155550123");
+        }
+        return number;
+    }
+
+    private ExecutorService executor() {
+        if (sendExecutor == null) {
+            synchronized (this) {
+                if (sendExecutor == null) {
+                    AtomicInteger threads = new AtomicInteger();
+                    sendExecutor = Executors.newFixedThreadPool(sendThreads, runnable -> {
+                        Thread thread = new Thread(runnable, "otp-send-" + threads.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        return sendExecutor;
+    }
+}
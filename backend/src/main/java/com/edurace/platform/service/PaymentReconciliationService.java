@@ -0,0 +1,449 @@
+package com.edurace.platform.service;
+
+import com.edurace.platform.entity.PaymentStatus;
+import com.edurace.platform.event.PaymentStatusChangedEvent;
+import com.edurace.platform.export.ExportFormat;
+import com.edurace.platform.export.ExportWriter;
+import com.edurace.platform.reconciliation.ReconciliationIssue;
+import com.edurace.platform.reconciliation.SettlementReader;
+import com.edurace.platform.reconciliation.SettlementRecord;
+import com.edurace.platform.reconciliation.SettlementSorter;
+import com.edurace.platform.reconciliation.SettlementType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Reconciles payments against the gateway's settlement exports.
+ *
+ * Export files dropped in app.payments.reconciliation.inbox are streamed through a
+ * {@link SettlementSorter}, which spills to disk once they outgrow its buffer, and the
+ * sorted settlements are merged against payments read in provider_reference order from
+ * a forward-only result set. Neither side is ever held in memory as a whole.
+ *
+ * Every disagreement becomes a line of a CSV report. Statuses the settlement proves
+ * wrong are corrected in batches: each batch locks its payments, skips those whose
+ * status changed since they were read, and publishes a PaymentStatusChangedEvent per
+ * update, so enrollments, seats and prize pools follow as they do for live payments.
+ */
+@Service
+public class PaymentReconciliationService {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentReconciliationService.class);
+
+    private static final String PAYMENTS_BY_REFERENCE_SQL =
+        "SELECT id, user_id, course_id, provider_reference, amount, status, created_at FROM payments " +
+        "WHERE provider_reference IS NOT NULL ORDER BY provider_reference";
+
+    private static final DateTimeFormatter REPORT_NAME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.payments.reconciliation.inbox:./data/settlements}")
+    private String inbox;
+
+    @Value("${app.payments.reconciliation.reports:./data/reconciliation}")
+    private String reports;
+
+    @Value("${app.payments.reconciliation.sort-buffer-records:500000}")
+    private int sortBufferRecords;
+
+    @Value("${app.payments.reconciliation.correction-batch-size:200}")
+    private int correctionBatchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private record Settlement(String reference, long paid, long refunded, int payments) {
+    }
+
+    private record LocalPayment(long id, long userId, long courseId, String reference, long amount,
+                                PaymentStatus status, LocalDateTime createdAt) {
+    }
+
+    private record Correction(LocalPayment payment, Settlement settlement, PaymentStatus newStatus) {
+    }
+
+    public List<String> listSettlementFiles() throws IOException {
+        Path directory = Paths.get(inbox);
+        TreeSet<String> names = new TreeSet<>();
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, Files::isRegularFile)) {
+                files.forEach(file -> names.add(file.getFileName().toString()));
+            }
+        }
+        return new ArrayList<>(names);
+    }
+
+    public Path reportFile(String name) {
+        return resolve(Paths.get(reports), name);
+    }
+
+    /**
+     * Reconciles the named inbox files as one settlement period. Completed payments
+     * created between {@code from} and {@code to} that none of them settle are
+     * reported; without the dates that check is skipped. Unless {@code apply} is set
+     * nothing is changed and the report lists the corrections that would be made.
+     */
+    public Map<String, Object> reconcile(List<String> fileNames, LocalDate from, LocalDate to,
+                                         boolean minorUnits, boolean apply) throws IOException {
+        if (fileNames == null || fileNames.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No settlement files given");
+        }
+        List<Path> files = new ArrayList<>();
+        for (String name : fileNames) {
+            Path file = resolve(Paths.get(inbox), name);
+            if (!Files.isRegularFile(file)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No settlement file named " + name);
+            }
+            files.add(file);
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A reconciliation is already running");
+        }
+        try {
+            return new Run(from, to, apply).execute(files, minorUnits);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private static Path resolve(Path directory, String name) {
+        Path root = directory.toAbsolutePath().normalize();
+        Path file = root.resolve(name).normalize();
+        if (!file.getParent().equals(root)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid file name: " + name);
+        }
+        return file;
+    }
+
+    private class Run {
+        private final LocalDateTime periodStart;
+        private final LocalDateTime periodEnd;
+        private final boolean apply;
+        private final Map<ReconciliationIssue, Long> issues = new EnumMap<>(ReconciliationIssue.class);
+        private final List<Correction> corrections = new ArrayList<>();
+
+        private ExportWriter report;
+        private SettlementSorter.Cursor cursor;
+        private SettlementRecord lookahead;
+        private Settlement settlement;
+        private String previousReference;
+        private long settlementRows;
+        private long skippedRows;
+        private long settledReferences;
+        private long paymentsChecked;
+        private long matched;
+        private long correctionsApplied;
+        private long correctionsSkipped;
+
+        Run(LocalDate from, LocalDate to, boolean apply) {
+            this.periodStart = from != null ? from.atStartOfDay() : null;
+            this.periodEnd = to != null ? to.plusDays(1).atStartOfDay() : null;
+            this.apply = apply;
+        }
+
+        Map<String, Object> execute(List<Path> files, boolean minorUnits) throws IOException {
+            long started = System.currentTimeMillis();
+            Path reportDirectory = Paths.get(reports);
+            Files.createDirectories(reportDirectory);
+            String reportName = "reconciliation-" + LocalDateTime.now().format(REPORT_NAME) + ExportFormat.CSV.getExtension();
+
+            try (OutputStream out = Files.newOutputStream(reportDirectory.resolve(reportName));
+                 SettlementSorter sorter = new SettlementSorter(reportDirectory.resolve("work"), sortBufferRecords)) {
+                ExportWriter writer = new ExportWriter(ExportFormat.CSV, out);
+                report = writer;
+                try (writer) {
+                    for (Path file : files) {
+                        read(file, minorUnits, sorter);
+                    }
+                    try (SettlementSorter.Cursor sorted = sorter.sorted()) {
+                        cursor = sorted;
+                        lookahead = cursor.next();
+                        settlement = nextSettlement();
+                        merge();
+                        while (settlement != null) {
+                            issue(ReconciliationIssue.NOT_IN_PAYMENTS, null, settlement, null, null);
+                            settlement = nextSettlement();
+                        }
+                    }
+                    flushCorrections();
+                }
+
+                Map<String, Object> summary = new LinkedHashMap<>();
+                summary.put("report", reportName);
+                summary.put("dry_run", !apply);
+                summary.put("settlement_rows", settlementRows);
+                summary.put("skipped_rows", skippedRows);
+                summary.put("settled_payments", settledReferences);
+                summary.put("spilled_runs", sorter.getRuns());
+                summary.put("payments_checked", paymentsChecked);
+                summary.put("matched", matched);
+                summary.put("corrections_applied", correctionsApplied);
+                summary.put("corrections_skipped", correctionsSkipped);
+                Map<String, Long> counts = new LinkedHashMap<>();
+                issues.forEach((issue, count) -> counts.put(issue.name(), count));
+                summary.put("issues", counts);
+                summary.put("duration_ms", System.currentTimeMillis() - started);
+                log.info("Reconciled {} settlement rows against {} payments: {} issues, {} corrections applied, report {}",
+                    settlementRows, paymentsChecked, counts, correctionsApplied, reportName);
+                return summary;
+            }
+        }
+
+        private void read(Path file, boolean minorUnits, SettlementSorter sorter) throws IOException {
+            String name = file.getFileName().toString();
+            try (SettlementReader reader = SettlementReader.open(file, minorUnits)) {
+                reader.setRejectedRowHandler((row, reason) -> {
+                    try {
+                        issue(ReconciliationIssue.REJECTED_ROW, null, null, null, name + " row " + row + ": " + reason);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                SettlementRecord record;
+                while ((record = reader.next()) != null) {
+                    sorter.add(record);
+                }
+                settlementRows += reader.getRows();
+                skippedRows += reader.getSkipped();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+
+        /**
+         * Combines the consecutive sorted records of one reference.
+         */
+        private Settlement nextSettlement() throws IOException {
+            if (lookahead == null) {
+                return null;
+            }
+            String reference = lookahead.reference();
+            long paid = 0;
+            long refunded = 0;
+            int payments = 0;
+            while (lookahead != null && lookahead.reference().equals(reference)) {
+                if (lookahead.type() == SettlementType.PAYMENT) {
+                    paid += lookahead.amount();
+                    payments++;
+                } else {
+                    refunded += lookahead.amount();
+                }
+                lookahead = cursor.next();
+            }
+            settledReferences++;
+            return new Settlement(reference, paid, refunded, payments);
+        }
+
+        private void merge() throws IOException {
+            PreparedStatement[] statement = new PreparedStatement[1];
+            try {
+                jdbcTemplate.query(connection -> {
+                    statement[0] = connection.prepareStatement(PAYMENTS_BY_REFERENCE_SQL,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement[0].setFetchSize(Integer.MIN_VALUE); // MySQL row-by-row streaming
+                    return statement[0];
+                }, rs -> {
+                    try {
+                        onPayment(readPayment(rs));
+                    } catch (IOException | RuntimeException e) {
+                        // Closing a streaming result set reads it to the end, so kill the query first
+                        try {
+                            statement[0].cancel();
+                        } catch (SQLException cancelFailed) {
+                            e.addSuppressed(cancelFailed);
+                        }
+                        throw e instanceof IOException io ? new UncheckedIOException(io) : (RuntimeException) e;
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void onPayment(LocalPayment payment) throws IOException {
+            paymentsChecked++;
+            String reference = payment.reference();
+            // The merge is only correct if MySQL orders references as String.compareTo does
+            if (previousReference != null && previousReference.compareTo(reference) >= 0) {
+                throw new IllegalStateException("Payments are not in provider reference order at " + reference);
+            }
+            previousReference = reference;
+
+            while (settlement != null && settlement.reference().compareTo(reference) < 0) {
+                issue(ReconciliationIssue.NOT_IN_PAYMENTS, null, settlement, null, null);
+                settlement = nextSettlement();
+            }
+            if (settlement != null && settlement.reference().equals(reference)) {
+                compare(payment, settlement);
+                settlement = nextSettlement();
+            } else if (payment.status() == PaymentStatus.COMPLETED && inPeriod(payment.createdAt())) {
+                issue(ReconciliationIssue.NOT_SETTLED, payment, null, null, null);
+            }
+        }
+
+        private void compare(LocalPayment payment, Settlement settled) throws IOException {
+            boolean clean = true;
+            if (settled.payments() > 1) {
+                issue(ReconciliationIssue.DUPLICATE_SETTLEMENT, payment, settled, null, settled.payments() + " payment rows");
+                clean = false;
+            }
+            if (settled.payments() > 0 && settled.paid() != payment.amount()) {
+                // Which side is wrong is for a person to decide
+                issue(ReconciliationIssue.AMOUNT_MISMATCH, payment, settled, null, null);
+                return;
+            }
+            boolean fullyRefunded = settled.refunded() > 0 && settled.refunded() >= payment.amount();
+            if (settled.refunded() > 0 && !fullyRefunded) {
+                issue(ReconciliationIssue.PARTIAL_REFUND, payment, settled, null, null);
+                clean = false;
+            }
+            PaymentStatus expected = fullyRefunded ? PaymentStatus.REFUNDED
+                : settled.payments() > 0 ? PaymentStatus.COMPLETED : null;
+
+            if (expected != null && expected != payment.status()) {
+                clean = false;
+                if (payment.status() == PaymentStatus.REFUNDED) {
+                    // Settled as paid but refunded here: the refund may settle in a later report
+                    issue(ReconciliationIssue.STATUS_CONFLICT, payment, settled, null, "settled as " + expected);
+                } else if (!apply) {
+                    issue(ReconciliationIssue.STATUS_CORRECTED, payment, settled,
+                        "would set " + expected, null);
+                } else {
+                    corrections.add(new Correction(payment, settled, expected));
+                    if (corrections.size() >= correctionBatchSize) {
+                        flushCorrections();
+                    }
+                }
+            }
+            if (clean) {
+                matched++;
+            }
+        }
+
+        private void flushCorrections() throws IOException {
+            if (corrections.isEmpty()) {
+                return;
+            }
+            List<Correction> batch = List.copyOf(corrections);
+            corrections.clear();
+            Map<Long, String> current = new HashMap<>();
+
+            Set<Long> applied = transactionTemplate.execute(status -> {
+                List<Long> ids = batch.stream().map(correction -> correction.payment().id()).toList();
+                namedParameterJdbcTemplate.query("SELECT id, status FROM payments WHERE id IN (:ids) FOR UPDATE",
+                    new MapSqlParameterSource("ids", ids), rs -> {
+                        current.put(rs.getLong("id"), rs.getString("status"));
+                    });
+                // Skip payments that moved on since they were read, e.g. a live webhook
+                List<Correction> unchanged = batch.stream()
+                    .filter(correction -> correction.payment().status().name().equals(current.get(correction.payment().id())))
+                    .toList();
+                jdbcTemplate.batchUpdate("UPDATE payments SET status = ? WHERE id = ?", unchanged, unchanged.size(),
+                    (ps, correction) -> {
+                        ps.setString(1, correction.newStatus().name());
+                        ps.setLong(2, correction.payment().id());
+                    });
+                for (Correction correction : unchanged) {
+                    LocalPayment payment = correction.payment();
+                    eventPublisher.publishEvent(new PaymentStatusChangedEvent(
+                        payment.id(), payment.userId(), payment.courseId(), payment.status(), correction.newStatus()));
+                }
+                return unchanged.stream().map(correction -> correction.payment().id()).collect(Collectors.toSet());
+            });
+
+            for (Correction correction : batch) {
+                if (applied.contains(correction.payment().id())) {
+                    correctionsApplied++;
+                    issue(ReconciliationIssue.STATUS_CORRECTED, correction.payment(), correction.settlement(),
+                        "set " + correction.newStatus(), null);
+                } else {
+                    correctionsSkipped++;
+                    String now = current.get(correction.payment().id());
+                    issue(ReconciliationIssue.STATUS_CONFLICT, correction.payment(), correction.settlement(), null,
+                        "settled as " + correction.newStatus() + ", changed to " + now + " during reconciliation");
+                }
+            }
+        }
+
+        private boolean inPeriod(LocalDateTime createdAt) {
+            return periodStart != null && periodEnd != null
+                && !createdAt.isBefore(periodStart) && createdAt.isBefore(periodEnd);
+        }
+
+        private void issue(ReconciliationIssue issue, LocalPayment payment, Settlement settled,
+                           String action, String detail) throws IOException {
+            issues.merge(issue, 1L, Long::sum);
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("issue", issue.name());
+            row.put("provider_reference", payment != null ? payment.reference() : settled != null ? settled.reference() : null);
+            row.put("payment_id", payment != null ? payment.id() : null);
+            row.put("status", payment != null ? payment.status().name() : null);
+            row.put("amount", payment != null ? rupees(payment.amount()) : null);
+            row.put("settled_amount", settled != null ? rupees(settled.paid()) : null);
+            row.put("refunded_amount", settled != null ? rupees(settled.refunded()) : null);
+            row.put("action", action);
+            row.put("detail", detail);
+            report.writeRow(row);
+        }
+
+        private LocalPayment readPayment(ResultSet rs) throws SQLException {
+            return new LocalPayment(
+                rs.getLong("id"),
+                rs.getLong("user_id"),
+                rs.getLong("course_id"),
+                rs.getString("provider_reference"),
+                rs.getBigDecimal("amount").movePointRight(2).longValueExact(),
+                PaymentStatus.valueOf(rs.getString("status")),
+                rs.getObject("created_at", LocalDateTime.class));
+        }
+    }
+
+    private static BigDecimal rupees(long paise) {
+        return BigDecimal.valueOf(paise, 2);
+    }
+}
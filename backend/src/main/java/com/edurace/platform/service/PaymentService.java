@@ -0,0 +1,72 @@
+package com.edurace.platform.service;
+
+import com.edurace.platform.entity.Payment;
+import com.edurace.platform.entity.PaymentStatus;
+import com.edurace.platform.event.PaymentStatusChangedEvent;
+import com.edurace.platform.repository.CourseRepository;
+import com.edurace.platform.repository.PaymentRepository;
+import com.edurace.platform.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Service
+public class PaymentService {
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public Payment createPending(Long userId, Long courseId, BigDecimal amount) {
+        Payment payment = new Payment();
+        payment.setUser(userRepository.getReferenceById(userId));
+        payment.setCourse(courseRepository.getReferenceById(courseId));
+        payment.setAmount(amount);
+        payment.setStatus(PaymentStatus.PENDING);
+        payment.setCreatedAt(LocalDateTime.now());
+        return paymentRepository.save(payment);
+    }
+
+    @Transactional
+    public Payment updateStatus(Long paymentId, PaymentStatus newStatus) {
+        Payment payment = paymentRepository.findById(paymentId)
+                .orElseThrow(() -> new IllegalArgumentException("Payment not found with id: " + paymentId));
+
+        PaymentStatus previousStatus = payment.getStatus();
+        if (previousStatus == newStatus) {
+            return payment;
+        }
+        payment.setStatus(newStatus);
+
+        eventPublisher.publishEvent(new PaymentStatusChangedEvent(
+            payment.getId(), payment.getUser().getId(), payment.getCourse().getId(), previousStatus, newStatus));
+        return payment;
+    }
+
+    /**
+     * Fails a payment that is still pending. One that completed or was refunded in the
+     * meantime, by the gateway or by reconciliation, is left as it is.
+     */
+    @Transactional
+    public Payment failIfPending(Long paymentId) {
+        Payment payment = paymentRepository.findById(paymentId)
+                .orElseThrow(() -> new IllegalArgumentException("Payment not found with id: " + paymentId));
+        if (payment.getStatus() != PaymentStatus.PENDING) {
+            return payment;
+        }
+        return updateStatus(paymentId, PaymentStatus.FAILED);
+    }
+}
@@ -0,0 +1,51 @@
+package com.edurace.platform.service;
+
+import com.edurace.platform.entity.PaymentStatus;
+import com.edurace.platform.event.CourseChangedEvent;
+import com.edurace.platform.event.OutboxEventHandler;
+import com.edurace.platform.event.OutboxedEvent;
+import com.edurace.platform.event.PaymentStatusChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps each course's prize pool equal to the entry fees of its completed payments.
+ *
+ * Runs off the outbox relay: a batch of payment changes recomputes the pool once per
+ * affected course from the payments table, which makes redelivered events harmless.
+ */
+@Service
+public class PrizePoolService implements OutboxEventHandler {
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void onBatch(List<OutboxedEvent> events) {
+        Set<Long> courseIds = new LinkedHashSet<>();
+        for (OutboxedEvent event : events) {
+            if (event instanceof PaymentStatusChangedEvent payment
+                    && (payment.newStatus() == PaymentStatus.COMPLETED || payment.previousStatus() == PaymentStatus.COMPLETED)) {
+                courseIds.add(payment.courseId());
+            }
+        }
+        if (courseIds.isEmpty()) {
+            return;
+        }
+        namedParameterJdbcTemplate.update(
+            "UPDATE courses c SET total_prize_pool = (SELECT COALESCE(SUM(p.amount), 0) FROM payments p " +
+            "WHERE p.course_id = c.id AND p.status = 'COMPLETED') WHERE c.id IN (:ids)",
+            new MapSqlParameterSource("ids", courseIds));
+        courseIds.forEach(courseId -> eventPublisher.publishEvent(new CourseChangedEvent(courseId)));
+    }
+}
@@ -0,0 +1,345 @@
+package com.edurace.platform.service;
+
+import com.edurace.platform.entity.User;
+import com.edurace.platform.event.QuizAttemptCompletedEvent;
+import com.edurace.platform.proctoring.AttemptSuspicion;
+import com.edurace.platform.proctoring.ProctoringEvent;
+import com.edurace.platform.proctoring.ProctoringEventType;
+import com.edurace.platform.proctoring.ProctoringLog;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ingests proctoring signals for quiz attempts without a database write per event.
+ *
+ * Batches from the client are appended to the memory-mapped {@link ProctoringLog}
+ * and folded into a per-attempt {@link AttemptSuspicion} as they arrive. Attempts
+ * whose score crosses app.proctoring.flag-threshold are upserted into
+ * proctoring_flags on the next flush. After grading, compaction drops the raw events
+ * of attempts that were not flagged; flagged attempts keep theirs as evidence until
+ * the retention period ends. On startup the log is replayed to rebuild the scores.
+ */
+@Service
+public class ProctoringService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProctoringService.class);
+
+    private static final String UPSERT_FLAG_SQL =
+        "INSERT INTO proctoring_flags (attempt_id, quiz_id, student_id, suspicion_score, event_count, away_seconds, " +
+        "reasons, flagged_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+        "ON DUPLICATE KEY UPDATE " +
+        // reasons is assigned first, so it still compares against the stored score
+        "reasons = IF(VALUES(suspicion_score) >= suspicion_score, VALUES(reasons), reasons), " +
+        "suspicion_score = GREATEST(suspicion_score, VALUES(suspicion_score)), " +
+        "event_count = GREATEST(event_count, VALUES(event_count)), " +
+        "away_seconds = GREATEST(away_seconds, VALUES(away_seconds)), " +
+        "updated_at = VALUES(updated_at)";
+
+    public record EventRequest(String type, Long occurredAt, Integer detail) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Value("${app.proctoring.directory:./data/proctoring}")
+    private Path directory;
+
+    @Value("${app.proctoring.segment-bytes:67108864}")
+    private int segmentBytes;
+
+    @Value("${app.proctoring.max-batch-events:500}")
+    private int maxBatchEvents;
+
+    @Value("${app.proctoring.flag-threshold:30}")
+    private double flagThreshold;
+
+    @Value("${app.proctoring.attempt-idle-timeout:PT6H}")
+    private Duration attemptIdleTimeout;
+
+    @Value("${app.proctoring.retention:P30D}")
+    private Duration retention;
+
+    private final Map<Long, AttemptSuspicion> attempts = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    private volatile ProctoringLog eventLog;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        long started = System.currentTimeMillis();
+        ProctoringLog opened = new ProctoringLog(directory, segmentBytes);
+
+        // Two passes, so attempt owners are loaded in batches rather than one by one
+        Set<Long> attemptIds = new HashSet<>();
+        opened.replay(event -> attemptIds.add(event.attemptId()));
+        Set<Long> submitted = loadAttempts(attemptIds);
+        long[] replayed = {0};
+        opened.replay(event -> {
+            AttemptSuspicion attempt = attempts.get(event.attemptId());
+            if (attempt != null && attempt.record(event, flagThreshold)) {
+                dirty.add(event.attemptId());
+            }
+            replayed[0]++;
+        });
+        // Submitted attempts only needed replaying in case their flag was never stored
+        List<AttemptSuspicion> graded = new ArrayList<>();
+        for (Long attemptId : submitted) {
+            AttemptSuspicion attempt = attempts.remove(attemptId);
+            if (attempt != null && dirty.remove(attemptId)) {
+                graded.add(attempt);
+            }
+        }
+        storeFlags(graded);
+
+        eventLog = opened;
+        log.info("Replayed {} proctoring events from {} segments in {} ms, {} attempts in progress",
+            replayed[0], opened.getSegmentCount(), System.currentTimeMillis() - started, attempts.size());
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        ProctoringLog current = eventLog;
+        if (current != null) {
+            flush();
+            current.close();
+        }
+    }
+
+    /**
+     * Logs a batch of events for the student's own, still running attempt. Returns
+     * the number of events accepted.
+     */
+    public int ingest(Long quizId, Long attemptId, User student, List<EventRequest> requests) {
+        ProctoringLog current = eventLog;
+        if (current == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Proctoring is starting up");
+        }
+        if (requests == null || requests.isEmpty()) {
+            return 0;
+        }
+        if (requests.size() > maxBatchEvents) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "At most " + maxBatchEvents + " events per batch");
+        }
+        AttemptSuspicion attempt = attemptFor(attemptId);
+        if (attempt.getQuizId() != quizId) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Quiz attempt not found with id: " + attemptId);
+        }
+        if (attempt.getStudentId() != student.getId()) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not your quiz attempt");
+        }
+
+        long now = System.currentTimeMillis();
+        List<ProctoringEvent> events = new ArrayList<>(requests.size());
+        for (EventRequest request : requests) {
+            ProctoringEventType type;
+            try {
+                type = ProctoringEventType.valueOf(String.valueOf(request.type()));
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown proctoring event type: " + request.type());
+            }
+            events.add(new ProctoringEvent(attemptId, type,
+                request.occurredAt() == null ? now : request.occurredAt(), now,
+                request.detail() == null ? 0 : request.detail()));
+        }
+        try {
+            current.append(events);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Could not log proctoring events", e);
+        }
+        for (ProctoringEvent event : events) {
+            if (attempt.record(event, flagThreshold)) {
+                dirty.add(attemptId);
+            }
+        }
+        return events.size();
+    }
+
+    public List<Map<String, Object>> flaggedAttempts(Long courseId, int limit) {
+        return jdbcTemplate.query(
+            "SELECT f.attempt_id, f.quiz_id, q.title AS quiz_title, f.student_id, u.first_name, u.last_name, " +
+            "f.suspicion_score, f.event_count, f.away_seconds, f.reasons, f.flagged_at, f.updated_at " +
+            "FROM proctoring_flags f JOIN quizzes q ON q.id = f.quiz_id JOIN lessons l ON l.id = q.lesson_id " +
+            "JOIN users u ON u.id = f.student_id WHERE l.course_id = ? ORDER BY f.suspicion_score DESC LIMIT ?",
+            (rs, rowNum) -> {
+                Map<String, Object> flag = new HashMap<>();
+                flag.put("attempt_id", rs.getLong("attempt_id"));
+                flag.put("quiz_id", rs.getLong("quiz_id"));
+                flag.put("quiz_title", rs.getString("quiz_title"));
+                flag.put("student_id", rs.getLong("student_id"));
+                flag.put("student_name", rs.getString("first_name") + " " + rs.getString("last_name"));
+                flag.put("suspicion_score", rs.getDouble("suspicion_score"));
+                flag.put("event_count", rs.getInt("event_count"));
+                flag.put("away_seconds", rs.getInt("away_seconds"));
+                flag.put("reasons", rs.getString("reasons"));
+                flag.put("flagged_at", rs.getObject("flagged_at", LocalDateTime.class));
+                flag.put("updated_at", rs.getObject("updated_at", LocalDateTime.class));
+                return flag;
+            }, courseId, limit);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onQuizAttemptCompleted(QuizAttemptCompletedEvent event) {
+        AttemptSuspicion attempt = attempts.remove(event.attemptId());
+        if (attempt != null && dirty.remove(event.attemptId())) {
+            storeFlags(List.of(attempt));
+        }
+    }
+
+    /**
+     * Syncs the log to disk, stores changed flags and forgets idle attempts.
+     */
+    @Scheduled(fixedDelayString = "${app.proctoring.flush-interval-ms:1000}")
+    public void flush() {
+        ProctoringLog current = eventLog;
+        if (current == null) {
+            return;
+        }
+        current.flush();
+
+        List<AttemptSuspicion> changed = new ArrayList<>();
+        for (Long attemptId : List.copyOf(dirty)) {
+            dirty.remove(attemptId);
+            AttemptSuspicion attempt = attempts.get(attemptId);
+            if (attempt != null) {
+                changed.add(attempt);
+            }
+        }
+        storeFlags(changed);
+
+        long idleBefore = System.currentTimeMillis() - attemptIdleTimeout.toMillis();
+        attempts.values().removeIf(attempt -> attempt.getLastReceivedAt() < idleBefore && !dirty.contains(attempt.getAttemptId()));
+    }
+
+    /**
+     * Drops raw events that are no longer needed: whole segments past the retention
+     * period, and events of attempts that have been submitted without being flagged.
+     */
+    @Scheduled(fixedDelayString = "${app.proctoring.compaction-interval-ms:600000}")
+    public void compact() {
+        ProctoringLog current = eventLog;
+        if (current == null) {
+            return;
+        }
+        Instant expired = Instant.now().minus(retention);
+        long dropped = 0;
+        int deleted = 0;
+        for (Path segment : current.sealedSegments()) {
+            try {
+                if (Files.getLastModifiedTime(segment).toInstant().isBefore(expired)) {
+                    current.delete(segment);
+                    deleted++;
+                    continue;
+                }
+                Set<Long> attemptIds = new HashSet<>();
+                ProctoringLog.read(segment, event -> attemptIds.add(event.attemptId()));
+                Set<Long> keep = attemptsToKeep(attemptIds);
+                dropped += current.compact(segment, keep::contains);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to compact proctoring segment {}", segment, e);
+            }
+        }
+        if (dropped > 0 || deleted > 0) {
+            log.info("Compacted proctoring log: dropped {} events, deleted {} expired segments", dropped, deleted);
+        }
+    }
+
+    private AttemptSuspicion attemptFor(Long attemptId) {
+        AttemptSuspicion attempt = attempts.get(attemptId);
+        if (attempt != null) {
+            return attempt;
+        }
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+            "SELECT quiz_id, student_id, completed_at FROM quiz_attempts WHERE id = ?", attemptId);
+        if (rows.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Quiz attempt not found with id: " + attemptId);
+        }
+        if (rows.get(0).get("completed_at") != null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Quiz attempt has already been submitted");
+        }
+        long quizId = ((Number) rows.get(0).get("quiz_id")).longValue();
+        long studentId = ((Number) rows.get(0).get("student_id")).longValue();
+        return attempts.computeIfAbsent(attemptId, id -> new AttemptSuspicion(id, quizId, studentId));
+    }
+
+    /**
+     * Starts tracking the given attempts and returns the ids of those already submitted.
+     */
+    private Set<Long> loadAttempts(Set<Long> attemptIds) {
+        Set<Long> submitted = new HashSet<>();
+        List<Long> ids = new ArrayList<>(attemptIds);
+        for (int from = 0; from < ids.size(); from += 1000) {
+            namedParameterJdbcTemplate.query(
+                "SELECT id, quiz_id, student_id, completed_at FROM quiz_attempts WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", ids.subList(from, Math.min(ids.size(), from + 1000))),
+                rs -> {
+                    long id = rs.getLong("id");
+                    attempts.putIfAbsent(id, new AttemptSuspicion(id, rs.getLong("quiz_id"), rs.getLong("student_id")));
+                    if (rs.getObject("completed_at") != null) {
+                        submitted.add(id);
+                    }
+                });
+        }
+        return submitted;
+    }
+
+    /**
+     * Of the given attempts, those still running or flagged.
+     */
+    private Set<Long> attemptsToKeep(Set<Long> attemptIds) {
+        Set<Long> keep = new HashSet<>();
+        List<Long> ids = new ArrayList<>(attemptIds);
+        for (int from = 0; from < ids.size(); from += 1000) {
+            MapSqlParameterSource params = new MapSqlParameterSource("ids", ids.subList(from, Math.min(ids.size(), from + 1000)));
+            keep.addAll(namedParameterJdbcTemplate.queryForList(
+                "SELECT id FROM quiz_attempts WHERE id IN (:ids) AND completed_at IS NULL", params, Long.class));
+            keep.addAll(namedParameterJdbcTemplate.queryForList(
+                "SELECT attempt_id FROM proctoring_flags WHERE attempt_id IN (:ids)", params, Long.class));
+        }
+        return keep;
+    }
+
+    private void storeFlags(List<AttemptSuspicion> changed) {
+        if (changed.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(changed.size());
+        for (AttemptSuspicion attempt : changed) {
+            attempt.markClean();
+            rows.add(new Object[] {attempt.getAttemptId(), attempt.getQuizId(), attempt.getStudentId(), attempt.score(),
+                attempt.getEventCount(), attempt.getAwaySeconds(), attempt.reasons(), now, now});
+        }
+        jdbcTemplate.batchUpdate(UPSERT_FLAG_SQL, rows);
+    }
+}
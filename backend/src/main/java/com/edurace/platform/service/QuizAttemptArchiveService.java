@@ -0,0 +1,177 @@
+package com.edurace.platform.service;
+
+import com.edurace.platform.archive.ArchivedQuizAttempt;
+import com.edurace.platform.archive.QuizAttemptArchiveReader;
+import com.edurace.platform.archive.QuizAttemptArchiveWriter;
+import com.edurace.platform.entity.QuizAttemptArchive;
+import com.edurace.platform.repository.QuizAttemptArchiveRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves monthly quiz_attempts partitions older than the retention window into
+ * compressed archive files, rolling them up into quiz_attempt_summaries first.
+ *
+ * Per partition: stream rows into an archive file, then in one transaction fold the
+ * partition into the summaries and record it in quiz_attempt_archives, then drop the
+ * partition. A partition already recorded is only dropped, never rolled up again, so
+ * a drop skipped while the table is busy (see {@link QuizAttemptPartitionService})
+ * is simply retried on the next run.
+ */
+@Service
+public class QuizAttemptArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizAttemptArchiveService.class);
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'uuuuMM");
+
+    private static final String ROLLUP_SQL =
+        "INSERT INTO quiz_attempt_summaries (student_id, quiz_id, attempts_count, passed_count, best_score, " +
+        "timed_attempts_count, total_time_minutes, last_completed_at, updated_at) " +
+        "SELECT student_id, quiz_id, COUNT(*), SUM(passed), MAX(score), COUNT(time_taken_minutes), " +
+        "COALESCE(SUM(time_taken_minutes), 0), MAX(completed_at), NOW(6) " +
+        "FROM quiz_attempts PARTITION (%s) GROUP BY student_id, quiz_id " +
+        "ON DUPLICATE KEY UPDATE " +
+        "attempts_count = attempts_count + VALUES(attempts_count), " +
+        "passed_count = passed_count + VALUES(passed_count), " +
+        "best_score = GREATEST(best_score, VALUES(best_score)), " +
+        "timed_attempts_count = timed_attempts_count + VALUES(timed_attempts_count), " +
+        "total_time_minutes = total_time_minutes + VALUES(total_time_minutes), " +
+        "last_completed_at = GREATEST(COALESCE(last_completed_at, VALUES(last_completed_at)), COALESCE(VALUES(last_completed_at), last_completed_at)), " +
+        "updated_at = VALUES(updated_at)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JobLeaseService jobLeaseService;
+
+    @Autowired
+    private QuizAttemptPartitionService partitionService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private QuizAttemptArchiveRepository archiveRepository;
+
+    @Value("${app.archive.quiz-attempts.retention-months:6}")
+    private int retentionMonths;
+
+    @Value("${app.archive.quiz-attempts.directory:./data/archive/quiz-attempts}")
+    private String directory;
+
+    @Scheduled(cron = "${app.archive.quiz-attempts.cron:0 30 3 * * *}")
+    public void archiveExpiredPartitions() {
+        jobLeaseService.runExclusively("quiz-attempt-archive", Duration.ofHours(6), Duration.ofHours(1),
+            this::archivePartitions);
+    }
+
+    private void archivePartitions() {
+        YearMonth cutoff = YearMonth.now(ZoneOffset.UTC).minusMonths(retentionMonths);
+        List<String> partitions = jdbcTemplate.queryForList(
+            "SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'quiz_attempts' AND PARTITION_NAME REGEXP '^p[0-9]{6}$' " +
+            "ORDER BY PARTITION_NAME",
+            String.class);
+
+        for (String partition : partitions) {
+            if (!YearMonth.parse(partition, PARTITION_NAME).isBefore(cutoff)) {
+                break;
+            }
+            try {
+                if (!archivePartition(partition)) {
+                    return;
+                }
+            } catch (IOException | RuntimeException e) {
+                log.error("Failed to archive quiz_attempts partition {}", partition, e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads archived attempts for a student and/or quiz; a null filter matches everything.
+     */
+    public List<ArchivedQuizAttempt> findArchivedAttempts(Long studentId, Long quizId) throws IOException {
+        List<ArchivedQuizAttempt> attempts = new ArrayList<>();
+        for (QuizAttemptArchive archive : archiveRepository.findAll()) {
+            try (QuizAttemptArchiveReader reader = new QuizAttemptArchiveReader(Paths.get(archive.getFilePath()))) {
+                reader.scan(studentId, quizId, attempts::add);
+            }
+        }
+        return attempts;
+    }
+
+    private boolean archivePartition(String partition) throws IOException {
+        if (!archiveRepository.existsById(partition)) {
+            Path file = Paths.get(directory).resolve("quiz_attempts-" + partition.substring(1) + ".qaa");
+            long rows = writeArchiveFile(partition, file);
+
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update(String.format(ROLLUP_SQL, partition));
+
+                QuizAttemptArchive archive = new QuizAttemptArchive();
+                archive.setPartitionName(partition);
+                archive.setFilePath(file.toAbsolutePath().toString());
+                archive.setRowCount(rows);
+                archive.setArchivedAt(LocalDateTime.now());
+                archiveRepository.save(archive);
+            });
+            log.info("Archived {} quiz attempts from partition {} to {}", rows, partition, file);
+        }
+
+        return partitionService.executeDdl("ALTER TABLE quiz_attempts DROP PARTITION " + partition);
+    }
+
+    private long writeArchiveFile(String partition, Path file) throws IOException {
+        try (QuizAttemptArchiveWriter writer = new QuizAttemptArchiveWriter(file)) {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                    "SELECT id, quiz_id, student_id, score, time_taken_minutes, passed, started_at, completed_at " +
+                    "FROM quiz_attempts PARTITION (" + partition + ") ORDER BY id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(Integer.MIN_VALUE); // MySQL row-by-row streaming
+                return statement;
+            }, rs -> {
+                try {
+                    writer.append(new ArchivedQuizAttempt(
+                        rs.getLong("id"),
+                        rs.getLong("quiz_id"),
+                        rs.getLong("student_id"),
+                        rs.getInt("score"),
+                        rs.getObject("time_taken_minutes", Integer.class),
+                        rs.getBoolean("passed"),
+                        rs.getObject("started_at", LocalDateTime.class),
+                        rs.getObject("completed_at", LocalDateTime.class)));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.finish();
+            return writer.getRowCount();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.edurace.platform.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Keeps monthly partitions of quiz_attempts ahead of the clock by splitting
+ * new months off the (empty) p_future partition. See V3__partition_quiz_attempts.sql.
+ *
+ * Partition DDL waits for an exclusive metadata lock, and while it waits every other
+ * query on quiz_attempts queues behind it. So {@link #executeDdl} skips it while an
+ * admin export of the table is running, and otherwise gives up after
+ * app.database.quiz-attempt-partitions.ddl-lock-wait; skipped work is done on the
+ * next run.
+ */
+@Service
+public class QuizAttemptPartitionService {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizAttemptPartitionService.class);
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'uuuuMM");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JobLeaseService jobLeaseService;
+
+    @Value("${app.database.quiz-attempt-partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${app.database.quiz-attempt-partitions.ddl-lock-wait:PT5S}")
+    private Duration ddlLockWait;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        ensureFuturePartitions();
+    }
+
+    @Scheduled(cron = "${app.database.quiz-attempt-partitions.cron:0 0 3 * * *}")
+    public void ensureFuturePartitions() {
+        // Every instance calls this on startup too; one of them adding the partitions is enough
+        jobLeaseService.runExclusively("quiz-attempt-partitions", Duration.ofHours(1), Duration.ofMinutes(10),
+            this::addMissingPartitions);
+    }
+
+    private void addMissingPartitions() {
+        List<String> partitions = jdbcTemplate.queryForList(
+            "SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'quiz_attempts' AND PARTITION_NAME IS NOT NULL",
+            String.class);
+
+        if (!partitions.contains("p_future")) {
+            log.warn("quiz_attempts is not partitioned; skipping partition maintenance");
+            return;
+        }
+
+        YearMonth last = partitions.stream()
+            .filter(name -> name.matches("p\\d{6}"))
+            .map(name -> YearMonth.parse(name, PARTITION_NAME))
+            .max(YearMonth::compareTo)
+            .orElse(YearMonth.now(ZoneOffset.UTC).minusMonths(1));
+        YearMonth target = YearMonth.now(ZoneOffset.UTC).plusMonths(monthsAhead);
+
+        if (!last.isBefore(target)) {
+            return;
+        }
+
+        StringBuilder ddl = new StringBuilder("ALTER TABLE quiz_attempts REORGANIZE PARTITION p_future INTO (");
+        for (YearMonth month = last.plusMonths(1); !month.isAfter(target); month = month.plusMonths(1)) {
+            ddl.append("PARTITION ").append(month.format(PARTITION_NAME))
+               .append(" VALUES LESS THAN ('").append(month.plusMonths(1).atDay(1)).append("'), ");
+        }
+        ddl.append("PARTITION p_future VALUES LESS THAN (MAXVALUE))");
+
+        if (executeDdl(ddl.toString())) {
+            log.info("Added quiz_attempts partitions {} through {}", last.plusMonths(1), target);
+        }
+    }
+
+    /**
+     * Runs partition DDL on quiz_attempts unless a long read could hold it up; false if
+     * it was skipped.
+     */
+    public boolean executeDdl(String ddl) {
+        if (jobLeaseService.isAnyHeld(AdminExportService.QUIZ_ATTEMPT_EXPORT_LEASE)) {
+            log.info("Skipping quiz_attempts partition maintenance while an export is running");
+            return false;
+        }
+        try {
+            // A session setting, so it is set and reset on the connection that runs the DDL
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SET SESSION lock_wait_timeout = " + Math.max(1, ddlLockWait.toSeconds()));
+                    try {
+                        statement.execute(ddl);
+                    } finally {
+                        statement.execute("SET SESSION lock_wait_timeout = DEFAULT");
+                    }
+                }
+                return null;
+            });
+            return true;
+        } catch (PessimisticLockingFailureException e) {
+            log.warn("Skipping quiz_attempts partition maintenance, the table stayed in use for {}", ddlLockWait);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.edurace.platform.service;
+
+import com.edurace.platform.event.QuizAttemptCompletedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Completes quiz attempts: records the result, awards the quiz-completion points and
+ * publishes {@link QuizAttemptCompletedEvent}.
+ *
+ * Points are given once per quiz, on the student's first passing attempt, with a
+ * relative update of users.total_points, and are already there when the event is
+ * published. The attempt and then the student are locked first, so a repeated
+ * completion is rejected and two passes of the same quiz can't both be first.
+ */
+@Service
+public class QuizCompletionService {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.gamification.points.quiz-completion:100}")
+    private int quizCompletionPoints;
+
+    @Transactional
+    public QuizAttemptCompletedEvent complete(Long attemptId, int score, boolean passed) {
+        Attempt attempt = jdbcTemplate.query(
+            "SELECT quiz_id, student_id, started_at, completed_at FROM quiz_attempts WHERE id = ? FOR UPDATE",
+            rs -> rs.next() ? new Attempt(rs.getLong("quiz_id"), rs.getLong("student_id"),
+                rs.getTimestamp("started_at"), rs.getTimestamp("completed_at") != null) : null, attemptId);
+        if (attempt == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Quiz attempt not found with id: " + attemptId);
+        }
+        if (attempt.completed()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Quiz attempt is already completed");
+        }
+        // Serializes this student's completions; taken before any plain read, so those see the ones committed meanwhile
+        jdbcTemplate.queryForObject("SELECT id FROM users WHERE id = ? FOR UPDATE", Long.class, attempt.studentId());
+        Long courseId = jdbcTemplate.queryForObject(
+            "SELECT l.course_id FROM quizzes q JOIN lessons l ON l.id = q.lesson_id WHERE q.id = ?",
+            Long.class, attempt.quizId());
+
+        LocalDateTime completedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        int timeTakenMinutes = (int) Math.max(0, Duration.between(attempt.startedAt().toLocalDateTime(), completedAt).toMinutes());
+        jdbcTemplate.update(
+            "UPDATE quiz_attempts SET score = ?, passed = ?, time_taken_minutes = ?, completed_at = ? " +
+            "WHERE id = ?",
+            score, passed, timeTakenMinutes, Timestamp.valueOf(completedAt), attemptId);
+
+        int points = 0;
+        if (passed && quizCompletionPoints != 0 && !hasPassedBefore(attemptId, attempt.studentId(), attempt.quizId())) {
+            points = quizCompletionPoints;
+            jdbcTemplate.update("UPDATE users SET total_points = total_points + ?, updated_at = NOW(6) WHERE id = ?",
+                points, attempt.studentId());
+        }
+
+        QuizAttemptCompletedEvent event = new QuizAttemptCompletedEvent(attemptId, attempt.quizId(), courseId,
+            attempt.studentId(), score, passed, timeTakenMinutes, points, completedAt);
+        eventPublisher.publishEvent(event);
+        return event;
+    }
+
+    private boolean hasPassedBefore(Long attemptId, Long studentId, Long quizId) {
+        Boolean passed = jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM quiz_attempts WHERE student_id = ? AND quiz_id = ? AND passed = TRUE AND id <> ?) " +
+            "OR EXISTS (SELECT 1 FROM quiz_attempt_summaries WHERE student_id = ? AND quiz_id = ? AND passed_count > 0)",
+            Boolean.class, studentId, quizId, attemptId, studentId, quizId);
+        return Boolean.TRUE.equals(passed);
+    }
+
+    private record Attempt(long quizId, long studentId, Timestamp startedAt, boolean completed) {
+    }
+}
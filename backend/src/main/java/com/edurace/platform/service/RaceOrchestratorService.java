@@ -0,0 +1,372 @@
+package com.edurace.platform.service;
+
+import com.edurace.platform.cluster.ClusterClient;
+import com.edurace.platform.cluster.CoursePartitionedState;
+import com.edurace.platform.race.PreparedRacePayload;
+import com.edurace.platform.race.RaceSession;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Orchestrates timed quiz races so the start instant costs no database reads.
+ *
+ * A race is scheduled explicitly or picked up from courses whose course_start_date
+ * is within the lookahead window (first published quiz of the course). Shortly
+ * before the start the quiz, its questions and the enrolled racers are loaded once
+ * and serialized into a {@link PreparedRacePayload}. At the start instant every
+ * waiting WebSocket receives its per-student payload; HTTP clients polling
+ * GET /quizzes/{id}/race get 425 until then and the payload afterwards.
+ *
+ * Scheduling a quiz that already has a race moves its start if the race has not
+ * started yet and is rejected with 409 once it has. The course scan never moves a
+ * race, so an explicitly scheduled start survives the next scan.
+ *
+ * Races belong to the node that owns their course. Scheduling a race for a course
+ * owned elsewhere hands it to the owner, and when ownership moves the old owner
+ * closes its waiting sockets so racers reconnect to the new one.
+ */
+@Service
+public class RaceOrchestratorService implements CoursePartitionedState {
+
+    private static final Logger log = LoggerFactory.getLogger(RaceOrchestratorService.class);
+
+    private static final String UPCOMING_COURSE_RACES_SQL =
+        "SELECT c.id AS course_id, c.course_start_date, q.id AS quiz_id FROM courses c " +
+        "JOIN lessons l ON l.course_id = c.id JOIN quizzes q ON q.lesson_id = l.id " +
+        "WHERE c.status = 'PUBLISHED' AND c.course_start_date > ? AND c.course_start_date <= ? AND q.is_published = TRUE " +
+        "AND l.sequence_order = (SELECT MIN(l2.sequence_order) FROM lessons l2 JOIN quizzes q2 ON q2.lesson_id = l2.id " +
+        "WHERE l2.course_id = c.id AND q2.is_published = TRUE)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Autowired
+    private ClusterService clusterService;
+
+    @Autowired
+    private ClusterClient clusterClient;
+
+    @Value("${app.race.preload-lead:PT2M}")
+    private Duration preloadLead;
+
+    @Value("${app.race.lookahead:PT15M}")
+    private Duration lookahead;
+
+    @Value("${app.race.retention:PT3H}")
+    private Duration retention;
+
+    @Value("${app.race.release-threads:8}")
+    private int releaseThreads;
+
+    private final Map<Long, RaceSession> races = new ConcurrentHashMap<>();
+    private final SecureRandom seeds = new SecureRandom();
+    private volatile ExecutorService releaseExecutor;
+
+    @PreDestroy
+    public void shutdown() {
+        if (releaseExecutor != null) {
+            releaseExecutor.shutdownNow();
+        }
+    }
+
+    public RaceSession scheduleRace(Long quizId, Instant startsAt) {
+        long courseId = clusterService.courseOfQuiz(quizId);
+        if (!clusterService.isLocal(courseId)) {
+            RaceSession remote = new RaceSession(courseId, quizId, startsAt);
+            try {
+                clusterClient.pushState(clusterService.ownerOf(courseId), stateName(), courseId, snapshotOf(List.of(remote)));
+            } catch (IOException e) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Could not reach the node that owns this course", e);
+            }
+            return remote;
+        }
+        return scheduleLocal(courseId, quizId, startsAt, true);
+    }
+
+    private RaceSession scheduleLocal(Long courseId, Long quizId, Instant startsAt, boolean reschedule) {
+        RaceSession session = new RaceSession(courseId, quizId, startsAt);
+        RaceSession[] replaced = new RaceSession[1];
+        RaceSession current = races.compute(quizId, (id, existing) -> {
+            if (existing == null) {
+                return session;
+            }
+            if (!reschedule || existing.getStartsAt().equals(startsAt)) {
+                return existing;
+            }
+            if (existing.hasStarted(Instant.now())) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Race on quiz " + quizId + " already started at " + existing.getStartsAt());
+            }
+            replaced[0] = existing;
+            return session;
+        });
+        if (current != session) {
+            return current;
+        }
+        if (replaced[0] != null) {
+            // The old tasks see they were replaced and do nothing
+            session.getWaiting().addAll(replaced[0].getWaiting());
+            replaced[0].getWaiting().clear();
+        }
+        Instant now = Instant.now();
+        Instant preloadAt = startsAt.minus(preloadLead);
+        taskScheduler.schedule(() -> preload(session), preloadAt.isBefore(now) ? now : preloadAt);
+        taskScheduler.schedule(() -> release(session), startsAt);
+        log.info("{} race on quiz {} starting at {}", replaced[0] != null ? "Rescheduled" : "Scheduled", quizId, startsAt);
+        return session;
+    }
+
+    @Scheduled(fixedDelayString = "${app.race.scan-interval-ms:60000}")
+    public void scheduleUpcomingCourseRaces() {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.query(UPCOMING_COURSE_RACES_SQL, rs -> {
+            long courseId = rs.getLong("course_id");
+            if (clusterService.isLocal(courseId)) {
+                Instant startsAt = rs.getObject("course_start_date", LocalDateTime.class).atZone(ZoneId.systemDefault()).toInstant();
+                scheduleLocal(courseId, rs.getLong("quiz_id"), startsAt, false);
+            }
+        }, Timestamp.valueOf(now), Timestamp.valueOf(now.plus(lookahead)));
+
+        Instant cutoff = Instant.now().minus(retention);
+        races.values().removeIf(race -> race.getStartsAt().isBefore(cutoff));
+    }
+
+    public RaceSession getRace(Long quizId) {
+        RaceSession race = races.get(quizId);
+        if (race == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No race scheduled for quiz " + quizId);
+        }
+        return race;
+    }
+
+    /**
+     * Returns the student's payload once the race has started.
+     */
+    public byte[] payloadFor(RaceSession race, Long studentId) {
+        if (!race.hasStarted(Instant.now())) {
+            throw new ResponseStatusException(HttpStatus.TOO_EARLY, "Race starts at " + race.getStartsAt());
+        }
+        if (!isRacer(race, studentId)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not enrolled in this race");
+        }
+        return ensurePrepared(race).forStudent(studentId);
+    }
+
+    public void join(Long quizId, Long studentId, WebSocketSession socket) throws IOException {
+        RaceSession race = races.get(quizId);
+        if (race == null || !isRacer(race, studentId)) {
+            socket.close(CloseStatus.POLICY_VIOLATION);
+            return;
+        }
+        race.getWaiting().add(socket);
+        // Rescheduled while joining
+        RaceSession current = races.get(quizId);
+        if (current != race && current != null && race.getWaiting().remove(socket)) {
+            current.getWaiting().add(socket);
+            race = current;
+        }
+        // Joined after the release already went out
+        if (race.hasStarted(Instant.now()) && race.getWaiting().remove(socket)) {
+            socket.sendMessage(new TextMessage(ensurePrepared(race).forStudent(studentId)));
+        }
+    }
+
+    public void leave(Long quizId, WebSocketSession socket) {
+        RaceSession race = races.get(quizId);
+        if (race != null) {
+            race.getWaiting().remove(socket);
+        }
+    }
+
+    @Override
+    public String stateName() {
+        return "races";
+    }
+
+    @Override
+    public Collection<Long> localCourseIds() {
+        return races.values().stream().map(RaceSession::getCourseId).distinct().toList();
+    }
+
+    @Override
+    public JsonNode handOff(long courseId) {
+        List<RaceSession> moved = new ArrayList<>();
+        for (RaceSession race : List.copyOf(races.values())) {
+            if (race.getCourseId() == courseId && races.remove(race.getQuizId(), race)) {
+                moved.add(race);
+                for (WebSocketSession socket : race.getWaiting()) {
+                    try {
+                        socket.close(CloseStatus.SERVICE_RESTARTED);
+                    } catch (IOException e) {
+                        log.debug("Failed to close race socket {}", socket.getId(), e);
+                    }
+                }
+            }
+        }
+        return moved.isEmpty() ? null : snapshotOf(moved);
+    }
+
+    @Override
+    public void takeOver(long courseId, JsonNode snapshot) {
+        ResponseStatusException conflict = null;
+        for (JsonNode race : snapshot.path("races")) {
+            try {
+                scheduleLocal(courseId, race.path("quiz_id").asLong(), Instant.parse(race.path("starts_at").asText()), true);
+            } catch (ResponseStatusException e) {
+                conflict = e;
+            }
+        }
+        if (conflict != null) {
+            throw conflict;
+        }
+    }
+
+    private JsonNode snapshotOf(List<RaceSession> sessions) {
+        ObjectNode snapshot = objectMapper.createObjectNode();
+        ArrayNode races = snapshot.putArray("races");
+        for (RaceSession race : sessions) {
+            races.addObject()
+                .put("quiz_id", race.getQuizId())
+                .put("starts_at", race.getStartsAt().toString());
+        }
+        return snapshot;
+    }
+
+    private void preload(RaceSession race) {
+        if (races.get(race.getQuizId()) != race) {
+            return; // handed off to another node
+        }
+        try {
+            Map<String, Object> quiz = jdbcTemplate.queryForMap(
+                "SELECT q.title, q.time_limit_minutes, l.course_id FROM quizzes q JOIN lessons l ON l.id = q.lesson_id WHERE q.id = ?",
+                race.getQuizId());
+
+            List<PreparedRacePayload.Question> questions = jdbcTemplate.query(
+                "SELECT id, question_text, option_a, option_b, option_c, option_d, points FROM quiz_questions WHERE quiz_id = ? ORDER BY id",
+                (rs, rowNum) -> {
+                    List<PreparedRacePayload.Option> options = new ArrayList<>(4);
+                    for (String key : new String[] {"A", "B", "C", "D"}) {
+                        String text = rs.getString("option_" + key.toLowerCase());
+                        if (text != null) {
+                            options.add(new PreparedRacePayload.Option(key, text));
+                        }
+                    }
+                    return new PreparedRacePayload.Question(rs.getLong("id"), rs.getString("question_text"), rs.getInt("points"), options);
+                }, race.getQuizId());
+
+            List<Long> racers = jdbcTemplate.queryForList(
+                "SELECT student_id FROM enrollments WHERE course_id = ? AND status = 'ACTIVE'",
+                Long.class, quiz.get("course_id"));
+
+            PreparedRacePayload payload = new PreparedRacePayload(objectMapper, race.getQuizId(),
+                (String) quiz.get("title"), ((Number) quiz.get("time_limit_minutes")).intValue(),
+                race.getStartsAt().toString(), questions, seeds.nextLong());
+            race.prepare(payload, new HashSet<>(racers));
+            log.info("Preloaded race on quiz {}: {} questions, {} racers, {} bytes per payload",
+                race.getQuizId(), questions.size(), racers.size(), payload.getPayloadSize());
+        } catch (Exception e) {
+            log.error("Failed to preload race on quiz {}", race.getQuizId(), e);
+        }
+    }
+
+    private PreparedRacePayload ensurePrepared(RaceSession race) {
+        if (race.getPayload() == null) {
+            synchronized (race) {
+                if (race.getPayload() == null) {
+                    preload(race);
+                }
+            }
+        }
+        if (race.getPayload() == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Race payload is not available");
+        }
+        return race.getPayload();
+    }
+
+    private void release(RaceSession race) {
+        if (races.get(race.getQuizId()) != race) {
+            return;
+        }
+        PreparedRacePayload payload = ensurePrepared(race);
+        List<WebSocketSession> sockets = new ArrayList<>(race.getWaiting());
+        race.getWaiting().removeAll(sockets);
+        for (WebSocketSession socket : sockets) {
+            executor().execute(() -> {
+                try {
+                    Long studentId = (Long) socket.getAttributes().get("userId");
+                    socket.sendMessage(new TextMessage(payload.forStudent(studentId)));
+                } catch (IOException | RuntimeException e) {
+                    log.debug("Failed to send race payload to {}", socket.getId(), e);
+                }
+            });
+        }
+        log.info("Released race on quiz {} to {} waiting sockets", race.getQuizId(), sockets.size());
+    }
+
+    private boolean isRacer(RaceSession race, Long studentId) {
+        if (race.getRacers().contains(studentId)) {
+            return true;
+        }
+        // Enrolled after the preload
+        Integer count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM enrollments e JOIN lessons l ON l.course_id = e.course_id JOIN quizzes q ON q.lesson_id = l.id " +
+            "WHERE q.id = ? AND e.student_id = ? AND e.status = 'ACTIVE'",
+            Integer.class, race.getQuizId(), studentId);
+        return count != null && count > 0;
+    }
+
+    private ExecutorService executor() {
+        if (releaseExecutor == null) {
+            synchronized (this) {
+                if (releaseExecutor == null) {
+                    AtomicInteger threads = new AtomicInteger();
+                    releaseExecutor = Executors.newFixedThreadPool(releaseThreads, runnable -> {
+                        Thread thread = new Thread(runnable, "race-release-" + threads.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        return releaseExecutor;
+    }
+}
@@ -0,0 +1,269 @@
+package com.edurace.platform.service;
+
+import com.edurace.platform.entity.CourseStatus;
+import com.edurace.platform.entity.DifficultyLevel;
+import com.edurace.platform.event.CourseChangedEvent;
+import com.edurace.platform.event.RemoteEvent;
+import com.edurace.platform.search.CourseDocument;
+import com.edurace.platform.search.CourseSearchIndex;
+import com.edurace.platform.search.CourseSearchQuery;
+import com.edurace.platform.search.LessonDocument;
+import com.edurace.platform.search.SearchHit;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the on-disk {@link CourseSearchIndex} in step with courses and lessons.
+ *
+ * Course changes (including changes to any of its lessons) mark the course dirty;
+ * a short fixed-delay job reindexes dirty courses in one batch, so saving a course
+ * with many lessons costs one reindex. Commits record when they were taken, and on
+ * startup every course changed since the last commit (less a safety margin) is
+ * reindexed; an empty index is built from scratch.
+ */
+@Service
+public class SearchIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchIndexService.class);
+
+    private static final String SYNCED_AT = "synced_at";
+
+    private static final String COURSE_COLUMNS =
+        "SELECT id, title, description, difficulty_level, status, entry_fee, course_start_date FROM courses";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Value("${app.search.directory:./data/search}")
+    private Path directory;
+
+    @Value("${app.search.commit-interval:PT10S}")
+    private Duration commitInterval;
+
+    @Value("${app.search.catch-up-margin:PT10M}")
+    private Duration catchUpMargin;
+
+    private final Set<Long> dirtyCourses = ConcurrentHashMap.newKeySet();
+
+    private volatile CourseSearchIndex index;
+    private Instant lastCommit = Instant.EPOCH;
+    private boolean uncommitted;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void open() throws IOException {
+        Files.createDirectories(directory);
+        CourseSearchIndex opened = new CourseSearchIndex(directory);
+        String syncedAt = opened.getCommitData().get(SYNCED_AT);
+        Instant started = Instant.now();
+        index = opened;
+
+        if (syncedAt == null || opened.documentCount() == 0) {
+            rebuild();
+        } else {
+            // updated_at is written in the JVM's default zone by the entity callbacks
+            LocalDateTime since = LocalDateTime.ofInstant(Instant.parse(syncedAt).minus(catchUpMargin), ZoneId.systemDefault());
+            List<Long> changed = jdbcTemplate.queryForList(
+                "SELECT id FROM courses WHERE updated_at >= ? " +
+                "UNION SELECT DISTINCT course_id FROM lessons WHERE updated_at >= ?",
+                Long.class, Timestamp.valueOf(since), Timestamp.valueOf(since));
+            reindex(changed);
+            commit(started);
+            log.info("Search index caught up on {} courses changed since {}", changed.size(), since);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (index != null) {
+            Instant started = Instant.now();
+            reindexDirtyCourses();
+            commit(started);
+            index.close();
+            index = null;
+        }
+    }
+
+    public List<SearchHit> search(CourseSearchQuery query) {
+        CourseSearchIndex current = index;
+        if (current == null) {
+            return List.of();
+        }
+        try {
+            return current.search(query);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCourseChanged(CourseChangedEvent event) {
+        if (event.courseId() != null) {
+            dirtyCourses.add(event.courseId());
+        }
+    }
+
+    // Every instance keeps its own index
+    @EventListener
+    public void onRemoteEvent(RemoteEvent remote) {
+        if (remote.event() instanceof CourseChangedEvent event) {
+            onCourseChanged(event);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.refresh-interval-ms:500}")
+    public synchronized void reindexDirtyCourses() throws IOException {
+        if (index == null) {
+            return;
+        }
+        Instant started = Instant.now();
+        if (!dirtyCourses.isEmpty()) {
+            List<Long> batch = new ArrayList<>(dirtyCourses);
+            dirtyCourses.removeAll(batch);
+            reindex(batch);
+            uncommitted = true;
+        }
+        if (uncommitted && Duration.between(lastCommit, started).compareTo(commitInterval) >= 0) {
+            commit(started);
+        }
+    }
+
+    /**
+     * Drops and rebuilds the whole index; searches keep seeing the old one until done.
+     */
+    @Scheduled(cron = "${app.search.rebuild-cron:0 0 4 * * SUN}")
+    public synchronized void rebuild() throws IOException {
+        if (index == null) {
+            return;
+        }
+        Instant started = Instant.now();
+        Map<Long, CourseDocument> courses = new HashMap<>();
+        jdbcTemplate.query(COURSE_COLUMNS, rs -> {
+            CourseDocument course = toCourse(rs);
+            courses.put(course.courseId(), course);
+        });
+
+        index.deleteAll();
+        try {
+            for (CourseDocument course : courses.values()) {
+                index.addCourse(course);
+            }
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                    "SELECT id, course_id, title, description, content FROM lessons WHERE is_published = TRUE",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(Integer.MIN_VALUE); // MySQL row-by-row streaming
+                return statement;
+            }, rs -> {
+                LessonDocument lesson = toLesson(rs);
+                CourseDocument course = courses.get(lesson.courseId());
+                if (course != null) {
+                    addLesson(course, lesson);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        commit(started);
+        log.info("Rebuilt search index with {} documents in {} ms",
+            index.documentCount(), Duration.between(started, Instant.now()).toMillis());
+    }
+
+    private void reindex(List<Long> courseIds) throws IOException {
+        if (courseIds.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource ids = new MapSqlParameterSource("ids", courseIds);
+        Map<Long, CourseDocument> courses = new HashMap<>();
+        namedParameterJdbcTemplate.query(COURSE_COLUMNS + " WHERE id IN (:ids)", ids, rs -> {
+            CourseDocument course = toCourse(rs);
+            courses.put(course.courseId(), course);
+        });
+
+        for (Long courseId : courseIds) {
+            index.deleteCourse(courseId);
+        }
+        try {
+            for (CourseDocument course : courses.values()) {
+                index.addCourse(course);
+            }
+            namedParameterJdbcTemplate.query(
+                "SELECT id, course_id, title, description, content FROM lessons " +
+                "WHERE course_id IN (:ids) AND is_published = TRUE", ids, rs -> {
+                    LessonDocument lesson = toLesson(rs);
+                    addLesson(courses.get(lesson.courseId()), lesson);
+                });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        index.refresh();
+    }
+
+    private void addLesson(CourseDocument course, LessonDocument lesson) {
+        try {
+            index.addLesson(course, lesson);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void commit(Instant syncedAt) throws IOException {
+        index.refresh();
+        index.commit(Map.of(SYNCED_AT, syncedAt.toString()));
+        lastCommit = syncedAt;
+        uncommitted = false;
+    }
+
+    private static CourseDocument toCourse(ResultSet rs) throws SQLException {
+        String difficulty = rs.getString("difficulty_level");
+        return new CourseDocument(
+            rs.getLong("id"),
+            rs.getString("title"),
+            rs.getString("description"),
+            difficulty == null ? null : DifficultyLevel.valueOf(difficulty),
+            CourseStatus.valueOf(rs.getString("status")),
+            rs.getBigDecimal("entry_fee"),
+            rs.getObject("course_start_date", LocalDateTime.class));
+    }
+
+    private static LessonDocument toLesson(ResultSet rs) throws SQLException {
+        return new LessonDocument(
+            rs.getLong("id"),
+            rs.getLong("course_id"),
+            rs.getString("title"),
+            rs.getString("description"),
+            rs.getString("content"));
+    }
+}
@@ -0,0 +1,218 @@
+package com.edurace.platform.service;
+
+import com.edurace.platform.event.StreakRolloverCompletedEvent;
+import com.edurace.platform.event.StreakUpdatedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Daily streak bookkeeping.
+ *
+ * Activity is recorded with two single-row statements: a bit in the user's
+ * user_activity_months row and a set-based streak update on users. The nightly
+ * rollover resets the streak of everyone who missed the previous day with chunked
+ * UPDATEs over primary key ranges, run in parallel on separate connections, so no
+ * statement holds more than one chunk of row locks at a time.
+ */
+@Service
+public class StreakService {
+
+    private static final Logger log = LoggerFactory.getLogger(StreakService.class);
+
+    // MySQL applies SET assignments left to right, so longest_streak sees the new current_streak
+    private static final String RECORD_ACTIVITY_SQL =
+        "UPDATE users SET " +
+        "current_streak = CASE WHEN last_login >= ? THEN GREATEST(current_streak, 1) " +
+        "WHEN last_login >= ? THEN current_streak + 1 ELSE 1 END, " +
+        "longest_streak = GREATEST(longest_streak, current_streak), " +
+        "last_login = ?, updated_at = NOW(6) " +
+        "WHERE id = ?";
+
+    private static final String ROLLOVER_SQL =
+        "UPDATE users SET current_streak = 0, updated_at = NOW(6) " +
+        "WHERE id BETWEEN ? AND ? AND current_streak > 0 AND (last_login IS NULL OR last_login < ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JobLeaseService jobLeaseService;
+
+    @Value("${app.gamification.streaks.zone:UTC}")
+    private ZoneId zone;
+
+    @Value("${app.gamification.streaks.rollover.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${app.gamification.streaks.rollover.parallelism:4}")
+    private int parallelism;
+
+    private ExecutorService rolloverExecutor;
+
+    @PreDestroy
+    public void shutdown() {
+        if (rolloverExecutor != null) {
+            rolloverExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Records that the user was active now, extending or restarting their streak.
+     */
+    @Transactional
+    public void recordActivity(Long userId) {
+        LocalDateTime now = LocalDateTime.now(zone);
+        LocalDate today = now.toLocalDate();
+
+        jdbcTemplate.update(
+            "INSERT INTO user_activity_months (user_id, month_start, day_bits) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE day_bits = day_bits | VALUES(day_bits)",
+            userId, Date.valueOf(today.withDayOfMonth(1)), 1L << (today.getDayOfMonth() - 1));
+
+        jdbcTemplate.update(RECORD_ACTIVITY_SQL,
+            Timestamp.valueOf(today.atStartOfDay()),
+            Timestamp.valueOf(today.minusDays(1).atStartOfDay()),
+            Timestamp.valueOf(now),
+            userId);
+
+        jdbcTemplate.query("SELECT current_streak, longest_streak FROM users WHERE id = ?", rs -> {
+            eventPublisher.publishEvent(new StreakUpdatedEvent(userId, rs.getInt("current_streak"), rs.getInt("longest_streak")));
+        }, userId);
+    }
+
+    /**
+     * Resets the streak of every user who was not active yesterday, on one instance.
+     */
+    @Scheduled(cron = "${app.gamification.streaks.rollover.cron:0 5 0 * * *}", zone = "${app.gamification.streaks.zone:UTC}")
+    public void rolloverStreaks() {
+        jobLeaseService.runExclusively("streak-rollover", Duration.ofHours(1), Duration.ofHours(1), this::rollover);
+    }
+
+    private void rollover() {
+        Map<String, Object> bounds = jdbcTemplate.queryForMap("SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM users");
+        if (bounds.get("min_id") == null) {
+            return;
+        }
+        long minId = ((Number) bounds.get("min_id")).longValue();
+        long maxId = ((Number) bounds.get("max_id")).longValue();
+        LocalDate yesterday = LocalDate.now(zone).minusDays(1);
+        Timestamp yesterdayStart = Timestamp.valueOf(yesterday.atStartOfDay());
+
+        long started = System.currentTimeMillis();
+        AtomicInteger reset = new AtomicInteger();
+        List<Future<?>> chunks = new ArrayList<>();
+        for (long from = minId; from <= maxId; from += chunkSize) {
+            long to = Math.min(from + chunkSize - 1, maxId);
+            long chunkFrom = from;
+            chunks.add(executor().submit(() ->
+                reset.addAndGet(jdbcTemplate.update(ROLLOVER_SQL, chunkFrom, to, yesterdayStart))));
+        }
+
+        int failed = 0;
+        for (Future<?> chunk : chunks) {
+            try {
+                chunk.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                failed++;
+                log.error("Streak rollover chunk failed", e);
+            }
+        }
+        log.info("Streak rollover reset {} users in {} chunks ({} failed) in {} ms",
+            reset.get(), chunks.size(), failed, System.currentTimeMillis() - started);
+        if (failed == 0) {
+            eventPublisher.publishEvent(new StreakRolloverCompletedEvent(yesterday));
+        }
+    }
+
+    /**
+     * Recomputes a user's current streak ending today (or yesterday) from the activity bitmap.
+     */
+    public int computeCurrentStreak(Long userId) {
+        LocalDate day = LocalDate.now(zone);
+        Map<LocalDate, Long> months = loadMonths(userId, day.minusYears(1), day);
+        if (!isActive(months, day)) {
+            day = day.minusDays(1);
+        }
+        int streak = 0;
+        while (isActive(months, day)) {
+            streak++;
+            day = day.minusDays(1);
+        }
+        return streak;
+    }
+
+    /**
+     * Returns the days in [from, to] on which the user was active.
+     */
+    public List<LocalDate> getActiveDays(Long userId, LocalDate from, LocalDate to) {
+        Map<LocalDate, Long> months = loadMonths(userId, from, to);
+        List<LocalDate> days = new ArrayList<>();
+        for (Map.Entry<LocalDate, Long> month : months.entrySet()) {
+            long bits = month.getValue();
+            while (bits != 0) {
+                LocalDate day = month.getKey().plusDays(Long.numberOfTrailingZeros(bits));
+                if (!day.isBefore(from) && !day.isAfter(to)) {
+                    days.add(day);
+                }
+                bits &= bits - 1;
+            }
+        }
+        return days;
+    }
+
+    private Map<LocalDate, Long> loadMonths(Long userId, LocalDate from, LocalDate to) {
+        Map<LocalDate, Long> months = new TreeMap<>();
+        jdbcTemplate.query(
+            "SELECT month_start, day_bits FROM user_activity_months " +
+            "WHERE user_id = ? AND month_start BETWEEN ? AND ? ORDER BY month_start",
+            rs -> { months.put(rs.getObject("month_start", LocalDate.class), rs.getLong("day_bits")); },
+            userId, Date.valueOf(from.withDayOfMonth(1)), Date.valueOf(to.withDayOfMonth(1)));
+        return months;
+    }
+
+    private static boolean isActive(Map<LocalDate, Long> months, LocalDate day) {
+        Long bits = months.get(day.withDayOfMonth(1));
+        return bits != null && (bits & (1L << (day.getDayOfMonth() - 1))) != 0;
+    }
+
+    private synchronized ExecutorService executor() {
+        if (rolloverExecutor == null) {
+            AtomicInteger threads = new AtomicInteger();
+            rolloverExecutor = Executors.newFixedThreadPool(parallelism, runnable -> {
+                Thread thread = new Thread(runnable, "streak-rollover-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return rolloverExecutor;
+    }
+}
@@ -0,0 +1,245 @@
+package com.edurace.platform.service;
+
+import com.edurace.platform.entity.Role;
+import com.edurace.platform.event.QuizAttemptCompletedEvent;
+import com.edurace.platform.event.RemoteEvent;
+import com.edurace.platform.event.StreakRolloverCompletedEvent;
+import com.edurace.platform.event.StreakUpdatedEvent;
+import com.edurace.platform.event.UserChangedEvent;
+import com.edurace.platform.event.UserRemovedEvent;
+import com.edurace.platform.snapshot.ChangeJournal;
+import com.edurace.platform.snapshot.SnapshotFile;
+import com.edurace.platform.userindex.IndexedUser;
+import com.edurace.platform.userindex.UserIndex;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Fills the {@link UserIndex} at startup and keeps it current from domain events.
+ *
+ * The index is snapshotted to a memory-mapped image every few minutes and on
+ * shutdown, and every change in between goes to a {@link ChangeJournal}. Startup maps
+ * the image, replays the journal and re-reads the users updated since the image was
+ * taken (less a margin, for changes made by other instances or while this one was
+ * down), all before the web server starts. Without a usable image, or with one older
+ * than app.user-index.max-snapshot-age, it falls back to a streaming scan of users
+ * once the application is ready; events that arrive while the scan is running win
+ * over the rows it reads.
+ */
+@Service
+public class UserIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserIndexService.class);
+
+    private static final String USER_COLUMNS =
+        "SELECT id, role, account_enabled, email_verified, account_locked, " +
+        "total_points, current_streak, longest_streak, last_login FROM users";
+
+    @Autowired
+    private UserIndex userIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.gamification.streaks.zone:UTC}")
+    private ZoneId zone;
+
+    @Value("${app.user-index.directory:./data/user-index}")
+    private Path directory;
+
+    @Value("${app.user-index.journal-segment-bytes:16777216}")
+    private int journalSegmentBytes;
+
+    @Value("${app.user-index.max-snapshot-age:PT6H}")
+    private Duration maxSnapshotAge;
+
+    @Value("${app.user-index.catch-up-margin:PT10M}")
+    private Duration catchUpMargin;
+
+    private ChangeJournal journal;
+    private volatile boolean loaded;
+
+    @PostConstruct
+    public void restore() throws IOException {
+        long started = System.currentTimeMillis();
+        journal = new ChangeJournal(directory, "users", journalSegmentBytes);
+        SnapshotFile.Image image = null;
+        try {
+            image = SnapshotFile.read(snapshotFile());
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable user index snapshot", e);
+        }
+        if (image == null || Instant.ofEpochMilli(image.takenAt()).plus(maxSnapshotAge).isBefore(Instant.now())
+                || !userIndex.restoreSnapshot(image)) {
+            // The scan on startup rebuilds everything, and a snapshot follows it
+            journal.truncateBefore(journal.roll());
+            userIndex.attachJournal(journal);
+            return;
+        }
+
+        long replayed = journal.replay(image.journalSequence(), userIndex::replay);
+        userIndex.attachJournal(journal);
+        Timestamp since = Timestamp.from(Instant.ofEpochMilli(image.takenAt()).minus(catchUpMargin));
+        int[] caughtUp = {0};
+        jdbcTemplate.query(USER_COLUMNS + " WHERE updated_at >= ?", rs -> {
+            LocalDateTime lastLogin = rs.getObject("last_login", LocalDateTime.class);
+            long userId = rs.getLong("id");
+            userIndex.put(userId, Role.valueOf(rs.getString("role")),
+                rs.getBoolean("account_enabled") && rs.getBoolean("email_verified"), rs.getBoolean("account_locked"),
+                rs.getInt("total_points"), rs.getInt("current_streak"), rs.getInt("longest_streak"));
+            if (lastLogin != null) {
+                userIndex.updateStreak(userId, rs.getInt("current_streak"), rs.getInt("longest_streak"),
+                    (int) lastLogin.toLocalDate().toEpochDay());
+            }
+            caughtUp[0]++;
+        }, since);
+        loaded = true;
+        log.info("Restored {} users from a snapshot taken {}, replayed {} changes and re-read {} users in {} ms",
+            userIndex.size(), Instant.ofEpochMilli(image.takenAt()), replayed, caughtUp[0],
+            System.currentTimeMillis() - started);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() throws IOException {
+        if (loaded) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(USER_COLUMNS,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(Integer.MIN_VALUE); // MySQL row-by-row streaming
+            return statement;
+        }, rs -> {
+            LocalDateTime lastLogin = rs.getObject("last_login", LocalDateTime.class);
+            userIndex.putIfAbsent(
+                rs.getLong("id"),
+                Role.valueOf(rs.getString("role")),
+                rs.getBoolean("account_enabled") && rs.getBoolean("email_verified"),
+                rs.getBoolean("account_locked"),
+                rs.getInt("total_points"),
+                rs.getInt("current_streak"),
+                rs.getInt("longest_streak"),
+                lastLogin == null ? Integer.MIN_VALUE : (int) lastLogin.toLocalDate().toEpochDay());
+        });
+        loaded = true;
+        log.info("Indexed {} users ({} KiB) in {} ms",
+            userIndex.size(), userIndex.memoryBytes() / 1024, System.currentTimeMillis() - started);
+        snapshot();
+    }
+
+    @Scheduled(fixedDelayString = "${app.user-index.snapshot-interval-ms:300000}")
+    public synchronized void snapshot() throws IOException {
+        if (!loaded) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        int changes = journal.getPendingRecords();
+        long sequence = userIndex.writeSnapshot(snapshotFile(), journal);
+        journal.truncateBefore(sequence);
+        log.debug("Snapshotted {} indexed users after {} changes in {} ms",
+            userIndex.size(), changes, System.currentTimeMillis() - started);
+    }
+
+    @Scheduled(fixedDelayString = "${app.user-index.journal-flush-interval-ms:1000}")
+    public void flushJournal() {
+        journal.flush();
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        try {
+            snapshot();
+        } finally {
+            journal.close();
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public IndexedUser find(Long userId) {
+        return userIndex.find(userId);
+    }
+
+    public int rankOf(Long userId) {
+        return userIndex.rankOf(userId);
+    }
+
+    public List<IndexedUser> topByPoints(int limit) {
+        return userIndex.topByPoints(limit);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        userIndex.put(event.userId(), event.role(), event.enabled(), event.locked(),
+            event.totalPoints(), event.currentStreak(), event.longestStreak());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserRemoved(UserRemovedEvent event) {
+        userIndex.remove(event.userId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onQuizAttemptCompleted(QuizAttemptCompletedEvent event) {
+        if (event.pointsAwarded() != 0) {
+            userIndex.addPoints(event.studentId(), event.pointsAwarded());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStreakUpdated(StreakUpdatedEvent event) {
+        userIndex.updateStreak(event.userId(), event.currentStreak(), event.longestStreak(),
+            (int) LocalDate.now(zone).toEpochDay());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStreakRollover(StreakRolloverCompletedEvent event) {
+        int reset = userIndex.resetStreaksInactiveBefore((int) event.activeSince().toEpochDay());
+        log.debug("Reset {} indexed streaks after rollover", reset);
+    }
+
+    // The same changes made on other instances
+    @EventListener
+    public void onRemoteEvent(RemoteEvent remote) {
+        if (remote.event() instanceof UserChangedEvent event) {
+            onUserChanged(event);
+        } else if (remote.event() instanceof UserRemovedEvent event) {
+            onUserRemoved(event);
+        } else if (remote.event() instanceof QuizAttemptCompletedEvent event) {
+            onQuizAttemptCompleted(event);
+        } else if (remote.event() instanceof StreakUpdatedEvent event) {
+            onStreakUpdated(event);
+        } else if (remote.event() instanceof StreakRolloverCompletedEvent event) {
+            onStreakRollover(event);
+        }
+    }
+
+    private Path snapshotFile() {
+        return directory.resolve("users.snapshot");
+    }
+}
@@ -0,0 +1,360 @@
+package com.edurace.platform.service;
+
+import com.edurace.platform.cache.ResponseCache;
+import com.edurace.platform.event.QuizAttemptCompletedEvent;
+import com.edurace.platform.event.RemoteEvent;
+import com.edurace.platform.leaderboard.LeaderboardEntry;
+import com.edurace.platform.leaderboard.LeaderboardWindow;
+import com.edurace.platform.leaderboard.RollingPoints;
+import com.edurace.platform.snapshot.ChangeJournal;
+import com.edurace.platform.snapshot.SnapshotFile;
+import com.edurace.platform.userindex.IndexedUser;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Daily and weekly leaderboards, per course and across all courses, kept in memory
+ * as {@link RollingPoints} fed by completed quiz attempts.
+ *
+ * Like the user index, the windows are restored on startup from a
+ * {@link SnapshotFile} plus the {@link ChangeJournal} of points recorded since; a
+ * periodic roll expires old buckets, drops courses with nothing left in their
+ * windows and invalidates the cached leaderboards that changed. On the very first
+ * start, with neither, the windows are backfilled from the quiz attempts completed
+ * within the last week. All-time rankings
+ * still come from the leaderboard table (per course) and the user index (global).
+ */
+@Service
+public class WindowedLeaderboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(WindowedLeaderboardService.class);
+
+    public static final String GLOBAL_LEADERBOARD = "leaderboard:global";
+
+    private static final LeaderboardWindow[] ROLLING = {LeaderboardWindow.DAY, LeaderboardWindow.WEEK};
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int POINTS = 1;
+    private static final int SNAPSHOT_ENTRY_BYTES = 1 + 3 * Long.BYTES + Integer.BYTES;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private UserIndexService userIndexService;
+
+    @Value("${app.gamification.leaderboard.directory:./data/leaderboards}")
+    private Path directory;
+
+    @Value("${app.gamification.leaderboard.journal-segment-bytes:16777216}")
+    private int journalSegmentBytes;
+
+    @Value("${app.gamification.points.quiz-completion:100}")
+    private int quizCompletionPoints;
+
+    private final Map<LeaderboardWindow, RollingPoints> global = windows();
+    private final Map<Long, Map<LeaderboardWindow, RollingPoints>> courses = new ConcurrentHashMap<>();
+
+    // Recording holds the read lock, so a snapshot sees each point either in its image or after its journal roll
+    private final ReentrantReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+
+    private ChangeJournal journal;
+
+    @PostConstruct
+    public void restore() throws IOException {
+        long started = System.currentTimeMillis();
+        journal = new ChangeJournal(directory, "points", journalSegmentBytes);
+        SnapshotFile.Image image = null;
+        try {
+            image = SnapshotFile.read(snapshotFile());
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable leaderboard snapshot", e);
+        }
+        long restored = 0;
+        if (image != null && image.version() == SNAPSHOT_VERSION) {
+            ByteBuffer in = image.payload().duplicate();
+            while (in.hasRemaining()) {
+                LeaderboardWindow window = LeaderboardWindow.values()[in.get()];
+                long courseId = in.getLong();
+                long bucket = in.getLong();
+                long userId = in.getLong();
+                windowsOf(courseId).get(window).addToBucket(bucket, userId, in.getInt());
+                restored++;
+            }
+        }
+        // Without an image the journal holds everything since the first start
+        long replayed = journal.replay(image == null ? 0 : image.journalSequence(),
+            (type, userId, courseHigh, courseLow, points, epochHour, unused) ->
+                apply(((long) courseHigh << 32) | (courseLow & 0xFFFFFFFFL), userId, points, epochHour));
+        if (image == null && replayed == 0) {
+            replayed = backfill();
+        }
+        roll();
+        log.info("Restored {} leaderboard bucket entries and replayed {} points records for {} courses in {} ms",
+            restored, replayed, courses.size(), System.currentTimeMillis() - started);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onQuizAttemptCompleted(QuizAttemptCompletedEvent event) {
+        if (event.pointsAwarded() == 0 || event.studentId() == null) {
+            return;
+        }
+        long earnedAt = event.completedAt() == null ? System.currentTimeMillis()
+            : event.completedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        int epochHour = (int) TimeUnit.MILLISECONDS.toHours(earnedAt);
+        long courseId = event.courseId() == null ? 0 : event.courseId();
+
+        snapshotLock.readLock().lock();
+        try {
+            apply(courseId, event.studentId(), event.pointsAwarded(), epochHour);
+            journal.append(POINTS, event.studentId(), (int) (courseId >>> 32), (int) courseId,
+                event.pointsAwarded(), epochHour, 0);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+        // The course leaderboard is invalidated by the catalog
+        responseCache.invalidate(GLOBAL_LEADERBOARD);
+    }
+
+    // Each instance keeps every window, so points earned on the others are recorded too
+    @EventListener
+    public void onRemoteEvent(RemoteEvent remote) {
+        if (remote.event() instanceof QuizAttemptCompletedEvent event) {
+            onQuizAttemptCompleted(event);
+        }
+    }
+
+    /**
+     * Records the points of every first passing attempt (as awarded by
+     * {@link QuizCompletionService}) completed within the longest window, journaling
+     * them so the next start restores them instead; the roll then drops anything
+     * older than its window.
+     */
+    private long backfill() {
+        long since = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(LeaderboardWindow.WEEK.getBuckets());
+        long[] backfilled = {0};
+        namedParameterJdbcTemplate.query(
+            "SELECT qa.student_id, l.course_id, qa.completed_at FROM quiz_attempts qa " +
+            "JOIN quizzes q ON q.id = qa.quiz_id JOIN lessons l ON l.id = q.lesson_id " +
+            "WHERE qa.passed = TRUE AND qa.completed_at >= :since " +
+            "AND NOT EXISTS (SELECT 1 FROM quiz_attempts p WHERE p.student_id = qa.student_id AND p.quiz_id = qa.quiz_id " +
+            "AND p.passed = TRUE AND (p.completed_at < qa.completed_at OR (p.completed_at = qa.completed_at AND p.id < qa.id))) " +
+            "AND NOT EXISTS (SELECT 1 FROM quiz_attempt_summaries s WHERE s.student_id = qa.student_id " +
+            "AND s.quiz_id = qa.quiz_id AND s.passed_count > 0)",
+            new MapSqlParameterSource("since", new Timestamp(since)), rs -> {
+                long userId = rs.getLong("student_id");
+                long courseId = rs.getLong("course_id");
+                int epochHour = (int) TimeUnit.MILLISECONDS.toHours(rs.getTimestamp("completed_at").getTime());
+                apply(courseId, userId, quizCompletionPoints, epochHour);
+                journal.append(POINTS, userId, (int) (courseId >>> 32), (int) courseId, quizCompletionPoints, epochHour, 0);
+                backfilled[0]++;
+            });
+        if (backfilled[0] > 0) {
+            log.info("Backfilled {} completed quiz attempts into the rolling leaderboards", backfilled[0]);
+        }
+        return backfilled[0];
+    }
+
+    /**
+     * Expires buckets that have left their windows and invalidates the leaderboards
+     * they were part of.
+     */
+    @Scheduled(fixedDelayString = "${app.gamification.leaderboard.roll-interval-ms:60000}")
+    public void roll() {
+        long epochHour = TimeUnit.MILLISECONDS.toHours(System.currentTimeMillis());
+        snapshotLock.readLock().lock();
+        try {
+            if (advance(global, epochHour)) {
+                responseCache.invalidate(GLOBAL_LEADERBOARD);
+            }
+            for (Long courseId : courses.keySet()) {
+                courses.computeIfPresent(courseId, (id, windows) -> {
+                    if (advance(windows, epochHour)) {
+                        responseCache.invalidate(CatalogService.leaderboardResource(id));
+                    }
+                    return windows.get(LeaderboardWindow.WEEK).isEmpty() ? null : windows;
+                });
+            }
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.gamification.leaderboard.snapshot-interval-ms:300000}")
+    public synchronized void snapshot() throws IOException {
+        long started = System.currentTimeMillis();
+        ByteBuffer image;
+        long sequence;
+        snapshotLock.writeLock().lock();
+        try {
+            int entries = 0;
+            for (Map<LeaderboardWindow, RollingPoints> windows : allWindows().values()) {
+                for (RollingPoints points : windows.values()) {
+                    int[] count = {0};
+                    points.forEachBucketEntry((bucket, userId, value) -> count[0]++);
+                    entries += count[0];
+                }
+            }
+            image = ByteBuffer.allocate(entries * SNAPSHOT_ENTRY_BYTES);
+            for (Map.Entry<Long, Map<LeaderboardWindow, RollingPoints>> scope : allWindows().entrySet()) {
+                for (Map.Entry<LeaderboardWindow, RollingPoints> window : scope.getValue().entrySet()) {
+                    window.getValue().forEachBucketEntry((bucket, userId, value) -> image
+                        .put((byte) window.getKey().ordinal())
+                        .putLong(scope.getKey())
+                        .putLong(bucket)
+                        .putLong(userId)
+                        .putInt(value));
+                }
+            }
+            sequence = journal.roll();
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+        SnapshotFile.write(snapshotFile(), SNAPSHOT_VERSION, sequence, image.capacity(), out -> out.put(image.flip()));
+        journal.truncateBefore(sequence);
+        log.debug("Snapshotted {} leaderboard bucket entries in {} ms",
+            image.capacity() / SNAPSHOT_ENTRY_BYTES, System.currentTimeMillis() - started);
+    }
+
+    @Scheduled(fixedDelayString = "${app.gamification.leaderboard.journal-flush-interval-ms:1000}")
+    public void flushJournal() {
+        journal.flush();
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        try {
+            snapshot();
+        } finally {
+            journal.close();
+        }
+    }
+
+    /**
+     * Top students of a course, or of every course when courseId is null, over a
+     * rolling window or all time (global only; course all-time rankings are rendered
+     * by {@link CatalogService}).
+     */
+    public List<Map<String, Object>> renderTop(Long courseId, LeaderboardWindow window, int limit) {
+        List<LeaderboardEntry> top;
+        if (window.isRolling()) {
+            Map<LeaderboardWindow, RollingPoints> windows = courseId == null ? global : courses.get(courseId);
+            top = windows == null ? List.of() : windows.get(window).top(limit);
+        } else if (courseId == null) {
+            top = new ArrayList<>();
+            for (IndexedUser user : userIndexService.topByPoints(limit)) {
+                top.add(new LeaderboardEntry(user.userId(), user.totalPoints()));
+            }
+        } else {
+            throw new IllegalArgumentException("Course all-time leaderboards are rendered by the catalog");
+        }
+        if (top.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> userIds = new ArrayList<>(top.size());
+        for (LeaderboardEntry entry : top) {
+            userIds.add(entry.userId());
+        }
+        Map<Long, String[]> students = new HashMap<>();
+        namedParameterJdbcTemplate.query(
+            "SELECT id, first_name, last_name, profile_image_url FROM users WHERE id IN (:ids)",
+            new MapSqlParameterSource("ids", userIds), rs -> {
+                students.put(rs.getLong("id"), new String[] {
+                    rs.getString("first_name") + " " + rs.getString("last_name"), rs.getString("profile_image_url")});
+            });
+
+        List<Map<String, Object>> entries = new ArrayList<>(top.size());
+        int rank = 0;
+        for (LeaderboardEntry entry : top) {
+            String[] student = students.get(entry.userId());
+            if (student == null) {
+                continue;
+            }
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("rank", ++rank);
+            row.put("student_id", entry.userId());
+            row.put("student_name", student[0]);
+            row.put("profile_image_url", student[1]);
+            row.put("total_points", entry.points());
+            entries.add(row);
+        }
+        return entries;
+    }
+
+    private void apply(long courseId, long userId, int points, long epochHour) {
+        add(global, userId, points, epochHour);
+        if (courseId != 0) {
+            // Inside compute, so the roll can't drop the course's windows while they are updated
+            courses.compute(courseId, (id, windows) -> add(windows == null ? windows() : windows, userId, points, epochHour));
+        }
+    }
+
+    private Map<LeaderboardWindow, RollingPoints> windowsOf(long courseId) {
+        return courseId == 0 ? global : courses.computeIfAbsent(courseId, id -> windows());
+    }
+
+    private static Map<LeaderboardWindow, RollingPoints> add(Map<LeaderboardWindow, RollingPoints> windows,
+                                                           long userId, int points, long epochHour) {
+        for (LeaderboardWindow window : ROLLING) {
+            windows.get(window).add(userId, points, epochHour);
+        }
+        return windows;
+    }
+
+    /**
+     * Every scope's windows, keyed by course id with 0 for the global ones.
+     */
+    private Map<Long, Map<LeaderboardWindow, RollingPoints>> allWindows() {
+        Map<Long, Map<LeaderboardWindow, RollingPoints>> all = new HashMap<>(courses);
+        all.put(0L, global);
+        return all;
+    }
+
+    private Path snapshotFile() {
+        return directory.resolve("points.snapshot");
+    }
+
+    private static boolean advance(Map<LeaderboardWindow, RollingPoints> windows, long epochHour) {
+        boolean expired = false;
+        for (LeaderboardWindow window : ROLLING) {
+            expired |= windows.get(window).advance(epochHour);
+        }
+        return expired;
+    }
+
+    private static Map<LeaderboardWindow, RollingPoints> windows() {
+        Map<LeaderboardWindow, RollingPoints> windows = new EnumMap<>(LeaderboardWindow.class);
+        for (LeaderboardWindow window : ROLLING) {
+            windows.put(window, new RollingPoints(window));
+        }
+        return windows;
+    }
+}
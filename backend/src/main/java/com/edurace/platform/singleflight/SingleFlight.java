@@ -0,0 +1,27 @@
+package com.edurace.platform.singleflight;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Collapses concurrent calls with equal arguments into a single invocation whose
+ * result is shared by every caller. Put it on read-only repository or service
+ * interface methods that return values, e.g. DTO projections; never on ones that
+ * return entities, which would be shared across threads while still attached to the
+ * leader's persistence context, lazy associations included. Callers must treat the
+ * shared result as read-only. Calls made inside a read-write transaction are never
+ * collapsed, so they always see their own writes.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface SingleFlight {
+
+    /**
+     * Name reported in metrics; defaults to Interface.method.
+     */
+    String value() default "";
+}
@@ -0,0 +1,89 @@
+package com.edurace.platform.singleflight;
+
+import org.springframework.aop.SpringProxy;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aot.generate.GenerationContext;
+import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.aot.BeanRegistrationAotContribution;
+import org.springframework.beans.factory.aot.BeanRegistrationAotProcessor;
+import org.springframework.beans.factory.aot.BeanRegistrationCode;
+import org.springframework.beans.factory.support.RegisteredBean;
+import org.springframework.core.DecoratingProxy;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.repository.Repository;
+import org.springframework.transaction.interceptor.TransactionalProxy;
+import org.springframework.util.ClassUtils;
+
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Registers JDK proxy hints for the proxies {@link SingleFlightBeanPostProcessor}
+ * creates at runtime, which a native image cannot generate on the fly. The
+ * interface list must match the one the post-processor ends up with: the target's
+ * own interfaces followed by the ones ProxyFactory adds.
+ */
+public class SingleFlightAotProcessor implements BeanRegistrationAotProcessor {
+
+    @Override
+    public BeanRegistrationAotContribution processAheadOfTime(RegisteredBean registeredBean) {
+        Class<?> type = objectType(registeredBean);
+        if (type == null || !declaresSingleFlight(type)) {
+            return null;
+        }
+
+        List<List<Class<?>>> variants = new ArrayList<>();
+        if (type.isInterface() && Repository.class.isAssignableFrom(type)) {
+            // Interfaces of a Spring Data repository proxy (which may also be Serializable), minus the AOP ones
+            variants.add(List.of(type, Repository.class, TransactionalProxy.class));
+            variants.add(List.of(type, Repository.class, TransactionalProxy.class, Serializable.class));
+        } else {
+            List<Class<?>> interfaces = new ArrayList<>();
+            for (Class<?> candidate : ClassUtils.getAllInterfacesForClassAsSet(type)) {
+                if (!candidate.getName().startsWith("org.springframework.aop.") && candidate != DecoratingProxy.class) {
+                    interfaces.add(candidate);
+                }
+            }
+            variants.add(interfaces);
+        }
+
+        return (GenerationContext context, BeanRegistrationCode code) -> {
+            for (List<Class<?>> variant : variants) {
+                List<Class<?>> interfaces = new ArrayList<>(variant);
+                interfaces.add(SpringProxy.class);
+                interfaces.add(Advised.class);
+                interfaces.add(DecoratingProxy.class);
+                context.getRuntimeHints().proxies().registerJdkProxy(interfaces.toArray(Class<?>[]::new));
+            }
+        };
+    }
+
+    private static Class<?> objectType(RegisteredBean registeredBean) {
+        ResolvableType beanType = registeredBean.getBeanType();
+        if (FactoryBean.class.isAssignableFrom(registeredBean.getBeanClass())) {
+            Object attribute = registeredBean.getMergedBeanDefinition().getAttribute(FactoryBean.OBJECT_TYPE_ATTRIBUTE);
+            if (attribute instanceof Class<?> objectType) {
+                return objectType;
+            }
+            if (attribute instanceof ResolvableType objectType) {
+                return objectType.resolve();
+            }
+            return beanType.as(FactoryBean.class).getGeneric(0).resolve();
+        }
+        return beanType.resolve();
+    }
+
+    private static boolean declaresSingleFlight(Class<?> type) {
+        for (Class<?> candidate : type.isInterface() ? List.of(type) : ClassUtils.getAllInterfacesForClassAsSet(type)) {
+            for (Method method : candidate.getMethods()) {
+                if (AnnotatedElementUtils.hasAnnotation(method, SingleFlight.class)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
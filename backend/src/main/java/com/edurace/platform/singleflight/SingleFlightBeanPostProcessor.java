@@ -0,0 +1,79 @@
+package com.edurace.platform.singleflight;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.DecoratingProxy;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wraps beans (typically Spring Data repository proxies) that declare
+ * {@link SingleFlight} methods on one of their interfaces.
+ */
+@Component
+public class SingleFlightBeanPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<SingleFlightMetrics> metricsProvider;
+
+    public SingleFlightBeanPostProcessor(ObjectProvider<SingleFlightMetrics> metricsProvider) {
+        this.metricsProvider = metricsProvider;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        for (Class<?> type : ClassUtils.getAllInterfaces(bean)) {
+            for (Method method : type.getMethods()) {
+                if (AnnotatedElementUtils.hasAnnotation(method, SingleFlight.class)) {
+                    ProxyFactory proxyFactory = new ProxyFactory();
+                    proxyFactory.setTarget(bean);
+                    for (Class<?> proxied : ClassUtils.getAllInterfaces(bean)) {
+                        if (!proxied.getName().startsWith("org.springframework.aop.") && proxied != DecoratingProxy.class) {
+                            proxyFactory.addInterface(proxied);
+                        }
+                    }
+                    proxyFactory.addAdvice(new Interceptor());
+                    return proxyFactory.getProxy(ClassUtils.getDefaultClassLoader());
+                }
+            }
+        }
+        return bean;
+    }
+
+    private final class Interceptor implements MethodInterceptor {
+
+        private final Map<Method, SingleFlightGroup> groups = new ConcurrentHashMap<>();
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Method method = invocation.getMethod();
+            SingleFlight singleFlight = AnnotatedElementUtils.findMergedAnnotation(method, SingleFlight.class);
+            if (singleFlight == null ||
+                (TransactionSynchronizationManager.isActualTransactionActive() &&
+                 !TransactionSynchronizationManager.isCurrentTransactionReadOnly())) {
+                return invocation.proceed();
+            }
+
+            SingleFlightGroup group = groups.computeIfAbsent(method, m -> new SingleFlightGroup(
+                metricsProvider.getObject().statsFor(flightName(m, singleFlight))));
+            List<Object> key = Arrays.asList(invocation.getArguments());
+            return group.execute(key, invocation::proceed);
+        }
+
+        private String flightName(Method method, SingleFlight singleFlight) {
+            return singleFlight.value().isEmpty()
+                ? method.getDeclaringClass().getSimpleName() + "." + method.getName()
+                : singleFlight.value();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.edurace.platform.singleflight;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs at most one call per key at a time; callers arriving while a call is in
+ * flight wait for it and share its result or exception.
+ */
+public class SingleFlightGroup {
+
+    @FunctionalInterface
+    public interface Call {
+        Object call() throws Throwable;
+    }
+
+    private static final class Flight {
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private final AtomicInteger callers = new AtomicInteger(1);
+    }
+
+    private final ConcurrentHashMap<Object, Flight> flights = new ConcurrentHashMap<>();
+    private final SingleFlightMetrics.Stats stats;
+
+    public SingleFlightGroup(SingleFlightMetrics.Stats stats) {
+        this.stats = stats;
+    }
+
+    public Object execute(Object key, Call call) throws Throwable {
+        Flight flight = new Flight();
+        Flight inFlight = flights.putIfAbsent(key, flight);
+        if (inFlight != null) {
+            inFlight.callers.incrementAndGet();
+            return await(inFlight);
+        }
+
+        try {
+            Object result = call.call();
+            flight.result.complete(result);
+            return result;
+        } catch (Throwable t) {
+            flight.result.completeExceptionally(t);
+            throw t;
+        } finally {
+            flights.remove(key, flight);
+            stats.record(flight.callers.get());
+        }
+    }
+
+    private static Object await(Flight flight) throws Throwable {
+        try {
+            return flight.result.get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+}
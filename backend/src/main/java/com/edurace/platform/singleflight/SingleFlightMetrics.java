@@ -0,0 +1,53 @@
+package com.edurace.platform.singleflight;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-flight counters: how many underlying calls ran, how many callers they served
+ * and the largest number of callers a single call collapsed.
+ */
+@Component
+public class SingleFlightMetrics {
+
+    public static class Stats {
+        private final LongAdder flights = new LongAdder();
+        private final LongAdder callers = new LongAdder();
+        private final LongAccumulator maxCollapsed = new LongAccumulator(Long::max, 0);
+
+        void record(int flightCallers) {
+            flights.increment();
+            callers.add(flightCallers);
+            maxCollapsed.accumulate(flightCallers);
+        }
+
+        public Map<String, Object> snapshot() {
+            long flightCount = flights.sum();
+            long callerCount = callers.sum();
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("flights", flightCount);
+            snapshot.put("callers", callerCount);
+            snapshot.put("collapsed", callerCount - flightCount);
+            snapshot.put("max_callers_per_flight", maxCollapsed.get());
+            snapshot.put("avg_callers_per_flight", flightCount == 0 ? 0.0 : (double) callerCount / flightCount);
+            return snapshot;
+        }
+    }
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    public Stats statsFor(String flightName) {
+        return stats.computeIfAbsent(flightName, name -> new Stats());
+    }
+
+    public Map<String, Map<String, Object>> snapshot() {
+        Map<String, Map<String, Object>> snapshot = new LinkedHashMap<>();
+        stats.forEach((name, flightStats) -> snapshot.put(name, flightStats.snapshot()));
+        return snapshot;
+    }
+}
@@ -0,0 +1,187 @@
+package com.edurace.platform.snapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Segmented, memory-mapped journal of the changes made to some in-memory state since
+ * its last {@link SnapshotFile}.
+ *
+ * Changes are fixed {@value #RECORD_BYTES}-byte records: a key (8), five int
+ * arguments (20) and a non-zero type (4), which is stored last so the first zero type
+ * marks the end of a segment. Taking a snapshot {@link #roll}s to a new segment and
+ * records its sequence in the image; restoring maps the image and replays the segments
+ * from that sequence on, and the older ones are {@link #truncateBefore truncated}.
+ */
+public class ChangeJournal implements Closeable {
+
+    public static final int RECORD_BYTES = 32;
+
+    private static final String SUFFIX = ".journal";
+
+    @FunctionalInterface
+    public interface RecordConsumer {
+        void accept(int type, long key, int a, int b, int c, int d, int e);
+    }
+
+    private final Path directory;
+    private final String prefix;
+    private final int segmentBytes;
+    private final TreeMap<Long, Path> sealed = new TreeMap<>();
+
+    private long activeSequence;
+    private FileChannel activeChannel;
+    private MappedByteBuffer active;
+    private int position;
+
+    public ChangeJournal(Path directory, String name, int segmentBytes) throws IOException {
+        if (segmentBytes < RECORD_BYTES || segmentBytes % RECORD_BYTES != 0) {
+            throw new IllegalArgumentException("Segment size must be a multiple of " + RECORD_BYTES + ": " + segmentBytes);
+        }
+        this.directory = directory;
+        this.prefix = name + "-";
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(directory);
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*" + SUFFIX)) {
+            for (Path file : files) {
+                sealed.put(sequenceOf(file), file);
+            }
+        }
+        if (sealed.isEmpty()) {
+            openActive(1);
+        } else {
+            openActive(sealed.pollLastEntry().getKey());
+            while (position < segmentBytes && active.getInt(position + 28) != 0) {
+                position += RECORD_BYTES;
+            }
+        }
+    }
+
+    public synchronized void append(int type, long key, int a, int b, int c, int d, int e) {
+        if (type == 0) {
+            throw new IllegalArgumentException("Record type 0 marks the end of a segment");
+        }
+        if (position == segmentBytes) {
+            try {
+                roll();
+            } catch (IOException ex) {
+                throw new IllegalStateException("Failed to open the next journal segment", ex);
+            }
+        }
+        active.putLong(position, key)
+            .putInt(position + 8, a)
+            .putInt(position + 12, b)
+            .putInt(position + 16, c)
+            .putInt(position + 20, d)
+            .putInt(position + 24, e)
+            .putInt(position + 28, type);
+        position += RECORD_BYTES;
+    }
+
+    /**
+     * Seals the active segment, unless it is still empty, and returns the sequence of
+     * the segment that now receives new records.
+     */
+    public synchronized long roll() throws IOException {
+        if (position > 0) {
+            active.force();
+            activeChannel.close();
+            sealed.put(activeSequence, segmentPath(activeSequence));
+            openActive(activeSequence + 1);
+        }
+        return activeSequence;
+    }
+
+    /**
+     * Deletes the segments older than {@code sequence}.
+     */
+    public synchronized void truncateBefore(long sequence) throws IOException {
+        Map<Long, Path> older = sealed.headMap(sequence);
+        for (Path segment : older.values()) {
+            Files.deleteIfExists(segment);
+        }
+        older.clear();
+    }
+
+    /**
+     * Replays the records of every segment from {@code fromSequence} on, oldest first.
+     * Meant for startup, before appends begin.
+     */
+    public synchronized long replay(long fromSequence, RecordConsumer consumer) throws IOException {
+        long replayed = 0;
+        List<Path> segments = new ArrayList<>(sealed.tailMap(fromSequence).values());
+        for (Path segment : segments) {
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                replayed += replay(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()),
+                    (int) channel.size(), consumer);
+            }
+        }
+        if (activeSequence >= fromSequence) {
+            replayed += replay(active, position, consumer);
+        }
+        return replayed;
+    }
+
+    /**
+     * Writes the active segment's dirty pages to disk.
+     */
+    public synchronized void flush() {
+        active.force();
+    }
+
+    /**
+     * Records appended since the last roll.
+     */
+    public synchronized int getPendingRecords() {
+        return position / RECORD_BYTES;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        active.force();
+        activeChannel.close();
+    }
+
+    private static long replay(MappedByteBuffer segment, int end, RecordConsumer consumer) {
+        long replayed = 0;
+        for (int offset = 0; offset + RECORD_BYTES <= end; offset += RECORD_BYTES) {
+            int type = segment.getInt(offset + 28);
+            if (type == 0) {
+                break;
+            }
+            consumer.accept(type, segment.getLong(offset), segment.getInt(offset + 8), segment.getInt(offset + 12),
+                segment.getInt(offset + 16), segment.getInt(offset + 20), segment.getInt(offset + 24));
+            replayed++;
+        }
+        return replayed;
+    }
+
+    private void openActive(long sequence) throws IOException {
+        activeSequence = sequence;
+        activeChannel = FileChannel.open(segmentPath(sequence),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // Mapping past the end grows the file (sparsely) to the full segment size
+        active = activeChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        position = 0;
+    }
+
+    private Path segmentPath(long sequence) {
+        return directory.resolve(String.format("%s%012d%s", prefix, sequence, SUFFIX));
+    }
+
+    private long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - SUFFIX.length()));
+    }
+}
@@ -0,0 +1,95 @@
+package com.edurace.platform.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary image of some in-memory state, written and read through a memory mapping.
+ *
+ * The header records the payload format version, the {@link ChangeJournal} segment
+ * that continues from the image, when it was taken and a checksum of the payload. An
+ * image is written to a temporary file and moved into place, so a crash while writing
+ * leaves the previous image intact.
+ */
+public final class SnapshotFile {
+
+    private static final int MAGIC = 0x45525350; // "ERSP"
+    private static final int HEADER_BYTES = 40;
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Contents of an image. The payload stays mapped for as long as it is referenced.
+     */
+    public record Image(int version, long journalSequence, long takenAt, ByteBuffer payload) {
+    }
+
+    /**
+     * Writes an image whose payload is exactly {@code payloadBytes} long, filled in by
+     * {@code writer} from position 0.
+     */
+    public static void write(Path file, int version, long journalSequence, long payloadBytes,
+                             Consumer<ByteBuffer> writer) throws IOException {
+        if (payloadBytes > Integer.MAX_VALUE - HEADER_BYTES) {
+            throw new IOException("Snapshot payload too large: " + payloadBytes + " bytes");
+        }
+        Files.createDirectories(file.getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + payloadBytes);
+            ByteBuffer payload = mapped.slice(HEADER_BYTES, (int) payloadBytes);
+            writer.accept(payload);
+            if (payload.position() != payloadBytes) {
+                throw new IllegalStateException("Snapshot writer filled " + payload.position() + " of " + payloadBytes + " bytes");
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(payload.flip());
+            mapped.putInt(0, MAGIC)
+                .putInt(4, version)
+                .putLong(8, journalSequence)
+                .putLong(16, System.currentTimeMillis())
+                .putLong(24, payloadBytes)
+                .putLong(32, crc.getValue());
+            mapped.force();
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps an image, or returns null if there is none. A truncated or corrupt image
+     * is an IOException.
+     */
+    public static Image read(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IOException("Snapshot " + file + " is truncated");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            long payloadBytes = mapped.getLong(24);
+            if (mapped.getInt(0) != MAGIC || payloadBytes != size - HEADER_BYTES) {
+                throw new IOException("Snapshot " + file + " has a bad header");
+            }
+            ByteBuffer payload = mapped.slice(HEADER_BYTES, (int) payloadBytes);
+            CRC32C crc = new CRC32C();
+            crc.update(payload.duplicate());
+            if (crc.getValue() != mapped.getLong(32)) {
+                throw new IOException("Snapshot " + file + " fails its checksum");
+            }
+            return new Image(mapped.getInt(4), mapped.getLong(8), mapped.getLong(16), payload.asReadOnlyBuffer());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.edurace.platform.userindex;
+
+import com.edurace.platform.entity.Role;
+
+public record IndexedUser(
+        long userId,
+        Role role,
+        boolean enabled,
+        boolean locked,
+        int totalPoints,
+        int currentStreak,
+        int longestStreak) {
+}
@@ -0,0 +1,479 @@
+package com.edurace.platform.userindex;
+
+import com.edurace.platform.entity.Role;
+import com.edurace.platform.snapshot.ChangeJournal;
+import com.edurace.platform.snapshot.SnapshotFile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Compact columnar index of the user fields that ranking, streak and leaderboard
+ * code reads on hot paths.
+ *
+ * Each user occupies one slot across parallel primitive arrays, found through an
+ * open-addressing id to slot map, which comes to 40-70 bytes per user against
+ * several kilobytes for a managed {@link com.edurace.platform.entity.User}. Writers
+ * serialize on a {@link StampedLock}; point lookups are optimistic reads that only
+ * fall back to the read lock when they race with a write.
+ *
+ * With a {@link ChangeJournal} attached, every change is journaled under the write
+ * lock as the slot's resulting values, so replaying the journal over the last
+ * {@link #writeSnapshot snapshot} reproduces the index exactly. Bulk loads through
+ * {@link #putIfAbsent} are not journaled; a snapshot follows them.
+ */
+@Component
+public class UserIndex {
+
+    private static final int NO_DAY = Integer.MIN_VALUE;
+
+    private static final byte PRESENT = 1 << 2;
+    private static final byte ENABLED = 1 << 3;
+    private static final byte LOCKED = 1 << 4;
+    private static final byte ROLE_MASK = 0b11;
+    private static final Role[] ROLES = Role.values();
+
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int SET = 1;
+    private static final int REMOVE = 2;
+    private static final int RESET_STREAKS = 3;
+
+    private final StampedLock lock = new StampedLock();
+    private final LongIntHashMap slots = new LongIntHashMap(1024);
+    private Columns columns = new Columns(1024);
+    private int slotCount;
+    private int userCount;
+    private ChangeJournal journal;
+
+    public IndexedUser find(long userId) {
+        long stamp = lock.tryOptimisticRead();
+        IndexedUser user = read(userId);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                user = read(userId);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return user;
+    }
+
+    /**
+     * Inserts or replaces everything the index holds for a user.
+     */
+    public void put(long userId, Role role, boolean enabled, boolean locked,
+                    int totalPoints, int currentStreak, int longestStreak) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = slotFor(userId);
+            Columns c = columns;
+            if ((c.flags[slot] & PRESENT) == 0) {
+                c.lastActiveDay[slot] = NO_DAY;
+                userCount++;
+            }
+            c.flags[slot] = flags(role, enabled, locked);
+            c.points[slot] = totalPoints;
+            c.currentStreak[slot] = currentStreak;
+            c.longestStreak[slot] = longestStreak;
+            journal(slot);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Bulk-load variant of {@link #put} that leaves users already in the index
+     * untouched, since their entries came from events newer than the scan.
+     */
+    public void putIfAbsent(long userId, Role role, boolean enabled, boolean locked,
+                            int totalPoints, int currentStreak, int longestStreak, int lastActiveEpochDay) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = slotFor(userId);
+            Columns c = columns;
+            if ((c.flags[slot] & PRESENT) != 0) {
+                return;
+            }
+            userCount++;
+            c.flags[slot] = flags(role, enabled, locked);
+            c.points[slot] = totalPoints;
+            c.currentStreak[slot] = currentStreak;
+            c.longestStreak[slot] = longestStreak;
+            c.lastActiveDay[slot] = lastActiveEpochDay;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void remove(long userId) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = slots.get(userId);
+            if (slot != LongIntHashMap.MISSING && (columns.flags[slot] & PRESENT) != 0) {
+                // The slot stays mapped to the id and is reused if the user reappears
+                columns.flags[slot] = 0;
+                userCount--;
+                if (journal != null) {
+                    journal.append(REMOVE, userId, 0, 0, 0, 0, 0);
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void addPoints(long userId, int delta) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = presentSlot(userId);
+            if (slot >= 0) {
+                columns.points[slot] += delta;
+                journal(slot);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void updateStreak(long userId, int currentStreak, int longestStreak, int activeEpochDay) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = presentSlot(userId);
+            if (slot >= 0) {
+                columns.currentStreak[slot] = currentStreak;
+                columns.longestStreak[slot] = longestStreak;
+                columns.lastActiveDay[slot] = activeEpochDay;
+                journal(slot);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Mirrors the nightly streak rollover: zeroes the current streak of every user
+     * not active on or after the given day. Returns the number of streaks reset.
+     */
+    public int resetStreaksInactiveBefore(int epochDay) {
+        long stamp = lock.writeLock();
+        try {
+            if (journal != null) {
+                journal.append(RESET_STREAKS, 0, epochDay, 0, 0, 0, 0);
+            }
+            return resetStreaks(epochDay);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Starts journaling changes. Attach only after any restore has been replayed.
+     */
+    public void attachJournal(ChangeJournal journal) {
+        long stamp = lock.writeLock();
+        try {
+            this.journal = journal;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Writes every indexed user to {@code file} and rolls the journal, so the
+     * snapshot plus the journal from the returned sequence on make up the index.
+     * Writers wait only while the columns are copied.
+     */
+    public long writeSnapshot(Path file, ChangeJournal journal) throws IOException {
+        Columns copy;
+        int count;
+        long sequence;
+        long stamp = lock.readLock();
+        try {
+            // Journal appends happen under the write lock, so none can slip between the copy and the roll
+            count = userCount;
+            copy = new Columns(count);
+            Columns c = columns;
+            for (int slot = 0, i = 0; slot < slotCount; slot++) {
+                if ((c.flags[slot] & PRESENT) != 0) {
+                    copy.ids[i] = c.ids[slot];
+                    copy.flags[i] = c.flags[slot];
+                    copy.points[i] = c.points[slot];
+                    copy.currentStreak[i] = c.currentStreak[slot];
+                    copy.longestStreak[i] = c.longestStreak[slot];
+                    copy.lastActiveDay[i] = c.lastActiveDay[slot];
+                    i++;
+                }
+            }
+            sequence = journal.roll();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+
+        SnapshotFile.write(file, SNAPSHOT_VERSION, sequence, Integer.BYTES + (long) count * Columns.BYTES_PER_SLOT, out -> {
+            out.putInt(count);
+            out.asLongBuffer().put(copy.ids, 0, count);
+            out.position(out.position() + count * Long.BYTES);
+            for (int[] column : new int[][] {copy.points, copy.currentStreak, copy.longestStreak, copy.lastActiveDay}) {
+                out.asIntBuffer().put(column, 0, count);
+                out.position(out.position() + count * Integer.BYTES);
+            }
+            out.put(copy.flags, 0, count);
+        });
+        return sequence;
+    }
+
+    /**
+     * Fills an empty index from a snapshot written by {@link #writeSnapshot}. Returns
+     * false, leaving the index untouched, if the snapshot is of another format.
+     */
+    public boolean restoreSnapshot(SnapshotFile.Image image) {
+        if (image.version() != SNAPSHOT_VERSION) {
+            return false;
+        }
+        ByteBuffer in = image.payload().duplicate();
+        int count = in.getInt();
+        Columns restored = new Columns(Math.max(1024, count));
+        in.asLongBuffer().get(restored.ids, 0, count);
+        in.position(in.position() + count * Long.BYTES);
+        for (int[] column : new int[][] {restored.points, restored.currentStreak, restored.longestStreak, restored.lastActiveDay}) {
+            in.asIntBuffer().get(column, 0, count);
+            in.position(in.position() + count * Integer.BYTES);
+        }
+        in.get(restored.flags, 0, count);
+
+        long stamp = lock.writeLock();
+        try {
+            if (slotCount > 0) {
+                throw new IllegalStateException("Snapshots can only be restored into an empty index");
+            }
+            columns = restored;
+            for (int slot = 0; slot < count; slot++) {
+                slots.put(restored.ids[slot], slot);
+            }
+            slotCount = count;
+            userCount = count;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Applies a journal record written by this index. Used while replaying, before
+     * the journal is attached.
+     */
+    public void replay(int type, long userId, int flags, int points, int currentStreak, int longestStreak, int lastActiveDay) {
+        long stamp = lock.writeLock();
+        try {
+            switch (type) {
+                case SET -> {
+                    int slot = slotFor(userId);
+                    Columns c = columns;
+                    if ((c.flags[slot] & PRESENT) == 0) {
+                        userCount++;
+                    }
+                    c.flags[slot] = (byte) flags;
+                    c.points[slot] = points;
+                    c.currentStreak[slot] = currentStreak;
+                    c.longestStreak[slot] = longestStreak;
+                    c.lastActiveDay[slot] = lastActiveDay;
+                }
+                case REMOVE -> {
+                    int slot = presentSlot(userId);
+                    if (slot >= 0) {
+                        columns.flags[slot] = 0;
+                        userCount--;
+                    }
+                }
+                case RESET_STREAKS -> resetStreaks(flags);
+                default -> throw new IllegalArgumentException("Unknown journal record type " + type);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private int resetStreaks(int epochDay) {
+        Columns c = columns;
+        int reset = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (c.currentStreak[slot] > 0 && c.lastActiveDay[slot] < epochDay) {
+                c.currentStreak[slot] = 0;
+                reset++;
+            }
+        }
+        return reset;
+    }
+
+    /**
+     * 1-based rank of the user among enabled students by total points, ties sharing
+     * a rank, or 0 when the user is not an indexed, enabled student.
+     */
+    public int rankOf(long userId) {
+        long stamp = lock.readLock();
+        try {
+            int slot = presentSlot(userId);
+            Columns c = columns;
+            if (slot < 0 || !rankable(c.flags[slot])) {
+                return 0;
+            }
+            int points = c.points[slot];
+            int ahead = 0;
+            for (int i = 0; i < slotCount; i++) {
+                if (c.points[i] > points && rankable(c.flags[i])) {
+                    ahead++;
+                }
+            }
+            return ahead + 1;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * The enabled students with the most points, highest first.
+     */
+    public List<IndexedUser> topByPoints(int limit) {
+        long stamp = lock.readLock();
+        try {
+            Columns c = columns;
+            // Min-heap of slots holding the best `limit` seen so far
+            PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1,
+                (a, b) -> Integer.compare(c.points[a], c.points[b]));
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (!rankable(c.flags[slot])) {
+                    continue;
+                }
+                if (best.size() < limit) {
+                    best.add(slot);
+                } else if (c.points[slot] > c.points[best.peek()]) {
+                    best.poll();
+                    best.add(slot);
+                }
+            }
+            List<IndexedUser> top = new ArrayList<>(best.size());
+            while (!best.isEmpty()) {
+                top.add(toUser(c, best.poll()));
+            }
+            Collections.reverse(top);
+            return top;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return userCount;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Approximate heap footprint of the index structures.
+     */
+    public long memoryBytes() {
+        long stamp = lock.readLock();
+        try {
+            return slots.memoryBytes() + (long) columns.ids.length * Columns.BYTES_PER_SLOT;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private IndexedUser read(long userId) {
+        int slot = slots.get(userId);
+        Columns c = columns;
+        if (slot < 0 || slot >= c.ids.length || (c.flags[slot] & PRESENT) == 0 || c.ids[slot] != userId) {
+            return null;
+        }
+        return toUser(c, slot);
+    }
+
+    private int presentSlot(long userId) {
+        int slot = slots.get(userId);
+        return slot != LongIntHashMap.MISSING && (columns.flags[slot] & PRESENT) != 0 ? slot : -1;
+    }
+
+    private int slotFor(long userId) {
+        int slot = slots.get(userId);
+        if (slot != LongIntHashMap.MISSING) {
+            return slot;
+        }
+        if (slotCount == columns.ids.length) {
+            columns = columns.grow(columns.ids.length << 1);
+        }
+        slot = slotCount++;
+        columns.ids[slot] = userId;
+        slots.put(userId, slot);
+        return slot;
+    }
+
+    private void journal(int slot) {
+        if (journal != null) {
+            Columns c = columns;
+            journal.append(SET, c.ids[slot], c.flags[slot], c.points[slot],
+                c.currentStreak[slot], c.longestStreak[slot], c.lastActiveDay[slot]);
+        }
+    }
+
+    private static IndexedUser toUser(Columns c, int slot) {
+        byte flags = c.flags[slot];
+        return new IndexedUser(c.ids[slot], ROLES[flags & ROLE_MASK], (flags & ENABLED) != 0, (flags & LOCKED) != 0,
+            c.points[slot], c.currentStreak[slot], c.longestStreak[slot]);
+    }
+
+    private static boolean rankable(byte flags) {
+        return (flags & (PRESENT | ENABLED | ROLE_MASK)) == (PRESENT | ENABLED | Role.STUDENT.ordinal());
+    }
+
+    private static byte flags(Role role, boolean enabled, boolean locked) {
+        return (byte) (PRESENT | role.ordinal() | (enabled ? ENABLED : 0) | (locked ? LOCKED : 0));
+    }
+
+    /**
+     * One generation of the column arrays; replaced as a unit when it grows so an
+     * optimistic reader never sees columns of different lengths.
+     */
+    private static final class Columns {
+
+        static final int BYTES_PER_SLOT = Long.BYTES + 4 * Integer.BYTES + 1;
+
+        final long[] ids;
+        final int[] points;
+        final int[] currentStreak;
+        final int[] longestStreak;
+        final int[] lastActiveDay;
+        final byte[] flags;
+
+        Columns(int capacity) {
+            this(new long[capacity], new int[capacity], new int[capacity], new int[capacity], new int[capacity], new byte[capacity]);
+        }
+
+        private Columns(long[] ids, int[] points, int[] currentStreak, int[] longestStreak, int[] lastActiveDay, byte[] flags) {
+            this.ids = ids;
+            this.points = points;
+            this.currentStreak = currentStreak;
+            this.longestStreak = longestStreak;
+            this.lastActiveDay = lastActiveDay;
+            this.flags = flags;
+        }
+
+        Columns grow(int capacity) {
+            return new Columns(Arrays.copyOf(ids, capacity), Arrays.copyOf(points, capacity),
+                Arrays.copyOf(currentStreak, capacity), Arrays.copyOf(longestStreak, capacity),
+                Arrays.copyOf(lastActiveDay, capacity), Arrays.copyOf(flags, capacity));
+        }
+    }
+}
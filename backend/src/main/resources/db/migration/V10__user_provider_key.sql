@@ -0,0 +1,6 @@
+-- OAuth logins resolve users with an upsert keyed on the provider account, so a
+-- provider id may belong to at most one user. Email and phone accounts leave
+-- provider_id null and are unaffected.
+
+alter table users
+   add constraint uk_users_provider_account unique (provider, provider_id);
@@ -0,0 +1,10 @@
+-- Leases for app.cluster.membership=lease. Each node renews its row while it runs;
+-- a node whose lease has expired drops out of the course ring.
+
+create table cluster_members (
+    node_id varchar(64) not null,
+    base_url varchar(255) not null,
+    joined_at datetime(6) not null,
+    lease_expires_at datetime(6) not null,
+    primary key (node_id)
+) engine=InnoDB;
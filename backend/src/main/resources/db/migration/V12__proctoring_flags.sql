@@ -0,0 +1,18 @@
+-- Quiz attempts whose proctoring suspicion score crossed the flag threshold. Raw
+-- events live in the proctoring log on disk; only flagged attempts reach MySQL.
+-- quiz_attempts is partitioned, so attempt_id is not a foreign key.
+
+create table proctoring_flags (
+    attempt_id bigint not null,
+    quiz_id bigint not null,
+    student_id bigint not null,
+    suspicion_score double not null,
+    event_count integer not null,
+    away_seconds integer not null,
+    reasons varchar(255),
+    flagged_at datetime(6) not null,
+    updated_at datetime(6) not null,
+    primary key (attempt_id)
+) engine=InnoDB;
+
+create index idx_proctoring_flags_quiz_score on proctoring_flags (quiz_id, suspicion_score);
@@ -0,0 +1,3 @@
+-- Restoring the user index from a snapshot re-reads the users updated since it was
+-- taken; without an index that is a full scan of users, which the snapshot avoids.
+create index idx_users_updated_at on users (updated_at);
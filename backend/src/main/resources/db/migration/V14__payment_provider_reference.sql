@@ -0,0 +1,8 @@
+-- The gateway's payment id, which settlement reports are keyed by. Reconciliation
+-- merges reports sorted by this id against payments read in index order, so the
+-- column uses a binary collation: MySQL then orders it exactly as Java compares
+-- strings, which a case-insensitive collation would not.
+alter table payments
+    add column provider_reference varchar(64) character set ascii collate ascii_bin null;
+
+create unique index uk_payments_provider_reference on payments (provider_reference);
@@ -0,0 +1,12 @@
+-- Cluster-wide leases for jobs that must run on one instance at a time (the outbox
+-- relay, streak rollover, partition maintenance and archiving). The instance named
+-- in owner runs the job until locked_until; times are the database's, so the
+-- instances' clocks don't matter.
+
+create table job_leases (
+    name varchar(64) not null,
+    owner varchar(128) not null,
+    locked_at datetime(6) not null,
+    locked_until datetime(6) not null,
+    primary key (name)
+) engine=InnoDB;
@@ -0,0 +1,6 @@
+-- When a sender claimed a row (status SENDING). Several instances claim from the
+-- same queue, so a row is only taken back from SENDING once its claim is older
+-- than any instance would keep it, i.e. its sender has died.
+
+alter table mail_queue
+    add column claimed_at datetime(6) null;
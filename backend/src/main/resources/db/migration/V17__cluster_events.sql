@@ -0,0 +1,15 @@
+-- Domain events that change node-local caches and indexes, written by the instance
+-- where they happened (after commit) and read by the others in id order. Rows are
+-- only kept for a few minutes; an instance that starts loads its state from the
+-- database instead.
+
+create table cluster_events (
+    id bigint not null auto_increment,
+    origin varchar(128) not null,
+    event_type varchar(255) not null,
+    payload json not null,
+    created_at datetime(6) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_cluster_events_created_at on cluster_events (created_at);
@@ -0,0 +1,6 @@
+-- When an outbox handler still failed on the row after its last attempt. Such rows
+-- are kept and no longer relayed; setting the column back to null delivers them
+-- again (to every handler) on the next straggler sweep.
+
+alter table domain_event_outbox
+    add column dead_lettered_at datetime(6) null;
@@ -0,0 +1,219 @@
+-- EduRace Platform baseline schema
+--
+-- Snapshot of the schema previously produced by Hibernate ddl-auto: update.
+-- Existing databases are baselined at this version and skip this script.
+
+create table badges (
+    id bigint not null auto_increment,
+    description varchar(255),
+    earned_at datetime(6) not null,
+    icon_url varchar(255),
+    name varchar(255) not null,
+    user_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table courses (
+    id bigint not null auto_increment,
+    course_end_date datetime(6),
+    course_start_date datetime(6),
+    created_at datetime(6) not null,
+    description TEXT,
+    difficulty_level enum ('BEGINNER','INTERMEDIATE','ADVANCED','EXPERT'),
+    enrollment_end_date datetime(6),
+    enrollment_start_date datetime(6),
+    entry_fee decimal(10,2),
+    estimated_duration_hours integer,
+    is_featured bit not null,
+    max_enrollments integer,
+    status enum ('DRAFT','PUBLISHED','ARCHIVED','SUSPENDED') not null,
+    thumbnail_url varchar(255),
+    title varchar(255) not null,
+    total_lessons integer not null,
+    total_prize_pool decimal(10,2),
+    updated_at datetime(6),
+    instructor_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table enrollments (
+    id bigint not null auto_increment,
+    enrolled_at datetime(6) not null,
+    progress_percentage integer not null,
+    status enum ('ACTIVE','COMPLETED','DROPPED','SUSPENDED') not null,
+    course_id bigint not null,
+    student_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table leaderboard (
+    id bigint not null auto_increment,
+    rank_position integer not null,
+    total_points integer not null,
+    updated_at datetime(6) not null,
+    course_id bigint not null,
+    student_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table lessons (
+    id bigint not null auto_increment,
+    content LONGTEXT,
+    created_at datetime(6) not null,
+    description TEXT,
+    estimated_duration_minutes integer,
+    is_published bit not null,
+    sequence_order integer not null,
+    title varchar(255) not null,
+    updated_at datetime(6),
+    video_url varchar(255),
+    course_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table payments (
+    id bigint not null auto_increment,
+    amount decimal(10,2) not null,
+    created_at datetime(6) not null,
+    status enum ('PENDING','COMPLETED','FAILED','REFUNDED') not null,
+    course_id bigint not null,
+    user_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table quiz_attempts (
+    id bigint not null auto_increment,
+    completed_at datetime(6),
+    passed bit not null,
+    score integer not null,
+    started_at datetime(6) not null,
+    time_taken_minutes integer,
+    quiz_id bigint not null,
+    student_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table quiz_questions (
+    id bigint not null auto_increment,
+    correct_answer varchar(255) not null,
+    option_a varchar(255) not null,
+    option_b varchar(255) not null,
+    option_c varchar(255),
+    option_d varchar(255),
+    points integer not null,
+    question_text TEXT not null,
+    quiz_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table quizzes (
+    id bigint not null auto_increment,
+    created_at datetime(6) not null,
+    description TEXT,
+    is_published bit not null,
+    max_attempts integer not null,
+    passing_score integer not null,
+    time_limit_minutes integer not null,
+    title varchar(255) not null,
+    updated_at datetime(6),
+    lesson_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table users (
+    id bigint not null auto_increment,
+    account_enabled bit not null,
+    account_locked bit not null,
+    created_at datetime(6) not null,
+    current_streak integer not null,
+    email varchar(255) not null,
+    email_verified bit not null,
+    first_name varchar(255) not null,
+    last_login datetime(6),
+    last_name varchar(255) not null,
+    longest_streak integer not null,
+    password varchar(255),
+    phone_number varchar(255),
+    phone_verified bit not null,
+    profile_image_url varchar(255),
+    provider enum ('EMAIL','GOOGLE','PHONE'),
+    provider_id varchar(255),
+    role enum ('STUDENT','INSTRUCTOR','ADMIN') not null,
+    total_points integer not null,
+    updated_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+alter table quizzes
+   add constraint UK_qe2s9lw7k56o4dn543g5j4dw8 unique (lesson_id);
+
+alter table users
+   add constraint UK_6dotkott2kjsp8vw4d0m25fb7 unique (email);
+
+alter table users
+   add constraint UK_9q63snka3mdh91as4io72espi unique (phone_number);
+
+alter table badges
+   add constraint FK6xty094p6yob3kcweag7yv6c8
+   foreign key (user_id)
+   references users (id);
+
+alter table courses
+   add constraint FKcyfum8goa6q5u13uog0563gyp
+   foreign key (instructor_id)
+   references users (id);
+
+alter table enrollments
+   add constraint FKho8mcicp4196ebpltdn9wl6co
+   foreign key (course_id)
+   references courses (id);
+
+alter table enrollments
+   add constraint FK2lha5vwilci2yi3vu5akusx4a
+   foreign key (student_id)
+   references users (id);
+
+alter table leaderboard
+   add constraint FKql93cje5xdew4h6yvaf1qa9c8
+   foreign key (course_id)
+   references courses (id);
+
+alter table leaderboard
+   add constraint FK8h9sec22ksevf3puts6kd6ud5
+   foreign key (student_id)
+   references users (id);
+
+alter table lessons
+   add constraint FK17ucc7gjfjddsyi0gvstkqeat
+   foreign key (course_id)
+   references courses (id);
+
+alter table payments
+   add constraint FK8nlm4urshp5drsk0nlkprig36
+   foreign key (course_id)
+   references courses (id);
+
+alter table payments
+   add constraint FKj94hgy9v5fw1munb90tar2eje
+   foreign key (user_id)
+   references users (id);
+
+alter table quiz_attempts
+   add constraint FKfwipvfipnnwsoacoyv5k7fbxc
+   foreign key (quiz_id)
+   references quizzes (id);
+
+alter table quiz_attempts
+   add constraint FKl6lkk2u7vw7q7kw3udhupe7ut
+   foreign key (student_id)
+   references users (id);
+
+alter table quiz_questions
+   add constraint FKanfmgf6ksbdnv7ojb0pfve54q
+   foreign key (quiz_id)
+   references quizzes (id);
+
+alter table quizzes
+   add constraint FKbdv8uggpsin6pnkx0d80ryqey
+   foreign key (lesson_id)
+   references lessons (id);
@@ -0,0 +1,18 @@
+-- Composite indexes aligned with the repository queries
+--
+-- MySQL 8 has no CREATE INDEX IF NOT EXISTS, so indexes are only ever created
+-- here, once, under Flyway's version control.
+
+-- Per-course ranking: LeaderboardRepository.findTopByCourse (ORDER BY total_points DESC)
+create index idx_leaderboard_course_points on leaderboard (course_id, total_points desc);
+
+-- One leaderboard row per student per course
+alter table leaderboard
+   add constraint uk_leaderboard_course_student unique (course_id, student_id);
+
+-- PaymentRepository.findByUserIdAndStatus
+create index idx_payments_user_status on payments (user_id, status);
+
+-- One enrollment per student per course; also serves student -> courses lookups
+alter table enrollments
+   add constraint uk_enrollments_student_course unique (student_id, course_id);
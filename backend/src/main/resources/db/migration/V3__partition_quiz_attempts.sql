@@ -0,0 +1,52 @@
+-- Monthly range partitioning of quiz_attempts
+--
+-- InnoDB requires the partitioning column in every unique key and does not
+-- support foreign keys on partitioned tables, so the primary key becomes
+-- (id, started_at) and referential integrity for quiz_id / student_id is
+-- enforced by the application. New monthly partitions are split off the
+-- p_future catch-all by QuizAttemptPartitionService.
+
+alter table quiz_attempts
+   drop foreign key FKfwipvfipnnwsoacoyv5k7fbxc,
+   drop foreign key FKl6lkk2u7vw7q7kw3udhupe7ut;
+
+alter table quiz_attempts
+   drop index FKfwipvfipnnwsoacoyv5k7fbxc,
+   drop index FKl6lkk2u7vw7q7kw3udhupe7ut,
+   drop primary key,
+   add primary key (id, started_at);
+
+-- QuizAttemptRepository.countByQuizIdAndStudentId / findByQuizIdAndStudentIdOrderByCompletedAtDesc
+create index idx_quiz_attempts_quiz_student_completed on quiz_attempts (quiz_id, student_id, completed_at);
+
+-- Per-student attempt history (User.quizAttempts)
+create index idx_quiz_attempts_student_completed on quiz_attempts (student_id, completed_at);
+
+alter table quiz_attempts
+   partition by range columns (started_at) (
+       partition p202501 values less than ('2025-02-01'),
+       partition p202502 values less than ('2025-03-01'),
+       partition p202503 values less than ('2025-04-01'),
+       partition p202504 values less than ('2025-05-01'),
+       partition p202505 values less than ('2025-06-01'),
+       partition p202506 values less than ('2025-07-01'),
+       partition p202507 values less than ('2025-08-01'),
+       partition p202508 values less than ('2025-09-01'),
+       partition p202509 values less than ('2025-10-01'),
+       partition p202510 values less than ('2025-11-01'),
+       partition p202511 values less than ('2025-12-01'),
+       partition p202512 values less than ('2026-01-01'),
+       partition p202601 values less than ('2026-02-01'),
+       partition p202602 values less than ('2026-03-01'),
+       partition p202603 values less than ('2026-04-01'),
+       partition p202604 values less than ('2026-05-01'),
+       partition p202605 values less than ('2026-06-01'),
+       partition p202606 values less than ('2026-07-01'),
+       partition p202607 values less than ('2026-08-01'),
+       partition p202608 values less than ('2026-09-01'),
+       partition p202609 values less than ('2026-10-01'),
+       partition p202610 values less than ('2026-11-01'),
+       partition p202611 values less than ('2026-12-01'),
+       partition p202612 values less than ('2027-01-01'),
+       partition p_future values less than (maxvalue)
+   );
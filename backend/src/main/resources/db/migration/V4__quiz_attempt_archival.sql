@@ -0,0 +1,41 @@
+-- Cold-storage archival of quiz attempts
+--
+-- quiz_attempt_summaries holds per-student/per-quiz aggregates of attempts
+-- that have been moved out of quiz_attempts into archive files.
+-- quiz_attempt_archives records which monthly partitions have been archived,
+-- so a rerun after a crash never rolls the same partition up twice.
+
+create table quiz_attempt_summaries (
+    id bigint not null auto_increment,
+    attempts_count integer not null,
+    best_score integer not null,
+    last_completed_at datetime(6),
+    passed_count integer not null,
+    timed_attempts_count integer not null,
+    total_time_minutes bigint not null,
+    updated_at datetime(6) not null,
+    quiz_id bigint not null,
+    student_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+alter table quiz_attempt_summaries
+   add constraint uk_quiz_attempt_summaries_student_quiz unique (student_id, quiz_id);
+
+alter table quiz_attempt_summaries
+   add constraint fk_quiz_attempt_summaries_quiz
+   foreign key (quiz_id)
+   references quizzes (id);
+
+alter table quiz_attempt_summaries
+   add constraint fk_quiz_attempt_summaries_student
+   foreign key (student_id)
+   references users (id);
+
+create table quiz_attempt_archives (
+    partition_name varchar(16) not null,
+    archived_at datetime(6) not null,
+    file_path varchar(512) not null,
+    row_count bigint not null,
+    primary key (partition_name)
+) engine=InnoDB;
@@ -0,0 +1,5 @@
+-- A badge is awarded at most once per user; the achievement engine relies on
+-- this key (INSERT IGNORE) to deduplicate batched awards.
+
+alter table badges
+   add constraint uk_badges_user_name unique (user_id, name);
@@ -0,0 +1,16 @@
+-- Per-user daily activity bitmap, one row per user per month.
+-- Bit (day_of_month - 1) of day_bits is set when the user was active that day,
+-- so a month of history is one 4-byte value and streaks are recomputed from a
+-- handful of rows.
+
+create table user_activity_months (
+    user_id bigint not null,
+    month_start date not null,
+    day_bits integer unsigned not null default 0,
+    primary key (user_id, month_start)
+) engine=InnoDB;
+
+alter table user_activity_months
+   add constraint fk_user_activity_months_user
+   foreign key (user_id)
+   references users (id);
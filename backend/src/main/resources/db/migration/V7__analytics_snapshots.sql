@@ -0,0 +1,41 @@
+-- Periodic snapshots of the in-memory instructor analytics.
+--
+-- analytics_quiz_stats holds running aggregates of completed attempts per quiz,
+-- with score and time histograms in a sparse binary encoding (see ValueHistogram).
+-- analytics_course_funnels holds cumulative enrollment counts per progress stage.
+-- analytics_watermarks records how far the snapshots have consumed quiz_attempts,
+-- so a restart only replays attempts completed after it.
+
+create table analytics_quiz_stats (
+    quiz_id bigint not null,
+    course_id bigint not null,
+    attempts_count bigint not null,
+    passed_count bigint not null,
+    score_sum bigint not null,
+    timed_attempts_count bigint not null,
+    time_sum_minutes bigint not null,
+    score_histogram blob not null,
+    time_histogram blob not null,
+    updated_at datetime(6) not null,
+    primary key (quiz_id)
+) engine=InnoDB;
+
+create index idx_analytics_quiz_stats_course on analytics_quiz_stats (course_id);
+
+create table analytics_course_funnels (
+    course_id bigint not null,
+    enrolled_count bigint not null,
+    started_count bigint not null,
+    quarter_count bigint not null,
+    half_count bigint not null,
+    three_quarters_count bigint not null,
+    completed_count bigint not null,
+    updated_at datetime(6) not null,
+    primary key (course_id)
+) engine=InnoDB;
+
+create table analytics_watermarks (
+    name varchar(64) not null,
+    through_at datetime(6) not null,
+    primary key (name)
+) engine=InnoDB;
@@ -0,0 +1,13 @@
+-- Transactional outbox for domain events that must survive a crash.
+--
+-- A row is inserted in the same transaction as the change it describes and
+-- deleted once every outbox handler has processed it; rows still present at
+-- startup are delivered again.
+
+create table domain_event_outbox (
+    id bigint not null auto_increment,
+    event_type varchar(255) not null,
+    payload json not null,
+    created_at datetime(6) not null,
+    primary key (id)
+) engine=InnoDB;
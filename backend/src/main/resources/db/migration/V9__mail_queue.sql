@@ -0,0 +1,23 @@
+-- Persistent queue of outgoing email.
+--
+-- Rows are rendered from a named template and a JSON model when they are sent.
+-- dedup_key, when set, keeps a notification from being queued twice for the same
+-- recipient (e.g. repeated course-start announcements).
+
+create table mail_queue (
+    id bigint not null auto_increment,
+    template varchar(64) not null,
+    recipient varchar(255) not null,
+    model json not null,
+    dedup_key varchar(191),
+    status enum ('PENDING','SENDING','SENT','FAILED') not null,
+    attempts integer not null,
+    next_attempt_at datetime(6) not null,
+    last_error varchar(500),
+    created_at datetime(6) not null,
+    sent_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create unique index uk_mail_queue_dedup_key on mail_queue (dedup_key);
+create index idx_mail_queue_status_next_attempt on mail_queue (status, next_attempt_at);
@@ -0,0 +1,62 @@
+package com.edurace.platform;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.MySQLContainer;
+
+import javax.sql.DataSource;
+
+/**
+ * Base for tests of SQL that only MySQL runs (upserts, locking reads, partitions).
+ *
+ * The database is the one named by the test.mysql.url system property (with
+ * test.mysql.username and test.mysql.password), which is wiped and migrated with the
+ * application's Flyway scripts, so it must be a throwaway one. Without it a MySQL
+ * container is started once for the whole run, and the tests are skipped where
+ * Docker isn't available.
+ */
+public abstract class MySqlTestSupport {
+
+    private static MySQLContainer<?> container;
+
+    protected static DataSource dataSource;
+    protected static JdbcTemplate jdbcTemplate;
+    protected static DataSourceTransactionManager transactionManager;
+
+    @BeforeAll
+    static synchronized void migrate() {
+        if (dataSource != null) {
+            return;
+        }
+        String url = System.getProperty("test.mysql.url");
+        if (url != null) {
+            dataSource = new DriverManagerDataSource(url,
+                System.getProperty("test.mysql.username", "root"), System.getProperty("test.mysql.password", ""));
+        } else {
+            Assumptions.assumeTrue(DockerClientFactory.instance().isDockerAvailable(), "Docker is not available");
+            container = new MySQLContainer<>("mysql:8.0");
+            container.start();
+            dataSource = new DriverManagerDataSource(container.getJdbcUrl(), container.getUsername(), container.getPassword());
+        }
+        Flyway flyway = Flyway.configure().dataSource(dataSource).locations("classpath:db/migration")
+            .cleanDisabled(false).load();
+        flyway.clean();
+        flyway.migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+    }
+
+    protected static long insertUser(String email, boolean emailVerified, String provider, String providerId) {
+        jdbcTemplate.update(
+            "INSERT INTO users (email, first_name, last_name, password, provider, provider_id, role, email_verified, " +
+            "phone_verified, account_locked, account_enabled, total_points, current_streak, longest_streak, " +
+            "created_at, updated_at) VALUES (?, 'Test', 'User', ?, ?, ?, 'STUDENT', ?, 0, 0, 1, 0, 0, 0, NOW(6), NOW(6))",
+            email, providerId == null ? "{noop}secret" : null, provider, providerId, emailVerified);
+        return jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = ?", Long.class, email);
+    }
+}
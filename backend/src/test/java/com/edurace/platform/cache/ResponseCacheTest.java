@@ -0,0 +1,87 @@
+package com.edurace.platform.cache;
+
+import com.edurace.platform.singleflight.SingleFlightMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResponseCacheTest {
+
+    private final AtomicInteger renders = new AtomicInteger();
+    private ResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ResponseCache(new SingleFlightMetrics());
+        ReflectionTestUtils.setField(cache, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(cache, "gzipMinBytes", 1024);
+        ReflectionTestUtils.setField(cache, "maxEntries", 3);
+    }
+
+    @Test
+    void leastRecentlyUsedBodiesAreEvicted() throws IOException {
+        for (int id = 1; id <= 3; id++) {
+            get("course:" + id, "");
+        }
+        get("course:1", "");
+        get("course:4", "");
+        assertThat(renders).hasValue(4);
+
+        get("course:1", "");
+        get("course:2", "");
+
+        assertThat(renders).hasValue(5);
+        assertThat(entries()).hasSize(3);
+    }
+
+    @Test
+    void invalidationDropsEveryVariant() throws IOException {
+        get("leaderboard:1", "limit=10");
+        get("leaderboard:1", "limit=20");
+        get("leaderboard:2", "limit=10");
+
+        cache.invalidate("leaderboard:1");
+        get("leaderboard:1", "limit=10");
+        get("leaderboard:2", "limit=10");
+
+        assertThat(renders).hasValue(4);
+    }
+
+    @Test
+    void failedRendersLeaveNothingBehind() {
+        Supplier<Object> missing = () -> {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Course not found");
+        };
+        for (int id = 0; id < 100; id++) {
+            String resource = "course:" + id;
+            assertThatThrownBy(() -> cache.write(new MockHttpServletRequest(), new MockHttpServletResponse(), resource, missing))
+                .isInstanceOf(ResponseStatusException.class);
+        }
+
+        assertThat(entries()).isEmpty();
+    }
+
+    private void get(String resource, String variant) throws IOException {
+        cache.write(new MockHttpServletRequest(), new MockHttpServletResponse(), resource, variant, () -> {
+            renders.incrementAndGet();
+            return Map.of("resource", resource);
+        });
+    }
+
+    private Map<?, ?> entries() {
+        return (Map<?, ?>) ReflectionTestUtils.getField(cache, "entries");
+    }
+}
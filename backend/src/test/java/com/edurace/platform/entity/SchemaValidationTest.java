@@ -0,0 +1,36 @@
+package com.edurace.platform.entity;
+
+import com.edurace.platform.MySqlTestSupport;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+/**
+ * The prod profile boots with ddl-auto none, so this is where the entities are
+ * checked against the schema the Flyway scripts build.
+ */
+class SchemaValidationTest extends MySqlTestSupport {
+
+    @Test
+    void entitiesMatchTheMigratedSchema() {
+        Properties properties = new Properties();
+        properties.put("hibernate.hbm2ddl.auto", "validate");
+        properties.put("hibernate.physical_naming_strategy", CamelCaseToUnderscoresNamingStrategy.class.getName());
+        properties.put("hibernate.implicit_naming_strategy", SpringImplicitNamingStrategy.class.getName());
+
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setPackagesToScan(User.class.getPackageName());
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setJpaProperties(properties);
+
+        assertThatCode(factory::afterPropertiesSet).doesNotThrowAnyException();
+        factory.destroy();
+    }
+}
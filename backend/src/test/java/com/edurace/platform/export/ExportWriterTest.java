@@ -0,0 +1,35 @@
+package com.edurace.platform.export;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExportWriterTest {
+
+    @Test
+    void formulasAreDefusedButNumbersAreNot() throws IOException {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("phone_number", "+14155550123");
+        row.put("adjustment", "-12.50");
+        row.put("first_name", "=HYPERLINK(\"http://evil\")");
+        row.put("last_name", "+1+cmd|' /C calc'!A0");
+        row.put("email", "@SUM(A1)");
+
+        assertThat(csv(row).split("\r\n")[1])
+            .isEqualTo("+14155550123,-12.50,\"'=HYPERLINK(\"\"http://evil\"\")\",'+1+cmd|' /C calc'!A0,'@SUM(A1)");
+    }
+
+    private static String csv(Map<String, Object> row) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ExportWriter writer = new ExportWriter(ExportFormat.CSV, out)) {
+            writer.writeRow(row);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
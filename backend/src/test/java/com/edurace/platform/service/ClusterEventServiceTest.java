@@ -0,0 +1,107 @@
+package com.edurace.platform.service;
+
+import com.edurace.platform.MySqlTestSupport;
+import com.edurace.platform.cluster.ClusterMember;
+import com.edurace.platform.event.RemoteEvent;
+import com.edurace.platform.event.UserRemovedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Two instances sharing cache-affecting events through one cluster_events table.
+ */
+class ClusterEventServiceTest extends MySqlTestSupport {
+
+    private final List<Object> publishedOnA = new CopyOnWriteArrayList<>();
+    private final List<Object> publishedOnB = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM cluster_events");
+        publishedOnA.clear();
+        publishedOnB.clear();
+    }
+
+    @Test
+    void eventsReachTheOtherInstanceOnly() {
+        ClusterEventService a = instance("node-a/1", 2, publishedOnA);
+        ClusterEventService b = instance("node-b/2", 2, publishedOnB);
+
+        a.record(new UserRemovedEvent(42L));
+        a.poll();
+        b.poll();
+
+        assertThat(publishedOnA).isEmpty();
+        assertThat(publishedOnB).containsExactly(new RemoteEvent("node-a/1", new UserRemovedEvent(42L)));
+    }
+
+    @Test
+    void lateCommittedRowsAreStillDelivered() {
+        ClusterEventService a = instance("node-a/1", 2, publishedOnA);
+        ClusterEventService b = instance("node-b/2", 2, publishedOnB);
+        a.record(new UserRemovedEvent(1L));
+        a.record(new UserRemovedEvent(2L));
+        a.record(new UserRemovedEvent(3L));
+        long late = jdbcTemplate.queryForObject("SELECT MIN(id) FROM cluster_events", Long.class) + 1;
+        String payload = jdbcTemplate.queryForObject("SELECT payload FROM cluster_events WHERE id = ?", String.class, late);
+        // As if the middle insert had not committed yet when B polled
+        jdbcTemplate.update("DELETE FROM cluster_events WHERE id = ?", late);
+
+        b.poll();
+        assertThat(publishedOnB).hasSize(2);
+
+        jdbcTemplate.update(
+            "INSERT INTO cluster_events (id, origin, event_type, payload, created_at) VALUES (?, 'node-a/1', ?, ?, NOW(6))",
+            late, UserRemovedEvent.class.getName(), payload);
+        b.poll();
+
+        assertThat(publishedOnB).containsExactly(
+            new RemoteEvent("node-a/1", new UserRemovedEvent(1L)),
+            new RemoteEvent("node-a/1", new UserRemovedEvent(3L)),
+            new RemoteEvent("node-a/1", new UserRemovedEvent(2L)));
+    }
+
+    @Test
+    void singleInstanceRecordsNothing() {
+        ClusterEventService alone = instance("node-a/1", 1, publishedOnA);
+
+        alone.record(new UserRemovedEvent(7L));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cluster_events", Integer.class)).isZero();
+    }
+
+    private static ClusterEventService instance(String instanceId, int members, List<Object> published) {
+        ClusterService clusterService = mock(ClusterService.class);
+        when(clusterService.getInstanceId()).thenReturn(instanceId);
+        List<ClusterMember> ring = new ArrayList<>();
+        for (int i = 0; i < members; i++) {
+            ring.add(new ClusterMember("node-" + i, "http://node-" + i + ":8080"));
+        }
+        when(clusterService.getMembers()).thenReturn(ring);
+        ApplicationEventPublisher publisher = published::add;
+        ClusterEventService service = new ClusterEventService();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "namedParameterJdbcTemplate", new NamedParameterJdbcTemplate(jdbcTemplate));
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "eventPublisher", publisher);
+        ReflectionTestUtils.setField(service, "clusterService", clusterService);
+        ReflectionTestUtils.setField(service, "readBatchSize", 1000);
+        ReflectionTestUtils.setField(service, "gapTimeout", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(service, "retention", Duration.ofMinutes(5));
+        service.init();
+        return service;
+    }
+}
@@ -0,0 +1,131 @@
+package com.edurace.platform.service;
+
+import com.edurace.platform.MySqlTestSupport;
+import com.edurace.platform.event.EnrollmentCreatedEvent;
+import com.edurace.platform.event.OutboxEventHandler;
+import com.edurace.platform.event.OutboxedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Relaying outbox rows to handlers that fail for a while or for good.
+ */
+class DomainEventOutboxServiceTest extends MySqlTestSupport {
+
+    private final List<OutboxedEvent> delivered = new CopyOnWriteArrayList<>();
+    private DomainEventOutboxService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM domain_event_outbox");
+        jdbcTemplate.update("DELETE FROM job_leases");
+        delivered.clear();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (service != null) {
+            service.stop();
+        }
+    }
+
+    @Test
+    void batchIsDeliveredOnceTheHandlerRecovers() throws InterruptedException {
+        AtomicInteger failures = new AtomicInteger();
+        service = instance(events -> {
+            if (failures.incrementAndGet() <= 2) {
+                throw new IllegalStateException("Database is down");
+            }
+        });
+        service.record(new EnrollmentCreatedEvent(1L, 10L, 100L));
+
+        awaitEmptyOutbox();
+
+        assertThat(delivered).containsExactly(new EnrollmentCreatedEvent(1L, 10L, 100L));
+        assertThat(failures).hasValue(3);
+    }
+
+    @Test
+    void batchTheHandlerGivesUpOnIsKeptAsDeadLetter() throws Exception {
+        service = instance(events -> {
+            if (events.stream().anyMatch(event -> ((EnrollmentCreatedEvent) event).courseId() == 13L)) {
+                throw new IllegalStateException("Cannot apply course 13");
+            }
+        });
+        service.record(new EnrollmentCreatedEvent(1L, 10L, 100L));
+        service.record(new EnrollmentCreatedEvent(2L, 13L, 100L));
+        service.record(new EnrollmentCreatedEvent(3L, 10L, 101L));
+
+        awaitDeadLetter(3);
+
+        Map<String, Object> dead = outboxRows().get(0);
+        assertThat(new ObjectMapper().readTree((String) dead.get("payload")).path("courseId").asLong()).isEqualTo(13);
+        // The other handler got everything, including the batch the first one gave up on
+        assertThat(delivered).extracting(event -> ((EnrollmentCreatedEvent) event).enrollmentId()).containsExactly(1L, 2L, 3L);
+
+        // A cleared dead letter is relayed to every handler again
+        jdbcTemplate.update("UPDATE domain_event_outbox SET dead_lettered_at = NULL");
+        awaitDeadLetter(4);
+        assertThat(delivered.get(3)).isEqualTo(new EnrollmentCreatedEvent(2L, 13L, 100L));
+    }
+
+    private DomainEventOutboxService instance(OutboxEventHandler failing) {
+        ClusterService clusterService = mock(ClusterService.class);
+        when(clusterService.getInstanceId()).thenReturn("node-a/1");
+        JobLeaseService leases = new JobLeaseService();
+        ReflectionTestUtils.setField(leases, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(leases, "clusterService", clusterService);
+
+        OutboxEventHandler recording = delivered::addAll;
+        DomainEventOutboxService outbox = new DomainEventOutboxService();
+        ReflectionTestUtils.setField(outbox, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(outbox, "namedParameterJdbcTemplate", new NamedParameterJdbcTemplate(jdbcTemplate));
+        ReflectionTestUtils.setField(outbox, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(outbox, "jobLeaseService", leases);
+        ReflectionTestUtils.setField(outbox, "handlers", List.of(failing, recording));
+        ReflectionTestUtils.setField(outbox, "ringSize", 16);
+        ReflectionTestUtils.setField(outbox, "readBatchSize", 100);
+        ReflectionTestUtils.setField(outbox, "handlerBatchSize", 1);
+        ReflectionTestUtils.setField(outbox, "pollInterval", Duration.ofMillis(20));
+        ReflectionTestUtils.setField(outbox, "stragglerAge", Duration.ofMillis(200));
+        ReflectionTestUtils.setField(outbox, "maxAttempts", 3);
+        ReflectionTestUtils.setField(outbox, "retryBackoff", Duration.ofMillis(10));
+        ReflectionTestUtils.setField(outbox, "leaseTtl", Duration.ofSeconds(15));
+        outbox.start();
+        return outbox;
+    }
+
+    private void awaitDeadLetter(int deliveries) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (delivered.size() < deliveries || outboxRows().size() != 1 || outboxRows().get(0).get("dead_lettered_at") == null) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    private void awaitEmptyOutbox() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!outboxRows().isEmpty()) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    private static List<Map<String, Object>> outboxRows() {
+        return jdbcTemplate.queryForList("SELECT id, payload, dead_lettered_at FROM domain_event_outbox ORDER BY id");
+    }
+}
@@ -0,0 +1,129 @@
+package com.edurace.platform.service;
+
+import com.edurace.platform.MySqlTestSupport;
+import com.edurace.platform.entity.Role;
+import com.edurace.platform.entity.User;
+import com.edurace.platform.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verification emails from request through mail_queue to an SMTP server.
+ */
+class EmailVerificationServiceTest extends MySqlTestSupport {
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private MailService mailService;
+    private EmailVerificationService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jdbcTemplate.update("DELETE FROM mail_queue");
+
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setProtocol("smtp");
+        sender.setHost("127.0.0.1");
+        sender.setPort(ServerSetupTest.SMTP.getPort());
+        DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+        beans.registerSingleton("mailSender", sender);
+        mailService = new MailService();
+        ReflectionTestUtils.setField(mailService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(mailService, "namedParameterJdbcTemplate", new NamedParameterJdbcTemplate(jdbcTemplate));
+        ReflectionTestUtils.setField(mailService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(mailService, "transactionTemplate", new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(mailService, "mailSender", beans.getBeanProvider(JavaMailSenderImpl.class));
+        ReflectionTestUtils.setField(mailService, "from", "no-reply@edurace.com");
+        ReflectionTestUtils.setField(mailService, "connections", 1);
+        ReflectionTestUtils.setField(mailService, "batchSize", 10);
+        ReflectionTestUtils.setField(mailService, "pollInterval", Duration.ofMillis(50));
+        ReflectionTestUtils.setField(mailService, "connectionIdleTimeout", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(mailService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(mailService, "retryBackoff", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(mailService, "claimTimeout", Duration.ofMinutes(15));
+        mailService.compileTemplates();
+        mailService.start();
+
+        service = new EmailVerificationService();
+        ReflectionTestUtils.setField(service, "userRepository", userRepository);
+        ReflectionTestUtils.setField(service, "mailService", mailService);
+        ReflectionTestUtils.setField(service, "secret", "test-secret-that-is-long-enough-for-hmac");
+        ReflectionTestUtils.setField(service, "verificationUrl", "http://localhost:3000/verify-email");
+        ReflectionTestUtils.setField(service, "verificationTtl", Duration.ofHours(24));
+        ReflectionTestUtils.setField(service, "resendInterval", Duration.ofMinutes(1));
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        mailService.stop();
+    }
+
+    @Test
+    void repeatedRequestsSendOneEmail() throws Exception {
+        account("ada@example.com", false);
+
+        for (int i = 0; i < 5; i++) {
+            service.requestVerification("ada@example.com");
+        }
+
+        assertThat(greenMail.waitForIncomingEmail(10_000, 1)).isTrue();
+        Thread.sleep(500);
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertThat(received).hasSize(1);
+        assertThat(GreenMailUtil.getBody(received[0])).contains("http://localhost:3000/verify-email?token=");
+        assertThat(received[0].getAllRecipients()[0].toString()).isEqualTo("ada@example.com");
+    }
+
+    @Test
+    void anotherEmailCanBeRequestedAfterTheInterval() throws InterruptedException {
+        ReflectionTestUtils.setField(service, "resendInterval", Duration.ofMillis(300));
+        account("bo@example.com", false);
+
+        service.requestVerification("bo@example.com");
+        Thread.sleep(400);
+        service.requestVerification("bo@example.com");
+
+        assertThat(greenMail.waitForIncomingEmail(10_000, 2)).isTrue();
+    }
+
+    @Test
+    void verifiedAndUnknownAddressesGetNoEmail() throws InterruptedException {
+        account("cy@example.com", true);
+        when(userRepository.findByEmail("nobody@example.com")).thenReturn(Optional.empty());
+
+        service.requestVerification("cy@example.com");
+        service.requestVerification("nobody@example.com");
+
+        assertThat(greenMail.waitForIncomingEmail(1_000, 1)).isFalse();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM mail_queue", Integer.class)).isZero();
+    }
+
+    private void account(String email, boolean verified) {
+        User user = new User(email, "{noop}secret", "Test", "User", Role.STUDENT);
+        user.setId((long) email.hashCode());
+        user.setEmailVerified(verified);
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+    }
+}
@@ -0,0 +1,159 @@
+package com.edurace.platform.service;
+
+import com.edurace.platform.MySqlTestSupport;
+import com.edurace.platform.entity.Payment;
+import com.edurace.platform.entity.PaymentStatus;
+import com.edurace.platform.event.EnrollmentCreatedEvent;
+import com.edurace.platform.event.PaymentStatusChangedEvent;
+import com.edurace.platform.service.EnrollmentAdmissionService.Outcome;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Admission against the enrollments table: re-enrollment, payments racing expiry and
+ * reconciliation racing a payment.
+ */
+class EnrollmentAdmissionServiceTest extends MySqlTestSupport {
+
+    private final List<Object> published = new ArrayList<>();
+    private PaymentService paymentService;
+    private EnrollmentAdmissionService service;
+    private long instructorId;
+    private long studentId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM enrollments");
+        jdbcTemplate.update("DELETE FROM courses");
+        jdbcTemplate.update("DELETE FROM users");
+        instructorId = insertUser("instructor@example.com", true, null, null);
+        studentId = insertUser("student@example.com", true, null, null);
+        published.clear();
+
+        paymentService = mock(PaymentService.class);
+        service = new EnrollmentAdmissionService();
+        ApplicationEventPublisher publisher = published::add;
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "paymentService", paymentService);
+        ReflectionTestUtils.setField(service, "eventPublisher", publisher);
+        ReflectionTestUtils.setField(service, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "reservationTtl", Duration.ofMinutes(15));
+        service.init();
+    }
+
+    @Test
+    void droppedStudentCanEnrollAgain() {
+        long courseId = insertCourse(BigDecimal.ZERO, 1);
+        assertThat(service.admit(courseId, studentId).outcome()).isEqualTo(Outcome.ENROLLED);
+        jdbcTemplate.update("UPDATE enrollments SET status = 'DROPPED', progress_percentage = 40");
+        service.seatsFor(courseId).releaseSeat();
+
+        assertThat(service.admit(courseId, studentId).outcome()).isEqualTo(Outcome.ENROLLED);
+
+        Map<String, Object> enrollment = jdbcTemplate.queryForMap("SELECT status, progress_percentage FROM enrollments");
+        assertThat(enrollment.get("status")).isEqualTo("ACTIVE");
+        assertThat(((Number) enrollment.get("progress_percentage")).intValue()).isZero();
+        assertThat(published).hasSize(2).allMatch(EnrollmentCreatedEvent.class::isInstance);
+        assertThat(service.seatsFor(courseId).getTaken()).isEqualTo(1);
+    }
+
+    @Test
+    void activeEnrollmentIsNotReplaced() {
+        long courseId = insertCourse(BigDecimal.ZERO, 10);
+        service.admit(courseId, studentId);
+
+        assertThatThrownBy(() -> service.admit(courseId, studentId)).isInstanceOf(ResponseStatusException.class);
+        assertThat(published).hasSize(1);
+    }
+
+    @Test
+    void paymentCompletedAfterExpiryTakesAFreshSeat() {
+        long courseId = insertCourse(new BigDecimal("10.00"), 1);
+        Payment payment = mock(Payment.class);
+        when(payment.getId()).thenReturn(7L);
+        when(paymentService.createPending(anyLong(), anyLong(), any())).thenReturn(payment);
+        assertThat(service.admit(courseId, studentId).outcome()).isEqualTo(Outcome.PAYMENT_PENDING);
+
+        ReflectionTestUtils.setField(service, "reservationTtl", Duration.ZERO);
+        service.expireReservations();
+        assertThat(service.seatsFor(courseId).getTaken()).isZero();
+
+        service.onPaymentStatusChanged(
+            new PaymentStatusChangedEvent(7L, studentId, courseId, PaymentStatus.PENDING, PaymentStatus.COMPLETED));
+
+        assertThat(service.seatsFor(courseId).getTaken()).isEqualTo(1);
+        assertThat(service.seatsFor(courseId).getReservationCount()).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM enrollments WHERE status = 'ACTIVE'", Integer.class))
+            .isEqualTo(1);
+        verify(paymentService).failIfPending(7L);
+    }
+
+    @Test
+    void reconciliationDuringAConfirmationKeepsTheSeat() throws Exception {
+        long courseId = insertCourse(new BigDecimal("10.00"), 1);
+        Payment payment = mock(Payment.class);
+        when(payment.getId()).thenReturn(7L);
+        when(paymentService.createPending(anyLong(), anyLong(), any())).thenReturn(payment);
+        service.admit(courseId, studentId);
+
+        // Reconcile from another connection while the enrollment is inserted but not committed
+        ExecutorService reconciler = Executors.newSingleThreadExecutor();
+        ApplicationEventPublisher publisher = event -> {
+            published.add(event);
+            try {
+                reconciler.submit(service::reconcile).get();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        ReflectionTestUtils.setField(service, "eventPublisher", publisher);
+        service.onPaymentStatusChanged(
+            new PaymentStatusChangedEvent(7L, studentId, courseId, PaymentStatus.PENDING, PaymentStatus.COMPLETED));
+        reconciler.shutdown();
+
+        assertThat(published).hasSize(1);
+        assertThat(service.seatsFor(courseId).getTaken()).isEqualTo(1);
+        insertUser("other@example.com", true, null, null);
+        long otherId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = 'other@example.com'", Long.class);
+        assertThatThrownBy(() -> service.admit(courseId, otherId)).isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void reconciliationCorrectsDriftWhenIdle() {
+        long courseId = insertCourse(BigDecimal.ZERO, 10);
+        service.admit(courseId, studentId);
+        service.seatsFor(courseId).releaseSeat();
+
+        service.reconcile();
+
+        assertThat(service.seatsFor(courseId).getTaken()).isEqualTo(1);
+    }
+
+    private long insertCourse(BigDecimal entryFee, int maxEnrollments) {
+        jdbcTemplate.update(
+            "INSERT INTO courses (created_at, is_featured, max_enrollments, status, title, total_lessons, entry_fee, " +
+            "instructor_id) VALUES (NOW(6), 0, ?, 'PUBLISHED', 'Course', 1, ?, ?)", maxEnrollments, entryFee, instructorId);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM courses", Long.class);
+    }
+}
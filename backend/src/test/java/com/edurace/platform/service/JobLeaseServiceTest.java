@@ -0,0 +1,97 @@
+package com.edurace.platform.service;
+
+import com.edurace.platform.MySqlTestSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Two instances sharing one database.
+ */
+class JobLeaseServiceTest extends MySqlTestSupport {
+
+    private JobLeaseService first;
+    private JobLeaseService second;
+
+    @BeforeEach
+    void setUp() {
+        first = instance("node-a/1");
+        second = instance("node-b/2");
+    }
+
+    @Test
+    void onlyOneInstanceHoldsALease() {
+        assertThat(first.acquire("exclusive", Duration.ofMinutes(1))).isTrue();
+        assertThat(second.acquire("exclusive", Duration.ofMinutes(1))).isFalse();
+        // The holder renews
+        assertThat(first.acquire("exclusive", Duration.ofMinutes(1))).isTrue();
+    }
+
+    @Test
+    void releasedLeaseCanBeTakenOver() {
+        assertThat(first.acquire("released", Duration.ofMinutes(1))).isTrue();
+        first.release("released", Duration.ZERO);
+
+        assertThat(second.acquire("released", Duration.ofMinutes(1))).isTrue();
+        assertThat(first.acquire("released", Duration.ofMinutes(1))).isFalse();
+    }
+
+    @Test
+    void expiredLeaseCanBeTakenOver() throws InterruptedException {
+        assertThat(first.acquire("expiring", Duration.ofMillis(200))).isTrue();
+        Thread.sleep(400);
+
+        assertThat(second.acquire("expiring", Duration.ofMinutes(1))).isTrue();
+    }
+
+    @Test
+    void scheduledJobRunsOncePerInterval() {
+        AtomicInteger runs = new AtomicInteger();
+
+        assertThat(first.runExclusively("daily", Duration.ofMinutes(1), Duration.ofMinutes(10), runs::incrementAndGet)).isTrue();
+        assertThat(second.runExclusively("daily", Duration.ofMinutes(1), Duration.ofMinutes(10), runs::incrementAndGet)).isFalse();
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void jobLeaseIsReleasedWhenTheJobFails() {
+        try {
+            first.runExclusively("failing", Duration.ofMinutes(1), Duration.ZERO, () -> {
+                throw new IllegalStateException("boom");
+            });
+        } catch (IllegalStateException expected) {
+            // The lease must not stay with the failed run
+        }
+
+        assertThat(second.acquire("failing", Duration.ofMinutes(1))).isTrue();
+    }
+
+    @Test
+    void prefixedLeasesAreSeenUntilDeleted() {
+        assertThat(first.isAnyHeld("export:")).isFalse();
+        first.acquire("export:1", Duration.ofMinutes(1));
+
+        assertThat(second.isAnyHeld("export:")).isTrue();
+        second.delete("export:1");
+        assertThat(second.isAnyHeld("export:")).isTrue();
+
+        first.delete("export:1");
+        assertThat(second.isAnyHeld("export:")).isFalse();
+    }
+
+    private static JobLeaseService instance(String instanceId) {
+        ClusterService clusterService = mock(ClusterService.class);
+        when(clusterService.getInstanceId()).thenReturn(instanceId);
+        JobLeaseService service = new JobLeaseService();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "clusterService", clusterService);
+        return service;
+    }
+}
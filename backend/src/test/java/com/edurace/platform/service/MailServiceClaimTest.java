@@ -0,0 +1,129 @@
+package com.edurace.platform.service;
+
+import com.edurace.platform.MySqlTestSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Several instances dispatching from one mail_queue.
+ */
+class MailServiceClaimTest extends MySqlTestSupport {
+
+    private static final int MESSAGES = 2000;
+    private static final int INSTANCES = 4;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM mail_queue");
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < MESSAGES; i++) {
+            rows.add(new Object[] {"user" + i + "@example.com"});
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO mail_queue (template, recipient, model, status, attempts, next_attempt_at, created_at) " +
+            "VALUES ('welcome', ?, '{}', 'PENDING', 0, NOW(6) - INTERVAL 1 SECOND, NOW(6))", rows);
+    }
+
+    @Test
+    void concurrentInstancesNeverClaimTheSameRow() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(INSTANCES);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Long>>> claims = new ArrayList<>();
+        for (int i = 0; i < INSTANCES; i++) {
+            MailService instance = instance(50);
+            Callable<List<Long>> dispatcher = () -> {
+                start.await();
+                List<Long> claimed = new ArrayList<>();
+                List<MailService.QueuedMail> batch;
+                while (!(batch = instance.claim()).isEmpty()) {
+                    batch.forEach(mail -> claimed.add(mail.id()));
+                }
+                return claimed;
+            };
+            claims.add(executor.submit(dispatcher));
+        }
+        start.countDown();
+
+        List<Long> all = new ArrayList<>();
+        for (Future<List<Long>> claim : claims) {
+            all.addAll(claim.get());
+        }
+        executor.shutdown();
+
+        Set<Long> distinct = new HashSet<>(all);
+        assertThat(all).hasSize(MESSAGES);
+        assertThat(distinct).hasSize(MESSAGES);
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM mail_queue WHERE status = 'SENDING' AND claimed_at IS NOT NULL", Integer.class))
+            .isEqualTo(MESSAGES);
+    }
+
+    @Test
+    void onlyAbandonedClaimsAreRequeued() {
+        MailService instance = instance(MESSAGES);
+        instance.claim();
+        jdbcTemplate.update("UPDATE mail_queue SET claimed_at = NOW(6) - INTERVAL 1 HOUR WHERE id % 2 = 0");
+
+        instance.requeueAbandoned();
+
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM mail_queue WHERE status = 'PENDING'", Integer.class)).isEqualTo(MESSAGES / 2);
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM mail_queue WHERE status = 'SENDING' AND id % 2 = 1", Integer.class))
+            .isEqualTo(MESSAGES / 2);
+    }
+
+    @Test
+    void sentMessagesAreRecordedOnceTheDatabaseRecovers() throws Exception {
+        MailService instance = instance(10);
+        List<Long> sent = jdbcTemplate.queryForList("SELECT id FROM mail_queue ORDER BY id LIMIT 10", Long.class);
+        jdbcTemplate.update("UPDATE mail_queue SET status = 'SENDING', claimed_at = NOW(6) WHERE id <= ?", sent.get(9));
+        AtomicInteger outages = new AtomicInteger(2);
+        ReflectionTestUtils.setField(instance, "transactionTemplate", new TransactionTemplate(transactionManager) {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                if (outages.getAndDecrement() > 0) {
+                    throw new CannotCreateTransactionException("Database unavailable");
+                }
+                return super.execute(action);
+            }
+        });
+
+        instance.record(new MailService.SendOutcome(sent, new Timestamp(System.currentTimeMillis()), List.of()));
+
+        assertThat(outages.get()).isNegative();
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM mail_queue WHERE status = 'SENT' AND attempts = 1", Integer.class)).isEqualTo(10);
+    }
+
+    private static MailService instance(int batchSize) {
+        MailService service = new MailService();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "namedParameterJdbcTemplate", new NamedParameterJdbcTemplate(jdbcTemplate));
+        ReflectionTestUtils.setField(service, "transactionTemplate", new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(service, "batchSize", batchSize);
+        ReflectionTestUtils.setField(service, "claimTimeout", Duration.ofMinutes(15));
+        ReflectionTestUtils.setField(service, "pollInterval", Duration.ofMillis(1));
+        return service;
+    }
+}
@@ -0,0 +1,108 @@
+package com.edurace.platform.service;
+
+import com.edurace.platform.MySqlTestSupport;
+import com.edurace.platform.entity.AuthProvider;
+import com.edurace.platform.service.OAuth2AccountService.LinkedAccount;
+import com.edurace.platform.service.OAuth2AccountService.ProviderIdentity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class OAuth2AccountServiceTest extends MySqlTestSupport {
+
+    private OAuth2AccountService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new OAuth2AccountService();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "userIndexService", mock(UserIndexService.class));
+        ReflectionTestUtils.setField(service, "eventPublisher", mock(ApplicationEventPublisher.class));
+        ReflectionTestUtils.setField(service, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(service, "accountCacheSize", 100);
+        service.init();
+    }
+
+    @Test
+    void firstLoginCreatesVerifiedAccount() {
+        LinkedAccount account = service.resolve(google("g-new", "New.User@Example.com"));
+
+        Map<String, Object> row = row(account.userId());
+        assertThat(account.email()).isEqualTo("new.user@example.com");
+        assertThat(row.get("provider")).isEqualTo("GOOGLE");
+        assertThat(row.get("provider_id")).isEqualTo("g-new");
+        assertThat(row.get("email_verified")).isEqualTo(true);
+    }
+
+    @Test
+    void repeatedLoginResolvesSameAccount() {
+        LinkedAccount first = service.resolve(google("g-repeat", "repeat@example.com"));
+        LinkedAccount second = service.resolve(google("g-repeat", "repeat@example.com"));
+
+        assertThat(second.userId()).isEqualTo(first.userId());
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE email = 'repeat@example.com'",
+            Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void linksVerifiedEmailAccount() {
+        long userId = insertUser("verified@example.com", true, "EMAIL", null);
+
+        LinkedAccount account = service.resolve(google("g-verified", "verified@example.com"));
+
+        assertThat(account.userId()).isEqualTo(userId);
+        Map<String, Object> row = row(userId);
+        assertThat(row.get("provider")).isEqualTo("GOOGLE");
+        assertThat(row.get("provider_id")).isEqualTo("g-verified");
+    }
+
+    @Test
+    void refusesUnverifiedEmailAccountAndLeavesItAlone() {
+        long userId = insertUser("unverified@example.com", false, "EMAIL", null);
+
+        assertThatThrownBy(() -> service.resolve(google("g-unverified", "unverified@example.com")))
+            .isInstanceOf(BadCredentialsException.class);
+
+        Map<String, Object> row = row(userId);
+        assertThat(row.get("provider")).isEqualTo("EMAIL");
+        assertThat(row.get("provider_id")).isNull();
+        assertThat(row.get("email_verified")).isEqualTo(false);
+        assertThat(row.get("password")).isNotNull();
+    }
+
+    @Test
+    void refusesEmailLinkedToAnotherProviderAccount() {
+        long userId = insertUser("taken@example.com", true, "GOOGLE", "g-owner");
+
+        assertThatThrownBy(() -> service.resolve(google("g-other", "taken@example.com")))
+            .isInstanceOf(BadCredentialsException.class);
+        assertThat(row(userId).get("provider_id")).isEqualTo("g-owner");
+    }
+
+    @Test
+    void refusesProviderIdentityWithoutVerifiedEmail() {
+        ProviderIdentity identity = new ProviderIdentity(AuthProvider.GOOGLE, "g-noemail", "noemail@example.com",
+            false, "No", "Email", null);
+
+        assertThatThrownBy(() -> service.resolve(identity)).isInstanceOf(BadCredentialsException.class);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE email = 'noemail@example.com'",
+            Integer.class)).isZero();
+    }
+
+    private static ProviderIdentity google(String providerId, String email) {
+        return new ProviderIdentity(AuthProvider.GOOGLE, providerId, email, true, "Test", "User", null);
+    }
+
+    private static Map<String, Object> row(long userId) {
+        return jdbcTemplate.queryForMap(
+            "SELECT provider, provider_id, email_verified, password FROM users WHERE id = ?", userId);
+    }
+}
@@ -0,0 +1,76 @@
+package com.edurace.platform.service;
+
+import com.edurace.platform.MySqlTestSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Partition DDL against exports and other long reads of the table.
+ */
+class QuizAttemptPartitionServiceTest extends MySqlTestSupport {
+
+    private static final String DDL = "ALTER TABLE mail_queue COMMENT = 'maintained'";
+
+    private JobLeaseService leases;
+    private QuizAttemptPartitionService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM job_leases");
+        jdbcTemplate.execute("ALTER TABLE mail_queue COMMENT = ''");
+        ClusterService clusterService = mock(ClusterService.class);
+        when(clusterService.getInstanceId()).thenReturn("node-a/1");
+        leases = new JobLeaseService();
+        ReflectionTestUtils.setField(leases, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(leases, "clusterService", clusterService);
+        service = new QuizAttemptPartitionService();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "jobLeaseService", leases);
+        ReflectionTestUtils.setField(service, "ddlLockWait", Duration.ofSeconds(1));
+    }
+
+    @Test
+    void ddlRunsWhenNothingHoldsTheTable() {
+        assertThat(service.executeDdl(DDL)).isTrue();
+        assertThat(comment()).isEqualTo("maintained");
+    }
+
+    @Test
+    void ddlIsSkippedWhileAnExportRuns() {
+        leases.acquire(AdminExportService.QUIZ_ATTEMPT_EXPORT_LEASE + "running", Duration.ofMinutes(1));
+
+        assertThat(service.executeDdl(DDL)).isFalse();
+        assertThat(comment()).isEmpty();
+    }
+
+    @Test
+    void ddlGivesUpBehindAnOpenRead() throws Exception {
+        try (Connection reader = dataSource.getConnection(); Statement statement = reader.createStatement()) {
+            // An open transaction keeps the metadata lock of the tables it read
+            reader.setAutoCommit(false);
+            statement.executeQuery("SELECT COUNT(*) FROM mail_queue").close();
+
+            long started = System.nanoTime();
+            assertThat(service.executeDdl(DDL)).isFalse();
+            assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(10));
+            reader.rollback();
+        }
+        assertThat(comment()).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("SELECT @@SESSION.lock_wait_timeout", Long.class)).isGreaterThan(1);
+    }
+
+    private static String comment() {
+        return jdbcTemplate.queryForObject(
+            "SELECT TABLE_COMMENT FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'mail_queue'",
+            String.class);
+    }
+}
@@ -0,0 +1,132 @@
+package com.edurace.platform.service;
+
+import com.edurace.platform.MySqlTestSupport;
+import com.edurace.platform.event.QuizAttemptCompletedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Completing attempts: points on the first pass only, also when passes race.
+ */
+class QuizCompletionServiceTest extends MySqlTestSupport {
+
+    private final List<Object> published = Collections.synchronizedList(new ArrayList<>());
+    private QuizCompletionService service;
+    private TransactionTemplate transactionTemplate;
+    private long studentId;
+    private long quizId;
+    private long courseId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM quiz_attempts");
+        jdbcTemplate.update("DELETE FROM quiz_attempt_summaries");
+        jdbcTemplate.update("DELETE FROM quizzes");
+        jdbcTemplate.update("DELETE FROM lessons");
+        jdbcTemplate.update("DELETE FROM enrollments");
+        jdbcTemplate.update("DELETE FROM courses");
+        jdbcTemplate.update("DELETE FROM users");
+        long instructorId = insertUser("instructor@example.com", true, null, null);
+        studentId = insertUser("student@example.com", true, null, null);
+        jdbcTemplate.update(
+            "INSERT INTO courses (created_at, is_featured, status, title, total_lessons, instructor_id) " +
+            "VALUES (NOW(6), 0, 'PUBLISHED', 'Course', 1, ?)", instructorId);
+        courseId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM courses", Long.class);
+        jdbcTemplate.update(
+            "INSERT INTO lessons (created_at, is_published, sequence_order, title, course_id) VALUES (NOW(6), 1, 1, 'Lesson', ?)",
+            courseId);
+        jdbcTemplate.update(
+            "INSERT INTO quizzes (created_at, is_published, max_attempts, passing_score, time_limit_minutes, title, lesson_id) " +
+            "SELECT NOW(6), 1, 3, 70, 30, 'Quiz', MAX(id) FROM lessons");
+        quizId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM quizzes", Long.class);
+        published.clear();
+
+        service = new QuizCompletionService();
+        ApplicationEventPublisher publisher = published::add;
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "eventPublisher", publisher);
+        ReflectionTestUtils.setField(service, "quizCompletionPoints", 100);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void onlyTheFirstPassEarnsPoints() {
+        QuizAttemptCompletedEvent failed = complete(startAttempt(), 40, false);
+        QuizAttemptCompletedEvent first = complete(startAttempt(), 80, true);
+        QuizAttemptCompletedEvent second = complete(startAttempt(), 90, true);
+
+        assertThat(failed.pointsAwarded()).isZero();
+        assertThat(first.pointsAwarded()).isEqualTo(100);
+        assertThat(first.courseId()).isEqualTo(courseId);
+        assertThat(second.pointsAwarded()).isZero();
+        assertThat(published).containsExactly(failed, first, second);
+        assertThat(totalPoints()).isEqualTo(100);
+    }
+
+    @Test
+    void attemptIsCompletedOnce() {
+        long attemptId = startAttempt();
+        complete(attemptId, 80, true);
+
+        assertThatThrownBy(() -> complete(attemptId, 100, true))
+            .isInstanceOfSatisfying(ResponseStatusException.class,
+                e -> assertThat(e.getStatusCode().value()).isEqualTo(409));
+        assertThat(jdbcTemplate.queryForObject("SELECT score FROM quiz_attempts WHERE id = ?", Integer.class, attemptId))
+            .isEqualTo(80);
+        assertThat(published).hasSize(1);
+    }
+
+    @Test
+    void racingPassesEarnPointsOnce() throws Exception {
+        List<Long> attempts = List.of(startAttempt(), startAttempt(), startAttempt(), startAttempt());
+        ExecutorService executor = Executors.newFixedThreadPool(attempts.size());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<QuizAttemptCompletedEvent>> completions = new ArrayList<>();
+        for (long attemptId : attempts) {
+            completions.add(executor.submit(() -> {
+                start.await();
+                return complete(attemptId, 90, true);
+            }));
+        }
+        start.countDown();
+
+        int awarded = 0;
+        for (Future<QuizAttemptCompletedEvent> completion : completions) {
+            awarded += completion.get().pointsAwarded();
+        }
+        executor.shutdown();
+
+        assertThat(awarded).isEqualTo(100);
+        assertThat(totalPoints()).isEqualTo(100);
+    }
+
+    private QuizAttemptCompletedEvent complete(long attemptId, int score, boolean passed) {
+        return transactionTemplate.execute(status -> service.complete(attemptId, score, passed));
+    }
+
+    private long startAttempt() {
+        jdbcTemplate.update(
+            "INSERT INTO quiz_attempts (passed, score, started_at, quiz_id, student_id) VALUES (0, 0, NOW(6), ?, ?)",
+            quizId, studentId);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM quiz_attempts", Long.class);
+    }
+
+    private int totalPoints() {
+        return jdbcTemplate.queryForObject("SELECT total_points FROM users WHERE id = ?", Integer.class, studentId);
+    }
+}
@@ -0,0 +1,68 @@
+package com.edurace.platform.service;
+
+import com.edurace.platform.race.RaceSession;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Scheduling a race on a quiz that already has one.
+ */
+class RaceOrchestratorServiceTest {
+
+    private RaceOrchestratorService service;
+
+    @BeforeEach
+    void setUp() {
+        ClusterService clusterService = mock(ClusterService.class);
+        when(clusterService.courseOfQuiz(7L)).thenReturn(3L);
+        when(clusterService.isLocal(3L)).thenReturn(true);
+
+        service = new RaceOrchestratorService();
+        ReflectionTestUtils.setField(service, "clusterService", clusterService);
+        ReflectionTestUtils.setField(service, "taskScheduler", mock(TaskScheduler.class));
+        ReflectionTestUtils.setField(service, "preloadLead", Duration.ofMinutes(2));
+    }
+
+    @Test
+    void aDifferentStartMovesAPendingRace() {
+        Instant first = Instant.now().plus(Duration.ofHours(1));
+        Instant second = first.plus(Duration.ofMinutes(30));
+        service.scheduleRace(7L, first);
+
+        RaceSession moved = service.scheduleRace(7L, second);
+
+        assertThat(moved.getStartsAt()).isEqualTo(second);
+        assertThat(service.getRace(7L)).isSameAs(moved);
+    }
+
+    @Test
+    void theSameStartKeepsTheRace() {
+        Instant startsAt = Instant.now().plus(Duration.ofHours(1));
+        RaceSession first = service.scheduleRace(7L, startsAt);
+
+        assertThat(service.scheduleRace(7L, startsAt)).isSameAs(first);
+    }
+
+    @Test
+    void aStartedRaceCannotBeMoved() {
+        Instant started = Instant.now().minus(Duration.ofMinutes(1));
+        service.scheduleRace(7L, started);
+
+        assertThatThrownBy(() -> service.scheduleRace(7L, Instant.now().plus(Duration.ofHours(1))))
+            .isInstanceOfSatisfying(ResponseStatusException.class,
+                e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+        assertThat(service.getRace(7L).getStartsAt()).isEqualTo(started);
+    }
+}
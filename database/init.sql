@@ -24,13 +24,8 @@ VALUES (
     NOW()
 );
 
--- Create indexes for performance
-CREATE INDEX IF NOT EXISTS idx_users_email ON users(email);
-CREATE INDEX IF NOT EXISTS idx_courses_instructor ON courses(instructor_id);
-CREATE INDEX IF NOT EXISTS idx_enrollments_student_course ON enrollments(student_id, course_id);
-CREATE INDEX IF NOT EXISTS idx_quiz_attempts_student ON quiz_attempts(student_id);
-CREATE INDEX IF NOT EXISTS idx_leaderboard_course ON leaderboard(course_id);
-CREATE INDEX IF NOT EXISTS idx_payments_user ON payments(user_id);
+-- Indexes and partitioning are managed by the Flyway migrations in
+-- backend/src/main/resources/db/migration and are applied on application startup.
 
 -- Create triggers for automatic timestamp updates
 DELIMITER $$